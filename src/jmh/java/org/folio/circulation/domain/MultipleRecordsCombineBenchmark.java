@@ -0,0 +1,84 @@
+package org.folio.circulation.domain;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.apache.commons.lang3.StringUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Time of combining a page of loans with their items, either by searching
+ * the items for each loan (as before) or by keying the items by id once.
+ * <p>
+ * Searching grows with the square of the page size, keying linearly, so
+ * the time per loan should stay the same for keying as the page grows.
+ */
+@Fork(1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class MultipleRecordsCombineBenchmark {
+  @State(Scope.Benchmark)
+  public static class Page {
+    @Param({ "100", "1000", "10000" })
+    public int records;
+
+    MultipleRecords<Loan> loans;
+    MultipleRecords<Item> items;
+
+    @Setup(Level.Trial)
+    public void generate() {
+      final List<Loan> generatedLoans = new ArrayList<>();
+      final List<Item> generatedItems = new ArrayList<>();
+
+      for (int i = 0; i < records; i++) {
+        final String itemId = UUID.randomUUID().toString();
+
+        generatedItems.add(Item.from(new JsonObject().put("id", itemId)));
+        generatedLoans.add(Loan.from(new JsonObject()
+          .put("id", UUID.randomUUID().toString())
+          .put("itemId", itemId)));
+      }
+
+      // items are not returned by storage in the same order as the loans
+      generatedItems.sort((first, second) ->
+        first.getItemId().compareTo(second.getItemId()));
+
+      loans = new MultipleRecords<>(generatedLoans, records);
+      items = new MultipleRecords<>(generatedItems, records);
+    }
+  }
+
+  @Benchmark
+  public Collection<Loan> searchItemsForEachLoan(Page page) {
+    return page.loans.getRecords().stream()
+      .map(loan -> loan.withItem(page.items.getRecords().stream()
+        .filter(item -> StringUtils.equals(item.getItemId(), loan.getItemId()))
+        .findFirst().orElse(Item.from(null))))
+      .collect(Collectors.toList());
+  }
+
+  @Benchmark
+  public MultipleRecords<Loan> combineByItemId(Page page) {
+    return page.loans.combineRecords(page.items, Loan::getItemId,
+      Item::getItemId, Loan::withItem, Item.from(null));
+  }
+}
@@ -0,0 +1,151 @@
+package org.folio.circulation.rules;
+
+import java.util.concurrent.TimeUnit;
+
+import org.folio.circulation.domain.Location;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.vertx.core.MultiMap;
+import io.vertx.core.json.JsonArray;
+
+/**
+ * Cost of parsing, compiling and applying circulation rules of 10, 1,000
+ * and 10,000 lines with each kind of priority, for both Drools and the
+ * decision table.
+ * <p>
+ * Run with the gc profiler (the default of the benchmarks profile) to also
+ * see the allocation rate.
+ */
+@Fork(1)
+public class CirculationRulesBenchmark {
+  private static final int CRITERIA = 256;
+
+  @State(Scope.Benchmark)
+  public static class Corpus {
+    @Param({ "10", "1000", "10000" })
+    public int lines;
+
+    @Param({ "criterium", "number-of-criteria", "last-line" })
+    public String priority;
+
+    String rulesAsText;
+    String droolsText;
+
+    @Setup(Level.Trial)
+    public void generate() {
+      rulesAsText = RulesCorpus.generate(lines, priority);
+      droolsText = Text2Drools.convert(rulesAsText);
+    }
+  }
+
+  @State(Scope.Benchmark)
+  public static class Compiled {
+    Drools drools;
+    DecisionTable decisionTable;
+    MultiMap[] criteria;
+    Location[] locations;
+
+    @Setup(Level.Trial)
+    public void compile(Corpus corpus) {
+      drools = new Drools(corpus.droolsText);
+      decisionTable = DecisionTable.fromRules(corpus.rulesAsText);
+      criteria = RulesCorpus.criteria(CRITERIA);
+      locations = new Location[CRITERIA];
+
+      for (int i = 0; i < CRITERIA; i++) {
+        locations[i] = RulesCorpus.location(criteria[i]);
+      }
+    }
+  }
+
+  /**
+   * Each thread walks through all of the criteria.
+   */
+  @State(Scope.Thread)
+  public static class Cursor {
+    private int next;
+
+    int next() {
+      next = (next + 1) % CRITERIA;
+      return next;
+    }
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.SingleShotTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  @Warmup(iterations = 2)
+  @Measurement(iterations = 5)
+  public String parse(Corpus corpus) {
+    return Text2Drools.convert(corpus.rulesAsText);
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.SingleShotTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  @Warmup(iterations = 1)
+  @Measurement(iterations = 3)
+  public Drools compile(Corpus corpus) {
+    return new Drools(corpus.droolsText);
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.SingleShotTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  @Warmup(iterations = 2)
+  @Measurement(iterations = 5)
+  public DecisionTable buildDecisionTable(Corpus corpus) {
+    return DecisionTable.fromRules(corpus.rulesAsText);
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.Throughput)
+  @OutputTimeUnit(TimeUnit.SECONDS)
+  @Warmup(iterations = 3, time = 2)
+  @Measurement(iterations = 5, time = 2)
+  public CirculationRuleMatch singleMatch(Compiled compiled, Cursor cursor) {
+    final int i = cursor.next();
+    return compiled.drools.loanPolicy(compiled.criteria[i], compiled.locations[i]);
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.Throughput)
+  @OutputTimeUnit(TimeUnit.SECONDS)
+  @Warmup(iterations = 3, time = 2)
+  @Measurement(iterations = 5, time = 2)
+  public JsonArray allMatches(Compiled compiled, Cursor cursor) {
+    final int i = cursor.next();
+    return compiled.drools.loanPolicies(compiled.criteria[i], compiled.locations[i]);
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.Throughput)
+  @OutputTimeUnit(TimeUnit.SECONDS)
+  @Warmup(iterations = 3, time = 2)
+  @Measurement(iterations = 5, time = 2)
+  public CirculationRuleMatch decisionTableSingleMatch(Compiled compiled, Cursor cursor) {
+    final int i = cursor.next();
+    return compiled.decisionTable.loanPolicy(compiled.criteria[i], compiled.locations[i]);
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.Throughput)
+  @OutputTimeUnit(TimeUnit.SECONDS)
+  @Warmup(iterations = 3, time = 2)
+  @Measurement(iterations = 5, time = 2)
+  public JsonArray decisionTableAllMatches(Compiled compiled, Cursor cursor) {
+    final int i = cursor.next();
+    return compiled.decisionTable.loanPolicies(compiled.criteria[i], compiled.locations[i]);
+  }
+}
@@ -0,0 +1,193 @@
+package org.folio.circulation.rules;
+
+import static org.folio.circulation.resources.AbstractCirculationRulesEngineResource.ITEM_TYPE_ID_NAME;
+import static org.folio.circulation.resources.AbstractCirculationRulesEngineResource.LOAN_TYPE_ID_NAME;
+import static org.folio.circulation.resources.AbstractCirculationRulesEngineResource.LOCATION_ID_NAME;
+import static org.folio.circulation.resources.AbstractCirculationRulesEngineResource.PATRON_TYPE_ID_NAME;
+
+import java.util.Random;
+import java.util.UUID;
+
+import org.folio.circulation.domain.Location;
+
+import io.vertx.core.MultiMap;
+import io.vertx.core.http.CaseInsensitiveHeaders;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Generates circulation rules that look like those of a large library:
+ * rules on single criteria, combined criteria, negations and nested blocks
+ * over realistic numbers of material types, loan types, patron groups and
+ * locations.
+ * <p>
+ * The same number of lines and priority always generate the same rules.
+ */
+class RulesCorpus {
+  private static final int MATERIAL_TYPES = 40;
+  private static final int LOAN_TYPES = 10;
+  private static final int PATRON_GROUPS = 20;
+  private static final int INSTITUTIONS = 2;
+  private static final int CAMPUSES = 5;
+  private static final int LIBRARIES = 20;
+  private static final int LOCATIONS = 200;
+  private static final int POLICIES = 30;
+
+  private static final String CRITERIUM_LETTERS = "t, s, c, b, a, m, g";
+
+  private final Random random;
+
+  private RulesCorpus(long seed) {
+    this.random = new Random(seed);
+  }
+
+  /**
+   * @param lines  number of lines of the rules, at least 3
+   * @param priority  criterium, number-of-criteria or last-line
+   * @return rules as text
+   */
+  static String generate(int lines, String priority) {
+    return new RulesCorpus(lines).rules(lines, priority);
+  }
+
+  /**
+   * Criteria to apply the rules to, spread over all of the ids
+   * the rules are generated from.
+   * @param count  number of criteria
+   * @return request parameters with item type, loan type, patron type and location id
+   */
+  static MultiMap[] criteria(int count) {
+    final RulesCorpus corpus = new RulesCorpus(count);
+    final MultiMap[] criteria = new MultiMap[count];
+
+    for (int i = 0; i < count; i++) {
+      final MultiMap params = new CaseInsensitiveHeaders();
+      params.add(ITEM_TYPE_ID_NAME, corpus.randomId('m', MATERIAL_TYPES));
+      params.add(LOAN_TYPE_ID_NAME, corpus.randomId('t', LOAN_TYPES));
+      params.add(PATRON_TYPE_ID_NAME, corpus.randomId('g', PATRON_GROUPS));
+      params.add(LOCATION_ID_NAME, corpus.randomId('s', LOCATIONS));
+      criteria[i] = params;
+    }
+
+    return criteria;
+  }
+
+  /**
+   * @param params  criteria as returned by {@link #criteria(int)}
+   * @return the location of the criteria with its institution, campus and library
+   */
+  static Location location(MultiMap params) {
+    final String locationId = params.get(LOCATION_ID_NAME);
+    final int library = (int) (UUID.fromString(locationId).getLeastSignificantBits() % LIBRARIES);
+    final int campus = library % CAMPUSES;
+
+    return Location.from(new JsonObject()
+      .put("id", locationId)
+      .put("libraryId", id('c', library))
+      .put("campusId", id('b', campus))
+      .put("institutionId", id('a', campus % INSTITUTIONS)));
+  }
+
+  private String rules(int lines, String priority) {
+    final StringBuilder rules = new StringBuilder();
+
+    rules.append("priority: ").append(priorityLine(priority)).append('\n');
+    rules.append("fallback-policy: ").append(policies()).append('\n');
+
+    int remaining = lines - 2;
+
+    while (remaining > 0) {
+      if (remaining >= 3 && random.nextInt(4) == 0) {
+        // a block with conditions shared by its nested rules
+        final int nested = Math.min(remaining - 1, 1 + random.nextInt(4));
+
+        rules.append(criterium()).append('\n');
+
+        for (int i = 0; i < nested; i++) {
+          rules.append("    ").append(rule()).append('\n');
+        }
+
+        remaining -= nested + 1;
+      }
+      else {
+        rules.append(rule()).append('\n');
+        remaining--;
+      }
+    }
+
+    return rules.toString();
+  }
+
+  private static String priorityLine(String priority) {
+    switch (priority) {
+      case "criterium":
+        return "criterium(" + CRITERIUM_LETTERS + "), number-of-criteria, last-line";
+      case "number-of-criteria":
+        return "number-of-criteria, criterium(" + CRITERIUM_LETTERS + "), last-line";
+      case "last-line":
+        return "last-line";
+      default:
+        throw new IllegalArgumentException("Unknown priority: " + priority);
+    }
+  }
+
+  private String rule() {
+    final StringBuilder rule = new StringBuilder(criterium());
+    final int additionalCriteria = random.nextInt(3);
+
+    for (int i = 0; i < additionalCriteria; i++) {
+      rule.append(" + ").append(criterium());
+    }
+
+    return rule.append(": ").append(policies()).toString();
+  }
+
+  private String criterium() {
+    switch (random.nextInt(7)) {
+      case 0:
+        return names('m', MATERIAL_TYPES);
+      case 1:
+        return names('t', LOAN_TYPES);
+      case 2:
+        return names('g', PATRON_GROUPS);
+      case 3:
+        return names('s', LOCATIONS);
+      case 4:
+        return names('c', LIBRARIES);
+      case 5:
+        return names('b', CAMPUSES);
+      default:
+        return names('a', INSTITUTIONS);
+    }
+  }
+
+  /**
+   * One to three ids of the type, each negated in one of eight criteria.
+   */
+  private String names(char letter, int count) {
+    final boolean negated = random.nextInt(8) == 0;
+    final int names = 1 + random.nextInt(3);
+    final StringBuilder criterium = new StringBuilder().append(letter);
+
+    for (int i = 0; i < names; i++) {
+      criterium.append(negated ? " !" : " ").append(randomId(letter, count));
+    }
+
+    return criterium.toString();
+  }
+
+  private String policies() {
+    return "l " + randomId('l', POLICIES)
+      + " r " + randomId('r', POLICIES)
+      + " n " + randomId('n', POLICIES)
+      + " o " + randomId('o', POLICIES)
+      + " i " + randomId('i', POLICIES);
+  }
+
+  private String randomId(char type, int count) {
+    return id(type, random.nextInt(count));
+  }
+
+  private static String id(char type, int index) {
+    return new UUID(type, index).toString();
+  }
+}
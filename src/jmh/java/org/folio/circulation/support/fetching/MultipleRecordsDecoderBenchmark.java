@@ -0,0 +1,86 @@
+package org.folio.circulation.support.fetching;
+
+import static org.folio.circulation.support.JsonArrayHelper.mapToList;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.folio.circulation.domain.Loan;
+import org.folio.circulation.domain.MultipleRecords;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Time and memory of decoding a page of 5,000 and 50,000 loans into domain
+ * objects, either as a tree of the whole page (as before) or streamed from
+ * the bytes of the response.
+ * <p>
+ * Run with the gc profiler (the default of the benchmarks profile) and
+ * compare gc.alloc.rate.norm, the bytes allocated for decoding a page.
+ */
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+public class MultipleRecordsDecoderBenchmark {
+  @State(Scope.Benchmark)
+  public static class Page {
+    @Param({ "5000", "50000" })
+    public int records;
+
+    Buffer body;
+
+    @Setup(Level.Trial)
+    public void generate() {
+      final JsonArray loans = new JsonArray();
+
+      for (int i = 0; i < records; i++) {
+        loans.add(new JsonObject()
+          .put("id", UUID.randomUUID().toString())
+          .put("userId", UUID.randomUUID().toString())
+          .put("itemId", UUID.randomUUID().toString())
+          .put("loanDate", "2020-03-01T10:15:00.000Z")
+          .put("dueDate", "2020-03-22T23:59:59.000Z")
+          .put("status", new JsonObject().put("name", "Closed"))
+          .put("action", "checkedin")
+          .put("loanPolicyId", UUID.randomUUID().toString())
+          .put("metadata", new JsonObject()
+            .put("createdDate", "2020-03-01T10:15:00.000Z")
+            .put("createdByUserId", UUID.randomUUID().toString())));
+      }
+
+      body = Buffer.buffer(new JsonObject()
+        .put("loans", loans)
+        .put("totalRecords", records)
+        .encode());
+    }
+  }
+
+  @Benchmark
+  public List<Loan> decodeAsTree(Page page) {
+    final JsonObject representation = new JsonObject(page.body.toString("UTF-8"));
+
+    return mapToList(representation, "loans", Loan::from);
+  }
+
+  @Benchmark
+  public MultipleRecords<Loan> decodeAsStream(Page page) {
+    return MultipleRecordsDecoder.decode(page.body, "loans", Loan::from);
+  }
+}
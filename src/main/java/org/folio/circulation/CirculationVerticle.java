@@ -1,7 +1,21 @@
 package org.folio.circulation;
 
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.folio.circulation.support.ReferenceDataCache.RecordType.CAMPUSES;
+import static org.folio.circulation.support.ReferenceDataCache.RecordType.INSTITUTIONS;
+import static org.folio.circulation.support.ReferenceDataCache.RecordType.LIBRARIES;
+import static org.folio.circulation.support.ReferenceDataCache.RecordType.LOCATIONS;
+import static org.folio.circulation.support.ReferenceDataCache.RecordType.SERVICE_POINTS;
+
 import java.lang.invoke.MethodHandles;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.stream.Collectors;
 
+import org.apache.commons.lang3.StringUtils;
+import org.folio.circulation.domain.ConfigurationCache;
+import org.folio.circulation.domain.policy.PolicyCache;
 import org.folio.circulation.resources.CheckInByBarcodeResource;
 import org.folio.circulation.resources.CheckOutByBarcodeResource;
 import org.folio.circulation.resources.CirculationRulesResource;
@@ -21,6 +35,7 @@ import org.folio.circulation.resources.OverdueFineCirculationRulesEngineResource
 import org.folio.circulation.resources.OverrideCheckOutStrategy;
 import org.folio.circulation.resources.OverrideRenewalStrategy;
 import org.folio.circulation.resources.PickSlipsResource;
+import org.folio.circulation.resources.PoliciesCirculationRulesEngineResource;
 import org.folio.circulation.resources.RegularCheckOutStrategy;
 import org.folio.circulation.resources.RegularRenewalStrategy;
 import org.folio.circulation.resources.RenewByBarcodeResource;
@@ -32,6 +47,17 @@ import org.folio.circulation.resources.RequestHoldShelfClearanceResource;
 import org.folio.circulation.resources.RequestQueueResource;
 import org.folio.circulation.resources.RequestScheduledNoticeProcessingResource;
 import org.folio.circulation.resources.ScheduledAnonymizationProcessingResource;
+import org.folio.circulation.rules.CirculationRulesCache;
+import org.folio.circulation.rules.CompiledRulesStore;
+import org.folio.circulation.rules.DecisionTable;
+import org.folio.circulation.rules.InProcessRulesEvaluator;
+import org.folio.circulation.support.ReferenceDataCache;
+import org.folio.circulation.support.ReferenceDataCache.RecordType;
+import org.folio.circulation.support.fetching.BatchQueryLimits;
+import org.folio.circulation.support.http.client.InFlightRequests;
+import org.folio.circulation.support.http.client.OkapiClientRegistry;
+import org.folio.circulation.support.http.client.RequestResilience;
+import org.folio.circulation.support.http.client.VertxWebClientOkapiHttpClient;
 import org.folio.circulation.support.logging.Logging;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -41,10 +67,13 @@ import io.vertx.core.Promise;
 import io.vertx.core.http.HttpClient;
 import io.vertx.core.http.HttpClientOptions;
 import io.vertx.core.http.HttpServer;
+import io.vertx.core.http.HttpServerOptions;
+import io.vertx.core.http.HttpVersion;
 import io.vertx.ext.web.Router;
 
 public class CirculationVerticle extends AbstractVerticle {
   private HttpServer server;
+  private HttpClient client;
 
   @Override
   public void start(Promise<Void> startFuture) {
@@ -56,10 +85,130 @@ public class CirculationVerticle extends AbstractVerticle {
 
     Router router = Router.router(vertx);
 
-    // bump up the connection pool size from the default value of 5
-    HttpClient client = vertx.createHttpClient(new HttpClientOptions().setMaxPoolSize(100));
+    final HttpClientOptions httpClientOptions = createHttpClientOptions();
+
+    client = vertx.createHttpClient(httpClientOptions);
+
+    // requests wait for a connection in the registry, so that the wait can be measured
+    final OkapiClientRegistry clientRegistry = OkapiClientRegistry.getInstance();
+    clientRegistry.register(client, httpClientOptions);
+
+    VertxWebClientOkapiHttpClient.setDefaultTimeout(Duration.ofSeconds(
+      config().getInteger("httpClientRequestTimeoutInSeconds", 20)));
+
+    // bound the time spent on slow or unavailable instances of other modules
+    final RequestResilience resilience = RequestResilience.getInstance();
+    resilience.setScheduler((delay, task) -> vertx.setTimer(Math.max(1, delay),
+      timerId -> task.run()));
+    resilience.setRetries(config().getInteger("httpClientMaxRetries", 2),
+      Duration.ofMillis(config().getInteger("httpClientRetryBackoffInMilliseconds", 50)),
+      Duration.ofMillis(config().getInteger("httpClientMaxRetryBackoffInMilliseconds", 1000)));
+    resilience.setHedging(config().getBoolean("httpClientHedgingEnabled", false),
+      Duration.ofMillis(config().getInteger("httpClientMinimumHedgeDelayInMilliseconds", 50)));
+    resilience.setCircuitBreaker(
+      config().getInteger("httpClientCircuitBreakerFailureThreshold", 20),
+      Duration.ofSeconds(config().getInteger("httpClientCircuitBreakerOpenInSeconds", 30)));
+
+    // identical get requests for reference data in flight at the same time share a response
+    InFlightRequests.getInstance().setEnabled(
+      config().getBoolean("requestCoalescingEnabled", true));
+
+    // records found by many ids are fetched in batches, a few at a time
+    final BatchQueryLimits batchQueryLimits = BatchQueryLimits.getInstance();
+    batchQueryLimits.setMaximumQueryLength(
+      config().getInteger("cqlQueryMaxLength", 3500));
+    batchQueryLimits.setMaximumConcurrency(
+      config().getInteger("cqlQueryMaxConcurrency", 10));
+
+    final int poolMetricsLogInterval = config().getInteger(
+      "httpClientMetricsLogIntervalInSeconds", 0);
+
+    if (poolMetricsLogInterval > 0) {
+      vertx.setPeriodic(SECONDS.toMillis(poolMetricsLogInterval), timerId -> {
+        clientRegistry.getPoolMetrics(client).forEach(
+          (destination, metrics) -> log.info("Connections to {}: {}", destination, metrics));
+
+        final InFlightRequests inFlightRequests = InFlightRequests.getInstance();
+        log.info("Shared {} of {} get requests for reference data",
+          inFlightRequests.getCoalescedRequests(), inFlightRequests.getRequests());
+
+        resilience.getMetrics().forEach(
+          (collection, metrics) -> log.info("Requests to {}: {}", collection, metrics));
+
+        batchQueryLimits.getConcurrencyLimits().forEach(
+          (records, limit) -> log.info("Batch queries for {}: {}", records, limit));
+
+        final ReferenceDataCache referenceData = ReferenceDataCache.getInstance();
+        for (RecordType recordType : RecordType.values()) {
+          log.info("Cached {}: {}", recordType, referenceData.getMetrics(recordType));
+        }
+
+        final CirculationRulesCache rules = CirculationRulesCache.getInstance();
+        log.info("Circulation rules compiled: {}", rules.getCompileMetrics());
+        rules.getRuleMatchCaches().forEach(
+          (tenantId, matches) -> log.info("Circulation rule matches of {}: {}",
+            tenantId, matches));
+      });
+    }
+
+    // the circulation rules engine is registered below, so can be applied
+    // without a round trip via Okapi
+    InProcessRulesEvaluator.setEnabled(
+      config().getBoolean("inProcessRulesEvaluation", true));
+    DecisionTable.setEnabled(
+      config().getBoolean("decisionTableRulesEvaluation", true));
+
+    // other instances of the module only notice changes of the circulation rules
+    // by reloading them, a conditional request keeps frequent reloads cheap
+    final CirculationRulesCache rulesCache = CirculationRulesCache.getInstance();
+    rulesCache.setCacheTime(
+      SECONDS.toMillis(config().getInteger("rulesCacheTriggerAgeInSeconds",
+        CirculationRulesCache.DEFAULT_TRIGGER_AGE_IN_SECONDS)),
+      SECONDS.toMillis(config().getInteger("rulesCacheMaxAgeInSeconds",
+        CirculationRulesCache.DEFAULT_MAX_AGE_IN_SECONDS)));
+
+    // compiled rules are kept on disk, so that after a restart they don't need to be built again
+    final String compiledRulesDirectory = config().getString("rulesCacheDirectory");
+    if (StringUtils.isNotBlank(compiledRulesDirectory)) {
+      rulesCache.useCompiledRulesStore(
+        new CompiledRulesStore(Paths.get(compiledRulesDirectory)));
+      rulesCache.prewarm(Arrays.stream(
+        config().getString("rulesCachePrewarmTenants", "").split(","))
+        .map(String::trim)
+        .filter(StringUtils::isNotBlank)
+        .collect(Collectors.toList()));
+    }
+
+    // configuration rarely changes, yet is looked up by nearly every request
+    ConfigurationCache.getInstance().setTimeToLive(SECONDS.toMillis(
+      config().getInteger("configurationCacheTtlInSeconds", 60)));
+
+    // policies are looked up by nearly every request, but there are only a few of them
+    final PolicyCache policyCache = PolicyCache.getInstance();
+    policyCache.setTimeToLive(SECONDS.toMillis(
+      config().getInteger("policyCacheTtlInSeconds", 300)));
+    policyCache.setPreloadEnabled(config().getBoolean("policyCachePreload", false));
+
+    // locations and service points rarely change, a time to live of 0 disables caching
+    final ReferenceDataCache referenceDataCache = ReferenceDataCache.getInstance();
+    final int referenceDataTimeToLive = config().getInteger(
+      "referenceDataCacheTtlInSeconds", 300);
+    referenceDataCache.setMaximumSize(
+      config().getInteger("referenceDataCacheMaximumSize", 10000));
+    referenceDataCache.setTimeToLive(LOCATIONS, SECONDS.toMillis(
+      config().getInteger("locationsCacheTtlInSeconds", referenceDataTimeToLive)));
+    referenceDataCache.setTimeToLive(LIBRARIES, SECONDS.toMillis(
+      config().getInteger("librariesCacheTtlInSeconds", referenceDataTimeToLive)));
+    referenceDataCache.setTimeToLive(CAMPUSES, SECONDS.toMillis(
+      config().getInteger("campusesCacheTtlInSeconds", referenceDataTimeToLive)));
+    referenceDataCache.setTimeToLive(INSTITUTIONS, SECONDS.toMillis(
+      config().getInteger("institutionsCacheTtlInSeconds", referenceDataTimeToLive)));
+    referenceDataCache.setTimeToLive(SERVICE_POINTS, SECONDS.toMillis(
+      config().getInteger("servicePointsCacheTtlInSeconds", referenceDataTimeToLive)));
 
-    this.server = vertx.createHttpServer();
+    // responses are only compressed for clients that accept it
+    this.server = vertx.createHttpServer(new HttpServerOptions()
+      .setCompressionSupported(config().getBoolean("serverCompressionSupported", true)));
 
     new CheckOutByBarcodeResource("/circulation/check-out-by-barcode",
       client, new RegularCheckOutStrategy()).register(router);
@@ -109,6 +258,9 @@ public class CirculationVerticle extends AbstractVerticle {
       "/circulation/rules/notice-policy",
       "/circulation/rules/notice-policy-all", client)
       .register(router);
+    new PoliciesCirculationRulesEngineResource(
+      "/circulation/rules/policies", client)
+      .register(router);
 
     new DueDateScheduledNoticeProcessingResource(client).register(router);
     new DueDateNotRealTimeScheduledNoticeProcessingResource(client).register(router);
@@ -131,12 +283,49 @@ public class CirculationVerticle extends AbstractVerticle {
       });
   }
 
+  private HttpClientOptions createHttpClientOptions() {
+    final HttpClientOptions options = new HttpClientOptions()
+      // bump up the connection pool size from the default value of 5
+      .setMaxPoolSize(config().getInteger("httpClientMaxPoolSize", 100))
+      .setKeepAlive(config().getBoolean("httpClientKeepAlive", true))
+      .setKeepAliveTimeout(config().getInteger("httpClientKeepAliveTimeoutInSeconds",
+        HttpClientOptions.DEFAULT_KEEP_ALIVE_TIMEOUT))
+      .setPipelining(config().getBoolean("httpClientPipelining", false))
+      .setPipeliningLimit(config().getInteger("httpClientPipeliningLimit",
+        HttpClientOptions.DEFAULT_PIPELINING_LIMIT))
+      .setConnectTimeout(config().getInteger("httpClientConnectTimeoutInMilliseconds",
+        HttpClientOptions.DEFAULT_CONNECT_TIMEOUT))
+      .setIdleTimeout(config().getInteger("httpClientIdleTimeoutInSeconds",
+        HttpClientOptions.DEFAULT_IDLE_TIMEOUT))
+      // requests beyond this many waiting for a connection fail straight away
+      .setMaxWaitQueueSize(config().getInteger("httpClientMaxWaitQueueSize", 1000))
+      // ask for gzip or deflate encoded responses, which are decoded when received
+      .setTryUseCompression(config().getBoolean("httpClientTryUseCompression", true));
+
+    // Okapi is called over plain HTTP, so HTTP/2 is negotiated by upgrading a connection
+    if (config().getBoolean("httpClientHttp2", false)) {
+      options
+        .setProtocolVersion(HttpVersion.HTTP_2)
+        .setHttp2ClearTextUpgrade(true)
+        .setHttp2MaxPoolSize(config().getInteger("httpClientHttp2MaxPoolSize",
+          HttpClientOptions.DEFAULT_HTTP2_MAX_POOL_SIZE))
+        .setHttp2MultiplexingLimit(config().getInteger("httpClientHttp2MultiplexingLimit",
+          HttpClientOptions.DEFAULT_HTTP2_MULTIPLEXING_LIMIT));
+    }
+
+    return options;
+  }
+
   @Override
   public void stop(Promise<Void> stopFuture) {
     final Logger log = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
 
     log.info("Stopping circulation module");
 
+    if (client != null) {
+      OkapiClientRegistry.getInstance().release(client);
+    }
+
     if(server != null) {
       server.close(result -> {
         if (result.succeeded()) {
@@ -2,6 +2,7 @@ package org.folio.circulation;
 
 import io.vertx.core.json.JsonObject;
 import io.vertx.core.logging.Logger;
+import org.folio.circulation.rules.CirculationRulesCache;
 import org.folio.circulation.support.VertxAssistant;
 import org.folio.circulation.support.logging.Logging;
 
@@ -64,12 +65,99 @@ public class Launcher {
 
     JsonObject config = new JsonObject();
     write(config, "port", port);
-
+    write(config, "inProcessRulesEvaluation",
+      Boolean.valueOf(System.getProperty("in.process.rules.evaluation", "true")));
+    write(config, "decisionTableRulesEvaluation",
+      Boolean.valueOf(System.getProperty("decision.table.rules.evaluation", "true")));
+    write(config, "rulesCacheTriggerAgeInSeconds",
+      Integer.getInteger("rules.cache.trigger.age.seconds",
+        CirculationRulesCache.DEFAULT_TRIGGER_AGE_IN_SECONDS));
+    write(config, "rulesCacheMaxAgeInSeconds",
+      Integer.getInteger("rules.cache.max.age.seconds",
+        CirculationRulesCache.DEFAULT_MAX_AGE_IN_SECONDS));
+    write(config, "rulesCacheDirectory", System.getProperty("rules.cache.directory"));
+    write(config, "rulesCachePrewarmTenants",
+      System.getProperty("rules.cache.prewarm.tenants"));
+    write(config, "configurationCacheTtlInSeconds",
+      Integer.getInteger("configuration.cache.ttl.seconds", 60));
+    write(config, "policyCacheTtlInSeconds",
+      Integer.getInteger("policy.cache.ttl.seconds", 300));
+    write(config, "policyCachePreload",
+      Boolean.valueOf(System.getProperty("policy.cache.preload", "false")));
+    write(config, "referenceDataCacheTtlInSeconds",
+      Integer.getInteger("reference.data.cache.ttl.seconds", 300));
+    write(config, "referenceDataCacheMaximumSize",
+      Integer.getInteger("reference.data.cache.maximum.size", 10000));
+    write(config, "locationsCacheTtlInSeconds",
+      Integer.getInteger("locations.cache.ttl.seconds"));
+    write(config, "librariesCacheTtlInSeconds",
+      Integer.getInteger("libraries.cache.ttl.seconds"));
+    write(config, "campusesCacheTtlInSeconds",
+      Integer.getInteger("campuses.cache.ttl.seconds"));
+    write(config, "institutionsCacheTtlInSeconds",
+      Integer.getInteger("institutions.cache.ttl.seconds"));
+    write(config, "servicePointsCacheTtlInSeconds",
+      Integer.getInteger("service.points.cache.ttl.seconds"));
+    write(config, "httpClientMaxPoolSize",
+      Integer.getInteger("http.client.max.pool.size"));
+    write(config, "httpClientKeepAlive", booleanProperty("http.client.keep.alive"));
+    write(config, "httpClientKeepAliveTimeoutInSeconds",
+      Integer.getInteger("http.client.keep.alive.timeout.seconds"));
+    write(config, "httpClientPipelining", booleanProperty("http.client.pipelining"));
+    write(config, "httpClientPipeliningLimit",
+      Integer.getInteger("http.client.pipelining.limit"));
+    write(config, "httpClientConnectTimeoutInMilliseconds",
+      Integer.getInteger("http.client.connect.timeout.milliseconds"));
+    write(config, "httpClientIdleTimeoutInSeconds",
+      Integer.getInteger("http.client.idle.timeout.seconds"));
+    write(config, "httpClientMaxWaitQueueSize",
+      Integer.getInteger("http.client.max.wait.queue.size"));
+    write(config, "httpClientHttp2", booleanProperty("http.client.http2"));
+    write(config, "httpClientHttp2MaxPoolSize",
+      Integer.getInteger("http.client.http2.max.pool.size"));
+    write(config, "httpClientHttp2MultiplexingLimit",
+      Integer.getInteger("http.client.http2.multiplexing.limit"));
+    write(config, "httpClientTryUseCompression",
+      booleanProperty("http.client.try.use.compression"));
+    write(config, "serverCompressionSupported",
+      booleanProperty("server.compression.supported"));
+    write(config, "httpClientRequestTimeoutInSeconds",
+      Integer.getInteger("http.client.request.timeout.seconds"));
+    write(config, "httpClientMaxRetries",
+      Integer.getInteger("http.client.max.retries"));
+    write(config, "httpClientRetryBackoffInMilliseconds",
+      Integer.getInteger("http.client.retry.backoff.milliseconds"));
+    write(config, "httpClientMaxRetryBackoffInMilliseconds",
+      Integer.getInteger("http.client.max.retry.backoff.milliseconds"));
+    write(config, "httpClientHedgingEnabled",
+      booleanProperty("http.client.hedging.enabled"));
+    write(config, "httpClientMinimumHedgeDelayInMilliseconds",
+      Integer.getInteger("http.client.minimum.hedge.delay.milliseconds"));
+    write(config, "httpClientCircuitBreakerFailureThreshold",
+      Integer.getInteger("http.client.circuit.breaker.failure.threshold"));
+    write(config, "httpClientCircuitBreakerOpenInSeconds",
+      Integer.getInteger("http.client.circuit.breaker.open.seconds"));
+    write(config, "httpClientMetricsLogIntervalInSeconds",
+      Integer.getInteger("http.client.metrics.log.interval.seconds"));
+    write(config, "requestCoalescingEnabled",
+      booleanProperty("request.coalescing.enabled"));
+    write(config, "cqlQueryMaxLength", Integer.getInteger("cql.query.max.length"));
+    write(config, "cqlQueryMaxConcurrency",
+      Integer.getInteger("cql.query.max.concurrency"));
+
+    // the verticle instances share the listening port and the rules cache
     CompletableFuture<String> deployed =
-      vertxAssistant.deployVerticle(CirculationVerticle.class, config);
+      vertxAssistant.deployVerticle(CirculationVerticle.class, config,
+        Integer.getInteger("verticle.instances", 1));
 
     return deployed
       .thenApply(result -> moduleDeploymentId = result)
       .thenAccept(result -> log.info("Server Started"));
   }
+
+  private static Boolean booleanProperty(String name) {
+    final String value = System.getProperty(name);
+
+    return value != null ? Boolean.valueOf(value) : null;
+  }
 }
@@ -0,0 +1,115 @@
+package org.folio.circulation.domain;
+
+import static java.util.concurrent.TimeUnit.MINUTES;
+
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import org.folio.circulation.support.Result;
+
+/**
+ * Per tenant cache of the configuration entries looked up by circulation,
+ * like the time zone or the session timeout, keyed by module and config name.
+ * <p>
+ * Concurrent lookups of entries that are not cached share a single request
+ * to the configuration module. Failed lookups are not cached.
+ */
+public class ConfigurationCache {
+  private static final ConfigurationCache instance = new ConfigurationCache(
+    System::currentTimeMillis);
+
+  private final LongSupplier clock;
+  private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+  private volatile long timeToLiveInMilliseconds = MINUTES.toMillis(1);
+
+  ConfigurationCache(LongSupplier clock) {
+    this.clock = clock;
+  }
+
+  public static ConfigurationCache getInstance() {
+    return instance;
+  }
+
+  /**
+   * @param timeToLiveInMilliseconds  how long entries are used after loading them,
+   *                                  0 disables caching
+   */
+  public void setTimeToLive(long timeToLiveInMilliseconds) {
+    this.timeToLiveInMilliseconds = timeToLiveInMilliseconds;
+    entries.clear();
+  }
+
+  /**
+   * Drop the cached entries of all tenants.
+   */
+  public void clear() {
+    entries.clear();
+  }
+
+  /**
+   * Return the cached entries, when they are not cached or expired
+   * load them or wait for the load in progress.
+   * @param tenantId  tenant of the configuration
+   * @param moduleName  module of the entries
+   * @param configName  config name of the entries
+   * @param loader  loads the entries from the configuration module
+   * @return the entries or the failure of loading them
+   */
+  CompletableFuture<Result<Collection<Configuration>>> get(String tenantId,
+    String moduleName, String configName,
+    Supplier<CompletableFuture<Result<Collection<Configuration>>>> loader) {
+
+    final long ttl = timeToLiveInMilliseconds;
+
+    if (ttl <= 0) {
+      return loader.get();
+    }
+
+    final String key = tenantId + "/" + moduleName + "/" + configName;
+    final long now = clock.getAsLong();
+
+    final Entry entry = entries.compute(key, (k, existing) ->
+      existing != null && existing.isUsable(now, ttl) ? existing : new Entry());
+
+    if (entry.startLoad()) {
+      loader.get().whenComplete((result, error) -> {
+        if (error != null || result.failed()) {
+          entries.remove(key, entry);
+        }
+
+        entry.loadTimestamp = clock.getAsLong();
+
+        if (error != null) {
+          entry.configurations.completeExceptionally(error);
+        } else {
+          entry.configurations.complete(result);
+        }
+      });
+    }
+
+    return entry.configurations;
+  }
+
+  private static class Entry {
+    private final CompletableFuture<Result<Collection<Configuration>>> configurations
+      = new CompletableFuture<>();
+    private final AtomicBoolean loadStarted = new AtomicBoolean();
+
+    /** System.currentTimeMillis() of the completion of the load */
+    private volatile long loadTimestamp;
+
+    boolean startLoad() {
+      return loadStarted.compareAndSet(false, true);
+    }
+
+    boolean isUsable(long now, long ttl) {
+      return !configurations.isDone() || now - loadTimestamp < ttl;
+    }
+  }
+}
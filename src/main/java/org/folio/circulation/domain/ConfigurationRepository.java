@@ -24,25 +24,24 @@ public class ConfigurationRepository {
 
   private static final PageLimit DEFAULT_PAGE_LIMIT = PageLimit.one();
 
+  private final String tenantId;
+  private final ConfigurationCache configurationCache;
   private final GetManyRecordsClient configurationClient;
 
   public ConfigurationRepository(Clients clients) {
+    tenantId = clients.tenantId();
+    configurationCache = ConfigurationCache.getInstance();
     configurationClient = clients.configurationStorageClient();
   }
 
   public CompletableFuture<Result<PageLimit>> lookupSchedulerNoticesProcessingLimit() {
-    Result<CqlQuery> cqlQueryResult = defineModuleNameAndConfigNameFilter(
-      "NOTIFICATION_SCHEDULER", "noticesLimit");
-
-    return lookupConfigurations(cqlQueryResult, applySearchSchedulerNoticesLimit())
+    return lookupConfigurations("NOTIFICATION_SCHEDULER", "noticesLimit",
+      applySearchSchedulerNoticesLimit())
       .thenApply(result -> result.map(PageLimit::limit));
   }
 
   public CompletableFuture<Result<Integer>> lookupSessionTimeout() {
-    Result<CqlQuery> otherSettingsQuery = defineModuleNameAndConfigNameFilter(
-      "CHECKOUT", "other_settings");
-
-    return lookupConfigurations(otherSettingsQuery, applySessionTimeout());
+    return lookupConfigurations("CHECKOUT", "other_settings", applySessionTimeout());
   }
 
   /**
@@ -50,12 +49,8 @@ public class ConfigurationRepository {
    *
    */
   public CompletableFuture<Result<LoanAnonymizationConfiguration>> loanHistoryConfiguration() {
-    return defineModuleNameAndConfigNameFilter("LOAN_HISTORY", "loan_history")
-      .after(query -> configurationClient.getMany(query, DEFAULT_PAGE_LIMIT))
-      .thenApply(result -> result.next(response ->
-        from(response, Configuration::new, CONFIGS_KEY)))
-      .thenApply(r -> r.next(r1 -> r.map(MultipleRecords::getRecords)))
-      .thenApply(r -> r.map(this::getFirstConfiguration));
+    return lookupConfigurations("LOAN_HISTORY", "loan_history",
+      this::getFirstConfiguration);
   }
 
   private LoanAnonymizationConfiguration getFirstConfiguration(
@@ -70,20 +65,18 @@ public class ConfigurationRepository {
   }
 
   public CompletableFuture<Result<DateTimeZone>> findTimeZoneConfiguration() {
-    Result<CqlQuery> cqlQueryResult = defineModuleNameAndConfigNameFilter(
-      "ORG", "localeSettings");
-
-    return lookupConfigurations(cqlQueryResult, applySearchDateTimeZone());
+    return lookupConfigurations("ORG", "localeSettings", applySearchDateTimeZone());
   }
 
-  private <T> CompletableFuture<Result<T>> lookupConfigurations(
-    Result<CqlQuery> cqlQueryResult,
-    Function<MultipleRecords<Configuration>, T> searchStrategy) {
+  private <T> CompletableFuture<Result<T>> lookupConfigurations(String moduleName,
+    String configName, Function<Collection<Configuration>, T> searchStrategy) {
 
-    return cqlQueryResult
-      .after(query -> configurationClient.getMany(query, DEFAULT_PAGE_LIMIT))
-      .thenApply(result -> result.next(response ->
-        from(response, Configuration::new, CONFIGS_KEY)))
+    return configurationCache.get(tenantId, moduleName, configName,
+      () -> defineModuleNameAndConfigNameFilter(moduleName, configName)
+        .after(query -> configurationClient.getMany(query, DEFAULT_PAGE_LIMIT))
+        .thenApply(result -> result.next(response ->
+          from(response, Configuration::new, CONFIGS_KEY)))
+        .thenApply(result -> result.map(MultipleRecords::getRecords)))
       .thenApply(result -> result.map(searchStrategy));
   }
 
@@ -96,18 +89,18 @@ public class ConfigurationRepository {
     return moduleQuery.combine(configNameQuery, CqlQuery::and);
   }
 
-  private Function<MultipleRecords<Configuration>, DateTimeZone> applySearchDateTimeZone() {
+  private Function<Collection<Configuration>, DateTimeZone> applySearchDateTimeZone() {
     return configurations -> new ConfigurationService()
-      .findDateTimeZone(configurations.getRecords());
+      .findDateTimeZone(configurations);
   }
 
-  private Function<MultipleRecords<Configuration>, Integer> applySearchSchedulerNoticesLimit() {
+  private Function<Collection<Configuration>, Integer> applySearchSchedulerNoticesLimit() {
     return configurations -> new ConfigurationService()
-      .findSchedulerNoticesLimit(configurations.getRecords());
+      .findSchedulerNoticesLimit(configurations);
   }
 
-  private Function<MultipleRecords<Configuration>, Integer> applySessionTimeout() {
+  private Function<Collection<Configuration>, Integer> applySessionTimeout() {
     return configurations -> new ConfigurationService()
-      .findSessionTimeout(configurations.getRecords());
+      .findSessionTimeout(configurations);
   }
 }
@@ -17,6 +17,7 @@ import static org.folio.circulation.support.Result.succeeded;
 import static org.folio.circulation.support.ResultBinding.flatMapResult;
 import static org.folio.circulation.support.ResultBinding.mapResult;
 import static org.folio.circulation.support.fetching.RecordFetching.findWithMultipleCqlIndexValues;
+import static org.folio.circulation.support.fetching.RelatedRecordsFetch.relatedRecordsOf;
 import static org.folio.circulation.support.http.CommonResponseInterpreters.noContentRecordInterpreter;
 import static org.folio.circulation.support.http.ResponseMapping.forwardOnFailure;
 import static org.folio.circulation.support.http.ResponseMapping.mapUsingJson;
@@ -42,6 +43,8 @@ import org.folio.circulation.support.ItemRepository;
 import org.folio.circulation.support.RecordNotFoundFailure;
 import org.folio.circulation.support.Result;
 import org.folio.circulation.support.SingleRecordFetcher;
+import org.folio.circulation.support.fetching.KeysetPageIterator;
+import org.folio.circulation.support.fetching.RelatedRecordsFetch;
 import org.folio.circulation.support.http.client.CqlQuery;
 import org.folio.circulation.support.http.client.PageLimit;
 import org.folio.circulation.support.http.client.Response;
@@ -54,6 +57,7 @@ import io.vertx.core.json.JsonObject;
 
 public class LoanRepository {
   private static final String RECORDS_PROPERTY_NAME = "loans";
+  private static final int LOANS_PAGE_SIZE = 1000;
 
   private final CollectionResourceClient loansStorageClient;
   private final ItemRepository itemRepository;
@@ -142,9 +146,13 @@ public class LoanRepository {
   }
 
   public CompletableFuture<Result<Loan>> getById(String id) {
-    return fetchLoan(id)
-      .thenComposeAsync(this::fetchItem)
-      .thenComposeAsync(this::fetchUser)
+    final RelatedRecordsFetch<Loan> relatedRecords = relatedRecordsOf(fetchLoan(id));
+
+    relatedRecords.fetch(itemRepository::fetchFor, Loan::withItem);
+    //TODO: Check if user not found should result in failure?
+    relatedRecords.fetch(userRepository::getUser, Loan::withUser);
+
+    return relatedRecords.combined()
       .exceptionally(CommonFailures::failedDueToServerError);
   }
 
@@ -163,22 +171,13 @@ public class LoanRepository {
       .fetch(loan.getId());
   }
 
-  private CompletableFuture<Result<Loan>> fetchItem(Result<Loan> result) {
-    return result.combineAfter(itemRepository::fetchFor, Loan::withItem);
-  }
-
-  //TODO: Check if user not found should result in failure?
-  private CompletableFuture<Result<Loan>> fetchUser(Result<Loan> result) {
-    return result.combineAfter(userRepository::getUser, Loan::withUser);
-  }
-
   public CompletableFuture<Result<MultipleRecords<Loan>>> findLoansToAnonymize(
-    PageLimit pageLimit) {
+    int maximumLoans) {
 
     Result<CqlQuery> cqlQuery = getStatusCQLQuery("Closed")
       .combine(CqlQuery.hasValue("userId"), CqlQuery::and);
 
-    return queryLoanStorage(cqlQuery, pageLimit);
+    return loanPages().getAll(cqlQuery, maximumLoans);
   }
 
   private CompletableFuture<Result<MultipleRecords<Loan>>> queryLoanStorage(
@@ -190,12 +189,18 @@ public class LoanRepository {
   }
 
   public CompletableFuture<Result<MultipleRecords<Loan>>> findClosedLoans(
-    String userId, PageLimit pageLimit) {
+    String userId, int maximumLoans) {
 
     Result<CqlQuery> query = exactMatch("userId", userId);
     final Result<CqlQuery> statusQuery = getStatusCQLQuery("Closed");
 
-   return queryLoanStorage(statusQuery.combine(query, CqlQuery::and), pageLimit);
+    return loanPages().getAll(statusQuery.combine(query, CqlQuery::and),
+      maximumLoans);
+  }
+
+  private KeysetPageIterator<Loan> loanPages() {
+    return new KeysetPageIterator<>(loansStorageClient, RECORDS_PROPERTY_NAME,
+      Loan::from, LOANS_PAGE_SIZE);
   }
 
   public CompletableFuture<Result<MultipleRecords<Loan>>> findBy(String query) {
@@ -4,6 +4,10 @@ import static java.util.Objects.isNull;
 import static java.util.function.Function.identity;
 import static java.util.stream.Collectors.toList;
 import static java.util.stream.Collectors.toSet;
+import static org.folio.circulation.support.ReferenceDataCache.RecordType.CAMPUSES;
+import static org.folio.circulation.support.ReferenceDataCache.RecordType.INSTITUTIONS;
+import static org.folio.circulation.support.ReferenceDataCache.RecordType.LIBRARIES;
+import static org.folio.circulation.support.ReferenceDataCache.RecordType.LOCATIONS;
 import static org.folio.circulation.support.Result.ofAsync;
 import static org.folio.circulation.support.Result.succeeded;
 import static org.folio.circulation.support.ResultBinding.flatMapResult;
@@ -20,23 +24,30 @@ import org.apache.commons.lang3.StringUtils;
 import org.folio.circulation.support.Clients;
 import org.folio.circulation.support.CollectionResourceClient;
 import org.folio.circulation.support.FindWithMultipleCqlIndexValues;
+import org.folio.circulation.support.ReferenceDataCache;
+import org.folio.circulation.support.ReferenceDataCache.RecordType;
 import org.folio.circulation.support.Result;
-import org.folio.circulation.support.SingleRecordFetcher;
 
 import io.vertx.core.json.JsonObject;
 
 public class LocationRepository {
 
+  private final String tenantId;
+  private final ReferenceDataCache referenceDataCache;
   private CollectionResourceClient locationsStorageClient;
   private CollectionResourceClient institutionsStorageClient;
   private CollectionResourceClient campusesStorageClient;
   private CollectionResourceClient librariesStorageClient;
 
-  private LocationRepository(CollectionResourceClient locationsStorageClient,
+  private LocationRepository(String tenantId,
+                             ReferenceDataCache referenceDataCache,
+                             CollectionResourceClient locationsStorageClient,
                              CollectionResourceClient institutionsStorageClient,
                              CollectionResourceClient campusesStorageClient,
                              CollectionResourceClient librariesStorageClient) {
 
+    this.tenantId = tenantId;
+    this.referenceDataCache = referenceDataCache;
     this.locationsStorageClient = locationsStorageClient;
     this.institutionsStorageClient = institutionsStorageClient;
     this.campusesStorageClient = campusesStorageClient;
@@ -45,6 +56,8 @@ public class LocationRepository {
 
   public static LocationRepository using(Clients clients) {
     return new LocationRepository(
+      clients.tenantId(),
+      ReferenceDataCache.getInstance(),
       clients.locationsStorage(),
       clients.institutionsStorage(),
       clients.campusesStorage(),
@@ -57,9 +70,7 @@ public class LocationRepository {
       return ofAsync(() -> null);
     }
 
-    return SingleRecordFetcher.json(locationsStorageClient, "location",
-      response -> succeeded(null))
-      .fetch(item.getLocationId())
+    return fetchRecord(LOCATIONS, locationsStorageClient, item.getLocationId())
       .thenApply(r -> r.map(Location::from))
       .thenCompose(r -> r.after(this::loadLibrary))
       .thenCompose(r -> r.after(this::loadCampus))
@@ -75,10 +86,11 @@ public class LocationRepository {
       .distinct()
       .collect(Collectors.toList());
 
-    final FindWithMultipleCqlIndexValues<Location> fetcher
-      = findWithMultipleCqlIndexValues(locationsStorageClient, "locations", Location::from);
-
-    return fetcher.findByIds(locationIds)
+    return fetchRecords(LOCATIONS, locationsStorageClient, "locations", locationIds)
+      .thenApply(mapResult(locations -> new MultipleRecords<>(
+        locations.values().stream()
+          .map(Location::from)
+          .collect(toList()), locations.size())))
       .thenCompose(this::loadLibrariesForLocations)
       .thenApply(mapResult(sds -> sds.toMap(Location::getId)));
   }
@@ -88,8 +100,7 @@ public class LocationRepository {
       return ofAsync(() -> null);
     }
 
-    return SingleRecordFetcher.json(librariesStorageClient, "library", response -> succeeded(null))
-      .fetch(location.getLibraryId())
+    return fetchRecord(LIBRARIES, librariesStorageClient, location.getLibraryId())
       .thenApply(r -> r.map(location::withLibraryRepresentation));
   }
 
@@ -98,8 +109,7 @@ public class LocationRepository {
       return ofAsync(() -> null);
     }
 
-    return SingleRecordFetcher.json(campusesStorageClient, "campus", response -> succeeded(null))
-      .fetch(location.getCampusId())
+    return fetchRecord(CAMPUSES, campusesStorageClient, location.getCampusId())
       .thenApply(r -> r.map(location::withCampusRepresentation));
   }
 
@@ -108,8 +118,8 @@ public class LocationRepository {
       return ofAsync(() -> null);
     }
 
-    return SingleRecordFetcher.json(institutionsStorageClient, "institution", response -> succeeded(null))
-      .fetch(location.getInstitutionId())
+    return fetchRecord(INSTITUTIONS, institutionsStorageClient,
+      location.getInstitutionId())
       .thenApply(r -> r.map(location::withInstitutionRepresentation));
   }
 
@@ -126,49 +136,55 @@ public class LocationRepository {
   public CompletableFuture<Result<Map<String, JsonObject>>> getLibraries(
           Collection<Location> locations) {
 
-    final FindWithMultipleCqlIndexValues<JsonObject> fetcher
-      = findWithMultipleCqlIndexValues(librariesStorageClient, "loclibs", identity());
-
     List<String> libraryIds = locations.stream()
             .map(Location::getLibraryId)
             .distinct()
             .collect(toList());
 
-    return fetcher.findByIds(libraryIds)
-            .thenApply(mapResult(records -> records.toMap(library ->
-                    library.getString("id"))));
+    return fetchRecords(LIBRARIES, librariesStorageClient, "loclibs", libraryIds);
   }
 
   public CompletableFuture<Result<Map<String, JsonObject>>> getCampuses(
     Collection<Location> locations) {
 
-    final FindWithMultipleCqlIndexValues<JsonObject> fetcher
-      = findWithMultipleCqlIndexValues(campusesStorageClient, "loccamps", identity());
-
     List<String> campusesIds = locations.stream()
       .map(Location::getCampusId)
       .distinct()
       .collect(toList());
 
-    return fetcher.findByIds(campusesIds)
-      .thenApply(mapResult(records -> records.toMap(campus ->
-        campus.getString("id"))));
+    return fetchRecords(CAMPUSES, campusesStorageClient, "loccamps", campusesIds);
   }
 
   public CompletableFuture<Result<Map<String, JsonObject>>> getInstitutions(
     Collection<Location> locations) {
 
-    final FindWithMultipleCqlIndexValues<JsonObject> fetcher
-      = findWithMultipleCqlIndexValues(institutionsStorageClient, "locinsts", identity());
-
     List<String> institutionsIds = locations.stream()
       .map(Location::getInstitutionId)
       .distinct()
       .collect(toList());
 
-    return fetcher.findByIds(institutionsIds)
-      .thenApply(mapResult(records -> records.toMap(institution ->
-        institution.getString("id"))));
+    return fetchRecords(INSTITUTIONS, institutionsStorageClient, "locinsts",
+      institutionsIds);
+  }
+
+  private CompletableFuture<Result<JsonObject>> fetchRecord(RecordType recordType,
+    CollectionResourceClient client, String id) {
+
+    return referenceDataCache.get(tenantId, recordType, id,
+      client::getIfModified, response -> succeeded(null));
+  }
+
+  private CompletableFuture<Result<Map<String, JsonObject>>> fetchRecords(
+    RecordType recordType, CollectionResourceClient client, String recordsName,
+    Collection<String> ids) {
+
+    final FindWithMultipleCqlIndexValues<JsonObject> fetcher
+      = findWithMultipleCqlIndexValues(client, recordsName, identity());
+
+    return referenceDataCache.getAll(tenantId, recordType, ids,
+      missingIds -> fetcher.findByIds(missingIds)
+        .thenApply(mapResult(records -> records.toMap(record ->
+          record.getString("id")))));
   }
 
   public CompletableFuture<Result<Collection<Location>>> fetchLibraries(Collection<Location> locations) {
@@ -11,10 +11,12 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.function.BiFunction;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import org.folio.circulation.support.Result;
+import org.folio.circulation.support.fetching.MultipleRecordsDecoder;
 import org.folio.circulation.support.http.client.Response;
 import org.folio.circulation.support.http.client.ResponseInterpreter;
 
@@ -42,7 +44,8 @@ public class MultipleRecords<T> {
     String recordsPropertyName) {
 
     return new ResponseInterpreter<MultipleRecords<T>>()
-      .flatMapOn(200, r -> from(r.getJson(), mapper, recordsPropertyName))
+      .flatMapOn(200, r -> succeeded(MultipleRecordsDecoder.decode(
+        r.getBodyAsBuffer(), recordsPropertyName, mapper)))
       .apply(response);
   }
 
@@ -84,6 +87,29 @@ public class MultipleRecords<T> {
         getTotalRecords());
   }
 
+  /**
+   * Combines each record with the other record it refers to. The other
+   * records are keyed by id once, rather than searched for each record
+   * @param otherRecords records that may be referred to
+   * @param foreignKey id of the other record a record refers to
+   * @param otherKey id of an other record
+   * @param combiner function to combine a record with the other record
+   * @param defaultOtherRecord record to combine with when there is no
+   * other record with the id referred to
+   * @param <R> Type of the other records
+   * @return new multiple records collection with combined records
+   * and same total record count
+   */
+  public <R> MultipleRecords<T> combineRecords(MultipleRecords<R> otherRecords,
+    Function<T, String> foreignKey, Function<R, String> otherKey,
+    BiFunction<T, R, T> combiner, R defaultOtherRecord) {
+
+    final Map<String, R> otherRecordsById = otherRecords.toMap(otherKey);
+
+    return mapRecords(record -> combiner.apply(record,
+      otherRecordsById.getOrDefault(foreignKey.apply(record), defaultOtherRecord)));
+  }
+
   public <R> Result<MultipleRecords<R>> flatMapRecords(Function<T, Result<R>> mapper) {
     List<Result<R>> mappedRecordsList = records.stream()
       .map(mapper).collect(Collectors.toList());
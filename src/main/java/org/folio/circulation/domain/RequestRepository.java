@@ -7,6 +7,7 @@ import static org.folio.circulation.support.Result.ofAsync;
 import static org.folio.circulation.support.Result.succeeded;
 import static org.folio.circulation.support.ResultBinding.flatMapResult;
 import static org.folio.circulation.support.ResultBinding.mapResult;
+import static org.folio.circulation.support.fetching.RelatedRecordsFetch.relatedRecordsOf;
 import static org.folio.circulation.support.http.ResponseMapping.forwardOnFailure;
 import static org.folio.circulation.support.http.ResponseMapping.mapUsingJson;
 
@@ -21,6 +22,8 @@ import org.folio.circulation.support.ItemRepository;
 import org.folio.circulation.support.RecordNotFoundFailure;
 import org.folio.circulation.support.Result;
 import org.folio.circulation.support.SingleRecordFetcher;
+import org.folio.circulation.support.fetching.RelatedRecordsFetch;
+import org.folio.circulation.support.fetching.RelatedRecordsFetch.Fetch;
 import org.folio.circulation.support.http.client.CqlQuery;
 import org.folio.circulation.support.http.client.PageLimit;
 import org.folio.circulation.support.http.client.Response;
@@ -121,13 +124,25 @@ public class RequestRepository {
   }
 
   public CompletableFuture<Result<Request>> getById(String id) {
-    return fetchRequest(id)
-      .thenComposeAsync(result -> result.combineAfter(itemRepository::fetchFor,
-        Request::withItem))
-      .thenComposeAsync(this::fetchRequester)
-      .thenComposeAsync(this::fetchProxy)
-      .thenComposeAsync(this::fetchLoan)
-      .thenComposeAsync(this::fetchPickupServicePoint)
+    final RelatedRecordsFetch<Request> relatedRecords
+      = relatedRecordsOf(fetchRequest(id));
+
+    final Fetch<Request, Item> item = relatedRecords.fetch(
+      itemRepository::fetchFor, Request::withItem);
+
+    //TODO: Check if need to request requester
+    relatedRecords.fetch(request -> getUser(request.getUserId()),
+      Request::withRequester);
+    //TODO: Check if need to request proxy
+    relatedRecords.fetch(request -> getUser(request.getProxyUserId()),
+      Request::withProxy);
+    relatedRecords.fetchAfter(item, loanRepository::findOpenLoanForItem,
+      Request::withLoan);
+    relatedRecords.fetch(request -> getServicePoint(request.getPickupServicePointId()),
+      Request::withPickupServicePoint);
+
+    // patron groups depend upon both the requester and the proxy
+    return relatedRecords.combined()
       .thenComposeAsync(this::fetchPatronGroups);
   }
 
@@ -213,27 +228,6 @@ public class RequestRepository {
       .thenApply(interpreter::flatMap);
   }
 
-  //TODO: Check if need to request requester
-  private CompletableFuture<Result<Request>> fetchRequester(Result<Request> result) {
-    return result.combineAfter(request ->
-      getUser(request.getUserId()), Request::withRequester);
-  }
-
-  //TODO: Check if need to request proxy
-  private CompletableFuture<Result<Request>> fetchProxy(Result<Request> result) {
-    return result.combineAfter(request ->
-      getUser(request.getProxyUserId()), Request::withProxy);
-  }
-
-  private CompletableFuture<Result<Request>> fetchLoan(Result<Request> result) {
-    return result.combineAfter(loanRepository::findOpenLoanForRequest, Request::withLoan);
-  }
-
-  private CompletableFuture<Result<Request>> fetchPickupServicePoint(Result<Request> result) {
-    return result.combineAfter(request -> getServicePoint(request.getPickupServicePointId()),
-        Request::withPickupServicePoint);
-  }
-
   private CompletableFuture<Result<Request>> fetchPatronGroups(Result<Request> result) {
     return patronGroupRepository.findPatronGroupsForSingleRequestUsers(result);
   }
@@ -1,8 +1,11 @@
 package org.folio.circulation.domain;
 
 import static java.util.concurrent.CompletableFuture.completedFuture;
+import static java.util.function.Function.identity;
+import static org.folio.circulation.support.ReferenceDataCache.RecordType.SERVICE_POINTS;
 import static org.folio.circulation.support.Result.ofAsync;
 import static org.folio.circulation.support.Result.succeeded;
+import static org.folio.circulation.support.ResultBinding.mapResult;
 import static org.folio.circulation.support.fetching.RecordFetching.findWithMultipleCqlIndexValues;
 
 import java.lang.invoke.MethodHandles;
@@ -17,18 +20,25 @@ import java.util.stream.Stream;
 
 import org.folio.circulation.support.Clients;
 import org.folio.circulation.support.CollectionResourceClient;
-import org.folio.circulation.support.FetchSingleRecord;
 import org.folio.circulation.support.FindWithMultipleCqlIndexValues;
+import org.folio.circulation.support.ReferenceDataCache;
 import org.folio.circulation.support.Result;
+import org.folio.circulation.support.http.client.ResponseInterpreter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import io.vertx.core.json.JsonObject;
+
 public class ServicePointRepository {
   private static final Logger log = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
 
+  private final String tenantId;
+  private final ReferenceDataCache referenceDataCache;
   private final CollectionResourceClient servicePointsStorageClient;
 
   public ServicePointRepository(Clients clients) {
+    tenantId = clients.tenantId();
+    referenceDataCache = ReferenceDataCache.getInstance();
     servicePointsStorageClient = clients.servicePointsStorage();
   }
 
@@ -45,11 +55,10 @@ public class ServicePointRepository {
       return ofAsync(() -> null);
     }
 
-    return FetchSingleRecord.<ServicePoint>forRecord("service point")
-        .using(servicePointsStorageClient)
-        .mapTo(ServicePoint::new)
-        .whenNotFound(succeeded(null))
-        .fetch(id);
+    return referenceDataCache.get(tenantId, SERVICE_POINTS, id,
+      servicePointsStorageClient::getIfModified,
+      new ResponseInterpreter<JsonObject>().on(404, succeeded(null))::apply)
+      .thenApply(r -> r.map(json -> json == null ? null : new ServicePoint(json)));
   }
 
   public CompletableFuture<Result<ServicePoint>> getServicePointForRequest(Request request) {
@@ -98,9 +107,7 @@ public class ServicePointRepository {
       return completedFuture(succeeded(multipleLoans));
     }
 
-    final FindWithMultipleCqlIndexValues<ServicePoint> fetcher = createServicePointsFetcher();
-
-    return fetcher.findByIds(servicePointsToFetch)
+    return findServicePointsByIds(servicePointsToFetch)
       .thenApply(multipleServicePointsResult -> multipleServicePointsResult.next(
           multipleServicePoints -> {
             List<Loan> newLoanList = new ArrayList<>();
@@ -139,9 +146,7 @@ public class ServicePointRepository {
       return completedFuture(succeeded(multipleRequests));
     }
 
-    final FindWithMultipleCqlIndexValues<ServicePoint> fetcher = createServicePointsFetcher();
-
-    return fetcher.findByIds(servicePointsToFetch)
+    return findServicePointsByIds(servicePointsToFetch)
         .thenApply(multipleServicePointsResult -> multipleServicePointsResult.next(
           multipleServicePoints -> {
             List<Request> newRequestList = new ArrayList<>();
@@ -170,8 +175,20 @@ public class ServicePointRepository {
           }));
   }
 
-  private FindWithMultipleCqlIndexValues<ServicePoint> createServicePointsFetcher() {
-    return findWithMultipleCqlIndexValues(servicePointsStorageClient,
-      "servicepoints", ServicePoint::from);
+  private CompletableFuture<Result<MultipleRecords<ServicePoint>>> findServicePointsByIds(
+    Collection<String> ids) {
+
+    final FindWithMultipleCqlIndexValues<JsonObject> fetcher
+      = findWithMultipleCqlIndexValues(servicePointsStorageClient,
+      "servicepoints", identity());
+
+    return referenceDataCache.getAll(tenantId, SERVICE_POINTS, ids,
+      missingIds -> fetcher.findByIds(missingIds)
+        .thenApply(mapResult(records -> records.toMap(record ->
+          record.getString("id")))))
+      .thenApply(mapResult(servicePoints -> new MultipleRecords<>(
+        servicePoints.values().stream()
+          .map(ServicePoint::new)
+          .collect(Collectors.toList()), servicePoints.size())));
   }
 }
@@ -1,7 +1,5 @@
 package org.folio.circulation.domain.anonymization;
 
-import static org.folio.circulation.support.http.client.PageLimit.limit;
-
 import java.lang.invoke.MethodHandles;
 
 import org.folio.circulation.domain.anonymization.config.LoanAnonymizationConfiguration;
@@ -10,14 +8,13 @@ import org.folio.circulation.domain.anonymization.service.LoanAnonymizationFinde
 import org.folio.circulation.domain.anonymization.service.LoansForBorrowerFinder;
 import org.folio.circulation.domain.anonymization.service.LoansForTenantFinder;
 import org.folio.circulation.support.Clients;
-import org.folio.circulation.support.http.client.PageLimit;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 public class LoanAnonymization {
   private final Logger log = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
 
-  public static final PageLimit FETCH_LOANS_PAGE_LIMIT = limit(5000);
+  public static final int FETCH_LOANS_LIMIT = 5000;
 
   private final Clients clients;
   private LoanAnonymizationFinderService loansFinderService;
@@ -1,6 +1,6 @@
 package org.folio.circulation.domain.anonymization.service;
 
-import static org.folio.circulation.domain.anonymization.LoanAnonymization.FETCH_LOANS_PAGE_LIMIT;
+import static org.folio.circulation.domain.anonymization.LoanAnonymization.FETCH_LOANS_LIMIT;
 
 import java.util.Collection;
 import java.util.concurrent.CompletableFuture;
@@ -24,7 +24,7 @@ public class LoansForBorrowerFinder extends DefaultLoansFinder {
   @Override
   public CompletableFuture<Result<Collection<Loan>>> findLoansToAnonymize() {
 
-    return loanRepository.findClosedLoans(userId, FETCH_LOANS_PAGE_LIMIT)
+    return loanRepository.findClosedLoans(userId, FETCH_LOANS_LIMIT)
       .thenCompose(this::fetchAdditionalLoanInfo);
   }
 }
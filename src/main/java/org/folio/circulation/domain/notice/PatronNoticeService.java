@@ -7,6 +7,7 @@ import static org.folio.circulation.support.Result.succeeded;
 import static org.folio.circulation.support.ResultBinding.mapResult;
 import static org.folio.circulation.support.http.CommonResponseInterpreters.mapToRecordInterpreter;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
@@ -15,6 +16,7 @@ import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
@@ -64,14 +66,22 @@ public class PatronNoticeService {
     Collection<PatronNoticeEvent> events,
     Function<Collection<JsonObject>, JsonObject> contextCombiner) {
 
-    return allOf(events, this::loadNoticePolicyId)
+    return loadNoticePolicyIds(events)
       .thenApply(mapResult(this::groupEvents))
       .thenCompose(r -> r.after(eventGroups -> handleGroupedEvents(eventGroups, contextCombiner)));
   }
 
-  private CompletableFuture<Result<Pair<PatronNoticeEvent, String>>> loadNoticePolicyId(PatronNoticeEvent event) {
-    return noticePolicyRepository.lookupPolicyId(event.getItem(), event.getUser())
-      .thenApply(mapResult(circulationRuleMatchEntity -> Pair.of(event, circulationRuleMatchEntity.getPolicyId())));
+  private CompletableFuture<Result<List<Pair<PatronNoticeEvent, String>>>> loadNoticePolicyIds(
+    Collection<PatronNoticeEvent> events) {
+
+    final List<PatronNoticeEvent> orderedEvents = new ArrayList<>(events);
+
+    return noticePolicyRepository.lookupPolicyIds(orderedEvents.stream()
+      .map(event -> Pair.of(event.getItem(), event.getUser()))
+      .collect(Collectors.toList()))
+      .thenApply(mapResult(matches -> IntStream.range(0, orderedEvents.size())
+        .mapToObj(index -> Pair.of(orderedEvents.get(index), matches.get(index).getPolicyId()))
+        .collect(Collectors.toList())));
   }
 
   private Map<NoticeEventGroupDefinition, List<PatronNoticeEvent>> groupEvents(
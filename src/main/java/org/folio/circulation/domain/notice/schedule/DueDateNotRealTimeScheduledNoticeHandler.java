@@ -9,6 +9,7 @@ import static org.folio.circulation.support.ResultBinding.mapResult;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import org.apache.commons.lang3.tuple.Pair;
 import org.folio.circulation.domain.Loan;
@@ -71,6 +72,7 @@ public class DueDateNotRealTimeScheduledNoticeHandler {
   private CompletableFuture<Result<Void>> handleNoticeGroup(List<ScheduledNotice> noticeGroup) {
   return allResultsOf(noticeGroup, this::getContext)
       .thenCompose(this::handleFailures)
+      .thenCompose(r -> r.after(this::lookupLoanPolicies))
       .thenCompose(r -> r.after(this::sendGroupedNotice))
       .thenCompose(r -> r.after(this::updateGroupedNotice))
       .thenApply(mapResult(p -> null));
@@ -94,10 +96,26 @@ public class DueDateNotRealTimeScheduledNoticeHandler {
       .thenCompose(r -> r.after(i -> loanRepository.getById(notice.getLoanId())))
       .thenCompose(r -> dueDateScheduledNoticeHandler.deleteNoticeIfLoanIsMissingOrIncomplete(r, notice))
       .thenApply(mapResult(LoanAndRelatedRecords::new))
-      .thenCompose(r -> r.after(loanPolicyRepository::lookupLoanPolicy))
       .thenApply(mapResult(relatedRecords -> Pair.of(notice, relatedRecords)));
   }
 
+  /**
+   * The circulation rules are applied for all of the loans of the group at once
+   */
+  private CompletableFuture<Result<List<Pair<ScheduledNotice, LoanAndRelatedRecords>>>> lookupLoanPolicies(
+    List<Pair<ScheduledNotice, LoanAndRelatedRecords>> noticeGroup) {
+
+    final List<Loan> loans = noticeGroup.stream()
+      .map(notice -> notice.getRight().getLoan())
+      .collect(Collectors.toList());
+
+    return loanPolicyRepository.lookupLoanPolicies(loans)
+      .thenApply(mapResult(loansWithPolicies -> IntStream.range(0, noticeGroup.size())
+        .mapToObj(index -> Pair.of(noticeGroup.get(index).getLeft(),
+          noticeGroup.get(index).getRight().withLoan(loansWithPolicies.get(index))))
+        .collect(Collectors.toList())));
+  }
+
   private CompletableFuture<Result<List<Pair<ScheduledNotice, LoanAndRelatedRecords>>>> sendGroupedNotice(
     List<Pair<ScheduledNotice, LoanAndRelatedRecords>> noticeGroup) {
 
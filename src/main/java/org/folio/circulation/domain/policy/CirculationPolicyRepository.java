@@ -1,41 +1,62 @@
 package org.folio.circulation.domain.policy;
 
 import static java.util.concurrent.CompletableFuture.completedFuture;
+import static java.util.function.Function.identity;
+import static java.util.stream.Collectors.toList;
 import static org.folio.circulation.support.Result.failed;
 import static org.folio.circulation.support.Result.succeeded;
 import static org.folio.circulation.support.results.CommonFailures.failedDueToServerError;
 
 import java.lang.invoke.MethodHandles;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 
+import org.apache.commons.lang3.tuple.Pair;
 import org.folio.circulation.domain.Item;
 import org.folio.circulation.domain.Loan;
+import org.folio.circulation.domain.MultipleRecords;
 import org.folio.circulation.domain.Request;
 import org.folio.circulation.domain.User;
+import org.folio.circulation.domain.policy.PolicyCache.RecordType;
 import org.folio.circulation.rules.AppliedRuleConditions;
 import org.folio.circulation.rules.CirculationRuleMatch;
-import org.folio.circulation.support.CirculationRulesClient;
+import org.folio.circulation.rules.RulesEvaluator;
+import org.folio.circulation.rules.RulesExecutionParameters;
 import org.folio.circulation.support.CollectionResourceClient;
-import org.folio.circulation.support.ForwardOnFailure;
+import org.folio.circulation.support.FetchSingleRecord;
 import org.folio.circulation.support.Result;
-import org.folio.circulation.support.SingleRecordFetcher;
-import org.folio.circulation.support.http.client.Response;
+import org.folio.circulation.support.http.client.PageLimit;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import io.vertx.core.json.JsonObject;
 
 public abstract class CirculationPolicyRepository<T> {
-  private static final String APPLIED_RULE_CONDITIONS = "appliedRuleConditions";
   private static final Logger log = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
 
-  private final CirculationRulesClient circulationRulesClient;
+  private static final PageLimit PRELOAD_LIMIT = PageLimit.oneThousand();
+
+  final String tenantId;
+  private final RecordType recordType;
+  private final String collectionPropertyName;
+  final PolicyCache policyCache;
+  private final RulesEvaluator rulesEvaluator;
   final CollectionResourceClient policyStorageClient;
 
   CirculationPolicyRepository(
-    CirculationRulesClient circulationRulesClient,
+    String tenantId,
+    RecordType recordType,
+    String collectionPropertyName,
+    RulesEvaluator rulesEvaluator,
     CollectionResourceClient policyStorageClient) {
-    this.circulationRulesClient = circulationRulesClient;
+    this.tenantId = tenantId;
+    this.recordType = recordType;
+    this.collectionPropertyName = collectionPropertyName;
+    this.policyCache = PolicyCache.getInstance();
+    this.rulesEvaluator = rulesEvaluator;
     this.policyStorageClient = policyStorageClient;
   }
 
@@ -66,69 +87,135 @@ public abstract class CirculationPolicyRepository<T> {
   public CompletableFuture<Result<T>> lookupPolicy(String policyId, AppliedRuleConditions conditionsEntity) {
     log.info("Looking up policy with id {}", policyId);
 
-    return SingleRecordFetcher.json(policyStorageClient, "circulation policy",
-      response -> failedDueToServerError(getPolicyNotFoundErrorMessage(policyId)))
+    return findPolicyById(policyId)
+      .thenApply(result -> result.next(policy -> policy == null
+        ? failedDueToServerError(getPolicyNotFoundErrorMessage(policyId))
+        : succeeded(withRuleConditions(policy, conditionsEntity))));
+  }
+
+  /**
+   * Gets the policy from the cache, or from storage when it is not cached
+   * @param policyId  id of the policy
+   * @return the policy without applied rule conditions, null when it is not found
+   */
+  CompletableFuture<Result<T>> findPolicyById(String policyId) {
+    return policyCache.preload(tenantId, recordType, this::fetchAllPolicies)
+      .thenCompose(preloaded -> policyCache.get(tenantId, recordType, policyId,
+        this::fetchPolicy));
+  }
+
+  private CompletableFuture<Result<T>> fetchPolicy(String policyId) {
+    return FetchSingleRecord.<JsonObject>forRecord("circulation policy")
+      .using(policyStorageClient)
+      .mapTo(identity())
+      .whenNotFound(succeeded(null))
       .fetch(policyId)
-      .thenApply(result -> result.next(json -> mapToPolicy(json, conditionsEntity)));
+      .thenApply(result -> result.next(json -> json == null
+        ? succeeded(null)
+        : mapToPolicy(json, null)));
   }
 
-  public CompletableFuture<Result<CirculationRuleMatch>> lookupPolicyId(Item item, User user) {
-    if (item.isNotFound()) {
-      return completedFuture(failedDueToServerError(
-        "Unable to apply circulation rules for unknown item"));
+  private CompletableFuture<Result<Map<String, T>>> fetchAllPolicies() {
+    log.info("Preloading {} of tenant {}", collectionPropertyName, tenantId);
+
+    return policyStorageClient.get(PRELOAD_LIMIT)
+      .thenApply(result -> result.next(response ->
+        MultipleRecords.from(response, identity(), collectionPropertyName)))
+      .thenApply(result -> result.next(this::toPolicies));
+  }
+
+  private Result<Map<String, T>> toPolicies(MultipleRecords<JsonObject> representations) {
+    final Map<String, T> policies = new HashMap<>();
+
+    for (JsonObject representation : representations.getRecords()) {
+      final Result<T> policy = toPolicy(representation, null);
+
+      if (policy.failed()) {
+        return failed(policy.cause());
+      }
+
+      policies.put(representation.getString("id"), policy.value());
     }
 
-    if (item.doesNotHaveHolding()) {
-      return completedFuture(failedDueToServerError(
-        "Unable to apply circulation rules for unknown holding"));
+    return succeeded(policies);
+  }
+
+  /**
+   * Policies are cached without the conditions of the rule they were matched by
+   * @param policy  the policy as it is cached
+   * @param ruleConditions  conditions of the matching circulation rule
+   * @return the policy with the conditions
+   */
+  protected T withRuleConditions(T policy, AppliedRuleConditions ruleConditions) {
+    return policy;
+  }
+
+  public CompletableFuture<Result<CirculationRuleMatch>> lookupPolicyId(Item item, User user) {
+    final Result<Item> applicableItem = checkRulesCanBeApplied(item);
+
+    if (applicableItem.failed()) {
+      return completedFuture(failed(applicableItem.cause()));
     }
 
-    String loanTypeId = item.determineLoanTypeForItem();
-    String locationId = item.getLocationId();
-    String materialTypeId = item.getMaterialTypeId();
-    String patronGroupId = user.getPatronGroupId();
+    final RulesExecutionParameters parameters
+      = RulesExecutionParameters.forItemAndUser(item, user);
 
     log.info(
       "Applying circulation rules for material type: {}, patron group: {}, loan type: {}, location: {}",
-      materialTypeId, patronGroupId, loanTypeId, locationId);
-
-    final CompletableFuture<Result<Response>> circulationRulesResponse =
-      circulationRulesClient.applyRules(loanTypeId, locationId, materialTypeId, patronGroupId);
+      parameters.getMaterialTypeId(), parameters.getPatronGroupId(),
+      parameters.getLoanTypeId(), parameters.getLocationId());
 
-    return circulationRulesResponse
-      .thenCompose(r -> r.after(this::processRulesResponse));
+    return rulesEvaluator.applyRules(parameters)
+      .thenApply(r -> r.map(this::logPolicyToFetch));
   }
 
-  private CompletableFuture<Result<CirculationRuleMatch>> processRulesResponse(Response response) {
-    final CompletableFuture<Result<CirculationRuleMatch>> future = new CompletableFuture<>();
+  /**
+   * Applies the circulation rules for all of the items and users at once.
+   * @param itemsAndUsers  items and the users they are to be loaned to, requested by etc.
+   * @return the matches in the same order as the items and users
+   */
+  public CompletableFuture<Result<List<CirculationRuleMatch>>> lookupPolicyIds(
+    Collection<Pair<Item, User>> itemsAndUsers) {
+
+    for (Pair<Item, User> itemAndUser : itemsAndUsers) {
+      final Result<Item> applicableItem = checkRulesCanBeApplied(itemAndUser.getLeft());
+
+      if (applicableItem.failed()) {
+        return completedFuture(failed(applicableItem.cause()));
+      }
+    }
+
+    final List<RulesExecutionParameters> parameters = itemsAndUsers.stream()
+      .map(itemAndUser -> RulesExecutionParameters.forItemAndUser(
+        itemAndUser.getLeft(), itemAndUser.getRight()))
+      .collect(toList());
 
-    if (response.getStatusCode() == 404) {
-      future.complete(failedDueToServerError("Unable to apply circulation rules"));
-    } else if (response.getStatusCode() != 200) {
-      future.complete(failed(new ForwardOnFailure(response)));
-    } else {
-      log.info("Rules response {}", response.getBody());
+    log.info("Applying circulation rules for {} items", parameters.size());
 
-      String policyId = fetchPolicyId(response.getJson());
-      boolean isItemTypePresent = response.getJson().getJsonObject(APPLIED_RULE_CONDITIONS)
-        .getBoolean("materialTypeMatch");
-      boolean isLoanTypePresent = response.getJson().getJsonObject(APPLIED_RULE_CONDITIONS)
-        .getBoolean("loanTypeMatch");
-      boolean isPatronGroupPresent = response.getJson().getJsonObject(APPLIED_RULE_CONDITIONS)
-        .getBoolean("patronGroupMatch");
+    return rulesEvaluator.applyRules(parameters);
+  }
 
-      log.info("Policy to fetch based upon rules {}", policyId);
+  private static Result<Item> checkRulesCanBeApplied(Item item) {
+    if (item.isNotFound()) {
+      return failedDueToServerError(
+        "Unable to apply circulation rules for unknown item");
+    }
 
-      future.complete(succeeded(new CirculationRuleMatch(
-        policyId, new AppliedRuleConditions(isItemTypePresent, isLoanTypePresent, isPatronGroupPresent))));
+    if (item.doesNotHaveHolding()) {
+      return failedDueToServerError(
+        "Unable to apply circulation rules for unknown holding");
     }
 
-    return future;
+    return succeeded(item);
+  }
+
+  private CirculationRuleMatch logPolicyToFetch(CirculationRuleMatch match) {
+    log.info("Policy to fetch based upon rules {}", match.getPolicyId());
+
+    return match;
   }
 
   protected abstract String getPolicyNotFoundErrorMessage(String policyId);
 
   protected abstract Result<T> toPolicy(JsonObject representation, AppliedRuleConditions ruleConditionsEntity);
-
-  protected abstract String fetchPolicyId(JsonObject jsonObject);
 }
@@ -323,6 +323,11 @@ public class LoanPolicy extends Policy {
     return withDueDateSchedules(FixedDueDateSchedules.from(fixedDueDateSchedules));
   }
 
+  LoanPolicy withRuleConditions(AppliedRuleConditions ruleConditions) {
+    return new LoanPolicy(representation, fixedDueDateSchedules,
+      alternateRenewalFixedDueDateSchedules, ruleConditions);
+  }
+
   LoanPolicy withAlternateRenewalSchedules(FixedDueDateSchedules renewalSchedules) {
     return new LoanPolicy(representation, fixedDueDateSchedules, renewalSchedules);
   }
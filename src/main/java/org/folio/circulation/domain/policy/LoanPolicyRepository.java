@@ -2,6 +2,9 @@ package org.folio.circulation.domain.policy;
 
 import static java.util.Objects.isNull;
 import static org.folio.circulation.domain.policy.LoanPolicy.unknown;
+import static org.folio.circulation.domain.policy.PolicyCache.RecordType.FIXED_DUE_DATE_SCHEDULES;
+import static org.folio.circulation.domain.policy.PolicyCache.RecordType.LOAN_POLICIES;
+import static org.folio.circulation.support.AsyncCoordinationUtil.allOf;
 import static org.folio.circulation.support.Result.ofAsync;
 import static org.folio.circulation.support.Result.succeeded;
 import static org.folio.circulation.support.ResultBinding.mapResult;
@@ -14,13 +17,15 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
+import org.apache.commons.lang3.tuple.Pair;
 import org.folio.circulation.domain.Loan;
 import org.folio.circulation.domain.LoanAndRelatedRecords;
 import org.folio.circulation.domain.MultipleRecords;
 import org.folio.circulation.rules.AppliedRuleConditions;
+import org.folio.circulation.rules.CirculationRuleMatch;
 import org.folio.circulation.support.Clients;
-import org.folio.circulation.support.FetchSingleRecord;
 import org.folio.circulation.support.FindWithMultipleCqlIndexValues;
 import org.folio.circulation.support.GetManyRecordsClient;
 import org.folio.circulation.support.Result;
@@ -32,7 +37,8 @@ public class LoanPolicyRepository extends CirculationPolicyRepository<LoanPolicy
   private final GetManyRecordsClient fixedDueDateSchedulesStorageClient;
 
   public LoanPolicyRepository(Clients clients) {
-    super(clients.circulationLoanRules(), clients.loanPoliciesStorage());
+    super(clients.tenantId(), LOAN_POLICIES, "loanPolicies",
+      clients.circulationLoanRules(), clients.loanPoliciesStorage());
     this.fixedDueDateSchedulesStorageClient = clients.fixedDueDateSchedules();
   }
 
@@ -55,11 +61,8 @@ public class LoanPolicyRepository extends CirculationPolicyRepository<LoanPolicy
       return ofAsync(() -> unknown(null));
     }
 
-    return FetchSingleRecord.<LoanPolicy>forRecord("loan policy")
-      .using(policyStorageClient)
-      .mapTo(LoanPolicy::from)
-      .whenNotFound(succeeded(unknown(loanPolicyId)))
-      .fetch(loanPolicyId);
+    return findPolicyById(loanPolicyId)
+      .thenApply(mapResult(policy -> policy == null ? unknown(loanPolicyId) : policy));
   }
 
   public CompletableFuture<Result<MultipleRecords<Loan>>> findLoanPoliciesForLoans(MultipleRecords<Loan> multipleLoans) {
@@ -92,7 +95,30 @@ public class LoanPolicyRepository extends CirculationPolicyRepository<LoanPolicy
 
   @Override
   public CompletableFuture<Result<LoanPolicy>> lookupPolicy(Loan loan) {
-    return super.lookupPolicy(loan)
+    return lookupPolicyId(loan.getItem(), loan.getUser())
+      .thenComposeAsync(r -> r.after(this::lookupPolicyWithSchedules));
+  }
+
+  /**
+   * Looks up the loan policy of each of the loans, applying the circulation
+   * rules for all of them at once
+   * @param loans  loans with their items and users
+   * @return the loans with their loan policies, in the same order
+   */
+  public CompletableFuture<Result<List<Loan>>> lookupLoanPolicies(List<Loan> loans) {
+    return lookupPolicyIds(loans.stream()
+        .map(loan -> Pair.of(loan.getItem(), loan.getUser()))
+        .collect(Collectors.toList()))
+      .thenCompose(r -> r.after(matches -> allOf(
+        IntStream.range(0, loans.size()).boxed().collect(Collectors.toList()),
+        index -> lookupPolicyWithSchedules(matches.get(index))
+          .thenApply(mapResult(loans.get(index)::withLoanPolicy)))));
+  }
+
+  private CompletableFuture<Result<LoanPolicy>> lookupPolicyWithSchedules(
+    CirculationRuleMatch ruleMatch) {
+
+    return lookupPolicy(ruleMatch.getPolicyId(), ruleMatch.getAppliedRuleConditions())
       .thenComposeAsync(r -> r.after(this::lookupSchedules));
   }
 
@@ -135,8 +161,10 @@ public class LoanPolicyRepository extends CirculationPolicyRepository<LoanPolicy
       = findWithMultipleCqlIndexValues(fixedDueDateSchedulesStorageClient,
         "fixedDueDateSchedules", FixedDueDateSchedules::from);
 
-    return fetcher.findByIds(schedulesIds)
-      .thenApply(mapResult(schedules -> schedules.toMap(FixedDueDateSchedules::getId)));
+    return policyCache.getAll(tenantId, FIXED_DUE_DATE_SCHEDULES, schedulesIds,
+      ids -> fetcher.findByIds(ids)
+        .thenApply(mapResult(schedules -> schedules.toMap(
+          FixedDueDateSchedules::getId))));
   }
 
   @Override
@@ -145,13 +173,15 @@ public class LoanPolicyRepository extends CirculationPolicyRepository<LoanPolicy
   }
 
   @Override
-  protected Result<LoanPolicy> toPolicy(JsonObject representation, AppliedRuleConditions ruleConditionsEntity) {
-    return succeeded(new LoanPolicy(representation,
-      new NoFixedDueDateSchedules(), new NoFixedDueDateSchedules(), ruleConditionsEntity));
+  protected LoanPolicy withRuleConditions(LoanPolicy policy,
+    AppliedRuleConditions ruleConditions) {
+
+    return policy.withRuleConditions(ruleConditions);
   }
 
   @Override
-  protected String fetchPolicyId(JsonObject jsonObject) {
-    return jsonObject.getString("loanPolicyId");
+  protected Result<LoanPolicy> toPolicy(JsonObject representation, AppliedRuleConditions ruleConditionsEntity) {
+    return succeeded(new LoanPolicy(representation,
+      new NoFixedDueDateSchedules(), new NoFixedDueDateSchedules(), ruleConditionsEntity));
   }
 }
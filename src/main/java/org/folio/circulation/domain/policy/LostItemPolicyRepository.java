@@ -1,6 +1,7 @@
 package org.folio.circulation.domain.policy;
 
 import static java.util.Objects.isNull;
+import static org.folio.circulation.domain.policy.PolicyCache.RecordType.LOST_ITEM_POLICIES;
 import static org.folio.circulation.support.Result.ofAsync;
 import static org.folio.circulation.support.Result.succeeded;
 import static org.folio.circulation.support.ResultBinding.mapResult;
@@ -17,7 +18,6 @@ import org.folio.circulation.domain.LoanAndRelatedRecords;
 import org.folio.circulation.domain.MultipleRecords;
 import org.folio.circulation.rules.AppliedRuleConditions;
 import org.folio.circulation.support.Clients;
-import org.folio.circulation.support.FetchSingleRecord;
 import org.folio.circulation.support.FindWithMultipleCqlIndexValues;
 import org.folio.circulation.support.Result;
 
@@ -26,7 +26,8 @@ import io.vertx.core.json.JsonObject;
 public class LostItemPolicyRepository extends CirculationPolicyRepository<LostItemPolicy> {
 
   public LostItemPolicyRepository(Clients clients) {
-    super(clients.circulationLostItemRules(), clients.lostItemPoliciesStorage());
+    super(clients.tenantId(), LOST_ITEM_POLICIES, "lostItemFeePolicies",
+      clients.circulationLostItemRules(), clients.lostItemPoliciesStorage());
   }
 
   public CompletableFuture<Result<LoanAndRelatedRecords>> lookupLostItemPolicy(
@@ -49,11 +50,6 @@ public class LostItemPolicyRepository extends CirculationPolicyRepository<LostIt
     return succeeded(LostItemPolicy.from(representation));
   }
 
-  @Override
-  protected String fetchPolicyId(JsonObject jsonObject) {
-    return jsonObject.getString("lostItemPolicyId");
-  }
-
   public CompletableFuture<Result<MultipleRecords<Loan>>> findLostItemPoliciesForLoans(
     MultipleRecords<Loan> multipleLoans) {
 
@@ -100,10 +96,9 @@ public class LostItemPolicyRepository extends CirculationPolicyRepository<LostIt
       return ofAsync(() -> LostItemPolicy.unknown(null));
     }
 
-    return FetchSingleRecord.<LostItemPolicy>forRecord("lostItemFeePolicies")
-      .using(policyStorageClient)
-      .mapTo(LostItemPolicy::from)
-      .whenNotFound(succeeded(LostItemPolicy.unknown(lostItemPolicyId)))
-      .fetch(lostItemPolicyId);
+    return findPolicyById(lostItemPolicyId)
+      .thenApply(mapResult(policy -> policy == null
+        ? LostItemPolicy.unknown(lostItemPolicyId)
+        : policy));
   }
 }
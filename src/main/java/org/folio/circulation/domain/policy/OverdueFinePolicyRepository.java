@@ -1,6 +1,7 @@
 package org.folio.circulation.domain.policy;
 
 import static java.util.Objects.isNull;
+import static org.folio.circulation.domain.policy.PolicyCache.RecordType.OVERDUE_FINE_POLICIES;
 import static org.folio.circulation.support.Result.ofAsync;
 import static org.folio.circulation.support.Result.succeeded;
 import static org.folio.circulation.support.ResultBinding.mapResult;
@@ -17,7 +18,6 @@ import org.folio.circulation.domain.LoanAndRelatedRecords;
 import org.folio.circulation.domain.MultipleRecords;
 import org.folio.circulation.rules.AppliedRuleConditions;
 import org.folio.circulation.support.Clients;
-import org.folio.circulation.support.FetchSingleRecord;
 import org.folio.circulation.support.FindWithMultipleCqlIndexValues;
 import org.folio.circulation.support.Result;
 
@@ -26,7 +26,8 @@ import io.vertx.core.json.JsonObject;
 public class OverdueFinePolicyRepository extends CirculationPolicyRepository<OverdueFinePolicy> {
 
   public OverdueFinePolicyRepository(Clients clients) {
-    super(clients.circulationOverdueFineRules(), clients.overdueFinesPoliciesStorage());
+    super(clients.tenantId(), OVERDUE_FINE_POLICIES, "overdueFinePolicies",
+      clients.circulationOverdueFineRules(), clients.overdueFinesPoliciesStorage());
   }
 
   public CompletableFuture<Result<LoanAndRelatedRecords>> lookupOverdueFinePolicy(
@@ -50,11 +51,6 @@ public class OverdueFinePolicyRepository extends CirculationPolicyRepository<Ove
     return succeeded(OverdueFinePolicy.from((representation)));
   }
 
-  @Override
-  protected String fetchPolicyId(JsonObject jsonObject) {
-    return jsonObject.getString("overdueFinePolicyId");
-  }
-
   public CompletableFuture<Result<MultipleRecords<Loan>>>
     findOverdueFinePoliciesForLoans(MultipleRecords<Loan> multipleLoans) {
 
@@ -100,10 +96,9 @@ public class OverdueFinePolicyRepository extends CirculationPolicyRepository<Ove
       return ofAsync(() -> OverdueFinePolicy.unknown(null));
     }
 
-    return FetchSingleRecord.<OverdueFinePolicy>forRecord("overdueFinePolicies")
-      .using(policyStorageClient)
-      .mapTo(OverdueFinePolicy::from)
-      .whenNotFound(succeeded(OverdueFinePolicy.unknown(overdueFinePolicyId)))
-      .fetch(overdueFinePolicyId);
+    return findPolicyById(overdueFinePolicyId)
+      .thenApply(mapResult(policy -> policy == null
+        ? OverdueFinePolicy.unknown(overdueFinePolicyId)
+        : policy));
   }
 }
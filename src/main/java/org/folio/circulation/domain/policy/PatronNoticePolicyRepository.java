@@ -1,5 +1,7 @@
 package org.folio.circulation.domain.policy;
 
+import static org.folio.circulation.domain.policy.PolicyCache.RecordType.PATRON_NOTICE_POLICIES;
+
 import java.util.function.Function;
 
 import org.folio.circulation.domain.notice.PatronNoticePolicy;
@@ -21,7 +23,8 @@ public class PatronNoticePolicyRepository extends CirculationPolicyRepository<Pa
   private PatronNoticePolicyRepository(
     Clients clients,
     Function<JsonObject, Result<PatronNoticePolicy>> patronNoticePolicyMapper) {
-    super(clients.circulationNoticeRules(), clients.patronNoticePolicesStorageClient());
+    super(clients.tenantId(), PATRON_NOTICE_POLICIES, "patronNoticePolicies",
+      clients.circulationNoticeRules(), clients.patronNoticePolicesStorageClient());
     this.patronNoticePolicyMapper = patronNoticePolicyMapper;
   }
 
@@ -36,9 +39,4 @@ public class PatronNoticePolicyRepository extends CirculationPolicyRepository<Pa
 
     return patronNoticePolicyMapper.apply(representation);
   }
-
-  @Override
-  protected String fetchPolicyId(JsonObject jsonObject) {
-    return jsonObject.getString("noticePolicyId");
-  }
 }
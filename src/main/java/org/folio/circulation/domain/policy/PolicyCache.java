@@ -0,0 +1,266 @@
+package org.folio.circulation.domain.policy;
+
+import static java.util.concurrent.CompletableFuture.completedFuture;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static org.folio.circulation.support.Result.failed;
+import static org.folio.circulation.support.Result.succeeded;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import org.folio.circulation.support.Result;
+
+/**
+ * Per tenant cache of the policies and fixed due date schedules, keyed by id.
+ * The policies are cached after they have been parsed, so they must not be
+ * changed by their users.
+ * <p>
+ * Concurrent lookups of a policy that is not cached share a single request,
+ * policies that are not found and failed lookups are not cached.
+ * <p>
+ * When preloading is enabled, the first lookup of a type of policy for a
+ * tenant loads all of the policies of that type, which is repeated once
+ * the time to live has passed.
+ */
+public class PolicyCache {
+  private static final PolicyCache instance = new PolicyCache(
+    System::currentTimeMillis);
+
+  public enum RecordType {
+    LOAN_POLICIES,
+    OVERDUE_FINE_POLICIES,
+    LOST_ITEM_POLICIES,
+    PATRON_NOTICE_POLICIES,
+    FIXED_DUE_DATE_SCHEDULES
+  }
+
+  private final LongSupplier clock;
+  private final ConcurrentMap<String, Entry> policies = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, Entry> preloads = new ConcurrentHashMap<>();
+
+  private volatile long timeToLiveInMilliseconds = MINUTES.toMillis(5);
+  private volatile boolean preloadEnabled;
+
+  PolicyCache(LongSupplier clock) {
+    this.clock = clock;
+  }
+
+  public static PolicyCache getInstance() {
+    return instance;
+  }
+
+  /**
+   * @param timeToLiveInMilliseconds  how long policies are used after loading them,
+   *                                  0 disables caching
+   */
+  public void setTimeToLive(long timeToLiveInMilliseconds) {
+    this.timeToLiveInMilliseconds = timeToLiveInMilliseconds;
+    clear();
+  }
+
+  /**
+   * @param preloadEnabled  whether all of the policies of a type are loaded
+   *                        at the first lookup of a tenant
+   */
+  public void setPreloadEnabled(boolean preloadEnabled) {
+    this.preloadEnabled = preloadEnabled;
+  }
+
+  /**
+   * Drop the cached policies of all tenants.
+   */
+  public void clear() {
+    policies.clear();
+    preloads.clear();
+  }
+
+  /**
+   * Return the cached policy, on a miss load it and cache it.
+   * @param tenantId  tenant of the policy
+   * @param recordType  type of the policy
+   * @param id  id of the policy
+   * @param loader  loads the policy, null when it is not found
+   * @return the policy, null when it is not found
+   */
+  <T> CompletableFuture<Result<T>> get(String tenantId, RecordType recordType,
+    String id, Function<String, CompletableFuture<Result<T>>> loader) {
+
+    if (timeToLiveInMilliseconds <= 0) {
+      return loader.apply(id);
+    }
+
+    return getOrLoad(policies, key(tenantId, recordType, id),
+      () -> loader.apply(id));
+  }
+
+  /**
+   * Return the cached policies, the policies that are not cached are loaded
+   * in a single batch.
+   * @param tenantId  tenant of the policies
+   * @param recordType  type of the policies
+   * @param ids  ids of the policies
+   * @param loader  loads the policies by id, ids that are not found are not included
+   * @return the policies by id, ids that are not found are not included
+   */
+  <T> CompletableFuture<Result<Map<String, T>>> getAll(String tenantId,
+    RecordType recordType, Collection<String> ids,
+    Function<Collection<String>, CompletableFuture<Result<Map<String, T>>>> loader) {
+
+    final Set<String> distinctIds = new HashSet<>(ids);
+
+    if (timeToLiveInMilliseconds <= 0) {
+      return loader.apply(distinctIds);
+    }
+
+    final long ttl = timeToLiveInMilliseconds;
+    final long now = clock.getAsLong();
+
+    final Map<String, Entry> entries = new HashMap<>();
+    final Map<String, Entry> toLoad = new HashMap<>();
+
+    distinctIds.forEach(id -> {
+      final String key = key(tenantId, recordType, id);
+      final Entry entry = entryFor(policies, key, now, ttl);
+
+      entries.put(id, entry);
+
+      if (entry.startLoad()) {
+        toLoad.put(id, entry);
+      }
+    });
+
+    if (!toLoad.isEmpty()) {
+      loader.apply(toLoad.keySet()).whenComplete((result, error) ->
+        toLoad.forEach((id, entry) -> completeLoad(policies,
+          key(tenantId, recordType, id), entry,
+          result == null ? null : result.map(loaded -> loaded.get(id)), error)));
+    }
+
+    return CompletableFuture.allOf(entries.values().stream()
+        .map(entry -> entry.value)
+        .toArray(CompletableFuture[]::new))
+      .thenApply(notUsed -> policiesFrom(entries));
+  }
+
+  /**
+   * Load all of the policies of the type, when preloading is enabled and they
+   * have not been loaded within the time to live.
+   * @param tenantId  tenant of the policies
+   * @param recordType  type of the policies
+   * @param loader  loads all of the policies of the type by id
+   * @return completes when the policies have been loaded, also when loading failed
+   */
+  <T> CompletableFuture<Void> preload(String tenantId, RecordType recordType,
+    Supplier<CompletableFuture<Result<Map<String, T>>>> loader) {
+
+    if (!preloadEnabled || timeToLiveInMilliseconds <= 0) {
+      return completedFuture(null);
+    }
+
+    return getOrLoad(preloads, key(tenantId, recordType, "*"),
+      () -> loader.get().thenApply(r -> r.map(loaded -> {
+        loaded.forEach((id, policy) -> policies.put(key(tenantId, recordType, id),
+          new Entry(succeeded(policy), clock.getAsLong())));
+        return loaded;
+      })))
+      .handle((result, error) -> null);
+  }
+
+  @SuppressWarnings("unchecked")
+  private <T> CompletableFuture<Result<T>> getOrLoad(ConcurrentMap<String, Entry> entries,
+    String key, Supplier<CompletableFuture<Result<T>>> loader) {
+
+    final Entry entry = entryFor(entries, key, clock.getAsLong(),
+      timeToLiveInMilliseconds);
+
+    if (entry.startLoad()) {
+      loader.get().whenComplete((result, error) ->
+        completeLoad(entries, key, entry, result, error));
+    }
+
+    return (CompletableFuture<Result<T>>) (CompletableFuture<?>) entry.value;
+  }
+
+  private static Entry entryFor(ConcurrentMap<String, Entry> entries,
+    String key, long now, long ttl) {
+
+    return entries.compute(key, (k, existing) ->
+      existing != null && existing.isUsable(now, ttl) ? existing : new Entry());
+  }
+
+  private void completeLoad(ConcurrentMap<String, Entry> entries, String key,
+    Entry entry, Result<?> result, Throwable error) {
+
+    if (error != null || result.failed() || result.value() == null) {
+      entries.remove(key, entry);
+    }
+
+    entry.loadTimestamp = clock.getAsLong();
+
+    if (error != null) {
+      entry.value.completeExceptionally(error);
+    } else {
+      entry.value.complete(result);
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T> Result<Map<String, T>> policiesFrom(Map<String, Entry> entries) {
+    final Map<String, T> found = new HashMap<>();
+
+    for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+      final Result<T> result = (Result<T>) entry.getValue().value.join();
+
+      if (result.failed()) {
+        return failed(result.cause());
+      }
+
+      if (result.value() != null) {
+        found.put(entry.getKey(), result.value());
+      }
+    }
+
+    return succeeded(found);
+  }
+
+  private static String key(String tenantId, RecordType recordType, String id) {
+    return tenantId + "/" + recordType + "/" + id;
+  }
+
+  private static class Entry {
+    private final CompletableFuture<Result<?>> value;
+    private final AtomicBoolean loadStarted;
+
+    /** System.currentTimeMillis() of the completion of the load */
+    private volatile long loadTimestamp;
+
+    Entry() {
+      this.value = new CompletableFuture<>();
+      this.loadStarted = new AtomicBoolean();
+    }
+
+    Entry(Result<?> loaded, long loadTimestamp) {
+      this.value = completedFuture(loaded);
+      this.loadStarted = new AtomicBoolean(true);
+      this.loadTimestamp = loadTimestamp;
+    }
+
+    boolean startLoad() {
+      return loadStarted.compareAndSet(false, true);
+    }
+
+    boolean isUsable(long now, long ttl) {
+      return !value.isDone() || now - loadTimestamp < ttl;
+    }
+  }
+}
@@ -2,24 +2,26 @@ package org.folio.circulation.domain.policy;
 
 import static java.lang.String.format;
 import static java.util.concurrent.CompletableFuture.completedFuture;
-import static org.folio.circulation.support.Result.failed;
-import static org.folio.circulation.support.Result.succeeded;
+import static java.util.stream.Collectors.toList;
 import static org.folio.circulation.support.results.CommonFailures.failedDueToServerError;
 
 import java.lang.invoke.MethodHandles;
+import java.util.Collection;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 
+import org.apache.commons.lang3.tuple.Pair;
 import org.folio.circulation.domain.Item;
 import org.folio.circulation.domain.Request;
 import org.folio.circulation.domain.RequestAndRelatedRecords;
 import org.folio.circulation.domain.User;
-import org.folio.circulation.support.CirculationRulesClient;
+import org.folio.circulation.rules.CirculationRuleMatch;
+import org.folio.circulation.rules.RulesEvaluator;
+import org.folio.circulation.rules.RulesExecutionParameters;
 import org.folio.circulation.support.Clients;
 import org.folio.circulation.support.CollectionResourceClient;
-import org.folio.circulation.support.ForwardOnFailure;
 import org.folio.circulation.support.Result;
 import org.folio.circulation.support.SingleRecordFetcher;
-import org.folio.circulation.support.http.client.Response;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -28,11 +30,11 @@ import io.vertx.core.json.JsonObject;
 public class RequestPolicyRepository {
   private static final Logger log = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
 
-  private final CirculationRulesClient circulationRequestRulesClient;
+  private final RulesEvaluator circulationRequestRules;
   private final CollectionResourceClient requestPoliciesStorageClient;
 
   public RequestPolicyRepository(Clients clients) {
-    this.circulationRequestRulesClient = clients.circulationRequestRules();
+    this.circulationRequestRules = clients.circulationRequestRules();
     this.requestPoliciesStorageClient = clients.requestPoliciesStorage();
   }
 
@@ -45,6 +47,29 @@ public class RequestPolicyRepository {
       .thenApply(result -> result.map(relatedRecords::withRequestPolicy));
   }
 
+  /**
+   * Applies the circulation rules for all of the items and users at once.
+   * @param itemsAndUsers  items and the users requesting them
+   * @return the matches in the same order as the items and users
+   */
+  public CompletableFuture<Result<List<CirculationRuleMatch>>> lookupPolicyIds(
+    Collection<Pair<Item, User>> itemsAndUsers) {
+
+    if (itemsAndUsers.stream().anyMatch(itemAndUser -> itemAndUser.getLeft().isNotFound())) {
+      return completedFuture(failedDueToServerError(
+        "Unable to find matching request rules for unknown item"));
+    }
+
+    final List<RulesExecutionParameters> parameters = itemsAndUsers.stream()
+      .map(itemAndUser -> RulesExecutionParameters.forItemAndUser(
+        itemAndUser.getLeft(), itemAndUser.getRight()))
+      .collect(toList());
+
+    log.info("Applying request rules for {} items", parameters.size());
+
+    return circulationRequestRules.applyRules(parameters);
+  }
+
   private CompletableFuture<Result<RequestPolicy>> lookupRequestPolicy(
     Item item,
     User user) {
@@ -71,34 +96,15 @@ public class RequestPolicyRepository {
         "Unable to find matching request rules for unknown item"));
     }
 
-    String materialTypeId = item.getMaterialTypeId();
-    String patronGroupId = user.getPatronGroupId();
-    String loanTypeId = item.determineLoanTypeForItem();
-    String locationId = item.getLocationId();
+    final RulesExecutionParameters parameters
+      = RulesExecutionParameters.forItemAndUser(item, user);
 
     log.info(
       "Applying request rules for material type: {}, patron group: {}, loan type: {}, location: {}",
-      materialTypeId, patronGroupId, loanTypeId, locationId);
-
-    CompletableFuture<Result<Response>> circulationRulesResponse =
-      circulationRequestRulesClient.applyRules(loanTypeId, locationId, materialTypeId,
-      patronGroupId);
-
-    return circulationRulesResponse
-      .thenComposeAsync(r -> r.after(this::processRulesResponse));
-  }
-
-  private CompletableFuture<Result<String>> processRulesResponse(Response response) {
-    final CompletableFuture<Result<String>> future = new CompletableFuture<>();
-
-    if (response.getStatusCode() == 404) {
-      future.complete(failedDueToServerError("Unable to find matching request rules"));
-    } else if (response.getStatusCode() != 200) {
-      future.complete(failed(new ForwardOnFailure(response)));
-    } else {
-      future.complete(succeeded(response.getJson().getString("requestPolicyId")));
-    }
+      parameters.getMaterialTypeId(), parameters.getPatronGroupId(),
+      parameters.getLoanTypeId(), parameters.getLocationId());
 
-    return future;
+    return circulationRequestRules.applyRules(parameters)
+      .thenApply(r -> r.map(CirculationRuleMatch::getPolicyId));
   }
 }
@@ -1,12 +1,16 @@
 package org.folio.circulation.resources;
 
+import static java.util.stream.Collectors.toList;
 import static org.apache.commons.lang3.exception.ExceptionUtils.getStackTrace;
+import static org.folio.circulation.support.AsyncCoordinationUtil.allOf;
 import static org.folio.circulation.support.Result.failed;
 import static org.folio.circulation.support.Result.succeeded;
 import static org.folio.circulation.support.http.server.ServerErrorResponse.internalError;
 
 import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 
@@ -14,8 +18,14 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.folio.circulation.domain.Location;
 import org.folio.circulation.rules.CirculationRuleMatch;
+import org.folio.circulation.rules.CirculationRulesCache;
 import org.folio.circulation.rules.Drools;
+import org.folio.circulation.rules.PolicyType;
+import org.folio.circulation.rules.RuleLocations;
+import org.folio.circulation.rules.RuleMatchCache;
+import org.folio.circulation.rules.RulesExecutionParameters;
 import org.folio.circulation.rules.Text2Drools;
+import org.folio.circulation.support.BadRequestFailure;
 import org.folio.circulation.support.Clients;
 import org.folio.circulation.support.CollectionResourceClient;
 import org.folio.circulation.support.FetchSingleRecord;
@@ -23,7 +33,6 @@ import org.folio.circulation.support.OkJsonResponseResult;
 import org.folio.circulation.support.Result;
 import org.folio.circulation.support.ServerErrorFailure;
 import org.folio.circulation.support.http.server.ClientErrorResponse;
-import org.folio.circulation.support.http.server.ForwardResponse;
 import org.folio.circulation.support.http.server.WebContext;
 
 import io.vertx.core.Handler;
@@ -34,6 +43,7 @@ import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 import io.vertx.ext.web.Router;
 import io.vertx.ext.web.RoutingContext;
+import io.vertx.ext.web.handler.BodyHandler;
 
 /**
  * The circulation rules engine calculates the loan policy based on
@@ -47,26 +57,11 @@ public abstract class AbstractCirculationRulesEngineResource extends Resource {
   public static final String LOCATION_ID_NAME = "location_id";
   public static final String LOAN_TYPE_ID_NAME = "loan_type_id";
 
+  private static final String UUID_REGEX = "^[a-fA-F0-9]{8}-[a-fA-F0-9]{4}-[1-5][a-fA-F0-9]{3}-[89abAB][a-fA-F0-9]{3}-[a-fA-F0-9]{12}$";
+
   private final String applyPath;
   private final String applyAllPath;
 
-  /** after this time the rules get loaded before executing the circulation rules engine */
-  private static long maxAgeInMilliseconds = 5000;
-  /** after this time the circulation rules engine is executed first for a fast reply
-   * and then the circulation rules get reloaded */
-  private static long triggerAgeInMilliseconds = 4000;
-
-  private class Rules {
-    String rulesAsText = "";
-    String rulesAsDrools = "";
-    Drools drools;
-    /** System.currentTimeMillis() of the last load/reload of the rules from the storage */
-    long reloadTimestamp;
-    boolean reloadInitiated = false;
-  }
-  /** rules and Drools for each tenantId */
-  private static Map<String,Rules> rulesMap = new HashMap<>();
-
   /**
    * Set the cache time.
    * @param triggerAgeInMilliseconds  after this time the circulation rules engine is executed first for a fast reply
@@ -74,8 +69,7 @@ public abstract class AbstractCirculationRulesEngineResource extends Resource {
    * @param maxAgeInMilliseconds  after this time the rules get loaded before executing the circulation rules engine
    */
   public static void setCacheTime(long triggerAgeInMilliseconds, long maxAgeInMilliseconds) {
-    AbstractCirculationRulesEngineResource.triggerAgeInMilliseconds = triggerAgeInMilliseconds;
-    AbstractCirculationRulesEngineResource.maxAgeInMilliseconds = maxAgeInMilliseconds;
+    CirculationRulesCache.getInstance().setCacheTime(triggerAgeInMilliseconds, maxAgeInMilliseconds);
   }
 
   /**
@@ -83,7 +77,7 @@ public abstract class AbstractCirculationRulesEngineResource extends Resource {
    * even when the circulation rules haven't changed.
    */
   public static void dropCache() {
-    rulesMap.clear();
+    CirculationRulesCache.getInstance().dropCache();
   }
 
   /**
@@ -92,11 +86,7 @@ public abstract class AbstractCirculationRulesEngineResource extends Resource {
    * @param tenantId  id of the tenant
    */
   static void clearCache(String tenantId) {
-    Rules rules = rulesMap.get(tenantId);
-    if (rules == null) {
-      return;
-    }
-    rules.reloadTimestamp = 0;
+    CirculationRulesCache.getInstance().clearCache(tenantId);
   }
 
   /**
@@ -119,86 +109,14 @@ public abstract class AbstractCirculationRulesEngineResource extends Resource {
   public void register(Router router) {
     router.get(applyPath   ).handler(this::apply);
     router.get(applyAllPath).handler(this::applyAll);
+    router.post(applyPath + "/batch").handler(BodyHandler.create());
+    router.post(applyPath + "/batch").handler(this::applyBatch);
   }
 
   private String getTenantId(RoutingContext routingContext) {
     return new WebContext(routingContext).getTenantId();
   }
 
-  private boolean isCurrent(Rules rules) {
-    if (rules == null) {
-      return false;
-    }
-    return rules.reloadTimestamp + maxAgeInMilliseconds > System.currentTimeMillis();
-  }
-
-  /**
-   * Reload is needed if the last reload is TRIGGER_AGE_IN_MILLISECONDS old
-   * and a reload hasn't been initiated yet.
-   * @param rules - rules to reload
-   * @return whether reload is needed
-   */
-  private boolean reloadNeeded(Rules rules) {
-    if (rules.reloadInitiated) {
-      return false;
-    }
-    return rules.reloadTimestamp + triggerAgeInMilliseconds < System.currentTimeMillis();
-  }
-
-  /**
-   * Load the circulation rules from the storage module.
-   * @param rules - where to store the rules and reload information
-   * @param routingContext - where to report any error
-   * @param done - invoked after success
-   */
-  private void reloadRules(Rules rules, RoutingContext routingContext, Handler<Void> done) {
-    final Clients clients = Clients.create(new WebContext(routingContext), client);
-    CollectionResourceClient circulationRulesClient = clients.circulationRulesStorage();
-
-    if (circulationRulesClient == null) {
-      return;
-    }
-
-    circulationRulesClient.get()
-      .thenAccept(result -> result
-        .applySideEffect(response -> {
-          try {
-            if (response.getStatusCode() != 200) {
-              ForwardResponse.forward(routingContext.response(), response);
-              log.error("{} {}", response.getStatusCode(), response.getBody());
-              return;
-            }
-
-            rules.reloadTimestamp = System.currentTimeMillis();
-            rules.reloadInitiated = false;
-            JsonObject circulationRules = new JsonObject(response.getBody());
-            if (log.isDebugEnabled()) {
-              log.debug("circulationRules = {}", circulationRules.encodePrettily());
-            }
-            String rulesAsText = circulationRules.getString("rulesAsText");
-            if (rulesAsText == null) {
-              throw new NullPointerException("rulesAsText");
-            }
-            if (rules.rulesAsText.equals(rulesAsText)) {
-              done.handle(null);
-              return;
-            }
-            rules.rulesAsText = rulesAsText;
-            rules.rulesAsDrools = Text2Drools.convert(rulesAsText);
-            log.debug("rulesAsDrools = {}", rules.rulesAsDrools);
-            rules.drools = new Drools(rules.rulesAsDrools);
-            done.handle(null);
-          }
-          catch (Exception e) {
-            log.error("reloadRules", e);
-            if (routingContext.response().ended()) {
-              return;
-            }
-            internalError(routingContext.response(), getStackTrace(e));
-          }
-    }, cause -> cause.writeTo(routingContext.response())));
-  }
-
   /**
    * Return a Drools for the tenantId of the routingContext. On error send the
    * error message via the routingContext's response.
@@ -207,89 +125,222 @@ public abstract class AbstractCirculationRulesEngineResource extends Resource {
    */
   protected void drools(RoutingContext routingContext, Handler<Drools> droolsHandler) {
     try {
-      String tenantId = getTenantId(routingContext);
-      Rules rules = rulesMap.get(tenantId);
-      if (isCurrent(rules)) {
-        droolsHandler.handle(rules.drools);
-        if (reloadNeeded(rules)) {
-          rules.reloadInitiated = true;
-          reloadRules(rules, routingContext, done -> {});
-        }
-        return;
-      }
-
-      if (rules == null) {
-        rules = new Rules();
-        rulesMap.put(tenantId, rules);
-      }
-      Rules finalRules = rules;
+      final Clients clients = Clients.create(new WebContext(routingContext), client);
 
-      reloadRules(rules, routingContext, done -> {
-        try {
-          droolsHandler.handle(finalRules.drools);
-        } catch (Exception e) {
-          log.error("drools droolsHandler", e);
+      CirculationRulesCache.getInstance()
+        .getDrools(getTenantId(routingContext), clients.circulationRulesStorage())
+        .thenAccept(result -> result.applySideEffect(drools -> {
+          try {
+            droolsHandler.handle(drools);
+          } catch (Exception e) {
+            log.error("drools droolsHandler", e);
+            internalError(routingContext.response(), getStackTrace(e));
+          }
+        }, cause -> cause.writeTo(routingContext.response())))
+        .exceptionally(e -> {
+          log.error("drools", e);
           internalError(routingContext.response(), getStackTrace(e));
-        }
-      });
+          return null;
+        });
     } catch (Exception e) {
       log.error("drools", e);
       internalError(routingContext.response(), getStackTrace(e));
     }
   }
 
-  private boolean invalidUuid(HttpServerRequest request, String paramName) {
-    final String regex = "^[a-fA-F0-9]{8}-[a-fA-F0-9]{4}-[1-5][a-fA-F0-9]{3}-[89abAB][a-fA-F0-9]{3}-[a-fA-F0-9]{12}$";
+
+  private static boolean invalidUuid(HttpServerRequest request, String paramName) {
     String uuid = request.getParam(paramName);
     if (uuid == null) {
       ClientErrorResponse.badRequest(request.response(), "required query parameter missing: " + paramName);
       return true;
     }
-    if (! uuid.matches(regex)) {
+    if (! uuid.matches(UUID_REGEX)) {
       ClientErrorResponse.badRequest(request.response(), "invalid uuid format of " + paramName +
-          ", expecting " + regex + " but it is " + uuid);
+          ", expecting " + UUID_REGEX + " but it is " + uuid);
       return true;
     }
     return false;
   }
 
+  private static String invalidUuid(int index, String propertyName, String uuid) {
+    if (uuid == null) {
+      return "required property missing in criteria " + index + ": " + propertyName;
+    }
+    if (! uuid.matches(UUID_REGEX)) {
+      return "invalid uuid format of " + propertyName + " in criteria " + index +
+          ", expecting " + UUID_REGEX + " but it is " + uuid;
+    }
+    return null;
+  }
+
+  /**
+   * The criteria of a request to apply the circulation rules for many
+   * criteria at once.
+   * @param routingContext  with a body with a criteria array
+   * @return the criteria in the order of the request, failed when
+   * the body or any of the criteria is invalid
+   */
+  static Result<List<RulesExecutionParameters>> batchCriteria(RoutingContext routingContext) {
+    final JsonArray criteria;
+
+    try {
+      final JsonObject body = routingContext.getBodyAsJson();
+      criteria = body == null ? null : body.getJsonArray("criteria");
+    } catch (Exception e) {
+      return failed(new BadRequestFailure("invalid criteria: " + e.getMessage()));
+    }
+
+    if (criteria == null) {
+      return failed(new BadRequestFailure("required property missing: criteria"));
+    }
+
+    final List<RulesExecutionParameters> parameters = new ArrayList<>(criteria.size());
+
+    for (int index = 0; index < criteria.size(); index++) {
+      final Object entry = criteria.getValue(index);
+
+      if (!(entry instanceof JsonObject)) {
+        return failed(new BadRequestFailure("criteria " + index + " is not an object"));
+      }
+
+      final RulesExecutionParameters parameter = RulesExecutionParameters.from((JsonObject) entry);
+
+      String reason = invalidUuid(index, "itemTypeId", parameter.getMaterialTypeId());
+      if (reason == null) {
+        reason = invalidUuid(index, "loanTypeId", parameter.getLoanTypeId());
+      }
+      if (reason == null) {
+        reason = invalidUuid(index, "patronTypeId", parameter.getPatronGroupId());
+      }
+      if (reason == null) {
+        reason = invalidUuid(index, "locationId", parameter.getLocationId());
+      }
+      if (reason != null) {
+        return failed(new BadRequestFailure(reason));
+      }
+
+      parameters.add(parameter);
+    }
+
+    return succeeded(parameters);
+  }
+
   private void apply(RoutingContext routingContext) {
     HttpServerRequest request = routingContext.request();
     if (invalidApplyParameters(request)) {
       return;
     }
-    drools(routingContext, drools -> {
-      try {
-        final CollectionResourceClient locationsStorageClient =
-          Clients.create(new WebContext(routingContext), client).locationsStorage();
-
-        FetchSingleRecord.<Location>forRecord("location")
-          .using(locationsStorageClient)
-          .mapTo(Location::from)
-          .whenNotFound(failed(new ServerErrorFailure("Can`t find location")))
-          .fetch(request.params().get(LOCATION_ID_NAME))
-          .thenCompose(r -> r.after(location -> getPolicyIdAndRuleMatch(request.params(), drools, location)))
-          .thenCompose(r -> r.after(this::buildJsonResult))
-          .thenApply(OkJsonResponseResult::from)
-          .thenAccept(result -> result.writeTo(routingContext.response()));
-      }
-      catch (Exception e) {
-        log.error("apply notice policy", e);
-        internalError(routingContext.response(), getStackTrace(e));
-      }
-    });
+    try {
+      final Clients clients = Clients.create(new WebContext(routingContext), client);
+
+      CirculationRulesCache.getInstance()
+        .getRuleMatchCache(getTenantId(routingContext), clients.circulationRulesStorage())
+        .thenCompose(r -> r.after(ruleMatches -> ruleMatches.match(getPolicyType(),
+          request.params(), drools -> applyRules(request.params(), drools,
+            clients.locationsStorage()))))
+        .thenCompose(r -> r.after(this::buildJsonResult))
+        .thenApply(OkJsonResponseResult::from)
+        .thenAccept(result -> result.writeTo(routingContext.response()))
+        .exceptionally(e -> {
+          log.error("apply", e);
+          internalError(routingContext.response(), getStackTrace(e));
+          return null;
+        });
+    }
+    catch (Exception e) {
+      log.error("apply", e);
+      internalError(routingContext.response(), getStackTrace(e));
+    }
+  }
+
+  private void applyBatch(RoutingContext routingContext) {
+    final Result<List<RulesExecutionParameters>> criteria = batchCriteria(routingContext);
+
+    if (criteria.failed()) {
+      criteria.cause().writeTo(routingContext.response());
+      return;
+    }
+
+    try {
+      final Clients clients = Clients.create(new WebContext(routingContext), client);
+      final List<RulesExecutionParameters> parameters = criteria.value();
+
+      CirculationRulesCache.getInstance()
+        .getRuleMatchCache(getTenantId(routingContext), clients.circulationRulesStorage())
+        .thenCombine(RuleLocations.fetch(clients.locationsStorage(), parameters),
+          (ruleMatchesResult, locationsResult) -> ruleMatchesResult.combine(
+            locationsResult, (ruleMatches, locations) -> applyRules(
+              ruleMatches, locations, parameters)))
+        .thenCompose(r -> r.after(matches -> matches))
+        .thenApply(r -> r.map(matches -> new JsonObject().put("circulationRuleMatches",
+          new JsonArray(matches.stream().map(this::toJson).collect(toList())))))
+        .thenApply(OkJsonResponseResult::from)
+        .thenAccept(result -> result.writeTo(routingContext.response()))
+        .exceptionally(e -> {
+          log.error("applyBatch", e);
+          internalError(routingContext.response(), getStackTrace(e));
+          return null;
+        });
+    }
+    catch (Exception e) {
+      log.error("applyBatch", e);
+      internalError(routingContext.response(), getStackTrace(e));
+    }
+  }
+
+  /**
+   * Applies the circulation rules once for each distinct criteria.
+   * @return the matches in the order of the criteria
+   */
+  private CompletableFuture<Result<List<CirculationRuleMatch>>> applyRules(
+    RuleMatchCache ruleMatches, RuleLocations locations,
+    List<RulesExecutionParameters> parameters) {
+
+    final List<RulesExecutionParameters> distinctParameters = parameters.stream()
+      .distinct()
+      .collect(toList());
+
+    return allOf(distinctParameters, criteria -> ruleMatches.match(getPolicyType(),
+      criteria.toParams(), drools -> locations.locationFor(criteria)
+        .after(location -> getPolicyIdAndRuleMatch(criteria.toParams(), drools, location))))
+      .thenApply(r -> r.map(matches -> {
+        final Map<RulesExecutionParameters, CirculationRuleMatch> matchByCriteria = new HashMap<>();
+
+        for (int index = 0; index < distinctParameters.size(); index++) {
+          matchByCriteria.put(distinctParameters.get(index), matches.get(index));
+        }
+
+        return parameters.stream()
+          .map(matchByCriteria::get)
+          .collect(toList());
+      }));
+  }
+
+  private CompletableFuture<Result<CirculationRuleMatch>> applyRules(
+    MultiMap params, Drools drools, CollectionResourceClient locationsStorageClient) {
+
+    return FetchSingleRecord.<Location>forRecord("location")
+      .using(locationsStorageClient)
+      .mapTo(Location::from)
+      .whenNotFound(failed(new ServerErrorFailure("Can`t find location")))
+      .fetch(params.get(LOCATION_ID_NAME))
+      .thenCompose(r -> r.after(location -> getPolicyIdAndRuleMatch(params, drools, location)));
   }
 
   private CompletableFuture<Result<JsonObject>> buildJsonResult(CirculationRuleMatch entity) {
+    return CompletableFuture.completedFuture(succeeded(toJson(entity)));
+  }
+
+  private JsonObject toJson(CirculationRuleMatch entity) {
     JsonObject appliedRuleConditions = new JsonObject()
       .put("materialTypeMatch", entity.getAppliedRuleConditions().isItemTypePresent())
       .put("loanTypeMatch", entity.getAppliedRuleConditions().isLoanTypePresent())
       .put("patronGroupMatch", entity.getAppliedRuleConditions().isPatronGroupPresent());
 
-    return CompletableFuture.completedFuture(succeeded(new JsonObject()
-      .put(getPolicyIdKey(), entity.getPolicyId())
-      .put("appliedRuleConditions", appliedRuleConditions)
-    ));
+    return new JsonObject()
+      .put(getPolicyType().getPolicyIdKey(), entity.getPolicyId())
+      .put("appliedRuleConditions", appliedRuleConditions);
   }
 
   private void applyAll(RoutingContext routingContext, Drools drools) {
@@ -341,7 +392,7 @@ public abstract class AbstractCirculationRulesEngineResource extends Resource {
     }
   }
 
-  private boolean invalidApplyParameters(HttpServerRequest request) {
+  static boolean invalidApplyParameters(HttpServerRequest request) {
     return
         invalidUuid(request, ITEM_TYPE_ID_NAME) ||
         invalidUuid(request, LOAN_TYPE_ID_NAME) ||
@@ -352,7 +403,7 @@ public abstract class AbstractCirculationRulesEngineResource extends Resource {
   protected abstract CompletableFuture<Result<CirculationRuleMatch>> getPolicyIdAndRuleMatch(
     MultiMap params, Drools drools, Location location);
 
-  protected abstract String getPolicyIdKey();
+  protected abstract PolicyType getPolicyType();
 
   protected abstract CompletableFuture<Result<JsonArray>> getPolicies(MultiMap params, Drools drools, Location location);
 }
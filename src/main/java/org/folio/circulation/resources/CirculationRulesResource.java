@@ -20,6 +20,7 @@ import java.util.function.Function;
 import org.antlr.v4.runtime.Token;
 import org.apache.commons.collections4.MapUtils;
 import org.folio.circulation.domain.MultipleRecords;
+import org.folio.circulation.rules.CirculationRulesCache;
 import org.folio.circulation.rules.CirculationRulesException;
 import org.folio.circulation.rules.CirculationRulesParser;
 import org.folio.circulation.rules.Text2Drools;
@@ -142,12 +143,12 @@ public class CirculationRulesResource extends Resource {
       internalError(routingContext.response(), getStackTrace(e));
       return;
     }
-    LoanCirculationRulesEngineResource.clearCache(new WebContext(routingContext).getTenantId());
-    RequestCirculationRulesEngineResource.clearCache(new WebContext(routingContext).getTenantId());
-
     clients.circulationRulesStorage().put(rulesInput.copy())
       .thenAccept(res -> res.applySideEffect(response -> {
         if (response.getStatusCode() == 204) {
+          // after storing, otherwise a reload might still get the old rules
+          CirculationRulesCache.getInstance().clearCache(
+            new WebContext(routingContext).getTenantId());
           SuccessResponse.noContent(routingContext.response());
         } else {
           ForwardResponse.forward(routingContext.response(), response);
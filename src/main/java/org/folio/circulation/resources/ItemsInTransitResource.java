@@ -11,18 +11,19 @@ import static org.folio.circulation.support.fetching.RecordFetching.findWithMult
 import static org.folio.circulation.support.http.client.CqlQuery.exactMatch;
 import static org.folio.circulation.support.http.client.CqlQuery.exactMatchAny;
 
-import java.util.Comparator;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.SortedMap;
+import java.util.TreeMap;
 import java.util.concurrent.CompletableFuture;
-import java.util.stream.Collector;
 import java.util.stream.Collectors;
 
 import org.folio.circulation.domain.InTransitReportEntry;
 import org.folio.circulation.domain.Item;
-import org.folio.circulation.domain.ItemsReportFetcher;
 import org.folio.circulation.domain.Loan;
 import org.folio.circulation.domain.MultipleRecords;
 import org.folio.circulation.domain.PatronGroupRepository;
@@ -36,21 +37,17 @@ import org.folio.circulation.support.Clients;
 import org.folio.circulation.support.FindWithMultipleCqlIndexValues;
 import org.folio.circulation.support.GetManyRecordsClient;
 import org.folio.circulation.support.ItemRepository;
-import org.folio.circulation.support.OkJsonResponseResult;
 import org.folio.circulation.support.Result;
 import org.folio.circulation.support.RouteRegistration;
+import org.folio.circulation.support.ServerErrorFailure;
 import org.folio.circulation.support.http.client.CqlQuery;
-import org.folio.circulation.support.http.client.PageLimit;
-import org.folio.circulation.support.http.client.Response;
+import org.folio.circulation.support.http.server.ChunkedJsonArrayResponse;
 import org.folio.circulation.support.http.server.WebContext;
 
 import io.vertx.core.http.HttpClient;
-import io.vertx.core.json.JsonArray;
-import io.vertx.core.json.JsonObject;
 import io.vertx.ext.web.Router;
 import io.vertx.ext.web.RoutingContext;
 
-
 public class ItemsInTransitResource extends Resource {
 
   private static final String ITEM_ID = "itemId";
@@ -78,30 +75,47 @@ public class ItemsInTransitResource extends Resource {
     final ReportRepository reportRepository = new ReportRepository(clients);
     final UserRepository userRepository = new UserRepository(clients);
     final PatronGroupRepository patronGroupRepository = new PatronGroupRepository(clients);
-    final Comparator<InTransitReportEntry> sortByCheckinServicePointComparator = sortByCheckinServicePointComparator();
-
-    reportRepository.getAllItemsByField("status.name", IN_TRANSIT.getValue())
-      .thenComposeAsync(r -> r.after(itemsReportFetcher ->
-        fetchItemsRelatedRecords(itemsReportFetcher, itemRepository, servicePointRepository)))
-      .thenComposeAsync(r -> r.after(inTransitReportEntries ->
-        fetchLoans(loansStorageClient, servicePointRepository, inTransitReportEntries,
-          sortByCheckinServicePointComparator)))
-      .thenComposeAsync(r -> findRequestsByItemsIds(requestsStorageClient, itemRepository,
-        servicePointRepository, userRepository, patronGroupRepository, r.value()))
-      .thenApply(this::mapResultToJson)
-      .thenApply(OkJsonResponseResult::from)
-      .thenAccept(r -> r.writeTo(routingContext.response()));
+
+    final ChunkedJsonArrayResponse response = new ChunkedJsonArrayResponse(
+      routingContext.response(), "items");
+
+    // entries are sorted by check in service point, so can only be written
+    // once every page has been processed, only their representations are kept
+    final InTransitReportEntriesByServicePoint entries
+      = new InTransitReportEntriesByServicePoint();
+
+    reportRepository.forEachPageOfItemsByField("status.name", IN_TRANSIT.getValue(),
+      items -> fetchItemsRelatedRecords(items, itemRepository, servicePointRepository)
+        .thenComposeAsync(r -> r.after(inTransitReportEntries ->
+          fetchLoans(loansStorageClient, servicePointRepository, inTransitReportEntries)))
+        .thenComposeAsync(r -> r.after(inTransitReportEntries ->
+          findRequestsByItemsIds(requestsStorageClient, itemRepository,
+            servicePointRepository, userRepository, patronGroupRepository,
+            inTransitReportEntries)))
+        .thenApply(r -> r.map(inTransitReportEntries -> {
+          inTransitReportEntries.forEach(entries::add);
+          return null;
+        })))
+      .thenCompose(r -> r.after(notUsed -> entries.writeTo(response)))
+      .whenComplete((result, error) -> {
+        if (error != null) {
+          response.fail(new ServerErrorFailure(error));
+        }
+        else {
+          response.complete(result);
+        }
+      });
   }
 
-  private CompletableFuture<Result<List<InTransitReportEntry>>> fetchItemsRelatedRecords(ItemsReportFetcher itemsReportFetcher,
-                                                                                          ItemRepository itemRepository,
-                                                                                          ServicePointRepository servicePointRepository) {
-    List<Item> items = itemsReportFetcher.getResultListOfItems().stream()
-      .flatMap(resultListOfItem -> resultListOfItem.value().getRecords().stream())
-      .collect(Collectors.toList());
+  private CompletableFuture<Result<List<InTransitReportEntry>>> fetchItemsRelatedRecords(
+    MultipleRecords<Item> items, ItemRepository itemRepository,
+    ServicePointRepository servicePointRepository) {
 
-    return allOf(items, item -> fetchRelatedRecords(itemRepository, servicePointRepository, item))
-    .thenApply(resultItem -> mapToInTransitReportEntries(resultItem.value()));
+    return itemRepository.fetchRelatedRecordsFor(items.getRecords())
+      .thenComposeAsync(r -> r.after(itemsWithRelatedRecords ->
+        allOf(itemsWithRelatedRecords, item ->
+          fetchServicePoints(servicePointRepository, item))))
+      .thenApply(r -> r.next(this::mapToInTransitReportEntries));
   }
 
   private Result<List<InTransitReportEntry>> mapToInTransitReportEntries(List<Item> items) {
@@ -112,11 +126,10 @@ public class ItemsInTransitResource extends Resource {
     return Result.succeeded(inTransitReportEntries);
   }
 
-  private CompletableFuture<Result<Item>> fetchRelatedRecords(ItemRepository itemRepository,
-                                                              ServicePointRepository servicePointRepository,
-                                                              Item item) {
+  private CompletableFuture<Result<Item>> fetchServicePoints(
+    ServicePointRepository servicePointRepository, Item item) {
+
     return CompletableFuture.completedFuture(Result.succeeded(item))
-      .thenComposeAsync(itemRepository::fetchItemRelatedRecords)
       .thenComposeAsync(result -> result
         .combineAfter(currentItem -> servicePointRepository
           .getServicePointById(currentItem.getInTransitDestinationServicePointId()),
@@ -157,8 +170,7 @@ public class ItemsInTransitResource extends Resource {
   private CompletableFuture<Result<List<InTransitReportEntry>>> fetchLoans(
     GetManyRecordsClient loansStorageClient,
     ServicePointRepository servicePointRepository,
-    List<InTransitReportEntry> inTransitReportEntries,
-    Comparator<InTransitReportEntry> sortByCheckinServicePointComparator) {
+    List<InTransitReportEntry> inTransitReportEntries) {
     final List<String> itemsToFetchLoansFor = inTransitReportEntries.stream()
       .filter(Objects::nonNull)
       .map(inTransitReportEntry -> inTransitReportEntry.getItem().getItemId())
@@ -172,50 +184,39 @@ public class ItemsInTransitResource extends Resource {
 
     final Result<CqlQuery> statusQuery = exactMatch("itemStatus",
       IN_TRANSIT.getValue());
-    final Result<CqlQuery> itemIdQuery = exactMatchAny(ITEM_ID,
-      itemsToFetchLoansFor);
-
-    CompletableFuture<Result<MultipleRecords<Loan>>> multipleRecordsLoans =
-      statusQuery.combine(
-        itemIdQuery, CqlQuery::and)
-        .after(q -> loansStorageClient.getMany(q,
-          PageLimit.limit(inTransitReportEntries.size())))
-        .thenApply(result -> result.next(this::mapResponseToLoans));
-
-    return multipleRecordsLoans.thenCompose(multiLoanRecordsResult ->
-      multiLoanRecordsResult.after(
-        servicePointRepository::findServicePointsForLoans))
+
+    final FindWithMultipleCqlIndexValues<Loan> fetcher
+      = findWithMultipleCqlIndexValues(loansStorageClient, "loans", Loan::from);
+
+    return fetcher.findByIdIndexAndQuery(itemsToFetchLoansFor, ITEM_ID, statusQuery)
+      .thenCompose(multiLoanRecordsResult ->
+        multiLoanRecordsResult.after(
+          servicePointRepository::findServicePointsForLoans))
       .thenApply(multipleLoansResult -> multipleLoansResult.next(
-        loans -> matchLoansToInTransitReportEntry(inTransitReportEntries, loans,
-          sortByCheckinServicePointComparator)));
+        loans -> matchLoansToInTransitReportEntry(inTransitReportEntries, loans)));
   }
 
   private Result<List<InTransitReportEntry>> matchLoansToInTransitReportEntry(
     List<InTransitReportEntry> inTransitReportEntries,
-    MultipleRecords<Loan> loans,
-    Comparator<InTransitReportEntry> sortByCheckinServicePointComparator) {
+    MultipleRecords<Loan> loans) {
+
+    final Map<String, Loan> loanMap = loans.toMap(Loan::getItemId);
 
     return of(() ->
       inTransitReportEntries.stream()
-        .map(inTransitReportEntry -> matchLoansToInTransitReportEntry(inTransitReportEntry, loans))
-        .sorted(sortByCheckinServicePointComparator)
+        .map(inTransitReportEntry -> matchLoansToInTransitReportEntry(inTransitReportEntry, loanMap))
         .collect(Collectors.toList()));
   }
 
   private InTransitReportEntry matchLoansToInTransitReportEntry(
     InTransitReportEntry inTransitReportEntry,
-    MultipleRecords<Loan> loans) {
+    Map<String, Loan> loanMap) {
 
-    final Map<String, Loan> loanMap = loans.toMap(Loan::getItemId);
     inTransitReportEntry
       .setLoan(loanMap.getOrDefault(inTransitReportEntry.getItem().getItemId(), null));
     return inTransitReportEntry;
   }
 
-  private Result<MultipleRecords<Loan>> mapResponseToLoans(Response response) {
-    return MultipleRecords.from(response, Loan::from, "loans");
-  }
-
   private List<String> mapToItemIdList(List<InTransitReportEntry> inTransitReportEntryList) {
     return inTransitReportEntryList.stream()
       .map(InTransitReportEntry::getItem)
@@ -239,23 +240,50 @@ public class ItemsInTransitResource extends Resource {
     return CompletableFuture.completedFuture(Result.succeeded(inTransitReportEntryList));
   }
 
-  private Result<JsonObject> mapResultToJson
-    (Result<List<InTransitReportEntry>> inTransitReportEntry) {
+  /**
+   * Representations of the report entries, in order of the name of the service
+   * point they were last checked in at (those without one last), then in the
+   * order they were added
+   */
+  private static class InTransitReportEntriesByServicePoint {
+    private final SortedMap<String, List<String>> byServicePointName = new TreeMap<>();
+    private final List<String> withoutServicePoint = new ArrayList<>();
+    private final ItemReportRepresentation representation = new ItemReportRepresentation();
+
+    private synchronized void add(InTransitReportEntry entry) {
+      final String encoded = representation.createItemReport(entry).encode();
+
+      final String servicePointName = Optional.ofNullable(entry.getLoan())
+        .map(Loan::getCheckinServicePoint)
+        .map(ServicePoint::getName)
+        .orElse(null);
+
+      if (servicePointName == null) {
+        withoutServicePoint.add(encoded);
+      }
+      else {
+        byServicePointName.computeIfAbsent(servicePointName,
+          name -> new ArrayList<>()).add(encoded);
+      }
+    }
 
-    return inTransitReportEntry.map(resultList -> resultList
-      .stream().map(itemAndRelatedRecord -> new ItemReportRepresentation()
-        .createItemReport(itemAndRelatedRecord))
-      .collect(Collector.of(JsonArray::new, JsonArray::add, JsonArray::add)))
-      .next(jsonArray -> Result.succeeded(new JsonObject()
-        .put("items", jsonArray)
-        .put("totalRecords", jsonArray.size())));
-  }
+    private CompletableFuture<Result<Void>> writeTo(ChunkedJsonArrayResponse response) {
+      final List<List<String>> chunks = new ArrayList<>(byServicePointName.values());
 
-  private Comparator<InTransitReportEntry> sortByCheckinServicePointComparator() {
-    return Comparator.comparing(inTransitReportEntry-> Optional.ofNullable(inTransitReportEntry
-      .getLoan()).map(loan -> Optional.ofNullable(loan.getCheckinServicePoint())
-      .map(ServicePoint::getName).orElse(null))
-      .orElse(null), Comparator.nullsLast(String::compareTo));
-  }
+      chunks.add(withoutServicePoint);
 
+      return writeFrom(chunks.iterator(), response);
+    }
+
+    private CompletableFuture<Result<Void>> writeFrom(Iterator<List<String>> chunks,
+      ChunkedJsonArrayResponse response) {
+
+      if (!chunks.hasNext()) {
+        return completedFuture(succeeded(null));
+      }
+
+      return response.writeEncoded(chunks.next())
+        .thenCompose(r -> r.after(notUsed -> writeFrom(chunks, response)));
+    }
+  }
 }
@@ -11,6 +11,7 @@ import io.vertx.core.json.JsonArray;
 import org.folio.circulation.domain.Location;
 import org.folio.circulation.rules.CirculationRuleMatch;
 import org.folio.circulation.rules.Drools;
+import org.folio.circulation.rules.PolicyType;
 import org.folio.circulation.support.Result;
 
 /**
@@ -30,8 +31,8 @@ public class LoanCirculationRulesEngineResource extends AbstractCirculationRules
   }
 
   @Override
-  protected String getPolicyIdKey() {
-    return "loanPolicyId";
+  protected PolicyType getPolicyType() {
+    return PolicyType.LOAN;
   }
 
   @Override
@@ -6,6 +6,7 @@ import io.vertx.core.json.JsonArray;
 import org.folio.circulation.domain.Location;
 import org.folio.circulation.rules.CirculationRuleMatch;
 import org.folio.circulation.rules.Drools;
+import org.folio.circulation.rules.PolicyType;
 import org.folio.circulation.support.Result;
 
 import java.util.concurrent.CompletableFuture;
@@ -24,8 +25,8 @@ public class LostItemCirculationRulesEngineResource extends AbstractCirculationR
     }
 
     @Override
-    protected String getPolicyIdKey() {
-        return "lostItemPolicyId";
+    protected PolicyType getPolicyType() {
+        return PolicyType.LOST_ITEM;
     }
 
     @Override
@@ -13,6 +13,7 @@ import io.vertx.core.json.JsonArray;
 import org.folio.circulation.domain.Location;
 import org.folio.circulation.rules.CirculationRuleMatch;
 import org.folio.circulation.rules.Drools;
+import org.folio.circulation.rules.PolicyType;
 import org.folio.circulation.support.Result;
 
 /**
@@ -32,8 +33,8 @@ public class NoticeCirculationRulesEngineResource extends AbstractCirculationRul
   }
 
   @Override
-  protected String getPolicyIdKey() {
-    return "noticePolicyId";
+  protected PolicyType getPolicyType() {
+    return PolicyType.NOTICE;
   }
 
   @Override
@@ -6,6 +6,7 @@ import io.vertx.core.json.JsonArray;
 import org.folio.circulation.domain.Location;
 import org.folio.circulation.rules.CirculationRuleMatch;
 import org.folio.circulation.rules.Drools;
+import org.folio.circulation.rules.PolicyType;
 import org.folio.circulation.support.Result;
 
 import java.util.concurrent.CompletableFuture;
@@ -26,8 +27,8 @@ public class OverdueFineCirculationRulesEngineResource extends AbstractCirculati
     }
 
     @Override
-    protected String getPolicyIdKey() {
-        return "overdueFinePolicyId";
+    protected PolicyType getPolicyType() {
+        return PolicyType.OVERDUE_FINE;
     }
 
     @Override
@@ -0,0 +1,121 @@
+package org.folio.circulation.resources;
+
+import static java.util.stream.Collectors.toList;
+import static org.apache.commons.lang3.exception.ExceptionUtils.getStackTrace;
+import static org.folio.circulation.resources.AbstractCirculationRulesEngineResource.batchCriteria;
+import static org.folio.circulation.resources.AbstractCirculationRulesEngineResource.LOCATION_ID_NAME;
+import static org.folio.circulation.resources.AbstractCirculationRulesEngineResource.invalidApplyParameters;
+import static org.folio.circulation.support.Result.failed;
+import static org.folio.circulation.support.http.server.ServerErrorResponse.internalError;
+
+import java.lang.invoke.MethodHandles;
+import java.util.List;
+
+import org.folio.circulation.domain.Location;
+import org.folio.circulation.rules.CirculationRulesCache;
+import org.folio.circulation.rules.InProcessRulesEvaluator;
+import org.folio.circulation.rules.PolicyMatches;
+import org.folio.circulation.rules.RulesExecutionParameters;
+import org.folio.circulation.support.Clients;
+import org.folio.circulation.support.FetchSingleRecord;
+import org.folio.circulation.support.OkJsonResponseResult;
+import org.folio.circulation.support.Result;
+import org.folio.circulation.support.ServerErrorFailure;
+import org.folio.circulation.support.http.server.WebContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.vertx.core.http.HttpClient;
+import io.vertx.core.http.HttpServerRequest;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.Router;
+import io.vertx.ext.web.RoutingContext;
+import io.vertx.ext.web.handler.BodyHandler;
+
+/**
+ * The circulation rules engine calculates the loan, request, notice,
+ * overdue fine and lost item policies at once, based on
+ * item type, loan type, patron type and location.
+ */
+public class PoliciesCirculationRulesEngineResource extends Resource {
+  private static final Logger log = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+  private final String applyPath;
+
+  public PoliciesCirculationRulesEngineResource(String applyPath, HttpClient client) {
+    super(client);
+    this.applyPath = applyPath;
+  }
+
+  @Override
+  public void register(Router router) {
+    router.get(applyPath).handler(this::apply);
+    router.post(applyPath + "/batch").handler(BodyHandler.create());
+    router.post(applyPath + "/batch").handler(this::applyBatch);
+  }
+
+  private void apply(RoutingContext routingContext) {
+    HttpServerRequest request = routingContext.request();
+    if (invalidApplyParameters(request)) {
+      return;
+    }
+    try {
+      final WebContext context = new WebContext(routingContext);
+      final Clients clients = Clients.create(context, client);
+
+      CirculationRulesCache.getInstance()
+        .getPoliciesMatcher(context.getTenantId(), clients.circulationRulesStorage())
+        .thenCombine(FetchSingleRecord.<Location>forRecord("location")
+          .using(clients.locationsStorage())
+          .mapTo(Location::from)
+          .whenNotFound(failed(new ServerErrorFailure("Can`t find location")))
+          .fetch(request.params().get(LOCATION_ID_NAME)),
+          (matcherResult, locationResult) -> matcherResult.combine(locationResult,
+            (matcher, location) -> matcher.policies(request.params(), location)))
+        .thenApply(r -> r.map(PolicyMatches::toJson))
+        .thenApply(OkJsonResponseResult::from)
+        .thenAccept(result -> result.writeTo(routingContext.response()))
+        .exceptionally(e -> {
+          log.error("apply policies", e);
+          internalError(routingContext.response(), getStackTrace(e));
+          return null;
+        });
+    }
+    catch (Exception e) {
+      log.error("apply policies", e);
+      internalError(routingContext.response(), getStackTrace(e));
+    }
+  }
+
+  private void applyBatch(RoutingContext routingContext) {
+    final Result<List<RulesExecutionParameters>> criteria = batchCriteria(routingContext);
+
+    if (criteria.failed()) {
+      criteria.cause().writeTo(routingContext.response());
+      return;
+    }
+
+    try {
+      final WebContext context = new WebContext(routingContext);
+      final Clients clients = Clients.create(context, client);
+
+      new InProcessRulesEvaluator(context.getTenantId(),
+        clients.circulationRulesStorage(), clients.locationsStorage())
+        .applyRulesForAllPolicies(criteria.value())
+        .thenApply(r -> r.map(matches -> new JsonObject().put("circulationRuleMatches",
+          new JsonArray(matches.stream().map(PolicyMatches::toJson).collect(toList())))))
+        .thenApply(OkJsonResponseResult::from)
+        .thenAccept(result -> result.writeTo(routingContext.response()))
+        .exceptionally(e -> {
+          log.error("apply policies batch", e);
+          internalError(routingContext.response(), getStackTrace(e));
+          return null;
+        });
+    }
+    catch (Exception e) {
+      log.error("apply policies batch", e);
+      internalError(routingContext.response(), getStackTrace(e));
+    }
+  }
+}
@@ -25,6 +25,7 @@ import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
+import org.apache.commons.lang3.tuple.Pair;
 import org.folio.circulation.domain.ConfigurationRepository;
 import org.folio.circulation.domain.CreateRequestService;
 import org.folio.circulation.domain.InstanceRequestRelatedRecords;
@@ -126,6 +127,7 @@ public class RequestByInstanceIdResource extends Resource {
           .thenApply(r -> r.next(RequestByInstanceIdResource::rankItemsByMatchingServicePoint))
           .thenCompose(r -> r.after(relatedRecords -> getLoanItems(relatedRecords, clients)))
           .thenApply( r -> r.next(loanItems -> combineWithUnavailableItems(loanItems, requestRelatedRecords)))
+          .thenCompose( r -> r.after(records -> applyRequestRules(records, clients)))
           .thenApply( r -> r.next(RequestByInstanceIdResource::instanceToItemRequests))
           .thenCompose( r -> r.after( requests -> placeRequests(requests, clients)))
           .thenApply(r -> r.map(RequestAndRelatedRecords::getRequest))
@@ -219,6 +221,27 @@ public class RequestByInstanceIdResource extends Resource {
     });
   }
 
+  /**
+   * Applies the circulation rules for all of the items at once, rather than
+   * as each request is tried. The matches are remembered for the rest of the
+   * operation, failures are reported for each request instead.
+   */
+  private CompletableFuture<Result<InstanceRequestRelatedRecords>> applyRequestRules(
+    InstanceRequestRelatedRecords requestRelatedRecords, Clients clients) {
+
+    final List<Item> items = requestRelatedRecords.getCombinedSortedItemsList();
+    final RequestPolicyRepository requestPolicyRepository = new RequestPolicyRepository(clients);
+
+    return new UserRepository(clients)
+      .getUser(requestRelatedRecords.getInstanceLevelRequest().getRequesterId().toString())
+      .thenCompose(r -> r.after(requester -> requester == null || items.isEmpty()
+        ? CompletableFuture.completedFuture(succeeded(null))
+        : requestPolicyRepository.lookupPolicyIds(items.stream()
+          .map(item -> Pair.of(item, requester))
+          .collect(Collectors.toList()))))
+      .handle((result, error) -> succeeded(requestRelatedRecords));
+  }
+
   private CompletableFuture<Result<RequestAndRelatedRecords>> placeRequests(
     List<JsonObject> itemRequestRepresentations, Clients clients) {
 
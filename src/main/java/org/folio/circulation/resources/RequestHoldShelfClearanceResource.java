@@ -4,6 +4,8 @@ import static org.folio.circulation.domain.ItemStatus.AWAITING_PICKUP;
 import static org.folio.circulation.domain.RequestStatus.CLOSED_CANCELLED;
 import static org.folio.circulation.domain.RequestStatus.CLOSED_PICKUP_EXPIRED;
 import static org.folio.circulation.domain.RequestStatus.OPEN_AWAITING_PICKUP;
+import static org.folio.circulation.support.AsyncCoordinationUtil.allOf;
+import static org.folio.circulation.support.fetching.RecordFetching.findWithMultipleCqlIndexValues;
 import static org.folio.circulation.support.http.client.CqlQuery.exactMatch;
 import static org.folio.circulation.support.http.client.CqlQuery.exactMatchAny;
 import static org.folio.circulation.support.CqlSortBy.descending;
@@ -11,15 +13,12 @@ import static org.folio.circulation.support.http.client.PageLimit.limit;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.function.Predicate;
-import java.util.stream.Collector;
 import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 
 import org.apache.commons.lang3.StringUtils;
 import org.folio.circulation.domain.HoldShelfClearanceRequestContext;
@@ -28,32 +27,26 @@ import org.folio.circulation.domain.MultipleRecords;
 import org.folio.circulation.domain.ReportRepository;
 import org.folio.circulation.domain.Request;
 import org.folio.circulation.domain.RequestRepresentation;
-import org.folio.circulation.domain.ItemsReportFetcher;
 import org.folio.circulation.support.Clients;
+import org.folio.circulation.support.FindWithMultipleCqlIndexValues;
 import org.folio.circulation.support.GetManyRecordsClient;
 import org.folio.circulation.support.http.client.CqlQuery;
 import org.folio.circulation.support.ItemRepository;
-import org.folio.circulation.support.OkJsonResponseResult;
 import org.folio.circulation.support.Result;
 import org.folio.circulation.support.RouteRegistration;
+import org.folio.circulation.support.ServerErrorFailure;
 import org.folio.circulation.support.http.client.PageLimit;
 import org.folio.circulation.support.http.client.Response;
+import org.folio.circulation.support.http.server.ChunkedJsonArrayResponse;
 import org.folio.circulation.support.http.server.WebContext;
 
 import io.vertx.core.http.HttpClient;
-import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 import io.vertx.ext.web.Router;
 import io.vertx.ext.web.RoutingContext;
 
 public class RequestHoldShelfClearanceResource extends Resource {
 
-  /**
-   * The optimal number of identifiers that will not exceed the permissible length
-   * of the URI in according to the RFC 2616
-   */
-  private static final int BATCH_SIZE = 40;
-
   /**
    * Default limit value on a query
    */
@@ -63,7 +56,6 @@ public class RequestHoldShelfClearanceResource extends Resource {
   private static final String REQUESTS_KEY = "requests";
   private static final String STATUS_KEY = "status";
   private static final String STATUS_NAME_KEY = "status.name";
-  private static final String TOTAL_RECORDS_KEY = "totalRecords";
   private static final String REQUEST_CLOSED_DATE_KEY = "awaitingPickupRequestClosedDate";
 
   private final String rootPath;
@@ -89,77 +81,64 @@ public class RequestHoldShelfClearanceResource extends Resource {
 
     final String servicePointId = routingContext.request().getParam(SERVICE_POINT_ID_PARAM);
 
-    reportRepository.getAllItemsByField(STATUS_NAME_KEY, AWAITING_PICKUP.getValue())
-      .thenComposeAsync(r -> r.after(this::mapContextToItemIdList))
-      .thenComposeAsync(r -> r.after(this::mapItemIdsInBatchItemIds))
-      .thenComposeAsync(r -> findAwaitingPickupRequestsByItemsIds(requestsStorage, r.value()))
-      .thenComposeAsync(r -> findExpiredOrCancelledRequestByItemIds(requestsStorage, r.value()))
-      .thenApply(r -> findExpiredOrCancelledRequestByServicePoint(servicePointId, r.value()))
-      .thenApply(r -> fetchItemToRequest(r, itemRepository))
-      .thenApply(this::mapResultToJson)
-      .thenApply(OkJsonResponseResult::from)
-      .thenAccept(r -> r.writeTo(routingContext.response()));
-  }
-
-  private CompletableFuture<Result<List<String>>> mapContextToItemIdList(ItemsReportFetcher itemsReportFetcher) {
-    List<String> itemIds = itemsReportFetcher.getResultListOfItems().stream()
-      .flatMap(records -> records.value().getRecords().stream())
+    final ChunkedJsonArrayResponse response = new ChunkedJsonArrayResponse(
+      routingContext.response(), REQUESTS_KEY);
+
+    // each page of items is written as soon as its requests have been found
+    reportRepository.forEachPageOfItemsByField(STATUS_NAME_KEY, AWAITING_PICKUP.getValue(),
+      items -> findRequestsToClear(requestsStorage, itemRepository, servicePointId, items)
+        .thenCompose(r -> r.after(requests -> response.write(mapToJson(requests)))))
+      .whenComplete((result, error) -> {
+        if (error != null) {
+          response.fail(new ServerErrorFailure(error));
+        }
+        else {
+          response.complete(result);
+        }
+      });
+  }
+
+  private CompletableFuture<Result<MultipleRecords<Request>>> findRequestsToClear(
+    GetManyRecordsClient requestsStorage, ItemRepository itemRepository,
+    String servicePointId, MultipleRecords<Item> items) {
+
+    final List<String> itemIds = mapToItemIdList(items);
+
+    return findAwaitingPickupRequestsByItemsIds(requestsStorage, itemIds)
+      .thenComposeAsync(r -> r.after(context ->
+        findExpiredOrCancelledRequestByItemIds(requestsStorage, context)))
+      .thenApply(r -> r.next(context ->
+        findExpiredOrCancelledRequestByServicePoint(servicePointId, context)))
+      .thenComposeAsync(r -> itemRepository.fetchItemsFor(
+        r.map(requests -> new MultipleRecords<>(requests, requests.size())),
+        Request::withItem));
+  }
+
+  private List<String> mapToItemIdList(MultipleRecords<Item> items) {
+    return items.getRecords().stream()
       .filter(item -> StringUtils.isNoneBlank(item.getItemId()))
       .map(Item::getItemId)
       .collect(Collectors.toList());
-    return CompletableFuture.completedFuture(Result.succeeded(itemIds));
   }
 
-  private CompletableFuture<Result<List<List<String>>>> mapItemIdsInBatchItemIds(List<String> itemIds) {
-    return CompletableFuture.completedFuture(Result.succeeded(splitIds(itemIds)));
-  }
+  private CompletableFuture<Result<HoldShelfClearanceRequestContext>> findAwaitingPickupRequestsByItemsIds(
+    GetManyRecordsClient client, List<String> itemIds) {
 
-  private List<List<String>> splitIds(List<String> itemsIds) {
-    int size = itemsIds.size();
-    if (size <= 0) {
-      return new ArrayList<>();
-    }
-
-    int fullChunks = (size - 1) / BATCH_SIZE;
-    return IntStream.range(0, fullChunks + 1)
-      .mapToObj(n ->
-        itemsIds.subList(n * BATCH_SIZE, n == fullChunks
-          ? size
-          : (n + 1) * BATCH_SIZE))
-      .collect(Collectors.toList());
-  }
+    final FindWithMultipleCqlIndexValues<Request> fetcher
+      = findWithMultipleCqlIndexValues(client, REQUESTS_KEY, Request::from);
 
-  private CompletableFuture<Result<HoldShelfClearanceRequestContext>> findAwaitingPickupRequestsByItemsIds(GetManyRecordsClient client,
-                                                                                                           List<List<String>> batchItemIds) {
-    List<Result<MultipleRecords<Request>>> awaitingPickupRequests = findAwaitingPickupRequests(client, batchItemIds);
-    return CompletableFuture.completedFuture(Result.succeeded(
-      createHoldShelfClearanceRequestContext(batchItemIds, awaitingPickupRequests)));
+    return fetcher.findByIdIndexAndQuery(itemIds, ITEM_ID_KEY,
+        exactMatch(STATUS_KEY, OPEN_AWAITING_PICKUP.getValue()))
+      .thenApply(r -> r.map(awaitingPickupRequests ->
+        createHoldShelfClearanceRequestContext(itemIds, awaitingPickupRequests)));
   }
 
-  private List<Result<MultipleRecords<Request>>> findAwaitingPickupRequests(GetManyRecordsClient client,
-                                                                            List<List<String>> batchItemIds) {
-    return batchItemIds.stream()
-      .map(batch -> {
-        final Result<CqlQuery> statusQuery = exactMatch(STATUS_KEY, OPEN_AWAITING_PICKUP.getValue());
-        final Result<CqlQuery> itemIdsQuery = exactMatchAny(ITEM_ID_KEY, batch);
-
-        Result<CqlQuery> cqlQueryResult = statusQuery
-          .combine(itemIdsQuery, CqlQuery::and);
+  private HoldShelfClearanceRequestContext createHoldShelfClearanceRequestContext(
+    List<String> itemIds, MultipleRecords<Request> awaitingPickupRequests) {
 
-        return findRequestsByCqlQuery(client, cqlQueryResult, limit(batch.size()));
-      })
-      .map(CompletableFuture::join)
-      .collect(Collectors.toList());
-  }
+    List<String> allAwaitingPickupItemIds = new ArrayList<>(itemIds);
 
-  private HoldShelfClearanceRequestContext createHoldShelfClearanceRequestContext(List<List<String>> batchItemIds,
-                                                                                  List<Result<MultipleRecords<Request>>> results) {
-    List<String> allAwaitingPickupItemIds = batchItemIds.stream()
-      .flatMap(Collection::stream)
-      .collect(Collectors.toList());
-
-    List<String> awaitingPickupRequestItemIds = results.stream()
-      .flatMap(r -> r.value().getRecords().stream())
+    List<String> awaitingPickupRequestItemIds = awaitingPickupRequests.getRecords().stream()
       .map(Request::getItemId)
       .collect(Collectors.toList());
 
@@ -170,11 +149,12 @@ public class RequestHoldShelfClearanceResource extends Resource {
       .withAwaitingPickupRequestItemIds(awaitingPickupRequestItemIds);
   }
 
-  private CompletableFuture<Result<HoldShelfClearanceRequestContext>> findExpiredOrCancelledRequestByItemIds(GetManyRecordsClient client,
-                                                                                                             HoldShelfClearanceRequestContext context) {
-    List<Result<MultipleRecords<Request>>> requestList = findRequestsSortedByClosedDate(client, context.getAwaitingPickupItemIds());
-    List<Request> firstRequestFromList = getFirstRequestFromList(requestList);
-    return CompletableFuture.completedFuture(Result.succeeded(context.withExpiredOrCancelledRequests(firstRequestFromList)));
+  private CompletableFuture<Result<HoldShelfClearanceRequestContext>> findExpiredOrCancelledRequestByItemIds(
+    GetManyRecordsClient client, HoldShelfClearanceRequestContext context) {
+
+    return findRequestsSortedByClosedDate(client, context.getAwaitingPickupItemIds())
+      .thenApply(r -> r.map(this::getFirstRequestFromList)
+        .map(context::withExpiredOrCancelledRequests));
   }
 
   private Predicate<Request> hasContextRequestForServicePoint(String servicePointId) {
@@ -197,11 +177,12 @@ public class RequestHoldShelfClearanceResource extends Resource {
   /**
    * Find for each item ids requests sorted by awaitingPickupRequestClosedDate
    */
-  private List<Result<MultipleRecords<Request>>> findRequestsSortedByClosedDate(GetManyRecordsClient client,
-                                                                                List<String> itemIds) {
-    return itemIds.stream()
+  private CompletableFuture<Result<List<MultipleRecords<Request>>>> findRequestsSortedByClosedDate(
+    GetManyRecordsClient client, List<String> itemIds) {
+
+    return allOf(itemIds.stream()
       .filter(Objects::nonNull)
-      .map(itemId -> {
+      .collect(Collectors.toList()), itemId -> {
         final Result<CqlQuery> itemIdQuery = CqlQuery.exactMatch(ITEM_ID_KEY, itemId);
         final Result<CqlQuery> notEmptyDateQuery = CqlQuery.greaterThan(REQUEST_CLOSED_DATE_KEY, StringUtils.EMPTY);
         final Result<CqlQuery> statusQuery = exactMatchAny(STATUS_KEY,
@@ -213,13 +194,12 @@ public class RequestHoldShelfClearanceResource extends Resource {
           .map(q -> q.sortBy(descending(REQUEST_CLOSED_DATE_KEY)));
 
         return findRequestsByCqlQuery(client, cqlQueryResult, limit(PAGE_REQUEST_LIMIT));
-      }).map(CompletableFuture::join)
-      .collect(Collectors.toList());
+      });
   }
 
-  private List<Request> getFirstRequestFromList(List<Result<MultipleRecords<Request>>> multipleRecordsList) {
+  private List<Request> getFirstRequestFromList(List<MultipleRecords<Request>> multipleRecordsList) {
     return multipleRecordsList.stream()
-      .map(r -> r.value().getRecords().stream().findFirst())
+      .map(records -> records.getRecords().stream().findFirst())
       .filter(Optional::isPresent)
       .map(Optional::get)
       .collect(Collectors.toList());
@@ -234,29 +214,12 @@ public class RequestHoldShelfClearanceResource extends Resource {
       .thenApply(result -> result.next(this::mapResponseToRequest));
   }
 
-  private Result<List<Result<Request>>> fetchItemToRequest(Result<List<Request>> requests,
-    ItemRepository itemRepository) {
+  private List<JsonObject> mapToJson(MultipleRecords<Request> requests) {
+    final RequestRepresentation representation = new RequestRepresentation();
 
-    return requests.map(r -> r.stream()
-      .map(request -> fetchItem(itemRepository, request))
-      .map(CompletableFuture::join)
-      .collect(Collectors.toList()));
-  }
-
-  private Result<JsonObject> mapResultToJson(Result<List<Result<Request>>> requests) {
-    return requests
-      .map(resultList ->
-        Result.combineAll(resultList).map(r -> r.stream()
-          .map(result -> new RequestRepresentation().extendedRepresentation(result))
-          .collect(Collector.of(JsonArray::new, JsonArray::add, JsonArray::add))))
-      .next(r -> r.next(jsonArray -> Result.succeeded(new JsonObject()
-        .put(REQUESTS_KEY, jsonArray)
-        .put(TOTAL_RECORDS_KEY, jsonArray.size()))));
-  }
-
-  private CompletableFuture<Result<Request>> fetchItem(ItemRepository itemRepository, Request request) {
-    return CompletableFuture.completedFuture(Result.succeeded(request))
-      .thenComposeAsync(result -> result.combineAfter(itemRepository::fetchFor, Request::withItem));
+    return requests.getRecords().stream()
+      .map(representation::extendedRepresentation)
+      .collect(Collectors.toList());
   }
 
   private Result<MultipleRecords<Request>> mapResponseToRequest(Response response) {
@@ -0,0 +1,501 @@
+package org.folio.circulation.rules;
+
+import static java.util.concurrent.CompletableFuture.completedFuture;
+import static org.folio.circulation.support.Result.failed;
+import static org.folio.circulation.support.Result.succeeded;
+import static org.folio.circulation.support.results.CommonFailures.failedDueToServerError;
+
+import java.lang.invoke.MethodHandles;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.folio.circulation.support.CollectionResourceClient;
+import org.folio.circulation.support.ForwardOnFailure;
+import org.folio.circulation.support.Result;
+import org.apache.http.HttpHeaders;
+import org.folio.circulation.support.http.client.Response;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Cache of the circulation rules and the Drools built from them for each tenant.
+ * <p>
+ * Shared by the circulation rules engine resources and in-process rules evaluation,
+ * and safe to use from several verticle instances and threads. The rules of a
+ * tenant are an immutable snapshot that is replaced as a whole. Only one load
+ * from storage per tenant is in progress at any time, concurrent requests
+ * wait for the same load.
+ * <p>
+ * Changed rules are compiled on a dedicated thread, the previous rules keep
+ * being used by requests that don't need to wait for the reload.
+ * <p>
+ * Changes saved through this instance of the module enforce a reload. Other
+ * instances only notice a change by reloading after a few seconds, this uses
+ * a conditional request when storage provides an ETag so that unchanged rules
+ * are neither sent nor compiled again.
+ * <p>
+ * When a {@link CompiledRulesStore} is used, compiled rules are kept on disk
+ * and reused after a restart instead of building the Drools again.
+ */
+public class CirculationRulesCache {
+  private static final Logger log = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+  private static final CirculationRulesCache instance = new CirculationRulesCache();
+
+  /** seconds after which the rules are reloaded in the background by default */
+  public static final int DEFAULT_TRIGGER_AGE_IN_SECONDS = 4;
+  /** seconds after which the rules are reloaded before being used by default */
+  public static final int DEFAULT_MAX_AGE_IN_SECONDS = 5;
+
+  /** number of circulation rule matches cached per tenant */
+  private static final int RULE_MATCH_CACHE_SIZE = 1000;
+
+  /** after this time the rules get loaded before executing the circulation rules engine */
+  private volatile long maxAgeInMilliseconds =
+    TimeUnit.SECONDS.toMillis(DEFAULT_MAX_AGE_IN_SECONDS);
+  /** after this time the circulation rules engine is executed first for a fast reply
+   * and then the circulation rules get reloaded */
+  private volatile long triggerAgeInMilliseconds =
+    TimeUnit.SECONDS.toMillis(DEFAULT_TRIGGER_AGE_IN_SECONDS);
+
+  /**
+   * The circulation rules of a tenant as loaded at one point in time.
+   */
+  private static final class CompiledRules {
+    final String rulesAsText;
+    final Drools drools;
+    final DecisionTable decisionTable;
+    /** matches calculated with these drools, shared with reloads of the same rules */
+    final RuleMatchCache ruleMatches;
+    /** ETag of the rules in storage, null if storage did not provide one */
+    final String entityTag;
+    /** System.currentTimeMillis() of the load of the rules from the storage */
+    final long loadTimestamp;
+    /** the value of TenantRules.clearCount when the load was requested */
+    final long clearCount;
+
+    CompiledRules(String rulesAsText, Drools drools, DecisionTable decisionTable,
+      String entityTag, long loadTimestamp, long clearCount) {
+
+      this(rulesAsText, drools, decisionTable,
+        new RuleMatchCache(drools, RULE_MATCH_CACHE_SIZE), entityTag, loadTimestamp,
+        clearCount);
+    }
+
+    private CompiledRules(String rulesAsText, Drools drools,
+      DecisionTable decisionTable, RuleMatchCache ruleMatches, String entityTag,
+      long loadTimestamp, long clearCount) {
+
+      this.rulesAsText = rulesAsText;
+      this.drools = drools;
+      this.decisionTable = decisionTable;
+      this.ruleMatches = ruleMatches;
+      this.entityTag = entityTag;
+      this.loadTimestamp = loadTimestamp;
+      this.clearCount = clearCount;
+    }
+
+    CompiledRules reloaded(String entityTag, long loadTimestamp, long clearCount) {
+      return new CompiledRules(rulesAsText, drools, decisionTable, ruleMatches,
+        entityTag, loadTimestamp, clearCount);
+    }
+  }
+
+  private static class TenantRules {
+    final String tenantId;
+    final AtomicReference<CompiledRules> current = new AtomicReference<>();
+    /** the load from storage in progress, null if there is none */
+    final AtomicReference<CompletableFuture<Result<CompiledRules>>> loading =
+      new AtomicReference<>();
+    /** incremented by each enforced reload, rules requested before are outdated */
+    final AtomicLong clearCount = new AtomicLong();
+
+    TenantRules(String tenantId) {
+      this.tenantId = tenantId;
+    }
+  }
+
+  /** rules for each tenantId */
+  private final Map<String, TenantRules> rulesMap = new ConcurrentHashMap<>();
+
+  /** compiles the rules of all tenants, one at a time */
+  private final Executor compileExecutor = Executors.newSingleThreadExecutor(runnable -> {
+    Thread thread = new Thread(runnable, "circulation-rules-compiler");
+    thread.setDaemon(true);
+    return thread;
+  });
+  private final RulesCompileMetrics compileMetrics = new RulesCompileMetrics();
+  /** where compiled rules are kept across restarts, null if they are not kept */
+  private volatile CompiledRulesStore compiledRulesStore;
+
+  private CirculationRulesCache() { }
+
+  public static CirculationRulesCache getInstance() {
+    return instance;
+  }
+
+  /**
+   * Set the cache time.
+   * @param triggerAgeInMilliseconds  after this time the circulation rules engine is executed first for a fast reply
+   *                                  and then the circulation rules get reloaded
+   * @param maxAgeInMilliseconds  after this time the rules get loaded before executing the circulation rules engine
+   */
+  public void setCacheTime(long triggerAgeInMilliseconds, long maxAgeInMilliseconds) {
+    this.triggerAgeInMilliseconds = triggerAgeInMilliseconds;
+    this.maxAgeInMilliseconds = maxAgeInMilliseconds;
+  }
+
+  public RulesCompileMetrics getCompileMetrics() {
+    return compileMetrics;
+  }
+
+  /**
+   * @return the circulation rule matches cached for the current rules of
+   * each tenant, keyed by tenant id, the counts start again with changed rules
+   */
+  public Map<String, RuleMatchCache> getRuleMatchCaches() {
+    final Map<String, RuleMatchCache> ruleMatchCaches = new HashMap<>();
+
+    rulesMap.forEach((tenantId, tenantRules) -> {
+      final CompiledRules rules = tenantRules.current.get();
+
+      if (rules != null) {
+        ruleMatchCaches.put(tenantId, rules.ruleMatches);
+      }
+    });
+
+    return ruleMatchCaches;
+  }
+
+  /**
+   * Keep compiled rules in the store and use compiled rules found there
+   * instead of building them.
+   * @param compiledRulesStore  the store, null to stop using a store
+   */
+  public void useCompiledRulesStore(CompiledRulesStore compiledRulesStore) {
+    this.compiledRulesStore = compiledRulesStore;
+  }
+
+  /**
+   * Read the rules of the tenants last saved in the compiled rules store
+   * into the cache, in the background. Requests are answered with these
+   * rules immediately, while they are reloaded from storage.
+   * @param tenantIds  ids of the tenants
+   * @return completes when the rules have been read
+   */
+  public CompletableFuture<Void> prewarm(Collection<String> tenantIds) {
+    final CompiledRulesStore store = compiledRulesStore;
+
+    if (store == null) {
+      return completedFuture(null);
+    }
+
+    return CompletableFuture.allOf(tenantIds.stream()
+      .map(tenantId -> CompletableFuture.runAsync(
+        () -> prewarm(store, tenantId), compileExecutor))
+      .toArray(CompletableFuture[]::new));
+  }
+
+  private void prewarm(CompiledRulesStore store, String tenantId) {
+    final TenantRules tenantRules = rulesMap.computeIfAbsent(tenantId,
+      TenantRules::new);
+
+    if (tenantRules.current.get() != null) {
+      return;
+    }
+
+    final JsonObject latest = store.loadLatestRules(tenantId);
+    if (latest == null || latest.getString("rulesAsText") == null) {
+      return;
+    }
+
+    final String rulesAsText = latest.getString("rulesAsText");
+    final Drools drools = store.loadDrools(tenantId, rulesAsText);
+    if (drools == null) {
+      return;
+    }
+
+    // the rules may have changed while the module was not running,
+    // the first request triggers a reload
+    final CompiledRules prewarmed = new CompiledRules(rulesAsText, drools,
+      DecisionTable.fromRules(rulesAsText), latest.getString("entityTag"),
+      System.currentTimeMillis() - triggerAgeInMilliseconds - 1,
+      tenantRules.clearCount.get());
+
+    if (tenantRules.current.compareAndSet(null, prewarmed)) {
+      log.info("Prewarmed circulation rules for tenant {}", tenantId);
+    }
+  }
+
+  /**
+   * Completely drop the cache. This enforces rebuilding the drools rules
+   * even when the circulation rules haven't changed.
+   */
+  public void dropCache() {
+    rulesMap.clear();
+  }
+
+  /**
+   * Enforce reload of the tenant's circulation rules.
+   * This doesn't rebuild the drools rules if the circulation rules haven't changed.
+   * @param tenantId  id of the tenant
+   */
+  public void clearCache(String tenantId) {
+    TenantRules rules = rulesMap.get(tenantId);
+    if (rules == null) {
+      return;
+    }
+    rules.clearCount.incrementAndGet();
+    // a load in progress may return outdated rules, later requests don't wait for it
+    rules.loading.set(null);
+  }
+
+  /**
+   * Return the Drools for the tenant, loading the circulation rules from
+   * storage when they are not cached or are too old.
+   * @param tenantId  id of the tenant
+   * @param circulationRulesStorage  client for the circulation rules storage
+   * @return the Drools or the failure that prevented loading the rules
+   */
+  public CompletableFuture<Result<Drools>> getDrools(String tenantId,
+    CollectionResourceClient circulationRulesStorage) {
+
+    return getRules(tenantId, circulationRulesStorage)
+      .thenApply(r -> r.map(rules -> rules.drools));
+  }
+
+  /**
+   * Return the matcher to use for applying the tenant's circulation rules
+   * for all types of policy at once, this is the DecisionTable if enabled
+   * and the Drools otherwise.
+   * @param tenantId  id of the tenant
+   * @param circulationRulesStorage  client for the circulation rules storage
+   * @return the matcher or the failure that prevented loading the rules
+   */
+  public CompletableFuture<Result<PoliciesMatcher>> getPoliciesMatcher(
+    String tenantId, CollectionResourceClient circulationRulesStorage) {
+
+    return getRules(tenantId, circulationRulesStorage)
+      .thenApply(r -> r.map(rules -> DecisionTable.isEnabled()
+        ? rules.decisionTable
+        : rules.drools));
+  }
+
+  /**
+   * Return the cache of the tenant's circulation rule matches, loading the
+   * circulation rules from storage when they are not cached or are too old.
+   * @param tenantId  id of the tenant
+   * @param circulationRulesStorage  client for the circulation rules storage
+   * @return the cache or the failure that prevented loading the rules
+   */
+  public CompletableFuture<Result<RuleMatchCache>> getRuleMatchCache(
+    String tenantId, CollectionResourceClient circulationRulesStorage) {
+
+    return getRules(tenantId, circulationRulesStorage)
+      .thenApply(r -> r.map(rules -> rules.ruleMatches));
+  }
+
+  private CompletableFuture<Result<CompiledRules>> getRules(String tenantId,
+    CollectionResourceClient circulationRulesStorage) {
+
+    final TenantRules tenantRules = rulesMap.computeIfAbsent(tenantId,
+      TenantRules::new);
+
+    final CompiledRules rules = tenantRules.current.get();
+
+    if (isCurrent(tenantRules, rules)) {
+      if (reloadNeeded(rules)) {
+        loadRules(tenantRules, circulationRulesStorage)
+          .thenAccept(result -> result.applySideEffect(reloaded -> { },
+            failure -> log.error("Reloading circulation rules for tenant {} failed: {}",
+              tenantId, failure)));
+      }
+      return completedFuture(succeeded(rules));
+    }
+
+    return loadRules(tenantRules, circulationRulesStorage);
+  }
+
+  private boolean isCurrent(TenantRules tenantRules, CompiledRules rules) {
+    if (rules == null) {
+      return false;
+    }
+    return rules.clearCount == tenantRules.clearCount.get()
+      && rules.loadTimestamp + maxAgeInMilliseconds > System.currentTimeMillis();
+  }
+
+  /**
+   * Reload is needed if the last reload is triggerAgeInMilliseconds old.
+   * A reload already in progress is joined, not repeated.
+   * @param rules - rules to reload
+   * @return whether reload is needed
+   */
+  private boolean reloadNeeded(CompiledRules rules) {
+    return rules.loadTimestamp + triggerAgeInMilliseconds < System.currentTimeMillis();
+  }
+
+  /**
+   * Load the circulation rules from the storage module, or join the load
+   * that is already in progress.
+   * @param tenantRules - where to store the rules
+   * @param circulationRulesStorage - client for the circulation rules storage
+   * @return the rules after loading
+   */
+  private CompletableFuture<Result<CompiledRules>> loadRules(TenantRules tenantRules,
+    CollectionResourceClient circulationRulesStorage) {
+
+    final CompletableFuture<Result<CompiledRules>> load = new CompletableFuture<>();
+
+    while (!tenantRules.loading.compareAndSet(null, load)) {
+      final CompletableFuture<Result<CompiledRules>> inProgress = tenantRules.loading.get();
+
+      if (inProgress != null) {
+        return inProgress;
+      }
+    }
+
+    final long clearCount = tenantRules.clearCount.get();
+    // storage only needs to send the rules if they differ from the cached rules
+    final CompiledRules cached = tenantRules.current.get();
+
+    circulationRulesStorage.getIfNoneMatch(cached == null ? null : cached.entityTag)
+      .thenCompose(r -> r.after(response -> updateRules(tenantRules, cached,
+        response, clearCount)))
+      .whenComplete((result, throwable) -> {
+        tenantRules.loading.compareAndSet(load, null);
+
+        if (throwable != null) {
+          // rules that can't be read or built are a failure of every request
+          // waiting for them, not an exception nobody responds to
+          Throwable cause = throwable;
+          while (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+          }
+
+          log.error("Loading circulation rules for tenant {} failed",
+            tenantRules.tenantId, cause);
+          load.complete(failedDueToServerError(cause));
+        } else {
+          load.complete(result);
+        }
+      });
+
+    return load;
+  }
+
+  private CompletableFuture<Result<CompiledRules>> updateRules(
+    TenantRules tenantRules, CompiledRules cached, Response response,
+    long clearCount) {
+
+    final long loadTimestamp = System.currentTimeMillis();
+
+    if (response.getStatusCode() == 304 && cached != null) {
+      log.debug("Circulation rules not modified");
+      return completedFuture(succeeded(replaceCurrent(tenantRules,
+        cached.reloaded(cached.entityTag, loadTimestamp, clearCount))));
+    }
+
+    if (response.getStatusCode() != 200) {
+      log.error("{} {}", response.getStatusCode(), response.getBody());
+      return completedFuture(failed(new ForwardOnFailure(response)));
+    }
+
+    JsonObject circulationRules = new JsonObject(response.getBody());
+    if (log.isDebugEnabled()) {
+      log.debug("circulationRules = {}", circulationRules.encodePrettily());
+    }
+    String rulesAsText = circulationRules.getString("rulesAsText");
+    if (rulesAsText == null) {
+      throw new NullPointerException("rulesAsText");
+    }
+
+    final String entityTag = response.getHeader(HttpHeaders.ETAG);
+    final CompiledRules previous = tenantRules.current.get();
+
+    if (previous != null && previous.rulesAsText.equals(rulesAsText)) {
+      return completedFuture(succeeded(replaceCurrent(tenantRules,
+        previous.reloaded(entityTag, loadTimestamp, clearCount))));
+    }
+
+    // building Drools can take hundreds of milliseconds for large rules,
+    // the thread that received the response must not be blocked that long
+    return CompletableFuture.supplyAsync(() -> readOrCompile(tenantRules, rulesAsText,
+        entityTag, loadTimestamp, clearCount), compileExecutor)
+      .thenApply(compiled -> succeeded(replaceCurrent(tenantRules, compiled)));
+  }
+
+  private CompiledRules readOrCompile(TenantRules tenantRules, String rulesAsText,
+    String entityTag, long loadTimestamp, long clearCount) {
+
+    final CompiledRulesStore store = compiledRulesStore;
+    final Drools stored = store == null
+      ? null
+      : store.loadDrools(tenantRules.tenantId, rulesAsText);
+
+    if (stored != null) {
+      compileMetrics.recordStoreRead();
+      return new CompiledRules(rulesAsText, stored, DecisionTable.fromRules(rulesAsText),
+        entityTag, loadTimestamp, clearCount);
+    }
+
+    final CompiledRules compiled = compile(tenantRules, rulesAsText, entityTag,
+      loadTimestamp, clearCount);
+
+    if (store != null) {
+      store.save(tenantRules.tenantId, rulesAsText, entityTag, compiled.drools);
+    }
+
+    return compiled;
+  }
+
+  private CompiledRules compile(TenantRules tenantRules, String rulesAsText,
+    String entityTag, long loadTimestamp, long clearCount) {
+
+    final long start = System.nanoTime();
+
+    try {
+      String rulesAsDrools = Text2Drools.convert(rulesAsText);
+      log.debug("rulesAsDrools = {}", rulesAsDrools);
+
+      final CompiledRules compiled = new CompiledRules(rulesAsText,
+        new Drools(rulesAsDrools), DecisionTable.fromRules(rulesAsText),
+        entityTag, loadTimestamp, clearCount);
+
+      final long duration = System.nanoTime() - start;
+      compileMetrics.recordCompilation(duration);
+      log.info("Compiled circulation rules in {} ms",
+        TimeUnit.NANOSECONDS.toMillis(duration));
+
+      return compiled;
+    } catch (RuntimeException e) {
+      compileMetrics.recordFailure();
+      throw e;
+    }
+  }
+
+  /**
+   * Make the loaded rules the current rules, unless the cache has been cleared
+   * since they were requested because they may already be outdated. These are
+   * still returned to the requests waiting for them.
+   */
+  private CompiledRules replaceCurrent(TenantRules tenantRules, CompiledRules loaded) {
+    if (loaded.clearCount != tenantRules.clearCount.get()) {
+      return loaded;
+    }
+
+    tenantRules.current.set(loaded);
+
+    return loaded;
+  }
+}
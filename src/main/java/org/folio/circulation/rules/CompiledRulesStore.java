@@ -0,0 +1,186 @@
+package org.folio.circulation.rules;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.lang.invoke.MethodHandles;
+import java.net.URLEncoder;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Keeps the compiled circulation rules of each tenant on local disk, so that
+ * a restarted module does not need to build the Drools again.
+ * <p>
+ * The compiled rules are stored per tenant and keyed by a hash of the rules
+ * text, rules that have changed in the meantime are never read. The store is
+ * only an optimisation, failing to read or write it is logged and otherwise
+ * ignored.
+ */
+public class CompiledRulesStore {
+  private static final Logger log = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+  private static final String COMPILED_RULES_SUFFIX = ".drools.gz";
+  private static final String LATEST_RULES_FILE = "rules.json";
+
+  private final Path directory;
+
+  /**
+   * Create a store.
+   * @param directory  where to keep the compiled rules, created when needed
+   */
+  public CompiledRulesStore(Path directory) {
+    this.directory = directory;
+  }
+
+  /**
+   * The rules last saved for the tenant.
+   * @param tenantId  id of the tenant
+   * @return rules with rulesAsText and entityTag properties, null if none have been saved
+   */
+  JsonObject loadLatestRules(String tenantId) {
+    final Path file = tenantDirectory(tenantId).resolve(LATEST_RULES_FILE);
+
+    if (!Files.isRegularFile(file)) {
+      return null;
+    }
+
+    try {
+      return new JsonObject(new String(Files.readAllBytes(file), UTF_8));
+    } catch (Exception e) {
+      log.warn("Unable to read circulation rules from {}", file, e);
+      return null;
+    }
+  }
+
+  /**
+   * The compiled rules for the rules text of the tenant.
+   * @param tenantId  id of the tenant
+   * @param rulesAsText  circulation rules the Drools must have been built from
+   * @return the compiled rules, null if these rules have not been saved
+   */
+  Drools loadDrools(String tenantId, String rulesAsText) {
+    final Path file = compiledRulesFile(tenantId, rulesAsText);
+
+    if (!Files.isRegularFile(file)) {
+      return null;
+    }
+
+    try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+      return Drools.readFrom(in);
+    } catch (Exception e) {
+      log.warn("Unable to read compiled circulation rules from {}", file, e);
+      return null;
+    }
+  }
+
+  /**
+   * Save the compiled rules of the tenant, replacing the rules saved before.
+   * @param tenantId  id of the tenant
+   * @param rulesAsText  circulation rules the Drools have been built from
+   * @param entityTag  ETag of the rules in storage, may be null
+   * @param drools  the compiled rules
+   */
+  void save(String tenantId, String rulesAsText, String entityTag, Drools drools) {
+    final Path file = compiledRulesFile(tenantId, rulesAsText);
+
+    try {
+      Files.createDirectories(file.getParent());
+
+      writeAtomically(file, out -> {
+        try (OutputStream gzip = new GZIPOutputStream(out)) {
+          drools.writeTo(gzip);
+        }
+      });
+
+      writeAtomically(file.resolveSibling(LATEST_RULES_FILE), out -> out.write(
+        new JsonObject()
+          .put("rulesAsText", rulesAsText)
+          .put("entityTag", entityTag)
+          .encode()
+          .getBytes(UTF_8)));
+
+      deleteOtherCompiledRules(file);
+    } catch (Exception e) {
+      log.warn("Unable to save compiled circulation rules to {}", file, e);
+    }
+  }
+
+  private interface Writer {
+    void write(OutputStream out) throws IOException;
+  }
+
+  /**
+   * Readers never see a partially written file, not even when several
+   * instances of the module share the directory.
+   */
+  private static void writeAtomically(Path file, Writer writer) throws IOException {
+    final Path temporaryFile = Files.createTempFile(file.getParent(),
+      file.getFileName().toString(), ".tmp");
+
+    try {
+      try (OutputStream out = Files.newOutputStream(temporaryFile)) {
+        writer.write(out);
+      }
+      Files.move(temporaryFile, file, REPLACE_EXISTING, ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(temporaryFile);
+    }
+  }
+
+  private static void deleteOtherCompiledRules(Path file) throws IOException {
+    try (DirectoryStream<Path> files = Files.newDirectoryStream(file.getParent(),
+      "*" + COMPILED_RULES_SUFFIX)) {
+
+      for (Path other : files) {
+        if (!other.equals(file)) {
+          Files.deleteIfExists(other);
+        }
+      }
+    }
+  }
+
+  private Path compiledRulesFile(String tenantId, String rulesAsText) {
+    return tenantDirectory(tenantId).resolve(hash(rulesAsText) + COMPILED_RULES_SUFFIX);
+  }
+
+  private Path tenantDirectory(String tenantId) {
+    try {
+      // a tenant id can not escape the directory
+      return directory.resolve(URLEncoder.encode(tenantId, "UTF-8")
+        .replace(".", "%2E"));
+    } catch (UnsupportedEncodingException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static String hash(String rulesAsText) {
+    try {
+      final byte[] digest = MessageDigest.getInstance("SHA-256")
+        .digest(rulesAsText.getBytes(UTF_8));
+
+      final StringBuilder hex = new StringBuilder();
+      for (byte b : digest) {
+        hex.append(String.format("%02x", b));
+      }
+      return hex.toString();
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
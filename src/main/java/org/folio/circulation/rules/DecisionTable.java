@@ -0,0 +1,294 @@
+package org.folio.circulation.rules;
+
+import static org.folio.circulation.resources.AbstractCirculationRulesEngineResource.ITEM_TYPE_ID_NAME;
+import static org.folio.circulation.resources.AbstractCirculationRulesEngineResource.LOAN_TYPE_ID_NAME;
+import static org.folio.circulation.resources.AbstractCirculationRulesEngineResource.LOCATION_ID_NAME;
+import static org.folio.circulation.resources.AbstractCirculationRulesEngineResource.PATRON_TYPE_ID_NAME;
+import static org.folio.circulation.support.JsonPropertyWriter.write;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.folio.circulation.domain.Location;
+
+import io.vertx.core.MultiMap;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Applies the circulation rules without Drools.
+ * <p>
+ * The rules are ordered by the salience Text2Drools gives them, rule i is
+ * bit i of the bit sets. For each criterium there is a bit set of the rules
+ * satisfied by each id used in the rules, and one for any other id. A lookup
+ * ands the seven bit sets of the ids of the request, the first set bit is the
+ * rule Drools would fire first. The table is immutable and can be shared
+ * by several threads.
+ */
+public class DecisionTable implements PoliciesMatcher {
+  /** the criterium type letters, in the order of the bit set index */
+  private static final String CRITERIUM_LETTERS = "tabcsmg";
+  private static final int LOAN_TYPE = 0;
+  private static final int INSTITUTION = 1;
+  private static final int CAMPUS = 2;
+  private static final int LIBRARY = 3;
+  private static final int LOCATION = 4;
+  private static final int ITEM_TYPE = 5;
+  private static final int PATRON_GROUP = 6;
+
+  private static volatile boolean enabled = false;
+
+  /** rules in the order they would be fired by drools */
+  private final Rule[] rules;
+  private final int words;
+  /** for each criterium the rules satisfied by an id used in the rules */
+  private final List<Map<String, long[]>> satisfiedByUsedId = new ArrayList<>();
+  /** for each criterium the rules satisfied by any other id */
+  private final List<long[]> satisfiedByOtherId = new ArrayList<>();
+
+  private DecisionTable(List<Rule> rulesInTextOrder) {
+    List<Rule> ordered = new ArrayList<>(rulesInTextOrder);
+    ordered.sort(Comparator.comparingInt((Rule rule) -> rule.salience).reversed());
+    rules = ordered.toArray(new Rule[0]);
+    words = (rules.length + 63) / 64;
+
+    for (int criterium = 0; criterium < CRITERIUM_LETTERS.length(); criterium++) {
+      index(CRITERIUM_LETTERS.charAt(criterium));
+    }
+  }
+
+  /**
+   * Create the DecisionTable based on a circulation rules text in FOLIO format.
+   * @param text String with a circulation rules file in FOLIO syntax.
+   * @return the decision table
+   */
+  public static DecisionTable fromRules(String text) {
+    return new DecisionTable(Text2Drools.convertToRules(text));
+  }
+
+  /**
+   * Whether the circulation rules are applied using a DecisionTable
+   * instead of Drools when evaluated in-process.
+   * @return true if a DecisionTable should be used
+   */
+  public static boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Enable or disable applying the circulation rules using a DecisionTable.
+   * @param enable  whether to use a DecisionTable
+   */
+  public static void setEnabled(boolean enable) {
+    enabled = enable;
+  }
+
+  private void index(char letter) {
+    final long[] otherId = new long[words];
+    final Map<String, Set<Integer>> rulesUsingId = new HashMap<>();
+
+    for (int i = 0; i < rules.length; i++) {
+      final List<Condition> conditions = rules[i].conditionsFor(letter);
+
+      // null is never used in the rules, so it stands for any id not used in the rules
+      if (isSatisfiedBy(conditions, null)) {
+        set(otherId, i);
+      }
+
+      for (Condition condition : conditions) {
+        for (String id : condition.ids) {
+          rulesUsingId.computeIfAbsent(id, key -> new LinkedHashSet<>()).add(i);
+        }
+      }
+    }
+
+    final Map<String, long[]> usedId = new HashMap<>();
+
+    rulesUsingId.forEach((id, ruleIndexes) -> {
+      final long[] satisfied = otherId.clone();
+
+      for (int i : ruleIndexes) {
+        if (isSatisfiedBy(rules[i].conditionsFor(letter), id)) {
+          set(satisfied, i);
+        } else {
+          satisfied[i >> 6] &= ~(1L << i);
+        }
+      }
+
+      usedId.put(id, satisfied);
+    });
+
+    satisfiedByUsedId.add(usedId);
+    satisfiedByOtherId.add(otherId);
+  }
+
+  private static boolean isSatisfiedBy(List<Condition> conditions, String id) {
+    for (Condition condition : conditions) {
+      if (!condition.isSatisfiedBy(id)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static void set(long[] bits, int index) {
+    bits[index >> 6] |= 1L << index;
+  }
+
+  private long[] satisfiedBy(int criterium, String id) {
+    final long[] satisfied = satisfiedByUsedId.get(criterium).get(id);
+
+    return satisfied == null ? satisfiedByOtherId.get(criterium) : satisfied;
+  }
+
+  /**
+   * Return the index of the first rule matching the parameters, starting with fromIndex.
+   * @return index of the rule or -1 if no rule matches
+   */
+  private int nextMatch(MultiMap params, Location location, int fromIndex) {
+    final long[] loanType = satisfiedBy(LOAN_TYPE, params.get(LOAN_TYPE_ID_NAME));
+    final long[] institution = satisfiedBy(INSTITUTION, location.getInstitutionId());
+    final long[] campus = satisfiedBy(CAMPUS, location.getCampusId());
+    final long[] library = satisfiedBy(LIBRARY, location.getLibraryId());
+    final long[] itemLocation = satisfiedBy(LOCATION, params.get(LOCATION_ID_NAME));
+    final long[] itemType = satisfiedBy(ITEM_TYPE, params.get(ITEM_TYPE_ID_NAME));
+    final long[] patronGroup = satisfiedBy(PATRON_GROUP, params.get(PATRON_TYPE_ID_NAME));
+
+    for (int word = fromIndex >> 6; word < words; word++) {
+      long matches = loanType[word] & institution[word] & campus[word]
+        & library[word] & itemLocation[word] & itemType[word] & patronGroup[word];
+
+      if (word == fromIndex >> 6) {
+        matches &= -1L << fromIndex;
+      }
+
+      if (matches != 0) {
+        return (word << 6) + Long.numberOfTrailingZeros(matches);
+      }
+    }
+
+    return -1;
+  }
+
+  private Rule firstMatch(MultiMap params, Location location) {
+    final int index = nextMatch(params, location, 0);
+
+    return index < 0 ? Rule.NO_MATCH : rules[index];
+  }
+
+  /**
+   * Calculate the loan policy for the parameters.
+   * @param params request parameters
+   * @param location - location with institution, library and campus
+   * @return CirculationRuleMatch object with the name of the loan policy and rule conditions
+   */
+  public CirculationRuleMatch loanPolicy(MultiMap params, Location location) {
+    return firstMatch(params, location).loanPolicyMatch;
+  }
+
+  /**
+   * Return all loan policies in the order they match.
+   * @param params request params
+   * @param location - location with institution, library and campus
+   * @return matches, each match has a loanPolicyId and a circulationRuleLine field
+   */
+  public JsonArray loanPolicies(MultiMap params, Location location) {
+    JsonArray array = new JsonArray();
+
+    int index = nextMatch(params, location, 0);
+
+    while (index >= 0) {
+      JsonObject json = new JsonObject();
+
+      write(json, "loanPolicyId", rules[index].policyIds.get(PolicyType.LOAN));
+      write(json, "circulationRuleLine", rules[index].line);
+
+      array.add(json);
+
+      index = nextMatch(params, location, index + 1);
+    }
+
+    return array;
+  }
+
+  @Override
+  public PolicyMatches policies(MultiMap params, Location location) {
+    return firstMatch(params, location).policyMatches;
+  }
+
+  /**
+   * A single criterium of a rule, like m book dvd or g !visitor.
+   */
+  static class Condition {
+    private final char letter;
+    private final boolean not;
+    /** empty for all */
+    private final Set<String> ids;
+
+    Condition(String letter, boolean not, Set<String> ids) {
+      this.letter = letter.charAt(0);
+      this.not = not;
+      this.ids = ids;
+    }
+
+    static Condition all(String letter) {
+      return new Condition(letter, true, Collections.emptySet());
+    }
+
+    boolean isSatisfiedBy(String id) {
+      final boolean used = id != null && ids.contains(id);
+
+      return not != used;
+    }
+  }
+
+  /**
+   * A rule with the conditions of its line and all the lines it is nested in.
+   */
+  static class Rule {
+    private static final Rule NO_MATCH = new Rule(0, 0,
+      Collections.emptyList(), new EnumMap<>(PolicyType.class));
+
+    private final int line;
+    private final int salience;
+    private final List<Condition> conditions;
+    private final Map<PolicyType, String> policyIds;
+    private final CirculationRuleMatch loanPolicyMatch;
+    private final PolicyMatches policyMatches;
+
+    Rule(int line, int salience, List<Condition> conditions,
+      Map<PolicyType, String> policyIds) {
+
+      this.line = line;
+      this.salience = salience;
+      this.conditions = conditions;
+      this.policyIds = policyIds;
+
+      final AppliedRuleConditions appliedRuleConditions = new AppliedRuleConditions(
+        !conditionsFor('m').isEmpty(), !conditionsFor('t').isEmpty(),
+        !conditionsFor('g').isEmpty());
+
+      this.loanPolicyMatch = new CirculationRuleMatch(
+        policyIds.get(PolicyType.LOAN), appliedRuleConditions);
+      this.policyMatches = new PolicyMatches(policyIds, appliedRuleConditions);
+    }
+
+    List<Condition> conditionsFor(char letter) {
+      final List<Condition> forLetter = new ArrayList<>(1);
+
+      for (Condition condition : conditions) {
+        if (condition.letter == letter) {
+          forLetter.add(condition);
+        }
+      }
+      return forLetter;
+    }
+  }
+}
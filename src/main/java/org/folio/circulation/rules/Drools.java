@@ -6,12 +6,22 @@ import static org.folio.circulation.resources.AbstractCirculationRulesEngineReso
 import static org.folio.circulation.resources.AbstractCirculationRulesEngineResource.PATRON_TYPE_ID_NAME;
 import static org.folio.circulation.support.JsonPropertyWriter.write;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
+import org.drools.core.common.DroolsObjectInputStream;
+import org.drools.core.common.DroolsObjectOutputStream;
 import org.drools.core.definitions.rule.impl.RuleImpl;
 import org.drools.core.event.DefaultAgendaEventListener;
 import org.drools.core.rule.RuleConditionElement;
+import org.kie.api.KieBase;
 import org.kie.api.KieServices;
 import org.kie.api.builder.KieBuilder;
 import org.kie.api.builder.KieFileSystem;
@@ -29,12 +39,11 @@ import io.vertx.core.json.JsonObject;
 /**
  * Holds a Drools kieSession to calculate a loan policy.
  */
-public class Drools {
+public class Drools implements PoliciesMatcher {
   // https://docs.jboss.org/drools/release/6.2.0.CR1/drools-docs/html/ch19.html
   // http://www.deepakgaikwad.net/index.php/2016/05/16/drools-tutorial-beginners.html
 
-  private Match match = new Match();
-  private KieContainer kieContainer;
+  private final KieBase kieBase;
 
   /**
    * Create the Drools kieSession based on a String containing a drools file.
@@ -44,12 +53,50 @@ public class Drools {
     KieServices kieServices = KieServices.Factory.get();
     KieFileSystem kfs = kieServices.newKieFileSystem();
     kfs.write("src/main/resources/circulationrules/circulation-rules.drl", drools);
-    KieBuilder kieBuilder = kieServices.newKieBuilder(kfs);
-    kieBuilder.buildAll();
-    if (kieBuilder.getResults().hasMessages(Level.ERROR)) {
-      throw new IllegalArgumentException("Drools build errors:\n" + kieBuilder.getResults().toString());
+    // all builds share the default release id of the global repository,
+    // concurrent builds would end up in each other's container
+    synchronized (Drools.class) {
+      KieBuilder kieBuilder = kieServices.newKieBuilder(kfs);
+      kieBuilder.buildAll();
+      if (kieBuilder.getResults().hasMessages(Level.ERROR)) {
+        throw new IllegalArgumentException("Drools build errors:\n" + kieBuilder.getResults().toString());
+      }
+      KieContainer kieContainer = kieServices.newKieContainer(
+        kieServices.getRepository().getDefaultReleaseId());
+      kieBase = kieContainer.getKieBase();
+    }
+  }
+
+  private Drools(KieBase kieBase) {
+    this.kieBase = kieBase;
+  }
+
+  /**
+   * Write the compiled rules, reading them with {@link #readFrom(InputStream)}
+   * is much faster than building them from the Drools file again.
+   * @param out  where to write the compiled rules
+   * @throws IOException  when writing fails
+   */
+  public void writeTo(OutputStream out) throws IOException {
+    try (ObjectOutputStream objects = new DroolsObjectOutputStream(out)) {
+      objects.writeObject(kieBase);
+    }
+  }
+
+  /**
+   * Read compiled rules written by {@link #writeTo(OutputStream)}.
+   * @param in  where to read the compiled rules from
+   * @return the Drools for the compiled rules
+   * @throws IOException  when reading fails or the content is not compiled rules
+   */
+  public static Drools readFrom(InputStream in) throws IOException {
+    try (ObjectInputStream objects = new DroolsObjectInputStream(in,
+      Drools.class.getClassLoader())) {
+
+      return new Drools((KieBase) objects.readObject());
+    } catch (ClassNotFoundException | ClassCastException e) {
+      throw new IOException("Not compiled circulation rules", e);
     }
-    kieContainer = kieServices.newKieContainer(kieServices.getRepository().getDefaultReleaseId());
   }
 
   private KieSession createSession(MultiMap params, Location location) {
@@ -58,9 +105,9 @@ public class Drools {
     String patronGroupId = params.get(PATRON_TYPE_ID_NAME);
     String locationId = params.get(LOCATION_ID_NAME);
 
-    KieSession kieSession = kieContainer.newKieSession();
-    match.loanPolicyId = null;
-    kieSession.setGlobal("match", match);
+    KieSession kieSession = kieBase.newKieSession();
+    // a match per session, the same Drools may be used by several threads
+    kieSession.setGlobal("match", new Match());
     kieSession.insert(new ItemType(itemTypeId));
     kieSession.insert(new LoanType(loanTypeId));
     kieSession.insert(new PatronGroup(patronGroupId));
@@ -82,6 +129,7 @@ public class Drools {
     RuleEventListener ruleEventListener = new RuleEventListener();
     kieSession.addEventListener(ruleEventListener);
     kieSession.fireAllRules();
+    Match match = match(kieSession);
     kieSession.dispose();
     List<String> appliedRuleConditions = ruleEventListener.getRuleConditions();
 
@@ -101,6 +149,7 @@ public class Drools {
   public JsonArray loanPolicies(MultiMap params, Location location) {
     KieSession kieSession = createSession(params, location);
 
+    Match match = match(kieSession);
     JsonArray array = new JsonArray();
 
     while (kieSession.fireAllRules() > 0) {
@@ -108,7 +157,7 @@ public class Drools {
 
       write(json, "loanPolicyId", match.loanPolicyId);
 
-      writeLineMatch(json);
+      writeLineMatch(json, match);
 
       array.add(json);
     }
@@ -126,6 +175,7 @@ public class Drools {
   public CirculationRuleMatch requestPolicy(MultiMap params, Location location) {
     KieSession kieSession = createSession(params, location);
     kieSession.fireAllRules();
+    Match match = match(kieSession);
     kieSession.dispose();
     return new CirculationRuleMatch(match.requestPolicyId,
       new AppliedRuleConditions(false, false, false));
@@ -141,13 +191,14 @@ public class Drools {
   public JsonArray requestPolicies(MultiMap params, Location location) {
     KieSession kieSession = createSession(params, location);
 
+    Match match = match(kieSession);
     JsonArray array = new JsonArray();
 
     while (kieSession.fireAllRules() > 0) {
       JsonObject json = new JsonObject();
 
       write(json, "requestPolicyId", match.requestPolicyId);
-      writeLineMatch(json);
+      writeLineMatch(json, match);
 
       array.add(json);
     }
@@ -166,6 +217,7 @@ public class Drools {
   public CirculationRuleMatch noticePolicy(MultiMap params, Location location) {
     KieSession kieSession = createSession(params, location);
     kieSession.fireAllRules();
+    Match match = match(kieSession);
     kieSession.dispose();
     return new CirculationRuleMatch(match.noticePolicyId,
       new AppliedRuleConditions(false, false, false));
@@ -181,13 +233,14 @@ public class Drools {
   public JsonArray noticePolicies(MultiMap params, Location location) {
     KieSession kieSession = createSession(params, location);
 
+    Match match = match(kieSession);
     JsonArray array = new JsonArray();
 
     while (kieSession.fireAllRules() > 0) {
       JsonObject json = new JsonObject();
 
       json.put("noticePolicyId", match.noticePolicyId);
-      writeLineMatch(json);
+      writeLineMatch(json, match);
 
       array.add(json);
     }
@@ -206,6 +259,7 @@ public class Drools {
   public CirculationRuleMatch overduePolicy(MultiMap params, Location location) {
     KieSession kieSession = createSession(params, location);
     kieSession.fireAllRules();
+    Match match = match(kieSession);
     kieSession.dispose();
     return new CirculationRuleMatch(match.overduePolicyId,
       new AppliedRuleConditions(false, false, false));
@@ -221,13 +275,14 @@ public class Drools {
   public JsonArray overduePolicies(MultiMap params, Location location) {
     KieSession kieSession = createSession(params, location);
 
+    Match match = match(kieSession);
     JsonArray array = new JsonArray();
 
     while (kieSession.fireAllRules() > 0) {
       JsonObject json = new JsonObject();
 
       write(json, "overduePolicyId", match.overduePolicyId);
-      writeLineMatch(json);
+      writeLineMatch(json, match);
 
       array.add(json);
     }
@@ -245,6 +300,7 @@ public class Drools {
   public CirculationRuleMatch lostItemPolicy(MultiMap params, Location location) {
     KieSession kieSession = createSession(params, location);
     kieSession.fireAllRules();
+    Match match = match(kieSession);
     kieSession.dispose();
     return new CirculationRuleMatch(match.lostItemPolicyId,
       new AppliedRuleConditions(false, false, false));
@@ -260,13 +316,14 @@ public class Drools {
   public JsonArray lostItemPolicies(MultiMap params, Location location) {
     KieSession kieSession = createSession(params, location);
 
+    Match match = match(kieSession);
     JsonArray array = new JsonArray();
 
     while (kieSession.fireAllRules() > 0) {
       JsonObject json = new JsonObject();
 
       write(json, "lostItemPolicyId", match.lostItemPolicyId);
-      writeLineMatch(json);
+      writeLineMatch(json, match);
 
       array.add(json);
     }
@@ -275,7 +332,41 @@ public class Drools {
     return array;
   }
 
-  private void writeLineMatch(JsonObject json) {
+  /**
+   * Calculate the policy of each type with a single run of the drools rules.
+   * @param params request params
+   * @param location - location with institution, library and campus
+   * @return the loan, request, notice, overdue fine and lost item policy
+   * and the conditions of the rule that determined the loan policy
+   */
+  @Override
+  public PolicyMatches policies(MultiMap params, Location location) {
+    KieSession kieSession = createSession(params, location);
+    RuleEventListener ruleEventListener = new RuleEventListener();
+    kieSession.addEventListener(ruleEventListener);
+    kieSession.fireAllRules();
+    Match match = match(kieSession);
+    kieSession.dispose();
+    List<String> appliedRuleConditions = ruleEventListener.getRuleConditions();
+
+    Map<PolicyType, String> policyIds = new EnumMap<>(PolicyType.class);
+    policyIds.put(PolicyType.LOAN, match.loanPolicyId);
+    policyIds.put(PolicyType.REQUEST, match.requestPolicyId);
+    policyIds.put(PolicyType.NOTICE, match.noticePolicyId);
+    policyIds.put(PolicyType.OVERDUE_FINE, match.overduePolicyId);
+    policyIds.put(PolicyType.LOST_ITEM, match.lostItemPolicyId);
+
+    return new PolicyMatches(policyIds, new AppliedRuleConditions(
+      isRuleItemTypePresent(appliedRuleConditions),
+      isRuleLoanTypePresent(appliedRuleConditions),
+      isRulePatronGroupPresent(appliedRuleConditions)));
+  }
+
+  private static Match match(KieSession kieSession) {
+    return (Match) kieSession.getGlobal("match");
+  }
+
+  private void writeLineMatch(JsonObject json, Match match) {
     write(json, "circulationRuleLine", match.lineNumber);
   }
 
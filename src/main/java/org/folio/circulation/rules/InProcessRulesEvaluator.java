@@ -0,0 +1,162 @@
+package org.folio.circulation.rules;
+
+import static java.util.concurrent.CompletableFuture.completedFuture;
+import static org.folio.circulation.resources.AbstractCirculationRulesEngineResource.ITEM_TYPE_ID_NAME;
+import static org.folio.circulation.resources.AbstractCirculationRulesEngineResource.LOAN_TYPE_ID_NAME;
+import static org.folio.circulation.resources.AbstractCirculationRulesEngineResource.LOCATION_ID_NAME;
+import static org.folio.circulation.resources.AbstractCirculationRulesEngineResource.PATRON_TYPE_ID_NAME;
+import static org.folio.circulation.support.Result.failed;
+import static org.folio.circulation.support.Result.succeeded;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import org.folio.circulation.domain.Location;
+import org.folio.circulation.support.BadRequestFailure;
+import org.folio.circulation.support.CollectionResourceClient;
+import org.folio.circulation.support.FetchSingleRecord;
+import org.folio.circulation.support.Result;
+import org.folio.circulation.support.ServerErrorFailure;
+
+/**
+ * Applies the circulation rules using the tenant's cached Drools directly,
+ * instead of making a request via Okapi to the circulation rules engine
+ * of this module.
+ */
+public class InProcessRulesEvaluator implements PoliciesRulesEvaluator {
+  private static volatile boolean enabled = false;
+
+  private final String tenantId;
+  private final CollectionResourceClient circulationRulesStorage;
+  private final CollectionResourceClient locationsStorage;
+
+  public InProcessRulesEvaluator(String tenantId,
+    CollectionResourceClient circulationRulesStorage,
+    CollectionResourceClient locationsStorage) {
+
+    this.tenantId = tenantId;
+    this.circulationRulesStorage = circulationRulesStorage;
+    this.locationsStorage = locationsStorage;
+  }
+
+  /**
+   * Whether the circulation rules can be applied in-process, this is only
+   * the case when the circulation rules engine runs in the same JVM.
+   * @return true if in-process evaluation should be used
+   */
+  public static boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Enable or disable in-process evaluation, when disabled the circulation
+   * rules engine is called via Okapi.
+   * @param enable  whether to use in-process evaluation
+   */
+  public static void setEnabled(boolean enable) {
+    enabled = enable;
+  }
+
+  @Override
+  public CompletableFuture<Result<PolicyMatches>> applyRulesForAllPolicies(
+    RulesExecutionParameters parameters) {
+
+    final String missingParameter = findMissingParameter(parameters);
+
+    if (missingParameter != null) {
+      return completedFuture(failed(new BadRequestFailure(
+        "required query parameter missing: " + missingParameter)));
+    }
+
+    return CirculationRulesCache.getInstance()
+      .getPoliciesMatcher(tenantId, circulationRulesStorage)
+      .thenCombine(fetchLocation(parameters), (matcherResult, locationResult) ->
+        matcherResult.combine(locationResult, (matcher, location) ->
+          matcher.policies(parameters.toParams(), location)));
+  }
+
+  /**
+   * Applies the circulation rules once for each distinct criteria, the
+   * locations of all of the criteria are fetched with a single request.
+   */
+  @Override
+  public CompletableFuture<Result<List<PolicyMatches>>> applyRulesForAllPolicies(
+    List<RulesExecutionParameters> parameters) {
+
+    for (RulesExecutionParameters criteria : parameters) {
+      final String missingParameter = findMissingParameter(criteria);
+
+      if (missingParameter != null) {
+        return completedFuture(failed(new BadRequestFailure(
+          "required query parameter missing: " + missingParameter)));
+      }
+    }
+
+    return CirculationRulesCache.getInstance()
+      .getPoliciesMatcher(tenantId, circulationRulesStorage)
+      .thenCombine(RuleLocations.fetch(locationsStorage, parameters),
+        (matcherResult, locationsResult) -> matcherResult.combineToResult(
+          locationsResult, (matcher, locations) -> matchAll(matcher, locations, parameters)));
+  }
+
+  private static Result<List<PolicyMatches>> matchAll(PoliciesMatcher matcher,
+    RuleLocations locations, List<RulesExecutionParameters> parameters) {
+
+    final Map<RulesExecutionParameters, PolicyMatches> distinctMatches
+      = new LinkedHashMap<>();
+
+    final List<PolicyMatches> matches = new ArrayList<>(parameters.size());
+
+    for (RulesExecutionParameters criteria : parameters) {
+      PolicyMatches match = distinctMatches.get(criteria);
+
+      if (match == null) {
+        final Result<Location> location = locations.locationFor(criteria);
+
+        if (location.failed()) {
+          return failed(location.cause());
+        }
+
+        match = matcher.policies(criteria.toParams(), location.value());
+        distinctMatches.put(criteria, match);
+      }
+
+      matches.add(match);
+    }
+
+    return succeeded(matches);
+  }
+
+  private static String findMissingParameter(RulesExecutionParameters parameters) {
+    if (parameters.getMaterialTypeId() == null) {
+      return ITEM_TYPE_ID_NAME;
+    }
+    if (parameters.getLoanTypeId() == null) {
+      return LOAN_TYPE_ID_NAME;
+    }
+    if (parameters.getPatronGroupId() == null) {
+      return PATRON_TYPE_ID_NAME;
+    }
+    if (parameters.getLocationId() == null) {
+      return LOCATION_ID_NAME;
+    }
+    return null;
+  }
+
+  private CompletableFuture<Result<Location>> fetchLocation(
+    RulesExecutionParameters parameters) {
+
+    if (parameters.hasLocation()) {
+      return completedFuture(succeeded(parameters.getLocation()));
+    }
+
+    return FetchSingleRecord.<Location>forRecord("location")
+      .using(locationsStorage)
+      .mapTo(Location::from)
+      .whenNotFound(failed(new ServerErrorFailure("Can`t find location")))
+      .fetch(parameters.getLocationId());
+  }
+}
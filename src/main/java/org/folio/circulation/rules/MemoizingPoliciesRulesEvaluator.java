@@ -0,0 +1,121 @@
+package org.folio.circulation.rules;
+
+import static java.util.stream.Collectors.toList;
+import static org.folio.circulation.support.AsyncCoordinationUtil.allOf;
+import static org.folio.circulation.support.Result.failed;
+import static org.folio.circulation.support.Result.succeeded;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.folio.circulation.support.Result;
+
+/**
+ * Remembers the policies determined for each set of criteria, so that
+ * the circulation rules are only applied once, no matter how many types
+ * of policy are looked up for the same item and patron.
+ * <p>
+ * Intended to live only as long as a single operation, e.g. a check out,
+ * so that changes to the circulation rules are picked up by the next one.
+ */
+public class MemoizingPoliciesRulesEvaluator implements PoliciesRulesEvaluator {
+  private final PoliciesRulesEvaluator evaluator;
+  private final Map<RulesExecutionParameters, CompletableFuture<Result<PolicyMatches>>>
+    matches = new ConcurrentHashMap<>();
+
+  public MemoizingPoliciesRulesEvaluator(PoliciesRulesEvaluator evaluator) {
+    this.evaluator = evaluator;
+  }
+
+  @Override
+  public CompletableFuture<Result<PolicyMatches>> applyRulesForAllPolicies(
+    RulesExecutionParameters parameters) {
+
+    return matches.computeIfAbsent(parameters,
+      evaluator::applyRulesForAllPolicies);
+  }
+
+  /**
+   * Applies the circulation rules at once for all the criteria
+   * that have not been applied before.
+   * <p>
+   * A batch fails as a whole when any of its criteria cannot be applied, so
+   * the failure is not remembered, and the criteria are applied again the
+   * next time they are asked for.
+   */
+  @Override
+  public CompletableFuture<Result<List<PolicyMatches>>> applyRulesForAllPolicies(
+    List<RulesExecutionParameters> parameters) {
+
+    final Map<RulesExecutionParameters, CompletableFuture<Result<PolicyMatches>>>
+      requested = new HashMap<>();
+    final List<RulesExecutionParameters> notYetApplied = new ArrayList<>();
+
+    parameters.stream()
+      .distinct()
+      .forEach(criteria -> {
+        final CompletableFuture<Result<PolicyMatches>> pending = new CompletableFuture<>();
+        final CompletableFuture<Result<PolicyMatches>> existing
+          = matches.putIfAbsent(criteria, pending);
+
+        if (existing == null) {
+          notYetApplied.add(criteria);
+          requested.put(criteria, pending);
+        } else {
+          requested.put(criteria, existing);
+        }
+      });
+
+    if (!notYetApplied.isEmpty()) {
+      evaluator.applyRulesForAllPolicies(notYetApplied)
+        .whenComplete((result, error) -> {
+          for (int index = 0; index < notYetApplied.size(); index++) {
+            final RulesExecutionParameters criteria = notYetApplied.get(index);
+            final CompletableFuture<Result<PolicyMatches>> pending = requested.get(criteria);
+
+            if (error != null) {
+              matches.remove(criteria, pending);
+              pending.completeExceptionally(error);
+            } else if (result.failed()) {
+              matches.remove(criteria, pending);
+              pending.complete(failed(result.cause()));
+            } else {
+              pending.complete(succeeded(result.value().get(index)));
+            }
+          }
+        });
+    }
+
+    return allOf(parameters, requested::get);
+  }
+
+  /**
+   * @param policyType  type of policy to determine
+   * @return an evaluator that determines a single type of policy
+   */
+  public RulesEvaluator forPolicyType(PolicyType policyType) {
+    return new RulesEvaluator() {
+      @Override
+      public CompletableFuture<Result<CirculationRuleMatch>> applyRules(
+        RulesExecutionParameters parameters) {
+
+        return applyRulesForAllPolicies(parameters)
+          .thenApply(r -> r.map(policies -> policies.getMatch(policyType)));
+      }
+
+      @Override
+      public CompletableFuture<Result<List<CirculationRuleMatch>>> applyRules(
+        List<RulesExecutionParameters> parameters) {
+
+        return applyRulesForAllPolicies(parameters)
+          .thenApply(r -> r.map(policies -> policies.stream()
+            .map(match -> match.getMatch(policyType))
+            .collect(toList())));
+      }
+    };
+  }
+}
@@ -0,0 +1,18 @@
+package org.folio.circulation.rules;
+
+import org.folio.circulation.domain.Location;
+
+import io.vertx.core.MultiMap;
+
+/**
+ * Applies the circulation rules once to determine the policy of each type.
+ */
+public interface PoliciesMatcher {
+  /**
+   * Calculate all types of policy for the request parameters.
+   * @param params request parameters
+   * @param location - location with institution, library and campus
+   * @return the id of each type of policy and the loan policy rule conditions
+   */
+  PolicyMatches policies(MultiMap params, Location location);
+}
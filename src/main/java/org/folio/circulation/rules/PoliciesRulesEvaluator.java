@@ -0,0 +1,33 @@
+package org.folio.circulation.rules;
+
+import static org.folio.circulation.support.AsyncCoordinationUtil.allOf;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.folio.circulation.support.Result;
+
+/**
+ * Applies the circulation rules once to determine the policy of every type.
+ */
+public interface PoliciesRulesEvaluator {
+  /**
+   * Determine the loan, request, notice, overdue fine and lost item policy
+   * for the criteria.
+   * @param parameters  material type, loan type, patron group and location
+   * @return the id of the matching policy of each type
+   */
+  CompletableFuture<Result<PolicyMatches>> applyRulesForAllPolicies(
+    RulesExecutionParameters parameters);
+
+  /**
+   * Determine the policy of every type for each of the criteria.
+   * @param parameters  criteria to determine the policies for
+   * @return the matches in the same order as the criteria
+   */
+  default CompletableFuture<Result<List<PolicyMatches>>> applyRulesForAllPolicies(
+    List<RulesExecutionParameters> parameters) {
+
+    return allOf(parameters, this::applyRulesForAllPolicies);
+  }
+}
@@ -0,0 +1,77 @@
+package org.folio.circulation.rules;
+
+import static org.folio.circulation.support.JsonPropertyFetcher.getBooleanProperty;
+import static org.folio.circulation.support.JsonPropertyWriter.write;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import io.vertx.core.json.JsonObject;
+
+/**
+ * The policy of each type that matches when applying the circulation rules once.
+ */
+public class PolicyMatches {
+  private static final String APPLIED_RULE_CONDITIONS = "appliedRuleConditions";
+
+  private final Map<PolicyType, String> policyIds;
+  /** conditions of the rule that determined the loan policy */
+  private final AppliedRuleConditions appliedRuleConditions;
+
+  public PolicyMatches(Map<PolicyType, String> policyIds,
+    AppliedRuleConditions appliedRuleConditions) {
+
+    this.policyIds = new EnumMap<>(policyIds);
+    this.appliedRuleConditions = appliedRuleConditions;
+  }
+
+  public static PolicyMatches from(JsonObject representation) {
+    final Map<PolicyType, String> policyIds = new EnumMap<>(PolicyType.class);
+
+    for (PolicyType policyType : PolicyType.values()) {
+      policyIds.put(policyType, representation.getString(policyType.getPolicyIdKey()));
+    }
+
+    final JsonObject conditions = representation.getJsonObject(
+      APPLIED_RULE_CONDITIONS, new JsonObject());
+
+    return new PolicyMatches(policyIds, new AppliedRuleConditions(
+      getBooleanProperty(conditions, "materialTypeMatch"),
+      getBooleanProperty(conditions, "loanTypeMatch"),
+      getBooleanProperty(conditions, "patronGroupMatch")));
+  }
+
+  public String getPolicyId(PolicyType policyType) {
+    return policyIds.get(policyType);
+  }
+
+  /**
+   * The match for a single type of policy, only the loan policy
+   * reports which conditions were present in the applied rule.
+   * @param policyType  type of policy
+   * @return the matching policy id and applied rule conditions
+   */
+  public CirculationRuleMatch getMatch(PolicyType policyType) {
+    if (policyType == PolicyType.LOAN) {
+      return new CirculationRuleMatch(getPolicyId(policyType), appliedRuleConditions);
+    }
+
+    return new CirculationRuleMatch(getPolicyId(policyType),
+      new AppliedRuleConditions(false, false, false));
+  }
+
+  public JsonObject toJson() {
+    final JsonObject representation = new JsonObject();
+
+    for (PolicyType policyType : PolicyType.values()) {
+      write(representation, policyType.getPolicyIdKey(), getPolicyId(policyType));
+    }
+
+    representation.put(APPLIED_RULE_CONDITIONS, new JsonObject()
+      .put("materialTypeMatch", appliedRuleConditions.isItemTypePresent())
+      .put("loanTypeMatch", appliedRuleConditions.isLoanTypePresent())
+      .put("patronGroupMatch", appliedRuleConditions.isPatronGroupPresent()));
+
+    return representation;
+  }
+}
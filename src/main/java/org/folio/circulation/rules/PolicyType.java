@@ -0,0 +1,25 @@
+package org.folio.circulation.rules;
+
+/**
+ * The kinds of policy the circulation rules determine.
+ */
+public enum PolicyType {
+  LOAN("loanPolicyId"),
+  REQUEST("requestPolicyId"),
+  NOTICE("noticePolicyId"),
+  OVERDUE_FINE("overdueFinePolicyId"),
+  LOST_ITEM("lostItemPolicyId");
+
+  private final String policyIdKey;
+
+  PolicyType(String policyIdKey) {
+    this.policyIdKey = policyIdKey;
+  }
+
+  /**
+   * @return name of the property holding the policy id in a rules engine response
+   */
+  public String getPolicyIdKey() {
+    return policyIdKey;
+  }
+}
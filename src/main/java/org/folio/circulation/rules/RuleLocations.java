@@ -0,0 +1,81 @@
+package org.folio.circulation.rules;
+
+import static java.util.concurrent.CompletableFuture.completedFuture;
+import static org.folio.circulation.support.Result.failed;
+import static org.folio.circulation.support.Result.succeeded;
+import static org.folio.circulation.support.fetching.RecordFetching.findWithMultipleCqlIndexValues;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import org.folio.circulation.domain.Location;
+import org.folio.circulation.support.CollectionResourceClient;
+import org.folio.circulation.support.Result;
+import org.folio.circulation.support.ServerErrorFailure;
+
+/**
+ * The locations needed to apply the circulation rules to many criteria,
+ * fetched from storage at once.
+ */
+public class RuleLocations {
+  private final Map<String, Location> locations;
+
+  private RuleLocations(Map<String, Location> locations) {
+    this.locations = locations;
+  }
+
+  /**
+   * Fetch the locations of the criteria, only those that do not
+   * already have their location are fetched.
+   * @param locationsStorage  where to fetch the locations from
+   * @param parameters  criteria to fetch the locations of
+   * @return the locations of the criteria
+   */
+  public static CompletableFuture<Result<RuleLocations>> fetch(
+    CollectionResourceClient locationsStorage,
+    Collection<RulesExecutionParameters> parameters) {
+
+    final Map<String, Location> known = new HashMap<>();
+    final Set<String> locationIds = new HashSet<>();
+
+    for (RulesExecutionParameters criteria : parameters) {
+      if (criteria.hasLocation()) {
+        known.put(criteria.getLocationId(), criteria.getLocation());
+      }
+      else {
+        locationIds.add(criteria.getLocationId());
+      }
+    }
+
+    locationIds.removeAll(known.keySet());
+
+    if (locationIds.isEmpty()) {
+      return completedFuture(succeeded(new RuleLocations(known)));
+    }
+
+    return findWithMultipleCqlIndexValues(locationsStorage, "locations", Location::from)
+      .findByIds(locationIds)
+      .thenApply(r -> r.map(records -> {
+        known.putAll(records.toMap(Location::getId));
+        return new RuleLocations(known);
+      }));
+  }
+
+  /**
+   * @param parameters  criteria to get the location of
+   * @return the location of the criteria, failed when it could not be found
+   */
+  public Result<Location> locationFor(RulesExecutionParameters parameters) {
+    final Location location = locations.get(parameters.getLocationId());
+
+    if (location == null) {
+      return failed(new ServerErrorFailure("Can`t find location"));
+    }
+
+    return succeeded(location);
+  }
+}
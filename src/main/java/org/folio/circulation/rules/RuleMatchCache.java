@@ -0,0 +1,141 @@
+package org.folio.circulation.rules;
+
+import static java.util.concurrent.CompletableFuture.completedFuture;
+import static org.folio.circulation.resources.AbstractCirculationRulesEngineResource.ITEM_TYPE_ID_NAME;
+import static org.folio.circulation.resources.AbstractCirculationRulesEngineResource.LOAN_TYPE_ID_NAME;
+import static org.folio.circulation.resources.AbstractCirculationRulesEngineResource.LOCATION_ID_NAME;
+import static org.folio.circulation.resources.AbstractCirculationRulesEngineResource.PATRON_TYPE_ID_NAME;
+import static org.folio.circulation.support.Result.succeeded;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import org.folio.circulation.support.Result;
+
+import io.vertx.core.MultiMap;
+
+/**
+ * Bounded least recently used cache of the circulation rule matches
+ * of a tenant, keyed by policy type, item type, loan type, patron group
+ * and location.
+ * <p>
+ * The cached matches belong to the Drools they were calculated with,
+ * each version of the rules has its own cache.
+ */
+public class RuleMatchCache {
+  private final Drools drools;
+  private final Map<Key, CirculationRuleMatch> matches;
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+
+  private static class Key {
+    private final PolicyType policyType;
+    private final String itemTypeId;
+    private final String loanTypeId;
+    private final String patronGroupId;
+    private final String locationId;
+
+    Key(PolicyType policyType, MultiMap params) {
+      this.policyType = policyType;
+      this.itemTypeId = params.get(ITEM_TYPE_ID_NAME);
+      this.loanTypeId = params.get(LOAN_TYPE_ID_NAME);
+      this.patronGroupId = params.get(PATRON_TYPE_ID_NAME);
+      this.locationId = params.get(LOCATION_ID_NAME);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      Key key = (Key) o;
+      return policyType == key.policyType
+        && Objects.equals(itemTypeId, key.itemTypeId)
+        && Objects.equals(loanTypeId, key.loanTypeId)
+        && Objects.equals(patronGroupId, key.patronGroupId)
+        && Objects.equals(locationId, key.locationId);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(policyType, itemTypeId, loanTypeId, patronGroupId, locationId);
+    }
+  }
+
+  /**
+   * Create an empty cache.
+   * @param drools  the rules to calculate matches with
+   * @param maximumSize  number of matches to keep, the least recently used is dropped first
+   */
+  public RuleMatchCache(Drools drools, int maximumSize) {
+    this.drools = drools;
+    this.matches = new LinkedHashMap<Key, CirculationRuleMatch>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Key, CirculationRuleMatch> eldest) {
+        return size() > maximumSize;
+      }
+    };
+  }
+
+  /**
+   * Return the cached match for the policy type and request parameters, on a miss
+   * calculate the match using the Drools of this cache and cache it.
+   * @param policyType  type of the policy
+   * @param params  request parameters with item type, loan type, patron type and location id
+   * @param apply  calculates the match using the Drools provided
+   * @return the match or the failure of calculating it
+   */
+  public CompletableFuture<Result<CirculationRuleMatch>> match(PolicyType policyType,
+    MultiMap params,
+    Function<Drools, CompletableFuture<Result<CirculationRuleMatch>>> apply) {
+
+    final Key key = new Key(policyType, params);
+    final CirculationRuleMatch cached = get(key);
+
+    if (cached != null) {
+      hits.increment();
+      return completedFuture(succeeded(cached));
+    }
+
+    misses.increment();
+
+    return apply.apply(drools)
+      .thenApply(r -> r.map(match -> {
+        put(key, match);
+        return match;
+      }));
+  }
+
+  private synchronized CirculationRuleMatch get(Key key) {
+    return matches.get(key);
+  }
+
+  private synchronized void put(Key key, CirculationRuleMatch match) {
+    matches.put(key, match);
+  }
+
+  public long getHits() {
+    return hits.sum();
+  }
+
+  public long getMisses() {
+    return misses.sum();
+  }
+
+  public synchronized int size() {
+    return matches.size();
+  }
+
+  @Override
+  public String toString() {
+    return String.format("hits: %d, misses: %d, cached: %d",
+      getHits(), getMisses(), size());
+  }
+}
@@ -0,0 +1,66 @@
+package org.folio.circulation.rules;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * How often and how long the circulation rules of all tenants have been
+ * compiled into Drools and decision tables, and how often compiled rules
+ * have been read from the compiled rules store instead.
+ */
+public class RulesCompileMetrics {
+  private final LongAdder compilations = new LongAdder();
+  private final LongAdder failures = new LongAdder();
+  private final LongAdder storeReads = new LongAdder();
+  private final LongAdder totalNanoseconds = new LongAdder();
+  private final AtomicLong maximumNanoseconds = new AtomicLong();
+  private final AtomicLong lastNanoseconds = new AtomicLong();
+
+  void recordCompilation(long nanoseconds) {
+    compilations.increment();
+    totalNanoseconds.add(nanoseconds);
+    maximumNanoseconds.accumulateAndGet(nanoseconds, Math::max);
+    lastNanoseconds.set(nanoseconds);
+  }
+
+  void recordFailure() {
+    failures.increment();
+  }
+
+  void recordStoreRead() {
+    storeReads.increment();
+  }
+
+  public long getCompilations() {
+    return compilations.sum();
+  }
+
+  public long getFailures() {
+    return failures.sum();
+  }
+
+  public long getStoreReads() {
+    return storeReads.sum();
+  }
+
+  public long getTotalMilliseconds() {
+    return TimeUnit.NANOSECONDS.toMillis(totalNanoseconds.sum());
+  }
+
+  public long getMaximumMilliseconds() {
+    return TimeUnit.NANOSECONDS.toMillis(maximumNanoseconds.get());
+  }
+
+  public long getLastMilliseconds() {
+    return TimeUnit.NANOSECONDS.toMillis(lastNanoseconds.get());
+  }
+
+  @Override
+  public String toString() {
+    return String.format("compilations: %d, failures: %d, read from store: %d, " +
+        "total: %d ms, maximum: %d ms, last: %d ms", getCompilations(),
+      getFailures(), getStoreReads(), getTotalMilliseconds(),
+      getMaximumMilliseconds(), getLastMilliseconds());
+  }
+}
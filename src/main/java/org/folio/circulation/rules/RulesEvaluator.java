@@ -0,0 +1,32 @@
+package org.folio.circulation.rules;
+
+import static org.folio.circulation.support.AsyncCoordinationUtil.allOf;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.folio.circulation.support.Result;
+
+/**
+ * Applies the circulation rules to determine a policy.
+ */
+public interface RulesEvaluator {
+  /**
+   * Determine the policy for the criteria.
+   * @param parameters  material type, loan type, patron group and location
+   * @return the id of the matching policy and which criteria the matching rule used
+   */
+  CompletableFuture<Result<CirculationRuleMatch>> applyRules(
+    RulesExecutionParameters parameters);
+
+  /**
+   * Determine the policy for each of the criteria.
+   * @param parameters  criteria to determine the policy for
+   * @return the matches in the same order as the criteria
+   */
+  default CompletableFuture<Result<List<CirculationRuleMatch>>> applyRules(
+    List<RulesExecutionParameters> parameters) {
+
+    return allOf(parameters, this::applyRules);
+  }
+}
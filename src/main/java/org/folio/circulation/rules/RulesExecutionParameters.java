@@ -0,0 +1,136 @@
+package org.folio.circulation.rules;
+
+import static org.folio.circulation.resources.AbstractCirculationRulesEngineResource.ITEM_TYPE_ID_NAME;
+import static org.folio.circulation.resources.AbstractCirculationRulesEngineResource.LOAN_TYPE_ID_NAME;
+import static org.folio.circulation.resources.AbstractCirculationRulesEngineResource.LOCATION_ID_NAME;
+import static org.folio.circulation.resources.AbstractCirculationRulesEngineResource.PATRON_TYPE_ID_NAME;
+import static org.folio.circulation.support.JsonPropertyFetcher.getProperty;
+import static org.folio.circulation.support.JsonPropertyWriter.write;
+
+import java.util.Objects;
+
+import org.folio.circulation.domain.Item;
+import org.folio.circulation.domain.Location;
+import org.folio.circulation.domain.User;
+
+import io.vertx.core.MultiMap;
+import io.vertx.core.http.CaseInsensitiveHeaders;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * The criteria the circulation rules are applied to.
+ */
+public class RulesExecutionParameters {
+  private final String materialTypeId;
+  private final String loanTypeId;
+  private final String patronGroupId;
+  private final String locationId;
+  /** location with institution, campus and library, null when not yet fetched */
+  private final Location location;
+
+  public RulesExecutionParameters(String materialTypeId, String loanTypeId,
+    String patronGroupId, String locationId, Location location) {
+
+    this.materialTypeId = materialTypeId;
+    this.loanTypeId = loanTypeId;
+    this.patronGroupId = patronGroupId;
+    this.locationId = locationId;
+    this.location = location;
+  }
+
+  public static RulesExecutionParameters forItemAndUser(Item item, User user) {
+    return new RulesExecutionParameters(item.getMaterialTypeId(),
+      item.determineLoanTypeForItem(), user.getPatronGroupId(),
+      item.getLocationId(), item.getLocation());
+  }
+
+  /**
+   * Criteria as in a request to apply the circulation rules for many criteria at once.
+   * @param criteria  with itemTypeId, loanTypeId, patronTypeId and locationId
+   * @return the criteria, ids missing in the representation are null
+   */
+  public static RulesExecutionParameters from(JsonObject criteria) {
+    return new RulesExecutionParameters(getProperty(criteria, "itemTypeId"),
+      getProperty(criteria, "loanTypeId"), getProperty(criteria, "patronTypeId"),
+      getProperty(criteria, "locationId"), null);
+  }
+
+  public JsonObject toJson() {
+    final JsonObject criteria = new JsonObject();
+
+    write(criteria, "itemTypeId", materialTypeId);
+    write(criteria, "loanTypeId", loanTypeId);
+    write(criteria, "patronTypeId", patronGroupId);
+    write(criteria, "locationId", locationId);
+
+    return criteria;
+  }
+
+  /**
+   * @return the criteria as the query parameters of applying the circulation rules
+   */
+  public MultiMap toParams() {
+    MultiMap params = new CaseInsensitiveHeaders();
+    params.add(ITEM_TYPE_ID_NAME, materialTypeId);
+    params.add(LOAN_TYPE_ID_NAME, loanTypeId);
+    params.add(PATRON_TYPE_ID_NAME, patronGroupId);
+    params.add(LOCATION_ID_NAME, locationId);
+    return params;
+  }
+
+  public String getMaterialTypeId() {
+    return materialTypeId;
+  }
+
+  public String getLoanTypeId() {
+    return loanTypeId;
+  }
+
+  public String getPatronGroupId() {
+    return patronGroupId;
+  }
+
+  public String getLocationId() {
+    return locationId;
+  }
+
+  public Location getLocation() {
+    return location;
+  }
+
+  public boolean hasLocation() {
+    return location != null && Objects.equals(location.getId(), locationId);
+  }
+
+  public RulesExecutionParameters withLocation(Location newLocation) {
+    return new RulesExecutionParameters(materialTypeId, loanTypeId,
+      patronGroupId, locationId, newLocation);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof RulesExecutionParameters)) {
+      return false;
+    }
+    RulesExecutionParameters other = (RulesExecutionParameters) o;
+    return Objects.equals(materialTypeId, other.materialTypeId)
+      && Objects.equals(loanTypeId, other.loanTypeId)
+      && Objects.equals(patronGroupId, other.patronGroupId)
+      && Objects.equals(locationId, other.locationId);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(materialTypeId, loanTypeId, patronGroupId, locationId);
+  }
+
+  @Override
+  public String toString() {
+    return String.format(
+      "material type: %s, patron group: %s, loan type: %s, location: %s",
+      materialTypeId, patronGroupId, loanTypeId, locationId);
+  }
+}
@@ -1,6 +1,8 @@
 package org.folio.circulation.rules;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
@@ -90,6 +92,7 @@ public class Text2Drools extends CirculationRulesBaseListener {
     Set<String> criteriaUsed = new HashSet<>(4);
     int maxCriteriumPriority;
     StringBuilder drools;
+    List<DecisionTable.Condition> conditions = new ArrayList<>();
     public Matcher(int indentation, Set<String> criteriaUsed, int maxCriteriumPriority, StringBuilder drools) {
       this.indentation = indentation;
       this.criteriaUsed.addAll(criteriaUsed);
@@ -98,6 +101,8 @@ public class Text2Drools extends CirculationRulesBaseListener {
     }
   }
   private LinkedList<Matcher> stack = new LinkedList<>();
+  /** the rules as generated for drools, for building a DecisionTable */
+  private List<DecisionTable.Rule> rules = new ArrayList<>();
   private static Matcher defaultMatcher = new Matcher(0, Collections.emptySet(), 0, null);
 
   private int indentation = 0;
@@ -172,6 +177,19 @@ public class Text2Drools extends CirculationRulesBaseListener {
     return text2drools.drools.toString();
   }
 
+  /**
+   * Convert circulation rules from FOLIO text format into the rules of a
+   * DecisionTable, these are the same rules with the same salience as in
+   * the Drools file returned by convert(String).
+   * @param text String with a circulation rules file in FOLIO syntax.
+   * @return rules in the order they appear in the text
+   */
+  static List<DecisionTable.Rule> convertToRules(String text) {
+    Text2Drools text2drools = new Text2Drools((policyType, policies, token) -> {});
+    getDroolsRepresentation(text, text2drools);
+    return text2drools.rules;
+  }
+
   /**
    * Pop all matchers whose indentation is >= the current indentation.
    */
@@ -346,14 +364,21 @@ public class Text2Drools extends CirculationRulesBaseListener {
     drools.append("rule \"line ").append(line).append("\"\n");
     drools.append("  salience ").append(getSalience(line)).append("\n");
     drools.append("  when\n");
-    stack.descendingIterator().forEachRemaining(matcher -> drools.append(matcher.drools));
+    List<DecisionTable.Condition> conditions = new ArrayList<>();
+    stack.descendingIterator().forEachRemaining(matcher -> {
+      drools.append(matcher.drools);
+      conditions.addAll(matcher.conditions);
+    });
     drools.append("  then\n");
 
+    Map<PolicyType, String> policyIds = new EnumMap<>(PolicyType.class);
     for (PolicyContext policy : policies.policy()) {
       drools.append(policyMatchString(policy));
       appendQuotedString(drools, policy.NAME().getText());
       drools.append(";\n");
+      policyIds.put(policyType(policy), policy.NAME().getText());
     }
+    rules.add(new DecisionTable.Rule(line, getSalience(line), conditions, policyIds));
 
     drools.append("    match.lineNumber = ").append(line).append(";\n");
     drools.append("    drools.halt();\n");
@@ -377,6 +402,23 @@ public class Text2Drools extends CirculationRulesBaseListener {
     }
   }
 
+  private static PolicyType policyType(PolicyContext policy) {
+    switch (policy.POLICY_TYPE().toString()) {
+      case "l":
+        return PolicyType.LOAN;
+      case "r":
+        return PolicyType.REQUEST;
+      case "n":
+        return PolicyType.NOTICE;
+      case "o":
+        return PolicyType.OVERDUE_FINE;
+      case "i":
+        return PolicyType.LOST_ITEM;
+      default: throw new IllegalArgumentException("Unknown policy type: "
+        + policy.POLICY_TYPE().toString());
+    }
+  }
+
   private int getSalience(int line) {
     int salience = line;
     if (priority[2] == PriorityType.FIRST_LINE) {
@@ -435,6 +477,7 @@ public class Text2Drools extends CirculationRulesBaseListener {
 
     if (criteriumContext.all() != null) {
       matcher.drools.append("() // all\n");
+      matcher.conditions.add(DecisionTable.Condition.all(criteriumTypeLetter));
       return;
     }
 
@@ -444,6 +487,11 @@ public class Text2Drools extends CirculationRulesBaseListener {
       not = true;
     }
 
+    matcher.conditions.add(new DecisionTable.Condition(criteriumTypeLetter, not,
+      criteriumContext.NAME().stream()
+        .map(TerminalNode::getText)
+        .collect(Collectors.toSet())));
+
     if (criteriumContext.NAME().size() == 1) {
       matcher.drools.append(not ? "(id != " : "(id == " );
       appendQuotedString(matcher.drools, criteriumContext.NAME(0).getText());
@@ -1,29 +1,52 @@
 package org.folio.circulation.support;
 
+import static java.util.stream.Collectors.toList;
+import static org.folio.circulation.support.JsonArrayHelper.mapToList;
+import static org.folio.circulation.support.Result.failed;
+import static org.folio.circulation.support.Result.succeeded;
 import static org.folio.circulation.support.http.client.NamedQueryParameter.namedParameter;
+import static org.folio.circulation.support.results.CommonFailures.failedDueToServerError;
 
+import java.lang.invoke.MethodHandles;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 
+import org.folio.circulation.rules.PoliciesRulesEvaluator;
+import org.folio.circulation.rules.PolicyMatches;
+import org.folio.circulation.rules.RulesExecutionParameters;
 import org.folio.circulation.support.http.client.OkapiHttpClient;
 import org.folio.circulation.support.http.client.Response;
 import org.folio.circulation.support.http.server.WebContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Applies the circulation rules by making a request via Okapi
+ * to the circulation rules engine.
+ */
+public class CirculationRulesClient implements PoliciesRulesEvaluator {
+  private static final Logger log = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
 
-public class CirculationRulesClient {
   private final URL root;
+  private final URL batchRoot;
   private final OkapiHttpClient client;
 
   CirculationRulesClient(OkapiHttpClient client,
-    WebContext context, String policyPath)
+    WebContext context, String policiesPath)
 
     throws MalformedURLException {
 
-    root = context.getOkapiBasedUrl(policyPath);
+    root = context.getOkapiBasedUrl(policiesPath);
+    batchRoot = context.getOkapiBasedUrl(policiesPath + "/batch");
     this.client = client;
   }
 
-  public CompletableFuture<Result<Response>> applyRules(String loanTypeId,
+  private CompletableFuture<Result<Response>> applyRules(String loanTypeId,
     String locationId, String materialTypeId, String patronGroupId) {
 
     return client.get(root, namedParameter("item_type_id", materialTypeId),
@@ -31,4 +54,48 @@ public class CirculationRulesClient {
         namedParameter("patron_type_id", patronGroupId),
         namedParameter("location_id", locationId));
   }
+
+  @Override
+  public CompletableFuture<Result<PolicyMatches>> applyRulesForAllPolicies(
+    RulesExecutionParameters parameters) {
+
+    return applyRules(parameters.getLoanTypeId(), parameters.getLocationId(),
+      parameters.getMaterialTypeId(), parameters.getPatronGroupId())
+      .thenApply(r -> r.next(this::processRulesResponse));
+  }
+
+  @Override
+  public CompletableFuture<Result<List<PolicyMatches>>> applyRulesForAllPolicies(
+    List<RulesExecutionParameters> parameters) {
+
+    final JsonObject request = new JsonObject()
+      .put("criteria", new JsonArray(parameters.stream()
+        .map(RulesExecutionParameters::toJson)
+        .collect(toList())));
+
+    return client.post(batchRoot, request)
+      .thenApply(r -> r.next(this::processBatchRulesResponse));
+  }
+
+  private Result<PolicyMatches> processRulesResponse(Response response) {
+    return checkRulesResponse(response)
+      .map(PolicyMatches::from);
+  }
+
+  private Result<List<PolicyMatches>> processBatchRulesResponse(Response response) {
+    return checkRulesResponse(response)
+      .map(json -> mapToList(json, "circulationRuleMatches", PolicyMatches::from));
+  }
+
+  private Result<JsonObject> checkRulesResponse(Response response) {
+    if (response.getStatusCode() == 404) {
+      return failedDueToServerError("Unable to apply circulation rules");
+    } else if (response.getStatusCode() != 200) {
+      return failed(new ForwardOnFailure(response));
+    }
+
+    log.info("Rules response {}", response.getBody());
+
+    return succeeded(response.getJson());
+  }
 }
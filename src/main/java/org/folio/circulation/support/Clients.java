@@ -1,13 +1,25 @@
 package org.folio.circulation.support;
 
+import static org.folio.circulation.rules.PolicyType.LOAN;
+import static org.folio.circulation.rules.PolicyType.LOST_ITEM;
+import static org.folio.circulation.rules.PolicyType.NOTICE;
+import static org.folio.circulation.rules.PolicyType.OVERDUE_FINE;
+import static org.folio.circulation.rules.PolicyType.REQUEST;
+
 import java.net.MalformedURLException;
 
+import org.folio.circulation.rules.InProcessRulesEvaluator;
+import org.folio.circulation.rules.MemoizingPoliciesRulesEvaluator;
+import org.folio.circulation.rules.PoliciesRulesEvaluator;
+import org.folio.circulation.rules.RulesEvaluator;
+import org.folio.circulation.support.http.client.CoalescingOkapiHttpClient;
 import org.folio.circulation.support.http.client.OkapiHttpClient;
 import org.folio.circulation.support.http.server.WebContext;
 
 import io.vertx.core.http.HttpClient;
 
 public class Clients {
+  private final String tenantId;
   private final CollectionResourceClient requestsStorageClient;
   private final CollectionResourceClient requestsBatchStorageClient;
   private final CollectionResourceClient cancellationReasonStorageClient;
@@ -28,11 +40,12 @@ public class Clients {
   private final CollectionResourceClient overdueFinesPoliciesPoliciesStorageClient;
   private final CollectionResourceClient lostItemPoliciesStorageClient;
   private final GetManyRecordsClient fixedDueDateSchedulesStorageClient;
-  private final CirculationRulesClient circulationLoanRulesClient;
-  private final CirculationRulesClient circulationOverdueFinesRulesClient;
-  private final CirculationRulesClient circulationLostItemRulesClient;
-  private final CirculationRulesClient circulationRequestRulesClient;
-  private final CirculationRulesClient circulationNoticeRulesClient;
+  private final MemoizingPoliciesRulesEvaluator circulationPoliciesRules;
+  private final RulesEvaluator circulationLoanRulesClient;
+  private final RulesEvaluator circulationOverdueFinesRulesClient;
+  private final RulesEvaluator circulationLostItemRulesClient;
+  private final RulesEvaluator circulationRequestRulesClient;
+  private final RulesEvaluator circulationNoticeRulesClient;
   private final CollectionResourceClient circulationRulesStorageClient;
   private final CollectionResourceClient requestPoliciesStorageClient;
   private final CollectionResourceClient servicePointsStorageClient;
@@ -58,37 +71,45 @@ public class Clients {
   }
 
   private Clients(OkapiHttpClient client, WebContext context) {
+    tenantId = context.getTenantId();
+
+    // reference data is not changed by circulation, so identical requests
+    // for it that are in flight at the same time can share a response
+    final OkapiHttpClient coalescingClient = CoalescingOkapiHttpClient.coalescing(
+      client, tenantId, context.getOkapiToken());
+
     try {
       requestsStorageClient = createRequestsStorageClient(client, context);
       requestsBatchStorageClient = createRequestsBatchStorageClient(client, context);
-      cancellationReasonStorageClient = createCancellationReasonStorageClient(client, context);
+      cancellationReasonStorageClient = createCancellationReasonStorageClient(coalescingClient, context);
       itemsStorageClient = createItemsStorageClient(client, context);
-      holdingsStorageClient = createHoldingsStorageClient(client, context);
-      instancesStorageClient = createInstanceStorageClient(client, context);
+      holdingsStorageClient = createHoldingsStorageClient(coalescingClient, context);
+      instancesStorageClient = createInstanceStorageClient(coalescingClient, context);
       usersStorageClient = createUsersStorageClient(client, context);
-      addressTypesStorageClient = createAddressTypesStorageClient(client, context);
+      addressTypesStorageClient = createAddressTypesStorageClient(coalescingClient, context);
       loansStorageClient = createLoansStorageClient(client, context);
       overdueFinesPoliciesPoliciesStorageClient = createOverdueFinesPoliciesStorageClient(client, context);
       lostItemPoliciesStorageClient = createLostItemPoliciesStorageClient(client, context);
-      locationsStorageClient = createLocationsStorageClient(client, context);
+      locationsStorageClient = createLocationsStorageClient(coalescingClient, context);
       anonymizeStorageLoansClient = createAnonymizeStorageLoansClient(client, context);
-      institutionsStorageClient = createInstitutionsStorageClient(client, context);
-      campusesStorageClient = createCampusesStorageClient(client, context);
-      librariesStorageClient = createLibrariesStorageClient(client, context);
-      materialTypesStorageClient = createMaterialTypesStorageClient(client, context);
-      loanTypesStorageClient = createLoanTypesStorageClient(client, context);
+      institutionsStorageClient = createInstitutionsStorageClient(coalescingClient, context);
+      campusesStorageClient = createCampusesStorageClient(coalescingClient, context);
+      librariesStorageClient = createLibrariesStorageClient(coalescingClient, context);
+      materialTypesStorageClient = createMaterialTypesStorageClient(coalescingClient, context);
+      loanTypesStorageClient = createLoanTypesStorageClient(coalescingClient, context);
       proxiesForClient = createProxyUsersStorageClient(client, context);
-      circulationLoanRulesClient = createCirculationLoanRulesClient(client, context);
-      circulationRequestRulesClient = createCirculationRequestRulesClient(client, context);
-      circulationNoticeRulesClient = createCirculationNoticeRulesClient(client, context);
-      circulationOverdueFinesRulesClient = createCirculationOverdueFinesRulesClient(client, context);
-      circulationLostItemRulesClient = createCirculationLostItemRulesClient(client, context);
       circulationRulesStorageClient = createCirculationRulesStorageClient(client, context);
+      circulationPoliciesRules = createPoliciesRulesEvaluator(client, context);
+      circulationLoanRulesClient = circulationPoliciesRules.forPolicyType(LOAN);
+      circulationRequestRulesClient = circulationPoliciesRules.forPolicyType(REQUEST);
+      circulationNoticeRulesClient = circulationPoliciesRules.forPolicyType(NOTICE);
+      circulationOverdueFinesRulesClient = circulationPoliciesRules.forPolicyType(OVERDUE_FINE);
+      circulationLostItemRulesClient = circulationPoliciesRules.forPolicyType(LOST_ITEM);
       loanPoliciesStorageClient = createLoanPoliciesStorageClient(client, context);
       requestPoliciesStorageClient = createRequestPoliciesStorageClient(client, context);
       fixedDueDateSchedulesStorageClient = createFixedDueDateSchedulesStorageClient(client, context);
-      servicePointsStorageClient = createServicePointsStorageClient(client, context);
-      patronGroupsStorageClient = createPatronGroupsStorageClient(client, context);
+      servicePointsStorageClient = createServicePointsStorageClient(coalescingClient, context);
+      patronGroupsStorageClient = createPatronGroupsStorageClient(coalescingClient, context);
       calendarStorageClient = createCalendarStorageClient(client, context);
       patronNoticePolicesStorageClient = createPatronNoticePolicesStorageClient(client, context);
       patronNoticeClient = createPatronNoticeClient(client, context);
@@ -153,6 +174,10 @@ public class Clients {
     return anonymizeStorageLoansClient;
   }
 
+  public String tenantId() {
+    return tenantId;
+  }
+
   public CollectionResourceClient locationsStorage() {
     return locationsStorageClient;
   }
@@ -213,23 +238,27 @@ public class Clients {
     return proxiesForClient;
   }
 
-  public CirculationRulesClient circulationLoanRules() {
+  public PoliciesRulesEvaluator circulationPoliciesRules() {
+    return circulationPoliciesRules;
+  }
+
+  public RulesEvaluator circulationLoanRules() {
     return circulationLoanRulesClient;
   }
 
-  public CirculationRulesClient circulationOverdueFineRules() {
+  public RulesEvaluator circulationOverdueFineRules() {
     return circulationOverdueFinesRulesClient;
   }
 
-  public CirculationRulesClient circulationLostItemRules() {
+  public RulesEvaluator circulationLostItemRules() {
     return circulationLostItemRulesClient;
   }
 
-  public CirculationRulesClient circulationRequestRules(){
+  public RulesEvaluator circulationRequestRules(){
     return circulationRequestRulesClient;
   }
 
-  public CirculationRulesClient circulationNoticeRules(){
+  public RulesEvaluator circulationNoticeRules(){
     return circulationNoticeRulesClient;
   }
 
@@ -293,44 +322,25 @@ public class Clients {
     return templateNoticeClient;
   }
 
-  private static CirculationRulesClient createCirculationLoanRulesClient(
-    OkapiHttpClient client, WebContext context)
-    throws MalformedURLException {
-
-    return new CirculationRulesClient(client, context,
-      "/circulation/rules/loan-policy");
-  }
-
-  private static CirculationRulesClient createCirculationOverdueFinesRulesClient(
-    OkapiHttpClient client, WebContext context)
-    throws MalformedURLException {
-
-    return new CirculationRulesClient(client, context,
-      "/circulation/rules/overdue-fine-policy");
-  }
-
-  private static CirculationRulesClient createCirculationLostItemRulesClient(
+  /**
+   * The circulation rules are applied at most once for the same criteria
+   * by all policy lookups using these clients
+   */
+  private MemoizingPoliciesRulesEvaluator createPoliciesRulesEvaluator(
     OkapiHttpClient client, WebContext context)
     throws MalformedURLException {
 
-    return new CirculationRulesClient(client, context,
-      "/circulation/rules/lost-item-policy");
-  }
+    final PoliciesRulesEvaluator evaluator;
 
-  private static CirculationRulesClient createCirculationRequestRulesClient(
-    OkapiHttpClient client, WebContext context)
-    throws MalformedURLException {
-
-    return new CirculationRulesClient(client, context,
-      "/circulation/rules/request-policy");
-  }
-
-  private static CirculationRulesClient createCirculationNoticeRulesClient(
-    OkapiHttpClient client, WebContext context)
-    throws MalformedURLException {
+    if (InProcessRulesEvaluator.isEnabled()) {
+      evaluator = new InProcessRulesEvaluator(context.getTenantId(),
+        circulationRulesStorageClient, locationsStorageClient);
+    } else {
+      evaluator = new CirculationRulesClient(client, context,
+        "/circulation/rules/policies");
+    }
 
-    return new CirculationRulesClient(client, context,
-      "/circulation/rules/notice-policy");
+    return new MemoizingPoliciesRulesEvaluator(evaluator);
   }
 
   private static CollectionResourceClient createRequestsStorageClient(
@@ -1,11 +1,15 @@
 package org.folio.circulation.support;
 
+import static java.util.Collections.singletonMap;
 import static org.apache.commons.lang3.StringUtils.isNotBlank;
 import static org.folio.circulation.support.http.client.Offset.noOffset;
 
 import java.net.URL;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 
+import org.apache.http.HttpHeaders;
 import org.folio.circulation.support.http.client.CqlQuery;
 import org.folio.circulation.support.http.client.PageLimit;
 import org.folio.circulation.support.http.client.Offset;
@@ -53,6 +57,23 @@ public class CollectionResourceClient implements GetManyRecordsClient {
     return client.get(collectionRoot.toString());
   }
 
+  /**
+   * Make a conditional get request, the server replies with 304 Not Modified
+   * if the representation still has the entity tag provided
+   *
+   * @param entityTag entity tag of the representation already known,
+   *                  when null an unconditional get request is made
+   * @return response from the server
+   */
+  public CompletableFuture<Result<Response>> getIfNoneMatch(String entityTag) {
+    if (entityTag == null) {
+      return get();
+    }
+
+    return client.get(collectionRoot.toString(),
+      singletonMap(HttpHeaders.IF_NONE_MATCH, entityTag));
+  }
+
   public CompletableFuture<Result<Response>> get(PageLimit pageLimit) {
     return client.get(collectionRoot, pageLimit);
   }
@@ -61,6 +82,37 @@ public class CollectionResourceClient implements GetManyRecordsClient {
     return client.get(individualRecordUrl(id));
   }
 
+  /**
+   * Make a conditional get request for a single record, the server replies
+   * with 304 Not Modified if the record has not changed
+   *
+   * @param id of the record
+   * @param entityTag entity tag of the record already known, may be null
+   * @param lastModified last modified date of the record already known,
+   *                     may be null
+   * @return response from the server, when both are null an unconditional
+   * get request is made
+   */
+  public CompletableFuture<Result<Response>> getIfModified(String id,
+    String entityTag, String lastModified) {
+
+    final Map<String, String> headers = new HashMap<>();
+
+    if (entityTag != null) {
+      headers.put(HttpHeaders.IF_NONE_MATCH, entityTag);
+    }
+
+    if (lastModified != null) {
+      headers.put(HttpHeaders.IF_MODIFIED_SINCE, lastModified);
+    }
+
+    if (headers.isEmpty()) {
+      return get(id);
+    }
+
+    return client.get(individualRecordUrl(id), headers);
+  }
+
   /**
    * Make a get request for multiple records using raw query string parameters
    * Should only be used when passing on entire query string from a client request
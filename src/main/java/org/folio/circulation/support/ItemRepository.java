@@ -10,13 +10,13 @@ import static org.folio.circulation.support.ResultBinding.flatMapResult;
 import static org.folio.circulation.support.ResultBinding.mapResult;
 import static org.folio.circulation.support.fetching.MultipleCqlIndexValuesCriteria.byIndex;
 import static org.folio.circulation.support.fetching.RecordFetching.findWithMultipleCqlIndexValues;
+import static org.folio.circulation.support.fetching.RelatedRecordsFetch.relatedRecordsOf;
 
 import java.lang.invoke.MethodHandles;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.function.BiFunction;
@@ -32,6 +32,8 @@ import org.folio.circulation.domain.MultipleRecords;
 import org.folio.circulation.domain.ServicePoint;
 import org.folio.circulation.domain.ServicePointRepository;
 import org.folio.circulation.support.fetching.RecordFetching;
+import org.folio.circulation.support.fetching.RelatedRecordsFetch;
+import org.folio.circulation.support.fetching.RelatedRecordsFetch.Fetch;
 import org.folio.circulation.support.http.client.CqlQuery;
 import org.folio.circulation.support.http.client.PageLimit;
 import org.folio.circulation.support.http.client.Response;
@@ -101,18 +103,6 @@ public class ItemRepository {
     return fetchById(record.getItemId());
   }
 
-  private CompletableFuture<Result<Item>> fetchLocation(Result<Item> result) {
-    return fetchLocation
-      ? result.combineAfter(locationRepository::getLocation, Item::withLocation)
-          .thenComposeAsync(this::fetchPrimaryServicePoint)
-      : completedFuture(result);
-  }
-
-  private CompletableFuture<Result<Item>> fetchPrimaryServicePoint(Result<Item> itemResult) {
-    return itemResult.combineAfter(item ->
-      fetchPrimaryServicePoint(item.getLocation()), Item::withPrimaryServicePoint);
-  }
-
   private CompletableFuture<Result<ServicePoint>> fetchPrimaryServicePoint(Location location) {
     if(isNull(location) || isNull(location.getPrimaryServicePointId())) {
       return ofAsync(() -> null);
@@ -129,19 +119,6 @@ public class ItemRepository {
     return itemsClient.put(item.getItemId(), item.getItem());
   }
 
-  private CompletableFuture<Result<Item>> fetchMaterialType(Result<Item> result) {
-    return fetchMaterialType
-      ? result.combineAfter(materialTypeRepository::getFor, Item::withMaterialType)
-      : completedFuture(result);
-  }
-
-  private CompletableFuture<Result<Item>> fetchLoanType(Result<Item> result) {
-    if (!fetchLoanType) {
-      return completedFuture(result);
-    }
-    return result.combineAfter(this::getLoanType, Item::withLoanType);
-  }
-
   private CompletableFuture<Result<JsonObject>> getLoanType(Item item) {
     if (item.getItem() == null) {
       return completedFuture(succeeded(null));
@@ -237,10 +214,10 @@ public class ItemRepository {
         = findWithMultipleCqlIndexValues(instancesClient, "instances", identity());
 
       return fetcher.findByIds(instanceIds)
-        .thenApply(r -> r.map(instances -> items.stream()
-          .map(item -> item.withInstance(
-            findById(item.getInstanceId(), instances.getRecords()).orElse(null)))
-          .collect(Collectors.toList())));
+        .thenApply(r -> r.map(instances -> asMultipleRecords(items)
+          .combineRecords(instances, Item::getInstanceId, byId(),
+            Item::withInstance, null)
+          .getRecords()));
     });
   }
 
@@ -258,20 +235,15 @@ public class ItemRepository {
         = findWithMultipleCqlIndexValues(holdingsClient, "holdingsRecords", identity());
 
       return fetcher.findByIds(holdingsIds)
-        .thenApply(r -> r.map(holdings -> items.stream()
-          .map(item -> item.withHoldingsRecord(
-            findById(item.getHoldingsRecordId(), holdings.getRecords()).orElse(null)))
-          .collect(Collectors.toList())));
+        .thenApply(r -> r.map(holdings -> asMultipleRecords(items)
+          .combineRecords(holdings, Item::getHoldingsRecordId, byId(),
+            Item::withHoldingsRecord, null)
+          .getRecords()));
     });
   }
 
-  private static Optional<JsonObject> findById(
-    String id,
-    Collection<JsonObject> collection) {
-
-    return collection.stream()
-      .filter(item -> item.getString("id").equals(id))
-      .findFirst();
+  private static MultipleRecords<Item> asMultipleRecords(Collection<Item> items) {
+    return new MultipleRecords<>(items, items.size());
   }
 
   private CompletableFuture<Result<Collection<Item>>> fetchItems(
@@ -306,34 +278,32 @@ public class ItemRepository {
       .map(items -> items.getRecords().stream().findFirst().orElse(null));
   }
 
-  private CompletableFuture<Result<Item>> fetchHoldingsRecord(
-    Result<Item> result) {
-
-    return result.after(item -> {
-      if(item == null || item.isNotFound()) {
-        log.info("Item was not found, aborting fetching holding or instance");
-        return completedFuture(succeeded(item));
-      }
-      else {
-        return SingleRecordFetcher.jsonOrNull(holdingsClient, "holding")
-          .fetch(item.getHoldingsRecordId())
-          .thenApply(r -> r.map(item::withHoldingsRecord));
-      }
-    });
+  private CompletableFuture<Result<JsonObject>> fetchHoldingsRecord(Item item) {
+    if(item == null || item.isNotFound()) {
+      log.info("Item was not found, aborting fetching holding or instance");
+      return completedFuture(succeeded(null));
+    }
+    else {
+      return SingleRecordFetcher.jsonOrNull(holdingsClient, "holding")
+        .fetch(item.getHoldingsRecordId());
+    }
   }
 
-  private CompletableFuture<Result<Item>> fetchInstance(Result<Item> result) {
-    return result.after(item -> {
-      if(item == null || item.isNotFound() || item.getInstanceId() == null) {
-        log.info("Holding was not found, aborting fetching instance");
-        return completedFuture(succeeded(item));
-      }
-      else {
-        return SingleRecordFetcher.jsonOrNull(instancesClient, "instance")
-          .fetch(item.getInstanceId())
-          .thenApply(r -> r.map(item::withInstance));
-      }
-    });
+  private CompletableFuture<Result<JsonObject>> fetchInstance(
+    JsonObject holdingsRecord) {
+
+    final String instanceId = holdingsRecord == null
+      ? null
+      : holdingsRecord.getString("instanceId");
+
+    if(instanceId == null) {
+      log.info("Holding was not found, aborting fetching instance");
+      return completedFuture(succeeded(null));
+    }
+    else {
+      return SingleRecordFetcher.jsonOrNull(instancesClient, "instance")
+        .fetch(instanceId);
+    }
   }
 
   //TODO: Try to remove includeItemMap without introducing unchecked exception
@@ -346,9 +316,9 @@ public class ItemRepository {
     }
 
     return result.combineAfter(r -> fetchFor(getItemIds(r)),
-      (records, items) -> new MultipleRecords<>(
-        matchItemToRecord(records, items, includeItemMap),
-        records.getTotalRecords()));
+      (records, items) -> records.combineRecords(asMultipleRecords(items),
+        ItemRelatedRecord::getItemId, Item::getItemId, includeItemMap,
+        Item.from(null)));
   }
 
   public CompletableFuture<Result<Collection<Item>>> findByQuery(Result<CqlQuery> queryResult) {
@@ -382,7 +352,17 @@ public class ItemRepository {
     Collection<String> itemIds) {
 
     return fetchItems(itemIds)
-      .thenComposeAsync(this::fetchHoldingRecords)
+      .thenComposeAsync(r -> r.after(this::fetchRelatedRecordsFor));
+  }
+
+  /**
+   * Fetches the records related to items that have already been fetched,
+   * e.g. a page of items, with a query for each type of record
+   */
+  public CompletableFuture<Result<Collection<Item>>> fetchRelatedRecordsFor(
+    Collection<Item> items) {
+
+    return fetchHoldingRecords(succeeded(items))
       .thenComposeAsync(this::fetchInstances)
       .thenComposeAsync(this::fetchLocations)
       .thenComposeAsync(this::fetchMaterialTypes);
@@ -394,27 +374,37 @@ public class ItemRepository {
       .collect(Collectors.toList());
   }
 
-  private <T extends ItemRelatedRecord> Collection<T> matchItemToRecord(
-    MultipleRecords<T> records,
-    Collection<Item> items,
-    BiFunction<T, Item, T> includeItemMap) {
-
-    return records.getRecords().stream()
-      .map(r -> includeItemMap.apply(r,
-        items.stream()
-          .filter(item -> StringUtils.equals(item.getItemId(), r.getItemId()))
-          .findFirst().orElse(Item.from(null))))
-      .collect(Collectors.toList());
-  }
-
   public CompletableFuture<Result<Item>> fetchItemRelatedRecords(
     Result<Item> item) {
 
-    return fetchHoldingsRecord(item)
-      .thenComposeAsync(this::fetchInstance)
-      .thenComposeAsync(this::fetchLocation)
-      .thenComposeAsync(this::fetchMaterialType)
-      .thenComposeAsync(this::fetchLoanType);
+    // only the instance and the primary service point depend upon another
+    // related record, everything else is fetched at the same time
+    final RelatedRecordsFetch<Item> relatedRecords
+      = relatedRecordsOf(completedFuture(item));
+
+    final Fetch<Item, JsonObject> holdingsRecord = relatedRecords.fetch(
+      this::fetchHoldingsRecord, Item::withHoldingsRecord);
+
+    relatedRecords.fetchAfter(holdingsRecord, this::fetchInstance,
+      Item::withInstance);
+
+    if (fetchLocation) {
+      final Fetch<Item, Location> location = relatedRecords.fetch(
+        locationRepository::getLocation, Item::withLocation);
+
+      relatedRecords.fetchAfter(location, this::fetchPrimaryServicePoint,
+        Item::withPrimaryServicePoint);
+    }
+
+    if (fetchMaterialType) {
+      relatedRecords.fetch(materialTypeRepository::getFor, Item::withMaterialType);
+    }
+
+    if (fetchLoanType) {
+      relatedRecords.fetch(this::getLoanType, Item::withLoanType);
+    }
+
+    return relatedRecords.combined();
   }
 
   public static ItemRepository noLocationMaterialTypeAndLoanTypeInstance(Clients clients) {
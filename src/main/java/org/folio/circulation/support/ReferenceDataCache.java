@@ -0,0 +1,480 @@
+package org.folio.circulation.support;
+
+import static java.util.concurrent.CompletableFuture.completedFuture;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static org.folio.circulation.support.Result.succeeded;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+
+import org.apache.http.HttpHeaders;
+import org.folio.circulation.support.http.client.Response;
+import org.folio.circulation.support.results.CommonFailures;
+
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Per tenant cache of reference records that rarely change, like locations
+ * and service points, that are needed by nearly every circulation request.
+ * <p>
+ * Each record type has its own time to live. A record older than three
+ * quarters of it is still returned, but reloaded in the background, so that
+ * frequently used records are never waited for. Concurrent requests for the
+ * same record that is not cached share a single load.
+ * <p>
+ * Records loaded with a {@link ConditionalLoader} keep the entity tag and
+ * last modified date storage provided, and are revalidated with a
+ * conditional request when they are reloaded. When storage replies with
+ * 304 Not Modified, the cached record is used for another time to live.
+ * <p>
+ * Records that are not found and failed loads are not cached.
+ */
+public class ReferenceDataCache {
+  private static final ReferenceDataCache instance = new ReferenceDataCache(
+    System::currentTimeMillis);
+
+  public enum RecordType {
+    LOCATIONS,
+    LIBRARIES,
+    CAMPUSES,
+    INSTITUTIONS,
+    SERVICE_POINTS
+  }
+
+  /**
+   * Loads the records with the ids provided, ids that are not found are not
+   * included in the map
+   */
+  public interface BatchLoader extends
+    Function<Collection<String>, CompletableFuture<Result<Map<String, JsonObject>>>> { }
+
+  /**
+   * Loads a single record, making a conditional request when the cached
+   * record has an entity tag or last modified date
+   */
+  public interface ConditionalLoader {
+    /**
+     * @param id  id of the record
+     * @param entityTag  entity tag of the cached record, null when there is none
+     * @param lastModified  last modified date of the cached record,
+     *                      null when there is none
+     * @return response from storage, 304 when the cached record has not changed
+     */
+    CompletableFuture<Result<Response>> load(String id, String entityTag,
+      String lastModified);
+  }
+
+  private final LongSupplier clock;
+  private final Map<RecordType, Long> timeToLive = new EnumMap<>(RecordType.class);
+  private final Map<RecordType, Metrics> metrics = new EnumMap<>(RecordType.class);
+  private final ConcurrentMap<String, Segment> segments = new ConcurrentHashMap<>();
+
+  private volatile int maximumSize = 10000;
+
+  ReferenceDataCache(LongSupplier clock) {
+    this.clock = clock;
+
+    for (RecordType recordType : RecordType.values()) {
+      timeToLive.put(recordType, MINUTES.toMillis(5));
+      metrics.put(recordType, new Metrics());
+    }
+  }
+
+  public static ReferenceDataCache getInstance() {
+    return instance;
+  }
+
+  /**
+   * @param recordType  type of the records
+   * @param timeToLiveInMilliseconds  how long a record is used after loading it,
+   *                                  0 disables caching of the type
+   */
+  public synchronized void setTimeToLive(RecordType recordType,
+    long timeToLiveInMilliseconds) {
+
+    timeToLive.put(recordType, timeToLiveInMilliseconds);
+  }
+
+  /**
+   * @param maximumSize  number of records of a type kept per tenant,
+   *                     the least recently used is dropped first
+   */
+  public void setMaximumSize(int maximumSize) {
+    this.maximumSize = maximumSize;
+    segments.clear();
+  }
+
+  /**
+   * Drop all cached records of all tenants.
+   */
+  public void clear() {
+    segments.clear();
+  }
+
+  public Metrics getMetrics(RecordType recordType) {
+    return metrics.get(recordType);
+  }
+
+  /**
+   * Return the cached record, on a miss load it and cache it.
+   * @param tenantId  tenant of the record
+   * @param recordType  type of the record
+   * @param id  id of the record
+   * @param loader  loads the record, null when it is not found
+   * @return a copy of the record, null when it is not found
+   */
+  public CompletableFuture<Result<JsonObject>> get(String tenantId,
+    RecordType recordType, String id,
+    Function<String, CompletableFuture<Result<JsonObject>>> loader) {
+
+    return getOrLoad(tenantId, recordType, id,
+      cached -> recordId -> loader.apply(recordId)
+        .thenApply(r -> r.map(this::entryFor)));
+  }
+
+  /**
+   * Return the cached record, on a miss load it and cache it. An expired
+   * record with an entity tag or last modified date is revalidated rather
+   * than loaded again.
+   * @param tenantId  tenant of the record
+   * @param recordType  type of the record
+   * @param id  id of the record
+   * @param loader  makes a (conditional) request for the record
+   * @param resultOnFailure  result of responses other than 200 and 304,
+   *                         null when the record is not found
+   * @return a copy of the record, null when it is not found
+   */
+  public CompletableFuture<Result<JsonObject>> get(String tenantId,
+    RecordType recordType, String id, ConditionalLoader loader,
+    Function<Response, Result<JsonObject>> resultOnFailure) {
+
+    final Metrics typeMetrics = metrics.get(recordType);
+
+    return getOrLoad(tenantId, recordType, id,
+      cached -> recordId -> loader.load(recordId,
+        cached == null ? null : cached.entityTag,
+        cached == null ? null : cached.lastModified)
+        .thenApply(r -> r.next(response -> entryFrom(response, cached,
+          resultOnFailure, typeMetrics)))
+        .exceptionally(CommonFailures::failedDueToServerError));
+  }
+
+  private CompletableFuture<Result<JsonObject>> getOrLoad(String tenantId,
+    RecordType recordType, String id,
+    Function<Entry, Function<String, CompletableFuture<Result<Entry>>>> loaderFor) {
+
+    final long ttl = getTimeToLive(recordType);
+
+    if (ttl <= 0) {
+      return loaderFor.apply(null).apply(id)
+        .thenApply(r -> r.map(ReferenceDataCache::valueOf));
+    }
+
+    final Metrics typeMetrics = metrics.get(recordType);
+    final Segment segment = segmentFor(tenantId, recordType);
+    final Entry cached = segment.get(id);
+    final long now = clock.getAsLong();
+
+    if (cached != null && cached.isFresh(now, ttl)) {
+      typeMetrics.hits.increment();
+
+      if (cached.needsRefresh(now, ttl) && cached.startRefresh()) {
+        segment.load(id, loaderFor.apply(cached), typeMetrics)
+          .whenComplete((result, error) -> {
+            if (error != null || result.failed() || result.value() == null) {
+              cached.refreshFailed();
+            }
+          });
+      }
+
+      return completedFuture(succeeded(cached.value.copy()));
+    }
+
+    typeMetrics.misses.increment();
+
+    // an expired record is passed on, so that it can be revalidated
+    return segment.load(id, loaderFor.apply(cached), typeMetrics)
+      .thenApply(r -> r.map(entry -> copy(valueOf(entry))));
+  }
+
+  /**
+   * Return the cached records, the records that are not cached are loaded
+   * in a single batch.
+   * @param tenantId  tenant of the records
+   * @param recordType  type of the records
+   * @param ids  ids of the records
+   * @param loader  loads the records that are not cached
+   * @return copies of the records by id, ids that are not found are not included
+   */
+  public CompletableFuture<Result<Map<String, JsonObject>>> getAll(String tenantId,
+    RecordType recordType, Collection<String> ids, BatchLoader loader) {
+
+    final long ttl = getTimeToLive(recordType);
+
+    if (ttl <= 0) {
+      return loader.apply(ids);
+    }
+
+    final Metrics typeMetrics = metrics.get(recordType);
+    final Segment segment = segmentFor(tenantId, recordType);
+    final long now = clock.getAsLong();
+
+    final Map<String, JsonObject> found = new HashMap<>();
+    final Map<String, Entry> toRefresh = new HashMap<>();
+
+    final List<String> missing = ids.stream()
+      .distinct()
+      .filter(id -> {
+        final Entry cached = segment.get(id);
+
+        if (cached != null && cached.isFresh(now, ttl)) {
+          typeMetrics.hits.increment();
+          found.put(id, cached.value.copy());
+
+          if (cached.needsRefresh(now, ttl) && cached.startRefresh()) {
+            toRefresh.put(id, cached);
+          }
+
+          return false;
+        }
+
+        typeMetrics.misses.increment();
+        return true;
+      })
+      .collect(Collectors.toList());
+
+    if (!toRefresh.isEmpty()) {
+      segment.loadAll(toRefresh.keySet(), loader, typeMetrics)
+        .whenComplete((result, error) -> toRefresh.forEach((id, entry) -> {
+          if (error != null || result.failed() || !result.value().containsKey(id)) {
+            entry.refreshFailed();
+          }
+        }));
+    }
+
+    if (missing.isEmpty()) {
+      return completedFuture(succeeded(found));
+    }
+
+    return segment.loadAll(missing, loader, typeMetrics)
+      .thenApply(r -> r.map(loaded -> {
+        loaded.forEach((id, record) -> found.put(id, record.copy()));
+        return found;
+      }));
+  }
+
+  private synchronized long getTimeToLive(RecordType recordType) {
+    return timeToLive.get(recordType);
+  }
+
+  private Segment segmentFor(String tenantId, RecordType recordType) {
+    return segments.computeIfAbsent(tenantId + "/" + recordType,
+      key -> new Segment(maximumSize));
+  }
+
+  private Result<Entry> entryFrom(Response response, Entry cached,
+    Function<Response, Result<JsonObject>> resultOnFailure, Metrics typeMetrics) {
+
+    if (response.getStatusCode() == 200) {
+      return succeeded(new Entry(response.getJson(),
+        response.getHeader(HttpHeaders.ETAG),
+        response.getHeader(HttpHeaders.LAST_MODIFIED)));
+    }
+
+    if (response.getStatusCode() == 304 && cached != null) {
+      typeMetrics.notModified.increment();
+
+      return succeeded(cached.revalidated());
+    }
+
+    return resultOnFailure.apply(response).map(this::entryFor);
+  }
+
+  private Entry entryFor(JsonObject record) {
+    return record == null ? null : new Entry(record, null, null);
+  }
+
+  private static JsonObject valueOf(Entry entry) {
+    return entry == null ? null : entry.value;
+  }
+
+  private static JsonObject copy(JsonObject record) {
+    return record == null ? null : record.copy();
+  }
+
+  /**
+   * Hit and miss counts of a record type over all tenants
+   */
+  public static class Metrics {
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder notModified = new LongAdder();
+
+    public long getHits() {
+      return hits.sum();
+    }
+
+    public long getMisses() {
+      return misses.sum();
+    }
+
+    /**
+     * @return number of requests to storage, including background reloads
+     */
+    public long getLoads() {
+      return loads.sum();
+    }
+
+    /**
+     * @return number of reloads storage answered with 304 Not Modified
+     */
+    public long getNotModified() {
+      return notModified.sum();
+    }
+
+    /**
+     * @return share of the records found in the cache, 0 when none were requested
+     */
+    public double getHitRatio() {
+      final long hitCount = getHits();
+      final long requestCount = hitCount + getMisses();
+
+      return requestCount == 0 ? 0 : (double) hitCount / requestCount;
+    }
+
+    @Override
+    public String toString() {
+      return String.format("hits: %d, misses: %d, hit ratio: %d%%, loads: %d, " +
+          "not modified: %d", getHits(), getMisses(), Math.round(getHitRatio() * 100),
+        getLoads(), getNotModified());
+    }
+  }
+
+  private class Entry {
+    private final JsonObject value;
+    private final String entityTag;
+    private final String lastModified;
+    private final long loadTimestamp;
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+
+    Entry(JsonObject value, String entityTag, String lastModified) {
+      this.value = value;
+      this.entityTag = entityTag;
+      this.lastModified = lastModified;
+      this.loadTimestamp = clock.getAsLong();
+    }
+
+    /**
+     * @return the same record, loaded now
+     */
+    Entry revalidated() {
+      return new Entry(value, entityTag, lastModified);
+    }
+
+    boolean isFresh(long now, long ttl) {
+      return now - loadTimestamp < ttl;
+    }
+
+    boolean needsRefresh(long now, long ttl) {
+      return now - loadTimestamp >= ttl / 4 * 3;
+    }
+
+    boolean startRefresh() {
+      return refreshing.compareAndSet(false, true);
+    }
+
+    void refreshFailed() {
+      refreshing.set(false);
+    }
+  }
+
+  /**
+   * The records of a single type of a single tenant
+   */
+  private class Segment {
+    private final Map<String, Entry> entries;
+    private final ConcurrentMap<String, CompletableFuture<Result<Entry>>> loading
+      = new ConcurrentHashMap<>();
+
+    Segment(int maximumSize) {
+      this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+          return size() > maximumSize;
+        }
+      };
+    }
+
+    synchronized Entry get(String id) {
+      return entries.get(id);
+    }
+
+    synchronized void put(String id, Entry entry) {
+      entries.put(id, entry);
+    }
+
+    /**
+     * Load a single record, joining a load of the same record in progress
+     */
+    CompletableFuture<Result<Entry>> load(String id,
+      Function<String, CompletableFuture<Result<Entry>>> loader,
+      Metrics typeMetrics) {
+
+      final CompletableFuture<Result<Entry>> inProgress = loading.get(id);
+
+      if (inProgress != null) {
+        return inProgress;
+      }
+
+      final CompletableFuture<Result<Entry>> load = new CompletableFuture<>();
+      final CompletableFuture<Result<Entry>> existing = loading.putIfAbsent(id, load);
+
+      if (existing != null) {
+        return existing;
+      }
+
+      typeMetrics.loads.increment();
+
+      loader.apply(id).whenComplete((result, error) -> {
+        if (error == null && result.succeeded() && result.value() != null) {
+          put(id, result.value());
+        }
+
+        loading.remove(id, load);
+
+        if (error != null) {
+          load.completeExceptionally(error);
+        } else {
+          load.complete(result);
+        }
+      });
+
+      return load;
+    }
+
+    CompletableFuture<Result<Map<String, JsonObject>>> loadAll(
+      Collection<String> ids, BatchLoader loader, Metrics typeMetrics) {
+
+      typeMetrics.loads.increment();
+
+      return loader.apply(ids)
+        .thenApply(r -> r.map(loaded -> {
+          loaded.forEach((id, record) -> put(id, entryFor(record)));
+          return loaded;
+        }));
+    }
+  }
+}
@@ -0,0 +1,24 @@
+package org.folio.circulation.support;
+
+import org.folio.circulation.support.http.server.ServerErrorResponse;
+
+import io.vertx.core.http.HttpServerResponse;
+
+/**
+ * The module is too busy to handle the request, it can be tried again later
+ */
+public class ServiceUnavailableFailure extends ServerErrorFailure {
+  public ServiceUnavailableFailure(String reason) {
+    super(reason);
+  }
+
+  @Override
+  public void writeTo(HttpServerResponse response) {
+    ServerErrorResponse.serviceUnavailable(response, reason);
+  }
+
+  @Override
+  public String toString() {
+    return String.format("Service unavailable failure, reason: %s", reason);
+  }
+}
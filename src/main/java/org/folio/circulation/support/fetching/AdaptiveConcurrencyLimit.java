@@ -0,0 +1,99 @@
+package org.folio.circulation.support.fetching;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Limits how many batch queries for a type of record are made at the same
+ * time, adjusting the limit to how quickly storage answers them.
+ * <p>
+ * The limit grows by one after a limit's worth of quick responses (additive
+ * increase) and is halved after a failure, or a response that took more than
+ * twice as long as the quickest recent one (multiplicative decrease). The
+ * quickest latency is forgotten every so often, so that the limit can recover
+ * after storage has been slow for a while.
+ */
+public class AdaptiveConcurrencyLimit {
+  private static final int INITIAL_LIMIT = 4;
+  private static final double LATENCY_TOLERANCE = 2.0;
+  /** Shorter latencies are not counted as slow, to ignore jitter on quick responses */
+  private static final long MINIMUM_TOLERATED_LATENCY = 10;
+  private static final int SAMPLES_BEFORE_MINIMUM_LATENCY_RESET = 100;
+
+  private final LongSupplier clock;
+
+  private int maximumLimit;
+  private double limit;
+  private long minimumLatency = Long.MAX_VALUE;
+  private int samplesSinceReset;
+  private long decreases;
+
+  AdaptiveConcurrencyLimit(LongSupplier clock, int maximumLimit) {
+    this.clock = clock;
+    this.maximumLimit = Math.max(1, maximumLimit);
+    this.limit = Math.min(INITIAL_LIMIT, this.maximumLimit);
+  }
+
+  /**
+   * @return how many batch queries can be made at the same time, at least one
+   */
+  public synchronized int getLimit() {
+    return (int) limit;
+  }
+
+  /**
+   * @return quickest recent response in milliseconds, or -1 when there has
+   * not been one since it was last forgotten
+   */
+  public synchronized long getMinimumLatency() {
+    return minimumLatency == Long.MAX_VALUE ? -1 : minimumLatency;
+  }
+
+  /**
+   * @return how many times the limit has been halved
+   */
+  public synchronized long getDecreases() {
+    return decreases;
+  }
+
+  synchronized void setMaximumLimit(int maximumLimit) {
+    this.maximumLimit = Math.max(1, maximumLimit);
+    this.limit = Math.min(limit, this.maximumLimit);
+  }
+
+  /**
+   * @return when a query was started, to be passed back once it is answered
+   */
+  long started() {
+    return clock.getAsLong();
+  }
+
+  synchronized void completed(long startedAt, boolean succeeded) {
+    final long latency = clock.getAsLong() - startedAt;
+
+    if (++samplesSinceReset > SAMPLES_BEFORE_MINIMUM_LATENCY_RESET) {
+      minimumLatency = Long.MAX_VALUE;
+      samplesSinceReset = 1;
+    }
+
+    minimumLatency = Math.min(minimumLatency, latency);
+
+    if (!succeeded || isSlow(latency)) {
+      limit = Math.max(1, limit / 2);
+      decreases++;
+    }
+    else {
+      limit = Math.min(maximumLimit, limit + 1 / limit);
+    }
+  }
+
+  private boolean isSlow(long latency) {
+    return latency > MINIMUM_TOLERATED_LATENCY
+      && latency > minimumLatency * LATENCY_TOLERANCE;
+  }
+
+  @Override
+  public synchronized String toString() {
+    return String.format("limit: %d of %d, quickest: %d ms, decreases: %d",
+      getLimit(), maximumLimit, getMinimumLatency(), decreases);
+  }
+}
@@ -0,0 +1,80 @@
+package org.folio.circulation.support.fetching;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Limits of the queries made when finding records by many index values,
+ * e.g. many ids, which are split up into batches of values.
+ * <p>
+ * The length of each query is limited, as storage modules (and Okapi)
+ * reject requests with long URLs. The number of batches queried at the same
+ * time is limited per type of record, see {@link AdaptiveConcurrencyLimit}.
+ */
+public class BatchQueryLimits {
+  private static final BatchQueryLimits instance = new BatchQueryLimits(
+    System::currentTimeMillis);
+
+  /**
+   * Request lines longer than 4096 characters are rejected by default,
+   * this leaves room for the path and other parameters
+   */
+  private static final int DEFAULT_MAXIMUM_QUERY_LENGTH = 3500;
+  private static final int DEFAULT_MAXIMUM_CONCURRENCY = 10;
+
+  private final LongSupplier clock;
+  private final ConcurrentMap<String, AdaptiveConcurrencyLimit> concurrencyLimits
+    = new ConcurrentHashMap<>();
+
+  private volatile int maximumQueryLength = DEFAULT_MAXIMUM_QUERY_LENGTH;
+  private volatile int maximumConcurrency = DEFAULT_MAXIMUM_CONCURRENCY;
+
+  BatchQueryLimits(LongSupplier clock) {
+    this.clock = clock;
+  }
+
+  public static BatchQueryLimits getInstance() {
+    return instance;
+  }
+
+  /**
+   * @param maximumQueryLength  longest query, once encoded in the URL
+   */
+  public void setMaximumQueryLength(int maximumQueryLength) {
+    this.maximumQueryLength = maximumQueryLength;
+  }
+
+  public int getMaximumQueryLength() {
+    return maximumQueryLength;
+  }
+
+  /**
+   * @param maximumConcurrency  most batches of a type of record queried at
+   *                            the same time
+   */
+  public void setMaximumConcurrency(int maximumConcurrency) {
+    this.maximumConcurrency = maximumConcurrency;
+
+    concurrencyLimits.values()
+      .forEach(limit -> limit.setMaximumLimit(maximumConcurrency));
+  }
+
+  public int getMaximumConcurrency() {
+    return maximumConcurrency;
+  }
+
+  /**
+   * @param recordsName  type of record, e.g. the property the records are in
+   */
+  public AdaptiveConcurrencyLimit concurrencyLimitFor(String recordsName) {
+    return concurrencyLimits.computeIfAbsent(recordsName,
+      name -> new AdaptiveConcurrencyLimit(clock, maximumConcurrency));
+  }
+
+  public Map<String, AdaptiveConcurrencyLimit> getConcurrencyLimits() {
+    return Collections.unmodifiableMap(concurrencyLimits);
+  }
+}
@@ -2,11 +2,11 @@ package org.folio.circulation.support.fetching;
 
 import static java.util.concurrent.CompletableFuture.completedFuture;
 import static java.util.stream.Collectors.collectingAndThen;
-import static org.apache.commons.collections4.ListUtils.partition;
 import static org.folio.circulation.domain.MultipleRecords.empty;
 import static org.folio.circulation.support.Result.of;
 import static org.folio.circulation.support.fetching.MultipleCqlIndexValuesCriteria.byId;
 import static org.folio.circulation.support.fetching.MultipleCqlIndexValuesCriteria.byIndex;
+import static org.folio.circulation.support.http.client.CqlQuery.encodedLengthOf;
 import static org.folio.circulation.support.http.client.CqlQuery.exactMatchAny;
 import static org.folio.circulation.support.http.client.PageLimit.maximumLimit;
 
@@ -14,6 +14,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 import org.folio.circulation.domain.MultipleRecords;
@@ -22,21 +23,45 @@ import org.folio.circulation.support.FindWithMultipleCqlIndexValues;
 import org.folio.circulation.support.Result;
 import org.folio.circulation.support.http.client.CqlQuery;
 
+/**
+ * Finds records matching any of many index values, e.g. many ids.
+ * <p>
+ * The values are split up into batches, each queried separately. A batch
+ * has as many values as fit in the maximum query length (and, optionally, no
+ * more than a maximum number of values). Only as many batches as the
+ * concurrency limit allows are queried at the same time, the rest are
+ * queried as earlier ones are answered.
+ */
 public class CqlIndexValuesFinder<T> implements FindWithMultipleCqlIndexValues<T> {
-  private static final int DEFAULT_MAX_ID_VALUES_PER_CQL_SEARCH_QUERY = 50;
+  private static final int SEPARATOR_LENGTH = encodedLengthOf(" or ");
+  private static final int AND_LENGTH = encodedLengthOf(" and ");
 
   private final FindWithCqlQuery<T> cqlFinder;
   private final int maxValuesPerCqlSearchQuery;
+  private final int maximumQueryLength;
+  private final AdaptiveConcurrencyLimit concurrencyLimit;
 
   public CqlIndexValuesFinder(FindWithCqlQuery<T> cqlFinder,
-    int maxValuesPerCqlSearchQuery) {
+    int maxValuesPerCqlSearchQuery, int maximumQueryLength,
+    AdaptiveConcurrencyLimit concurrencyLimit) {
 
     this.cqlFinder = cqlFinder;
     this.maxValuesPerCqlSearchQuery = maxValuesPerCqlSearchQuery;
+    this.maximumQueryLength = maximumQueryLength;
+    this.concurrencyLimit = concurrencyLimit;
+  }
+
+  public CqlIndexValuesFinder(FindWithCqlQuery<T> cqlFinder,
+    int maxValuesPerCqlSearchQuery) {
+
+    this(cqlFinder, maxValuesPerCqlSearchQuery,
+      BatchQueryLimits.getInstance().getMaximumQueryLength(),
+      new AdaptiveConcurrencyLimit(System::currentTimeMillis,
+        BatchQueryLimits.getInstance().getMaximumConcurrency()));
   }
 
   public CqlIndexValuesFinder(FindWithCqlQuery<T> cqlFinder) {
-    this(cqlFinder, DEFAULT_MAX_ID_VALUES_PER_CQL_SEARCH_QUERY);
+    this(cqlFinder, Integer.MAX_VALUE);
   }
 
   @Override
@@ -63,7 +88,8 @@ public class CqlIndexValuesFinder<T> implements FindWithMultipleCqlIndexValues<T
     }
 
     return findByBatchQueriesAndQuery(buildBatchQueriesByIndexName(
-        criteria.values, criteria.indexName), criteria.andQuery);
+        criteria.values, criteria.indexName, criteria.andQuery),
+      criteria.andQuery);
   }
 
   private CompletableFuture<Result<MultipleRecords<T>>> findByBatchQueriesAndQuery(
@@ -75,22 +101,58 @@ public class CqlIndexValuesFinder<T> implements FindWithMultipleCqlIndexValues<T
   }
 
   private List<Result<CqlQuery>> buildBatchQueriesByIndexName(
-    Collection<String> ids, String indexName) {
+    Collection<String> values, String indexName, Result<CqlQuery> andQuery) {
 
-    return partition(new ArrayList<>(ids), maxValuesPerCqlSearchQuery)
+    return partitionByQueryLength(values, indexName, andQuery)
       .stream()
-      .map(partitionedIds -> exactMatchAny(indexName, partitionedIds))
+      .map(partitionedValues -> exactMatchAny(indexName, partitionedValues))
       .collect(Collectors.toList());
   }
 
+  private List<List<String>> partitionByQueryLength(Collection<String> values,
+    String indexName, Result<CqlQuery> andQuery) {
+
+    final int andQueryLength = andQuery.map(CqlQuery::encodedLength).orElse(0);
+
+    final int fixedLength = encodedLengthOf(indexName + "==()")
+      + (andQueryLength > 0 ? AND_LENGTH + andQueryLength : 0);
+
+    final List<List<String>> partitions = new ArrayList<>();
+
+    List<String> partition = new ArrayList<>();
+    int length = fixedLength;
+
+    for (String value : values) {
+      // null values are left out of the query
+      final int valueLength = value == null ? 0 : encodedLengthOf("\"" + value + "\"");
+
+      if (!partition.isEmpty()
+        && (partition.size() >= maxValuesPerCqlSearchQuery
+          || length + SEPARATOR_LENGTH + valueLength > maximumQueryLength)) {
+
+        partitions.add(partition);
+        partition = new ArrayList<>();
+        length = fixedLength;
+      }
+
+      length += partition.isEmpty() ? valueLength : SEPARATOR_LENGTH + valueLength;
+      partition.add(value);
+    }
+
+    partitions.add(partition);
+
+    return partitions;
+  }
+
   private CompletableFuture<Result<MultipleRecords<T>>> findByBatchQueries(
     List<Result<CqlQuery>> queries) {
 
-    // NOTE: query limit is max value to ensure all records are returned
-    List<CompletableFuture<Result<MultipleRecords<T>>>> results = queries.stream()
-      .map(query -> cqlFinder.findByQuery(query, maximumLimit()))
+    final List<CompletableFuture<Result<MultipleRecords<T>>>> results = queries.stream()
+      .map(query -> new CompletableFuture<Result<MultipleRecords<T>>>())
       .collect(Collectors.toList());
 
+    new BatchQueries(queries, results).queryWhileBelowLimit();
+
     return CompletableFuture.allOf(results.toArray(new CompletableFuture[0]))
       .thenApply(notUsed -> results.stream()
         .map(CompletableFuture::join)
@@ -103,4 +165,70 @@ public class CqlIndexValuesFinder<T> implements FindWithMultipleCqlIndexValues<T
     return Result.combineAll(results)
       .map(records -> records.stream().reduce(empty(), MultipleRecords::combine));
   }
+
+  /**
+   * Queries the batches in order, starting another one whenever one is
+   * answered and fewer than the concurrency limit are in flight
+   */
+  private class BatchQueries {
+    private final List<Result<CqlQuery>> queries;
+    private final List<CompletableFuture<Result<MultipleRecords<T>>>> results;
+    /** Loops rather than recursing when queries are answered straight away */
+    private final AtomicInteger pendingChecks = new AtomicInteger();
+
+    private int nextQuery = 0;
+    private int inFlight = 0;
+
+    private BatchQueries(List<Result<CqlQuery>> queries,
+      List<CompletableFuture<Result<MultipleRecords<T>>>> results) {
+
+      this.queries = queries;
+      this.results = results;
+    }
+
+    private void queryWhileBelowLimit() {
+      if (pendingChecks.getAndIncrement() != 0) {
+        return;
+      }
+
+      do {
+        final List<Integer> toQuery = new ArrayList<>();
+
+        synchronized (this) {
+          while (nextQuery < queries.size()
+            && inFlight < Math.max(1, concurrencyLimit.getLimit())) {
+
+            toQuery.add(nextQuery++);
+            inFlight++;
+          }
+        }
+
+        toQuery.forEach(this::query);
+      } while (pendingChecks.decrementAndGet() != 0);
+    }
+
+    private void query(int index) {
+      final long startedAt = concurrencyLimit.started();
+
+      // NOTE: query limit is max value to ensure all records are returned
+      cqlFinder.findByQuery(queries.get(index), maximumLimit())
+        .whenComplete((result, error) -> {
+          concurrencyLimit.completed(startedAt,
+            error == null && result.succeeded());
+
+          synchronized (this) {
+            inFlight--;
+          }
+
+          if (error != null) {
+            results.get(index).completeExceptionally(error);
+          }
+          else {
+            results.get(index).complete(result);
+          }
+
+          queryWhileBelowLimit();
+        });
+    }
+  }
 }
@@ -0,0 +1,173 @@
+package org.folio.circulation.support.fetching;
+
+import static java.util.concurrent.CompletableFuture.completedFuture;
+import static java.util.function.Function.identity;
+import static org.folio.circulation.support.Result.succeeded;
+import static org.folio.circulation.support.http.client.CqlQuery.greaterThan;
+import static org.folio.circulation.support.http.client.PageLimit.limit;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+import org.folio.circulation.domain.MultipleRecords;
+import org.folio.circulation.support.CqlSortBy;
+import org.folio.circulation.support.GetManyRecordsClient;
+import org.folio.circulation.support.Result;
+import org.folio.circulation.support.http.client.CqlQuery;
+import org.folio.circulation.support.http.client.Response;
+
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Fetches all of the records matching a query a page at a time, without
+ * using an offset (which storage gets slower at the further into the
+ * records it is).
+ * <p>
+ * Records are sorted by id, and each page after the first asks for the
+ * records with an id after the last one on the previous page. The next page
+ * is fetched whilst the current one is being processed, no more than one
+ * page ahead.
+ * <p>
+ * The query must not be sorted, as the records are sorted by id.
+ *
+ * @param <T> type of the records
+ */
+public class KeysetPageIterator<T> {
+  private static final CqlSortBy BY_ID = CqlSortBy.ascending("id");
+
+  private final GetManyRecordsClient client;
+  private final String recordsPropertyName;
+  private final Function<JsonObject, T> recordMapper;
+  private final int pageSize;
+
+  public KeysetPageIterator(GetManyRecordsClient client,
+    String recordsPropertyName, Function<JsonObject, T> recordMapper,
+    int pageSize) {
+
+    this.client = client;
+    this.recordsPropertyName = recordsPropertyName;
+    this.recordMapper = recordMapper;
+    this.pageSize = pageSize;
+  }
+
+  /**
+   * Processes each page of records matching the query, one after another
+   *
+   * @param query  records to fetch
+   * @param pageProcessor  processes a page, the next page is not processed
+   *                       until this has completed
+   * @return success once every page has been processed, or the first failure
+   */
+  public CompletableFuture<Result<Void>> forEachPage(Result<CqlQuery> query,
+    Function<MultipleRecords<T>, CompletableFuture<Result<Void>>> pageProcessor) {
+
+    return processFrom(query, fetchPage(query, null, pageSize), Integer.MAX_VALUE,
+      pageProcessor);
+  }
+
+  /**
+   * @param query  records to fetch
+   * @param maximumRecords  fetches no more than this many records
+   * @return records matching the query, in order of id
+   */
+  public CompletableFuture<Result<MultipleRecords<T>>> getAll(
+    Result<CqlQuery> query, int maximumRecords) {
+
+    if (maximumRecords <= 0) {
+      return completedFuture(succeeded(MultipleRecords.empty()));
+    }
+
+    final List<T> records = new ArrayList<>();
+
+    return processFrom(query,
+      fetchPage(query, null, Math.min(pageSize, maximumRecords)), maximumRecords,
+      page -> {
+        records.addAll(page.getRecords());
+
+        return completedFuture(succeeded(null));
+      })
+      .thenApply(r -> r.map(notUsed -> new MultipleRecords<>(records, records.size())));
+  }
+
+  /**
+   * @return all records matching the query, in order of id
+   */
+  public CompletableFuture<Result<MultipleRecords<T>>> getAll(
+    Result<CqlQuery> query) {
+
+    return getAll(query, Integer.MAX_VALUE);
+  }
+
+  private CompletableFuture<Result<Void>> processFrom(Result<CqlQuery> query,
+    CompletableFuture<Result<Page<T>>> fetchingPage, int remainingRecords,
+    Function<MultipleRecords<T>, CompletableFuture<Result<Void>>> pageProcessor) {
+
+    return fetchingPage.thenCompose(r -> r.after(page -> {
+      final int remainingAfterPage = remainingRecords - page.size();
+
+      // the next page is fetched whilst this one is processed
+      final CompletableFuture<Result<Page<T>>> fetchingNextPage
+        = page.isLast() || remainingAfterPage <= 0
+        ? null
+        : fetchPage(query, page.lastId, Math.min(pageSize, remainingAfterPage));
+
+      return pageProcessor.apply(page.records)
+        .thenCompose(processed -> processed.after(notUsed ->
+          fetchingNextPage == null
+            ? completedFuture(succeeded(null))
+            : processFrom(query, fetchingNextPage, remainingAfterPage,
+                pageProcessor)));
+    }));
+  }
+
+  private CompletableFuture<Result<Page<T>>> fetchPage(Result<CqlQuery> query,
+    String afterId, int limit) {
+
+    final Result<CqlQuery> pageQuery = afterId == null
+      ? query
+      : greaterThan("id", afterId).combine(query, CqlQuery::and);
+
+    return pageQuery
+      .map(q -> q.sortBy(BY_ID))
+      .after(q -> client.getMany(q, limit(limit)))
+      .thenApply(r -> r.next(response -> pageFrom(response, limit)));
+  }
+
+  private Result<Page<T>> pageFrom(Response response, int limit) {
+    return MultipleRecords.from(response, identity(), recordsPropertyName)
+      .map(representations -> {
+        final Collection<JsonObject> records = representations.getRecords();
+
+        final String lastId = records.stream()
+          .reduce((first, second) -> second)
+          .map(record -> record.getString("id"))
+          .orElse(null);
+
+        return new Page<>(representations.mapRecords(recordMapper), lastId,
+          records.size() < limit);
+      });
+  }
+
+  private static class Page<T> {
+    private final MultipleRecords<T> records;
+    private final String lastId;
+    private final boolean last;
+
+    private Page(MultipleRecords<T> records, String lastId, boolean last) {
+      this.records = records;
+      this.lastId = lastId;
+      this.last = last;
+    }
+
+    private int size() {
+      return records.getRecords().size();
+    }
+
+    private boolean isLast() {
+      return last || lastId == null;
+    }
+  }
+}
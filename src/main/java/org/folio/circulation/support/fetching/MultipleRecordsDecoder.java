@@ -0,0 +1,108 @@
+package org.folio.circulation.support.fetching;
+
+import static com.fasterxml.jackson.core.JsonToken.END_ARRAY;
+import static com.fasterxml.jackson.core.JsonToken.END_OBJECT;
+import static com.fasterxml.jackson.core.JsonToken.START_ARRAY;
+import static com.fasterxml.jackson.core.JsonToken.START_OBJECT;
+import static com.fasterxml.jackson.core.JsonToken.VALUE_NUMBER_INT;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.folio.circulation.domain.MultipleRecords;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import io.netty.buffer.ByteBufInputStream;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.DecodeException;
+import io.vertx.core.json.Json;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Decodes a collection of records straight from the bytes of a response,
+ * mapping each record as it is read. Only the representation of a single
+ * record is built at a time, rather than a tree of the whole collection.
+ */
+public class MultipleRecordsDecoder {
+  private static final String TOTAL_RECORDS_PROPERTY_NAME = "totalRecords";
+
+  private MultipleRecordsDecoder() { }
+
+  /**
+   * @param body  JSON object with an array of records and the total number of records
+   * @param recordsPropertyName  name of the array of records
+   * @param mapper  maps the representation of each record
+   * @return the mapped records, without any when the body is empty
+   * @throws DecodeException  when the body is not a JSON object
+   */
+  public static <T> MultipleRecords<T> decode(Buffer body,
+    String recordsPropertyName, Function<JsonObject, T> mapper) {
+
+    final List<T> records = new ArrayList<>();
+    Integer totalRecords = null;
+
+    if (body.length() == 0) {
+      return new MultipleRecords<>(records, totalRecords);
+    }
+
+    try (JsonParser parser = Json.mapper.getFactory().createParser(
+      (InputStream) new ByteBufInputStream(body.getByteBuf()))) {
+
+      final JsonToken first = parser.nextToken();
+
+      if (first == null) {
+        return new MultipleRecords<>(records, totalRecords);
+      }
+
+      if (first != START_OBJECT) {
+        throw new DecodeException("Expected a JSON object but found " + first);
+      }
+
+      while (parser.nextToken() != END_OBJECT) {
+        final String propertyName = parser.getCurrentName();
+        final JsonToken value = parser.nextToken();
+
+        if (recordsPropertyName.equals(propertyName) && value == START_ARRAY) {
+          readRecords(parser, mapper, records);
+        }
+        else if (TOTAL_RECORDS_PROPERTY_NAME.equals(propertyName)
+          && value == VALUE_NUMBER_INT) {
+
+          totalRecords = parser.getIntValue();
+        }
+        else {
+          parser.skipChildren();
+        }
+      }
+    }
+    catch (IOException e) {
+      throw new DecodeException("Failed to decode records: " + e.getMessage());
+    }
+
+    return new MultipleRecords<>(records, totalRecords);
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T> void readRecords(JsonParser parser,
+    Function<JsonObject, T> mapper, List<T> records) throws IOException {
+
+    JsonToken token;
+
+    while ((token = parser.nextToken()) != END_ARRAY) {
+      if (token == START_OBJECT) {
+        records.add(mapper.apply(new JsonObject(
+          (Map<String, Object>) Json.mapper.readValue(parser, Map.class))));
+      }
+      else {
+        // like collections decoded as a tree, only objects are records
+        parser.skipChildren();
+      }
+    }
+  }
+}
@@ -14,8 +14,12 @@ public class RecordFetching {
       GetManyRecordsClient client, String recordsPropertyName,
       Function<JsonObject, T> recordMapper) {
 
+    final BatchQueryLimits limits = BatchQueryLimits.getInstance();
+
     return new CqlIndexValuesFinder<>(
-      new CqlQueryFinder<>(client, recordsPropertyName, recordMapper));
+      new CqlQueryFinder<>(client, recordsPropertyName, recordMapper),
+      Integer.MAX_VALUE, limits.getMaximumQueryLength(),
+      limits.concurrencyLimitFor(recordsPropertyName));
   }
 
   public static <T> CqlQueryFinder<T> findWithCqlQuery(
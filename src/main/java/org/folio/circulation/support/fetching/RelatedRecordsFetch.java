@@ -0,0 +1,113 @@
+package org.folio.circulation.support.fetching;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import org.folio.circulation.support.Result;
+
+/**
+ * Fetches the records related to a record, starting each fetch as soon as the
+ * records it depends upon have been fetched, rather than one after another.
+ * <p>
+ * A fetch either depends upon the record itself, or upon another related
+ * record. Once every fetch has completed, the related records are combined
+ * with the record in the order the fetches were added. The first failure,
+ * in that order, is the result.
+ *
+ * @param <T> type of the record
+ */
+public class RelatedRecordsFetch<T> {
+  private final CompletableFuture<Result<T>> record;
+  private final List<Fetch<T, ?>> fetches = new ArrayList<>();
+
+  private RelatedRecordsFetch(CompletableFuture<Result<T>> record) {
+    this.record = record;
+  }
+
+  public static <T> RelatedRecordsFetch<T> relatedRecordsOf(
+    CompletableFuture<Result<T>> record) {
+
+    return new RelatedRecordsFetch<>(record);
+  }
+
+  /**
+   * Fetch a related record, once the record has been fetched
+   *
+   * @param fetcher  fetches the related record
+   * @param combiner  combines the related record with the record
+   * @return the fetch, that other fetches can depend upon
+   */
+  public <R> Fetch<T, R> fetch(Function<T, CompletableFuture<Result<R>>> fetcher,
+    BiFunction<T, R, T> combiner) {
+
+    return add(record.thenCompose(r -> r.after(fetcher)), combiner);
+  }
+
+  /**
+   * Fetch a related record, once another related record has been fetched
+   *
+   * @param dependency  fetch of the record this fetch depends upon
+   * @param fetcher  fetches the related record, from the record it depends upon
+   * @param combiner  combines the related record with the record
+   * @return the fetch, that other fetches can depend upon
+   */
+  public <D, R> Fetch<T, R> fetchAfter(Fetch<T, D> dependency,
+    Function<D, CompletableFuture<Result<R>>> fetcher,
+    BiFunction<T, R, T> combiner) {
+
+    return add(dependency.fetched.thenCompose(r -> r.after(fetcher)), combiner);
+  }
+
+  /**
+   * @return the record combined with all of the related records
+   */
+  public CompletableFuture<Result<T>> combined() {
+    final CompletableFuture<?>[] allFetched = fetches.stream()
+      .map(fetch -> fetch.fetched)
+      .toArray(CompletableFuture[]::new);
+
+    return CompletableFuture.allOf(allFetched)
+      .thenCompose(notUsed -> record)
+      .thenApply(result -> {
+        Result<T> combined = result;
+
+        for (Fetch<T, ?> fetch : fetches) {
+          combined = fetch.combineWith(combined);
+        }
+
+        return combined;
+      });
+  }
+
+  private <R> Fetch<T, R> add(CompletableFuture<Result<R>> fetched,
+    BiFunction<T, R, T> combiner) {
+
+    final Fetch<T, R> fetch = new Fetch<>(fetched, combiner);
+
+    fetches.add(fetch);
+
+    return fetch;
+  }
+
+  /**
+   * A related record being fetched
+   */
+  public static class Fetch<T, R> {
+    private final CompletableFuture<Result<R>> fetched;
+    private final BiFunction<T, R, T> combiner;
+
+    private Fetch(CompletableFuture<Result<R>> fetched,
+      BiFunction<T, R, T> combiner) {
+
+      this.fetched = fetched;
+      this.combiner = combiner;
+    }
+
+    private Result<T> combineWith(Result<T> record) {
+      return record.combine(fetched.join(), combiner);
+    }
+  }
+}
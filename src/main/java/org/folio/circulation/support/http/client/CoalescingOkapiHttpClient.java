@@ -0,0 +1,153 @@
+package org.folio.circulation.support.http.client;
+
+import java.net.URL;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import org.folio.circulation.support.Result;
+
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Shares the response of identical get requests (same tenant, token, URL and
+ * query) that are in flight at the same time. Other requests are passed on.
+ * <p>
+ * Should only be used for records circulation does not change itself,
+ * otherwise a get request made after a change could join one made before.
+ */
+public class CoalescingOkapiHttpClient implements OkapiHttpClient {
+  private final OkapiHttpClient client;
+  private final InFlightRequests inFlightRequests;
+  private final String keyPrefix;
+
+  /**
+   * @return a client sharing identical get requests in flight,
+   * or the client itself when sharing them is disabled
+   */
+  public static OkapiHttpClient coalescing(OkapiHttpClient client,
+    String tenantId, String token) {
+
+    final InFlightRequests inFlightRequests = InFlightRequests.getInstance();
+
+    return inFlightRequests.isEnabled()
+      ? new CoalescingOkapiHttpClient(client, inFlightRequests, tenantId, token)
+      : client;
+  }
+
+  CoalescingOkapiHttpClient(OkapiHttpClient client,
+    InFlightRequests inFlightRequests, String tenantId, String token) {
+
+    this.client = client;
+    this.inFlightRequests = inFlightRequests;
+    // the token is part of the key, as the response may depend upon permissions
+    this.keyPrefix = tenantId + "\n" + token + "\n";
+  }
+
+  @Override
+  public CompletableFuture<Result<Response>> get(String url,
+    Duration timeout, QueryParameter... queryParameters) {
+
+    return coalesce(url, queryParameters,
+      () -> client.get(url, timeout, queryParameters));
+  }
+
+  @Override
+  public CompletableFuture<Result<Response>> get(String url,
+    Map<String, String> headers, QueryParameter... queryParameters) {
+
+    // conditional requests depend upon what the caller already has
+    if (!headers.isEmpty()) {
+      return client.get(url, headers, queryParameters);
+    }
+
+    return coalesce(url, queryParameters,
+      () -> client.get(url, headers, queryParameters));
+  }
+
+  @Override
+  public CompletableFuture<Result<Response>> get(URL url,
+    QueryParameter... queryParameters) {
+
+    return coalesce(url.toString(), queryParameters,
+      () -> client.get(url, queryParameters));
+  }
+
+  @Override
+  public CompletableFuture<Result<Response>> get(String url,
+    QueryParameter... queryParameters) {
+
+    return coalesce(url, queryParameters,
+      () -> client.get(url, queryParameters));
+  }
+
+  @Override
+  public CompletableFuture<Result<Response>> post(URL url, JsonObject body) {
+    return client.post(url, body);
+  }
+
+  @Override
+  public CompletableFuture<Result<Response>> post(String url, JsonObject body) {
+    return client.post(url, body);
+  }
+
+  @Override
+  public CompletableFuture<Result<Response>> post(String url, JsonObject body,
+    Duration timeout) {
+
+    return client.post(url, body, timeout);
+  }
+
+  @Override
+  public CompletableFuture<Result<Response>> put(URL url, JsonObject body) {
+    return client.put(url, body);
+  }
+
+  @Override
+  public CompletableFuture<Result<Response>> put(String url, JsonObject body) {
+    return client.put(url, body);
+  }
+
+  @Override
+  public CompletableFuture<Result<Response>> put(String url, JsonObject body,
+    Duration timeout) {
+
+    return client.put(url, body, timeout);
+  }
+
+  @Override
+  public CompletableFuture<Result<Response>> delete(URL url,
+    QueryParameter... queryParameters) {
+
+    return client.delete(url, queryParameters);
+  }
+
+  @Override
+  public CompletableFuture<Result<Response>> delete(String url,
+    QueryParameter... queryParameters) {
+
+    return client.delete(url, queryParameters);
+  }
+
+  @Override
+  public CompletableFuture<Result<Response>> delete(String url,
+    Duration timeout, QueryParameter... queryParameters) {
+
+    return client.delete(url, timeout, queryParameters);
+  }
+
+  private CompletableFuture<Result<Response>> coalesce(String url,
+    QueryParameter[] queryParameters,
+    Supplier<CompletableFuture<Result<Response>>> request) {
+
+    final StringBuilder key = new StringBuilder(keyPrefix).append(url);
+
+    for (QueryParameter parameter : queryParameters) {
+      parameter.consume((name, value) ->
+        key.append('\n').append(name).append('=').append(value));
+    }
+
+    return inFlightRequests.coalesce(key.toString(), request);
+  }
+}
@@ -102,6 +102,42 @@ public class CqlQuery implements QueryParameter {
     return sortBy.applyTo(query);
   }
 
+  /**
+   * @return length of the query once percent encoded in a URL
+   */
+  public int encodedLength() {
+    return encodedLengthOf(asText());
+  }
+
+  /**
+   * @return length of the text once percent encoded in a URL, characters
+   * other than letters, digits and -_.* are encoded as %XX for each byte
+   */
+  public static int encodedLengthOf(String text) {
+    int length = 0;
+
+    for (int i = 0; i < text.length(); i++) {
+      final char c = text.charAt(i);
+
+      if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z')
+        || (c >= '0' && c <= '9') || c == '-' || c == '_' || c == '.' || c == '*') {
+        length++;
+      } else if (c < 0x80) {
+        length += 3;
+      } else if (c < 0x800) {
+        length += 6;
+      } else if (Character.isHighSurrogate(c)) {
+        // a surrogate pair is encoded as four bytes
+        length += 12;
+        i++;
+      } else {
+        length += 9;
+      }
+    }
+
+    return length;
+  }
+
   private static List<String> filterNullValues(Collection<String> values) {
     return values.stream()
       .filter(Objects::nonNull)
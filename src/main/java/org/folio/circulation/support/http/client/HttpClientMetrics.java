@@ -0,0 +1,163 @@
+package org.folio.circulation.support.http.client;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Use of the connections to a single destination (host and port): how many
+ * requests are in flight compared to the connections available and how long
+ * requests have waited for a connection.
+ */
+public class HttpClientMetrics {
+  /** Upper bounds of the queue wait histogram buckets, the last bucket is unbounded */
+  private static final long[] WAIT_BUCKET_BOUNDS_IN_MILLISECONDS
+    = { 0, 1, 5, 10, 50, 100, 500, 1000 };
+
+  private final int capacity;
+  private final LongAdder requests = new LongAdder();
+  private final LongAdder queuedRequests = new LongAdder();
+  private final LongAdder rejectedRequests = new LongAdder();
+  private final LongAdder expiredRequests = new LongAdder();
+  private final LongAdder totalWaitNanoseconds = new LongAdder();
+  private final LongAdder[] waitBuckets;
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private final AtomicInteger maximumInFlight = new AtomicInteger();
+  private final AtomicInteger waiting = new AtomicInteger();
+
+  HttpClientMetrics(int capacity) {
+    this.capacity = capacity;
+    this.waitBuckets = new LongAdder[WAIT_BUCKET_BOUNDS_IN_MILLISECONDS.length + 1];
+
+    for (int i = 0; i < waitBuckets.length; i++) {
+      waitBuckets[i] = new LongAdder();
+    }
+  }
+
+  void recordQueued() {
+    queuedRequests.increment();
+    waiting.incrementAndGet();
+  }
+
+  void recordRejected() {
+    rejectedRequests.increment();
+  }
+
+  void recordExpired() {
+    expiredRequests.increment();
+    waiting.decrementAndGet();
+  }
+
+  void recordStarted(boolean wasQueued, long waitNanoseconds) {
+    if (wasQueued) {
+      waiting.decrementAndGet();
+    }
+
+    requests.increment();
+    totalWaitNanoseconds.add(waitNanoseconds);
+    waitBuckets[bucketOf(TimeUnit.NANOSECONDS.toMillis(waitNanoseconds))].increment();
+    maximumInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+  }
+
+  void recordCompleted() {
+    inFlight.decrementAndGet();
+  }
+
+  /**
+   * @return requests that can be in flight at the same time, 0 when unlimited
+   */
+  public int getCapacity() {
+    return capacity;
+  }
+
+  public long getRequests() {
+    return requests.sum();
+  }
+
+  /**
+   * @return requests that had to wait for a connection
+   */
+  public long getQueuedRequests() {
+    return queuedRequests.sum();
+  }
+
+  /**
+   * @return requests that failed because too many were already waiting
+   */
+  public long getRejectedRequests() {
+    return rejectedRequests.sum();
+  }
+
+  /**
+   * @return requests whose timeout passed whilst waiting for a connection
+   */
+  public long getExpiredRequests() {
+    return expiredRequests.sum();
+  }
+
+  public int getInFlight() {
+    return inFlight.get();
+  }
+
+  public int getMaximumInFlight() {
+    return maximumInFlight.get();
+  }
+
+  /**
+   * @return requests currently waiting for a connection
+   */
+  public int getWaiting() {
+    return waiting.get();
+  }
+
+  /**
+   * @return share of the capacity currently in use, 0 when unlimited
+   */
+  public double getUtilization() {
+    return capacity > 0 ? (double) getInFlight() / capacity : 0;
+  }
+
+  public long getTotalWaitMilliseconds() {
+    return TimeUnit.NANOSECONDS.toMillis(totalWaitNanoseconds.sum());
+  }
+
+  /**
+   * @return number of requests by how long they have waited for a connection,
+   * keyed by the upper bound of the bucket, e.g. "<=5ms" or ">1000ms"
+   */
+  public Map<String, Long> getQueueWaitHistogram() {
+    final Map<String, Long> histogram = new LinkedHashMap<>();
+
+    for (int i = 0; i < WAIT_BUCKET_BOUNDS_IN_MILLISECONDS.length; i++) {
+      histogram.put("<=" + WAIT_BUCKET_BOUNDS_IN_MILLISECONDS[i] + "ms",
+        waitBuckets[i].sum());
+    }
+
+    histogram.put(">" + WAIT_BUCKET_BOUNDS_IN_MILLISECONDS[
+      WAIT_BUCKET_BOUNDS_IN_MILLISECONDS.length - 1] + "ms",
+      waitBuckets[WAIT_BUCKET_BOUNDS_IN_MILLISECONDS.length].sum());
+
+    return histogram;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("requests: %d, in flight: %d of %d (maximum %d), " +
+        "waiting: %d, queued: %d, rejected: %d, expired: %d, queue wait: %s",
+      getRequests(), getInFlight(), getCapacity(), getMaximumInFlight(),
+      getWaiting(), getQueuedRequests(), getRejectedRequests(),
+      getExpiredRequests(), getQueueWaitHistogram());
+  }
+
+  private static int bucketOf(long waitMilliseconds) {
+    for (int i = 0; i < WAIT_BUCKET_BOUNDS_IN_MILLISECONDS.length; i++) {
+      if (waitMilliseconds <= WAIT_BUCKET_BOUNDS_IN_MILLISECONDS[i]) {
+        return i;
+      }
+    }
+
+    return WAIT_BUCKET_BOUNDS_IN_MILLISECONDS.length;
+  }
+}
@@ -0,0 +1,108 @@
+package org.folio.circulation.support.http.client;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.folio.circulation.support.Result;
+
+/**
+ * Get requests in flight for all tenants, so that identical requests made at
+ * the same time share a single response.
+ * <p>
+ * Requests are only shared while they are in flight, a request made after
+ * the response has been received is sent again. Each request that joins a
+ * request in flight gets its own copy of the response.
+ */
+public class InFlightRequests {
+  private static final InFlightRequests instance = new InFlightRequests();
+
+  private final ConcurrentMap<String, CompletableFuture<Result<Response>>> inFlight
+    = new ConcurrentHashMap<>();
+  private final LongAdder requests = new LongAdder();
+  private final LongAdder coalescedRequests = new LongAdder();
+
+  private volatile boolean enabled = true;
+
+  InFlightRequests() { }
+
+  public static InFlightRequests getInstance() {
+    return instance;
+  }
+
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Join the identical request in flight, or send the request
+   *
+   * @param key  identifies the request, including its tenant and query
+   * @param request  sends the request when there is no identical one in flight
+   * @return the response to the request
+   */
+  CompletableFuture<Result<Response>> coalesce(String key,
+    Supplier<CompletableFuture<Result<Response>>> request) {
+
+    requests.increment();
+
+    final CompletableFuture<Result<Response>> sent = new CompletableFuture<>();
+    final CompletableFuture<Result<Response>> existing = inFlight.putIfAbsent(key, sent);
+
+    if (existing != null) {
+      coalescedRequests.increment();
+
+      return existing.thenApply(result -> result.map(Response::copy));
+    }
+
+    final CompletableFuture<Result<Response>> response;
+
+    try {
+      response = request.get();
+    }
+    catch (RuntimeException e) {
+      inFlight.remove(key, sent);
+      sent.completeExceptionally(e);
+      return sent;
+    }
+
+    response.whenComplete((result, error) -> {
+      // later requests should not be given this response
+      inFlight.remove(key, sent);
+
+      if (error != null) {
+        sent.completeExceptionally(error);
+      } else {
+        sent.complete(result);
+      }
+    });
+
+    return sent;
+  }
+
+  public long getRequests() {
+    return requests.sum();
+  }
+
+  /**
+   * @return requests that shared the response of an identical request in flight
+   */
+  public long getCoalescedRequests() {
+    return coalescedRequests.sum();
+  }
+
+  /**
+   * @return share of the requests that shared the response of another request
+   */
+  public double getCoalescingRatio() {
+    final long total = getRequests();
+
+    return total == 0 ? 0 : (double) getCoalescedRequests() / total;
+  }
+}
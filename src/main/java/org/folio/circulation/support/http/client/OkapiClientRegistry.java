@@ -0,0 +1,153 @@
+package org.folio.circulation.support.http.client;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import io.vertx.core.http.HttpClient;
+import io.vertx.core.http.HttpClientOptions;
+import io.vertx.ext.web.client.WebClient;
+
+/**
+ * Shared state of the clients created for each request, so that only the
+ * per request headers (tenant, token, user and request id) need to be
+ * captured when handling a request.
+ * <p>
+ * The web client wrapping each HTTP client and the URLs derived from each
+ * Okapi location are created on first use and then reused. HTTP clients that
+ * are registered with their options also limit the requests in flight to
+ * their connections and record how long requests wait for a connection.
+ */
+public class OkapiClientRegistry {
+  private static final OkapiClientRegistry instance = new OkapiClientRegistry();
+
+  /** Okapi location comes from a request header, so only keep a few of them */
+  private static final int MAXIMUM_OKAPI_LOCATIONS = 100;
+
+  private final ConcurrentMap<HttpClient, SharedClient> clients
+    = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, OkapiLocation> okapiLocations
+    = new ConcurrentHashMap<>();
+
+  OkapiClientRegistry() { }
+
+  public static OkapiClientRegistry getInstance() {
+    return instance;
+  }
+
+  /**
+   * Register an HTTP client, so that requests wait for its connections here
+   * @param httpClient  client used to make requests
+   * @param options  options the client was created with
+   */
+  public void register(HttpClient httpClient, HttpClientOptions options) {
+    clients.put(httpClient, new SharedClient(WebClient.wrap(httpClient),
+      RequestQueue.forOptions(options)));
+  }
+
+  /**
+   * @return the web client wrapping the HTTP client, created on first use
+   */
+  public WebClient webClientFor(HttpClient httpClient) {
+    return sharedClientFor(httpClient).webClient;
+  }
+
+  /**
+   * @return the metrics of the connections of the HTTP client to each
+   * destination, keyed by host and port
+   */
+  public Map<String, HttpClientMetrics> getPoolMetrics(HttpClient httpClient) {
+    final SharedClient client = clients.get(httpClient);
+
+    return client != null
+      ? client.requestQueue.getMetrics()
+      : Collections.emptyMap();
+  }
+
+  /**
+   * Forget the web client of an HTTP client that is no longer used
+   */
+  public void release(HttpClient httpClient) {
+    clients.remove(httpClient);
+  }
+
+  SharedClient sharedClientFor(HttpClient httpClient) {
+    return clients.computeIfAbsent(httpClient, client -> new SharedClient(
+      WebClient.wrap(client), RequestQueue.unlimited()));
+  }
+
+  /**
+   * @param okapiLocation  Okapi URL of a request
+   * @return the parsed Okapi URL
+   */
+  public URL okapiUrl(String okapiLocation) throws MalformedURLException {
+    return okapiLocation(okapiLocation).url;
+  }
+
+  /**
+   * @param okapiLocation  Okapi URL of a request
+   * @param path  path of a resource
+   * @return the URL of the resource, using the protocol, host and port of Okapi
+   */
+  public URL okapiBasedUrl(String okapiLocation, String path)
+    throws MalformedURLException {
+
+    final OkapiLocation location = okapiLocation(okapiLocation);
+
+    final URL existing = location.resources.get(path);
+
+    if (existing != null) {
+      return existing;
+    }
+
+    final URL url = new URL(location.url.getProtocol(), location.url.getHost(),
+      location.url.getPort(), path);
+
+    location.resources.putIfAbsent(path, url);
+
+    return url;
+  }
+
+  private OkapiLocation okapiLocation(String okapiLocation)
+    throws MalformedURLException {
+
+    final OkapiLocation existing = okapiLocations.get(okapiLocation);
+
+    if (existing != null) {
+      return existing;
+    }
+
+    // parse outside of the map, so that invalid locations are not kept
+    final OkapiLocation location = new OkapiLocation(new URL(okapiLocation));
+
+    if (okapiLocations.size() >= MAXIMUM_OKAPI_LOCATIONS) {
+      okapiLocations.clear();
+    }
+
+    final OkapiLocation raced = okapiLocations.putIfAbsent(okapiLocation, location);
+
+    return raced != null ? raced : location;
+  }
+
+  static class SharedClient {
+    final WebClient webClient;
+    final RequestQueue requestQueue;
+
+    SharedClient(WebClient webClient, RequestQueue requestQueue) {
+      this.webClient = webClient;
+      this.requestQueue = requestQueue;
+    }
+  }
+
+  private static class OkapiLocation {
+    private final URL url;
+    private final ConcurrentMap<String, URL> resources = new ConcurrentHashMap<>();
+
+    OkapiLocation(URL url) {
+      this.url = url;
+    }
+  }
+}
@@ -2,6 +2,7 @@ package org.folio.circulation.support.http.client;
 
 import java.net.URL;
 import java.time.Duration;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 
 import org.folio.circulation.support.Result;
@@ -19,6 +20,9 @@ public interface OkapiHttpClient {
   CompletableFuture<Result<Response>> get(String url,
       Duration timeout, QueryParameter... queryParameters);
 
+  CompletableFuture<Result<Response>> get(String url,
+      Map<String, String> headers, QueryParameter... queryParameters);
+
   CompletableFuture<Result<Response>> get(URL url,
       QueryParameter... queryParameters);
 
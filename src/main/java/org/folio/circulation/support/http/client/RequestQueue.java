@@ -0,0 +1,251 @@
+package org.folio.circulation.support.http.client;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.LongFunction;
+import java.util.function.LongSupplier;
+
+import io.vertx.core.http.HttpClientOptions;
+import io.vertx.core.http.HttpVersion;
+
+/**
+ * Limits the requests in flight to each destination (host and port) to the
+ * connections the HTTP client has available for it. Further requests wait
+ * here rather than in the connection pool of the HTTP client, so that how
+ * long they wait can be measured.
+ * <p>
+ * The time a request waits counts towards its timeout. A request that is
+ * still waiting when its timeout has passed fails rather than being sent,
+ * and a request fails straight away when too many are already waiting.
+ */
+class RequestQueue {
+  private final int capacity;
+  private final int maximumWaiting;
+  private final LongSupplier nanoClock;
+  private final ConcurrentMap<String, Destination> destinations
+    = new ConcurrentHashMap<>();
+
+  /**
+   * @param capacity  requests in flight to each destination, 0 for unlimited
+   * @param maximumWaiting  requests waiting for each destination, negative
+   *                        for unlimited
+   */
+  RequestQueue(int capacity, int maximumWaiting, LongSupplier nanoClock) {
+    this.capacity = capacity;
+    this.maximumWaiting = maximumWaiting;
+    this.nanoClock = nanoClock;
+  }
+
+  static RequestQueue unlimited() {
+    return new RequestQueue(0, -1, System::nanoTime);
+  }
+
+  static RequestQueue forOptions(HttpClientOptions options) {
+    return new RequestQueue(capacityOf(options), options.getMaxWaitQueueSize(),
+      System::nanoTime);
+  }
+
+  /**
+   * @return requests that can be in flight to each destination, 0 when unlimited
+   */
+  static int capacityOf(HttpClientOptions options) {
+    if (options.getProtocolVersion() == HttpVersion.HTTP_2) {
+      // falls back to HTTP/1.1 connections when the server does not support HTTP/2
+      final int multiplexingLimit = options.getHttp2MultiplexingLimit();
+
+      return multiplexingLimit > 0
+        ? Math.max(options.getHttp2MaxPoolSize() * multiplexingLimit,
+            options.getMaxPoolSize())
+        : 0;
+    }
+
+    return options.isPipelining()
+      ? options.getMaxPoolSize() * options.getPipeliningLimit()
+      : options.getMaxPoolSize();
+  }
+
+  /**
+   * Send the request once there is a connection available to its destination
+   *
+   * @param url  absolute URL of the request
+   * @param timeoutMilliseconds  how long the request can take, including the
+   *                             time spent waiting for a connection
+   * @param request  sends the request with the given timeout in milliseconds,
+   *                 completing once it has been responded to
+   * @return the response to the request, fails with a
+   * {@link RequestQueueFullException} when too many requests are waiting, or a
+   * {@link TimeoutException} when the timeout passed before it could be sent
+   */
+  <T> CompletableFuture<T> submit(String url, long timeoutMilliseconds,
+    LongFunction<CompletableFuture<T>> request) {
+
+    final Destination destination = destinations.computeIfAbsent(
+      destinationOf(url), key -> new Destination(capacity));
+
+    final long now = nanoClock.getAsLong();
+
+    final PendingRequest<T> pending = new PendingRequest<>(request, now,
+      now + TimeUnit.MILLISECONDS.toNanos(timeoutMilliseconds));
+
+    final boolean startNow;
+    final boolean rejected;
+
+    synchronized (destination) {
+      startNow = capacity <= 0 || destination.inFlight < capacity;
+      rejected = !startNow && maximumWaiting >= 0
+        && destination.waiting.size() >= maximumWaiting;
+
+      if (startNow) {
+        destination.inFlight++;
+      } else if (!rejected) {
+        destination.waiting.add(pending);
+        destination.metrics.recordQueued();
+      }
+    }
+
+    if (startNow) {
+      start(destination, pending, false, now);
+    } else if (rejected) {
+      destination.metrics.recordRejected();
+
+      pending.respond(null, new RequestQueueFullException(String.format(
+        "Too many requests waiting for a connection to %s", destinationOf(url))));
+    }
+
+    return pending.response;
+  }
+
+  /**
+   * @return the metrics of each destination, keyed by host and port
+   */
+  Map<String, HttpClientMetrics> getMetrics() {
+    final Map<String, HttpClientMetrics> metrics = new HashMap<>();
+
+    destinations.forEach((key, destination) -> metrics.put(key, destination.metrics));
+
+    return Collections.unmodifiableMap(metrics);
+  }
+
+  private <T> void start(Destination destination, PendingRequest<T> pending,
+    boolean wasQueued, long now) {
+
+    destination.metrics.recordStarted(wasQueued, now - pending.queuedAt);
+
+    // the connection is available to the next request before the response is passed on
+    pending.send(now).whenComplete((result, error) -> {
+      destination.metrics.recordCompleted();
+      startNext(destination);
+      pending.respond(result, error);
+    });
+  }
+
+  private void startNext(Destination destination) {
+    final long now = nanoClock.getAsLong();
+    final List<PendingRequest<?>> expired = new ArrayList<>();
+    PendingRequest<?> next;
+
+    synchronized (destination) {
+      next = destination.waiting.poll();
+
+      // requests whose timeout has passed whilst waiting are not sent
+      while (next != null && next.hasExpired(now)) {
+        expired.add(next);
+        next = destination.waiting.poll();
+      }
+
+      if (next == null) {
+        destination.inFlight--;
+      }
+    }
+
+    for (PendingRequest<?> request : expired) {
+      destination.metrics.recordExpired();
+      request.respond(null, new TimeoutException(
+        "The timeout passed whilst waiting for a connection"));
+    }
+
+    if (next != null) {
+      start(destination, next, true, now);
+    }
+  }
+
+  private static String destinationOf(String url) {
+    final int schemeEnd = url.indexOf("://");
+    final int authorityStart = schemeEnd < 0 ? 0 : schemeEnd + 3;
+    final int authorityEnd = indexOfAny(url, authorityStart, '/', '?', '#');
+
+    return url.substring(authorityStart, authorityEnd);
+  }
+
+  private static int indexOfAny(String url, int from, char... characters) {
+    for (int i = from; i < url.length(); i++) {
+      for (char c : characters) {
+        if (url.charAt(i) == c) {
+          return i;
+        }
+      }
+    }
+
+    return url.length();
+  }
+
+  private static class Destination {
+    private final HttpClientMetrics metrics;
+    private final Queue<PendingRequest<?>> waiting = new ArrayDeque<>();
+    private int inFlight;
+
+    Destination(int capacity) {
+      this.metrics = new HttpClientMetrics(capacity);
+    }
+  }
+
+  private static class PendingRequest<T> {
+    private final LongFunction<CompletableFuture<T>> request;
+    private final long queuedAt;
+    private final long deadline;
+    private final CompletableFuture<T> response = new CompletableFuture<>();
+
+    PendingRequest(LongFunction<CompletableFuture<T>> request, long queuedAt,
+      long deadline) {
+
+      this.request = request;
+      this.queuedAt = queuedAt;
+      this.deadline = deadline;
+    }
+
+    boolean hasExpired(long now) {
+      return now - deadline >= 0;
+    }
+
+    CompletableFuture<T> send(long now) {
+      try {
+        // at least a millisecond, as no timeout at all would wait forever
+        return request.apply(Math.max(1,
+          TimeUnit.NANOSECONDS.toMillis(deadline - now)));
+      }
+      catch (Exception e) {
+        final CompletableFuture<T> failedToSend = new CompletableFuture<>();
+        failedToSend.completeExceptionally(e);
+        return failedToSend;
+      }
+    }
+
+    void respond(T result, Throwable error) {
+      if (error != null) {
+        response.completeExceptionally(error);
+      } else {
+        response.complete(result);
+      }
+    }
+  }
+}
@@ -0,0 +1,11 @@
+package org.folio.circulation.support.http.client;
+
+/**
+ * A request was not sent because too many requests were already waiting for
+ * a connection to its destination
+ */
+public class RequestQueueFullException extends RuntimeException {
+  public RequestQueueFullException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,468 @@
+package org.folio.circulation.support.http.client;
+
+import static java.util.concurrent.CompletableFuture.completedFuture;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongFunction;
+import java.util.function.LongSupplier;
+import java.util.regex.Pattern;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.ext.web.client.HttpResponse;
+
+/**
+ * Bounds how long requests to other modules take when an instance of a
+ * module is slow or unavailable.
+ * <p>
+ * Get requests and put requests of a single record that fail to connect or
+ * are answered with 502, 503 or 504 are retried after a growing, jittered
+ * delay. All attempts of a request share its timeout, so a request is not
+ * retried once it has used up its time.
+ * <p>
+ * When hedging is enabled, a get request that has not been answered after
+ * the 95th percentile latency of its collection is sent again, and whichever
+ * response arrives first is used.
+ * <p>
+ * A collection that fails many requests in a row is not sent any more for a
+ * while (the circuit is open), requests to it fail straight away. After that,
+ * a single request is let through to find out whether it has recovered.
+ * <p>
+ * State and metrics are kept per tenant and collection root, which includes
+ * the host, an id at the end of the path is ignored.
+ */
+public class RequestResilience {
+  private static final RequestResilience instance = new RequestResilience(
+    System::currentTimeMillis);
+
+  /** Collections come from the URLs requested, so only keep a few of them */
+  private static final int MAXIMUM_COLLECTIONS = 1000;
+  private static final int LATENCY_SAMPLES = 100;
+  private static final int MINIMUM_LATENCY_SAMPLES_FOR_HEDGING = 20;
+
+  private static final Pattern TRAILING_ID = Pattern.compile(
+    "/[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}/?$");
+
+  /**
+   * Runs a task after a delay, e.g. using a Vert.x timer
+   */
+  public interface Scheduler {
+    void schedule(long delayInMilliseconds, Runnable task);
+  }
+
+  private final LongSupplier clock;
+  private final ConcurrentMap<String, CollectionState> collections
+    = new ConcurrentHashMap<>();
+
+  private volatile Scheduler scheduler;
+  private volatile int maximumRetries = 2;
+  private volatile long retryBackoff = 50;
+  private volatile long maximumRetryBackoff = 1000;
+  private volatile boolean hedgingEnabled = false;
+  private volatile long minimumHedgeDelay = 50;
+  private volatile int failureThreshold = 20;
+  private volatile long openCircuitDuration = 30_000;
+
+  RequestResilience(LongSupplier clock) {
+    this.clock = clock;
+  }
+
+  public static RequestResilience getInstance() {
+    return instance;
+  }
+
+  /**
+   * @param scheduler  delays retries and hedged requests, without one retries
+   *                   are made straight away and requests are not hedged
+   */
+  public void setScheduler(Scheduler scheduler) {
+    this.scheduler = scheduler;
+  }
+
+  /**
+   * @param maximumRetries  retries of a get or put request within its timeout,
+   *                        0 disables retries
+   * @param backoff  delay before the first retry, doubled for each further retry
+   * @param maximumBackoff  longest delay before a retry
+   */
+  public void setRetries(int maximumRetries, Duration backoff,
+    Duration maximumBackoff) {
+
+    this.maximumRetries = maximumRetries;
+    this.retryBackoff = backoff.toMillis();
+    this.maximumRetryBackoff = maximumBackoff.toMillis();
+  }
+
+  /**
+   * @param enabled  whether slow get requests are sent a second time
+   * @param minimumDelay  shortest time waited for a response before doing so
+   */
+  public void setHedging(boolean enabled, Duration minimumDelay) {
+    this.hedgingEnabled = enabled;
+    this.minimumHedgeDelay = minimumDelay.toMillis();
+  }
+
+  /**
+   * @param failureThreshold  failures in a row that open the circuit of a
+   *                          collection, 0 disables the circuit breaker
+   * @param openDuration  how long requests fail straight away once open
+   */
+  public void setCircuitBreaker(int failureThreshold, Duration openDuration) {
+    this.failureThreshold = failureThreshold;
+    this.openCircuitDuration = openDuration.toMillis();
+  }
+
+  /**
+   * @return the metrics of each collection, keyed by collection root and tenant
+   */
+  public Map<String, ResilienceMetrics> getMetrics() {
+    final Map<String, ResilienceMetrics> metrics = new HashMap<>();
+
+    collections.forEach((root, collection) -> metrics.put(root, collection.metrics));
+
+    return Collections.unmodifiableMap(metrics);
+  }
+
+  /**
+   * Send a request, retrying or hedging it when appropriate
+   *
+   * @param method  method of the request, only get and put of a record are retried
+   * @param tenantId  tenant the request is made for
+   * @param url  absolute URL of the request
+   * @param timeoutInMilliseconds  time for all attempts of the request together
+   * @param request  sends the request with the time that remains for it in
+   *                 milliseconds, can be called more than once
+   * @return the response to the request, never completes exceptionally
+   */
+  CompletableFuture<AsyncResult<HttpResponse<Buffer>>> execute(
+    HttpMethod method, String tenantId, String url, long timeoutInMilliseconds,
+    LongFunction<CompletableFuture<AsyncResult<HttpResponse<Buffer>>>> request) {
+
+    final CollectionState collection = collectionFor(tenantId, url);
+
+    collection.metrics.requests.increment();
+
+    return attempt(collection, method, isRecord(url),
+      clock.getAsLong() + timeoutInMilliseconds, request, 0);
+  }
+
+  private CompletableFuture<AsyncResult<HttpResponse<Buffer>>> attempt(
+    CollectionState collection, HttpMethod method, boolean isRecord,
+    long deadline,
+    LongFunction<CompletableFuture<AsyncResult<HttpResponse<Buffer>>>> request,
+    int retries) {
+
+    if (clock.getAsLong() >= deadline) {
+      return completedFuture(Future.failedFuture(new TimeoutException(
+        "Request to " + collection.root + " timed out")));
+    }
+
+    if (!collection.allowRequest(clock.getAsLong(), failureThreshold)) {
+      collection.metrics.rejectedRequests.increment();
+
+      return completedFuture(Future.failedFuture(
+        "Circuit breaker is open for " + collection.root));
+    }
+
+    final CompletableFuture<AsyncResult<HttpResponse<Buffer>>> response
+      = method == HttpMethod.GET
+        ? hedged(collection, deadline, request)
+        : timed(collection, deadline, request);
+
+    return response.thenCompose(result -> {
+      if (retries < maximumRetries && isIdempotent(method, isRecord)
+        && isRetryable(result)) {
+
+        final long delay = backoff(retries);
+
+        // a retry that could not be answered in time is not worth sending
+        if (clock.getAsLong() + delay >= deadline) {
+          return completedFuture(result);
+        }
+
+        collection.metrics.retries.increment();
+
+        return after(delay).thenCompose(v -> attempt(collection, method,
+          isRecord, deadline, request, retries + 1));
+      }
+
+      return completedFuture(result);
+    });
+  }
+
+  private CompletableFuture<AsyncResult<HttpResponse<Buffer>>> hedged(
+    CollectionState collection, long deadline,
+    LongFunction<CompletableFuture<AsyncResult<HttpResponse<Buffer>>>> request) {
+
+    final Scheduler hedgeScheduler = scheduler;
+    final long delay = collection.hedgeDelay(minimumHedgeDelay);
+
+    if (!hedgingEnabled || hedgeScheduler == null || delay < 0) {
+      return timed(collection, deadline, request);
+    }
+
+    final CompletableFuture<AsyncResult<HttpResponse<Buffer>>> first
+      = new CompletableFuture<>();
+    final AtomicInteger outstanding = new AtomicInteger(1);
+
+    timed(collection, deadline, request).thenAccept(result ->
+      firstResponse(first, outstanding, result, false, collection));
+
+    hedgeScheduler.schedule(delay, () -> {
+      if (first.isDone() || clock.getAsLong() >= deadline) {
+        return;
+      }
+
+      outstanding.incrementAndGet();
+      collection.metrics.hedgedRequests.increment();
+
+      timed(collection, deadline, request).thenAccept(result ->
+        firstResponse(first, outstanding, result, true, collection));
+    });
+
+    return first;
+  }
+
+  /**
+   * A failure is only passed on once the other request has also responded
+   */
+  private static void firstResponse(
+    CompletableFuture<AsyncResult<HttpResponse<Buffer>>> first,
+    AtomicInteger outstanding, AsyncResult<HttpResponse<Buffer>> result,
+    boolean isHedge, CollectionState collection) {
+
+    if (isFailure(result) && outstanding.decrementAndGet() > 0) {
+      return;
+    }
+
+    if (first.complete(result) && isHedge) {
+      collection.metrics.hedgesWon.increment();
+    }
+  }
+
+  private CompletableFuture<AsyncResult<HttpResponse<Buffer>>> timed(
+    CollectionState collection, long deadline,
+    LongFunction<CompletableFuture<AsyncResult<HttpResponse<Buffer>>>> request) {
+
+    final long start = clock.getAsLong();
+
+    CompletableFuture<AsyncResult<HttpResponse<Buffer>>> response;
+
+    try {
+      response = request.apply(Math.max(1, deadline - start));
+    }
+    catch (Exception e) {
+      response = completedFuture(Future.failedFuture(e));
+    }
+
+    return response
+      .handle((result, error) -> error != null
+        ? Future.<HttpResponse<Buffer>>failedFuture(error)
+        : result)
+      .thenApply(result -> {
+        final long now = clock.getAsLong();
+
+        if (isFailure(result)) {
+          collection.recordFailure(now, failureThreshold, openCircuitDuration);
+        } else {
+          collection.recordSuccess(now - start);
+        }
+
+        return result;
+      });
+  }
+
+  private CompletableFuture<Void> after(long delay) {
+    final Scheduler retryScheduler = scheduler;
+    final CompletableFuture<Void> elapsed = new CompletableFuture<>();
+
+    if (retryScheduler == null || delay <= 0) {
+      elapsed.complete(null);
+    } else {
+      retryScheduler.schedule(delay, () -> elapsed.complete(null));
+    }
+
+    return elapsed;
+  }
+
+  /**
+   * @return a random delay up to the exponential backoff of the retry,
+   * so that clients retrying at the same time spread out
+   */
+  private long backoff(int retries) {
+    final long limit = Math.min(maximumRetryBackoff,
+      retryBackoff << Math.min(retries, 20));
+
+    return limit <= 0 ? 0 : ThreadLocalRandom.current().nextLong(limit + 1);
+  }
+
+  private CollectionState collectionFor(String tenantId, String url) {
+    final String root = collectionOf(tenantId, url);
+
+    final CollectionState existing = collections.get(root);
+
+    if (existing != null) {
+      return existing;
+    }
+
+    if (collections.size() >= MAXIMUM_COLLECTIONS) {
+      collections.clear();
+    }
+
+    return collections.computeIfAbsent(root, CollectionState::new);
+  }
+
+  /**
+   * @return the collection root of the URL, which includes the host so that
+   * failures of one host do not affect requests to others, followed by the
+   * tenant, if there is one
+   */
+  static String collectionOf(String tenantId, String url) {
+    final String root = collectionRootOf(url);
+
+    return tenantId == null ? root : root + " for " + tenantId;
+  }
+
+  static String collectionRootOf(String url) {
+    final String withoutQuery = withoutQuery(url);
+    final int schemeEnd = withoutQuery.indexOf("://");
+    final int pathStart = schemeEnd < 0
+      ? 0
+      : withoutQuery.indexOf('/', schemeEnd + 3);
+
+    if (pathStart < 0) {
+      return withoutQuery + "/";
+    }
+
+    return withoutQuery.substring(0, pathStart)
+      + TRAILING_ID.matcher(withoutQuery.substring(pathStart)).replaceFirst("");
+  }
+
+  private static boolean isRecord(String url) {
+    return TRAILING_ID.matcher(withoutQuery(url)).find();
+  }
+
+  private static String withoutQuery(String url) {
+    final int queryStart = url.indexOf('?');
+
+    return queryStart < 0 ? url : url.substring(0, queryStart);
+  }
+
+  /**
+   * Only a put of a single record has the same outcome when made twice,
+   * a put to a collection may e.g. replace many records based upon others
+   */
+  private static boolean isIdempotent(HttpMethod method, boolean isRecord) {
+    return method == HttpMethod.GET || (method == HttpMethod.PUT && isRecord);
+  }
+
+  private static boolean isRetryable(AsyncResult<HttpResponse<Buffer>> result) {
+    // a full request queue is not retried, so that the module sheds load
+    return isFailure(result)
+      && !(result.failed() && result.cause() instanceof TimeoutException)
+      && !(result.failed() && result.cause() instanceof RequestQueueFullException);
+  }
+
+  private static boolean isFailure(AsyncResult<HttpResponse<Buffer>> result) {
+    if (result.failed()) {
+      return true;
+    }
+
+    final int statusCode = result.result().statusCode();
+
+    return statusCode == 502 || statusCode == 503 || statusCode == 504;
+  }
+
+  /**
+   * Circuit breaker and recent latencies of a single collection
+   */
+  private static class CollectionState {
+    private final String root;
+    private final ResilienceMetrics metrics = new ResilienceMetrics();
+    private final long[] latencies = new long[LATENCY_SAMPLES];
+
+    private int latencyCount;
+    private int nextLatency;
+    private int consecutiveFailures;
+    private long openUntil;
+    private boolean trialInFlight;
+
+    CollectionState(String root) {
+      this.root = root;
+    }
+
+    synchronized boolean allowRequest(long now, int failureThreshold) {
+      if (failureThreshold <= 0 || openUntil == 0) {
+        return true;
+      }
+
+      if (now < openUntil || trialInFlight) {
+        return false;
+      }
+
+      // half open, let a single request through to try the collection again
+      trialInFlight = true;
+
+      return true;
+    }
+
+    synchronized void recordSuccess(long latency) {
+      consecutiveFailures = 0;
+      openUntil = 0;
+      trialInFlight = false;
+      metrics.circuitOpen = false;
+
+      latencies[nextLatency] = latency;
+      nextLatency = (nextLatency + 1) % latencies.length;
+      latencyCount = Math.min(latencyCount + 1, latencies.length);
+    }
+
+    synchronized void recordFailure(long now, int failureThreshold,
+      long openDuration) {
+
+      metrics.failures.increment();
+      consecutiveFailures++;
+
+      final boolean trialFailed = trialInFlight;
+      final boolean thresholdReached = failureThreshold > 0 && openUntil == 0
+        && consecutiveFailures >= failureThreshold;
+
+      if (trialFailed || thresholdReached) {
+        openUntil = now + openDuration;
+        trialInFlight = false;
+        metrics.circuitOpen = true;
+        metrics.circuitOpenings.increment();
+      }
+    }
+
+    /**
+     * @return how long to wait before hedging a request, the 95th percentile
+     * of the recent latencies, -1 when there are too few of them
+     */
+    synchronized long hedgeDelay(long minimumDelay) {
+      if (latencyCount < MINIMUM_LATENCY_SAMPLES_FOR_HEDGING) {
+        return -1;
+      }
+
+      final long[] sorted = Arrays.copyOf(latencies, latencyCount);
+
+      Arrays.sort(sorted);
+
+      final int percentile95 = (int) Math.ceil(sorted.length * 0.95) - 1;
+
+      return Math.max(minimumDelay, sorted[percentile95]);
+    }
+  }
+}
@@ -0,0 +1,78 @@
+package org.folio.circulation.support.http.client;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Retries, hedged requests and circuit breaker state of the requests to a
+ * single collection (e.g. /item-storage/items) over all tenants.
+ */
+public class ResilienceMetrics {
+  final LongAdder requests = new LongAdder();
+  final LongAdder failures = new LongAdder();
+  final LongAdder retries = new LongAdder();
+  final LongAdder hedgedRequests = new LongAdder();
+  final LongAdder hedgesWon = new LongAdder();
+  final LongAdder circuitOpenings = new LongAdder();
+  final LongAdder rejectedRequests = new LongAdder();
+
+  volatile boolean circuitOpen;
+
+  ResilienceMetrics() { }
+
+  /**
+   * @return requests made by circulation, not including retries and hedges
+   */
+  public long getRequests() {
+    return requests.sum();
+  }
+
+  /**
+   * @return requests that failed to connect, timed out or were answered with
+   * 502, 503 or 504, including retries and hedges
+   */
+  public long getFailures() {
+    return failures.sum();
+  }
+
+  public long getRetries() {
+    return retries.sum();
+  }
+
+  /**
+   * @return get requests that were sent a second time because they were slow
+   */
+  public long getHedgedRequests() {
+    return hedgedRequests.sum();
+  }
+
+  /**
+   * @return hedged requests that were answered before the original request
+   */
+  public long getHedgesWon() {
+    return hedgesWon.sum();
+  }
+
+  public long getCircuitOpenings() {
+    return circuitOpenings.sum();
+  }
+
+  /**
+   * @return requests that failed straight away because the circuit was open
+   */
+  public long getRejectedRequests() {
+    return rejectedRequests.sum();
+  }
+
+  public boolean isCircuitOpen() {
+    return circuitOpen;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("requests: %d, failures: %d, retries: %d, " +
+        "hedged: %d (won %d), circuit opened: %d, rejected: %d, circuit open: %s",
+      getRequests(), getFailures(), getRetries(), getHedgedRequests(),
+      getHedgesWon(), getCircuitOpenings(), getRejectedRequests(),
+      isCircuitOpen());
+  }
+}
@@ -2,6 +2,8 @@ package org.folio.circulation.support.http.client;
 
 import static java.lang.String.format;
 
+import java.nio.charset.StandardCharsets;
+
 import org.apache.commons.lang3.StringUtils;
 import org.apache.http.HttpHeaders;
 
@@ -10,13 +12,25 @@ import io.vertx.core.http.CaseInsensitiveHeaders;
 import io.vertx.core.json.JsonObject;
 import io.vertx.ext.web.client.HttpResponse;
 
+/**
+ * Response from another module. When created from the raw bytes received,
+ * the body is only converted to a string when it is asked for (usually for
+ * logging or errors) and is decoded into JSON straight from the bytes.
+ * <p>
+ * The JSON representation is only decoded once and the same object is
+ * returned from each call to {@link #getJson()}, so it must be copied before
+ * it is changed.
+ */
 public class Response {
-  protected final String body;
+  private final Buffer bodyBuffer;
   private final int statusCode;
   private final String contentType;
   private final CaseInsensitiveHeaders headers;
   private final String fromUrl;
 
+  private String body;
+  private JsonObject json;
+
   public Response(int statusCode, String body, String contentType) {
     this(statusCode, body, contentType, new CaseInsensitiveHeaders(), null);
   }
@@ -24,7 +38,14 @@ public class Response {
   public Response(int statusCode, String body, String contentType,
     CaseInsensitiveHeaders headers, String fromUrl) {
 
+    this(statusCode, null, body, contentType, headers, fromUrl);
+  }
+
+  private Response(int statusCode, Buffer bodyBuffer, String body,
+    String contentType, CaseInsensitiveHeaders headers, String fromUrl) {
+
     this.statusCode = statusCode;
+    this.bodyBuffer = bodyBuffer;
     this.body = body;
     this.contentType = contentType;
     this.headers = headers;
@@ -36,36 +57,76 @@ public class Response {
 
     headers.addAll(response.headers());
 
-    return new Response(response.statusCode(), response.bodyAsString(),
+    final Buffer body = response.body();
+
+    return new Response(response.statusCode(),
+      body != null ? body : Buffer.buffer(), null,
       headers.get(HttpHeaders.CONTENT_TYPE), headers, url);
   }
 
+  /**
+   * @return a response with the same status, headers and body, which decodes
+   * its own JSON representation, so that it can be changed independently
+   */
+  Response copy() {
+    return new Response(statusCode, bodyBuffer, bodyBuffer == null ? body : null,
+      contentType, headers, fromUrl);
+  }
+
   public boolean hasBody() {
-    return StringUtils.isNotBlank(getBody());
+    return bodyBuffer != null
+      ? !isBlank(bodyBuffer)
+      : StringUtils.isNotBlank(body);
   }
 
   public int getStatusCode() {
     return statusCode;
   }
 
-  public String getBody() {
+  public synchronized String getBody() {
+    if (body == null && bodyBuffer != null) {
+      body = bodyBuffer.toString(StandardCharsets.UTF_8);
+    }
+
     return body;
   }
 
-  public JsonObject getJson() {
-    if(hasBody()) {
-      return new JsonObject(getBody());
+  /**
+   * @return the body as bytes, encoding it when the response was created from a string
+   */
+  public Buffer getBodyAsBuffer() {
+    if (bodyBuffer != null) {
+      return bodyBuffer;
     }
-    else {
-      return new JsonObject();
+
+    return body != null ? Buffer.buffer(body, "UTF-8") : Buffer.buffer();
+  }
+
+  /**
+   * @return the JSON representation of the body, an empty object when there
+   * is no body. This is decoded once, and must not be changed by the caller
+   */
+  public synchronized JsonObject getJson() {
+    if (json == null) {
+      if (!hasBody()) {
+        json = new JsonObject();
+      }
+      else if (bodyBuffer != null) {
+        json = new JsonObject(bodyBuffer);
+      }
+      else {
+        json = new JsonObject(body);
+      }
     }
+
+    return json;
   }
 
   public String getContentType() {
     return contentType;
   }
 
-  String getHeader(String name) {
+  public String getHeader(String name) {
     return headers.get(name);
   }
 
@@ -79,4 +140,14 @@ public class Response {
       "Response from \"%s\" status code: %s body: \"%s\", content type: \"%s\"",
         getFromUrl(), getStatusCode(), getBody(), getContentType());
   }
+
+  private static boolean isBlank(Buffer buffer) {
+    for (int i = 0; i < buffer.length(); i++) {
+      if (!Character.isWhitespace(buffer.getByte(i))) {
+        return false;
+      }
+    }
+
+    return true;
+  }
 }
@@ -56,7 +56,11 @@ public class ResponseInterpreter<T> {
     }
 
     try {
-      log.info("Response received: {}", response);
+      // the body is only logged when debugging, as large bodies would otherwise
+      // be converted to a string for every response
+      log.info("Response received from \"{}\" status code: {}",
+        response.getFromUrl(), response.getStatusCode());
+      log.debug("Response received: {}", response);
 
       final Integer statusCode = response.getStatusCode();
 
@@ -1,6 +1,7 @@
 package org.folio.circulation.support.http.client;
 
 import static java.time.temporal.ChronoUnit.SECONDS;
+import static java.util.Collections.emptyMap;
 import static org.apache.http.HttpHeaders.ACCEPT;
 import static org.folio.circulation.support.Result.failed;
 import static org.folio.circulation.support.Result.succeeded;
@@ -13,24 +14,32 @@ import static org.folio.circulation.support.http.client.Response.responseFrom;
 
 import java.net.URL;
 import java.time.Duration;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.BiConsumer;
 import java.util.stream.Stream;
 
 import org.folio.circulation.support.Result;
 import org.folio.circulation.support.ServerErrorFailure;
+import org.folio.circulation.support.ServiceUnavailableFailure;
+import org.folio.circulation.support.http.client.OkapiClientRegistry.SharedClient;
 
 import io.vertx.core.AsyncResult;
+import io.vertx.core.Handler;
 import io.vertx.core.buffer.Buffer;
 import io.vertx.core.http.HttpClient;
+import io.vertx.core.http.HttpMethod;
 import io.vertx.core.json.JsonObject;
 import io.vertx.ext.web.client.HttpRequest;
 import io.vertx.ext.web.client.HttpResponse;
 import io.vertx.ext.web.client.WebClient;
 
 public class VertxWebClientOkapiHttpClient implements OkapiHttpClient {
-  private static final Duration DEFAULT_TIMEOUT = Duration.of(20, SECONDS);
+  private static volatile Duration defaultTimeout = Duration.of(20, SECONDS);
 
   private final WebClient webClient;
+  private final RequestQueue requestQueue;
+  private final RequestResilience resilience;
   private final URL okapiUrl;
   private final String tenantId;
   private final String token;
@@ -40,14 +49,24 @@ public class VertxWebClientOkapiHttpClient implements OkapiHttpClient {
   public static OkapiHttpClient createClientUsing(HttpClient httpClient,
     URL okapiUrl, String tenantId, String token, String userId, String requestId) {
 
-    return new VertxWebClientOkapiHttpClient(WebClient.wrap(httpClient),
+    return new VertxWebClientOkapiHttpClient(
+      OkapiClientRegistry.getInstance().sharedClientFor(httpClient),
       okapiUrl, tenantId, token, userId, requestId);
   }
 
-  private VertxWebClientOkapiHttpClient(WebClient webClient, URL okapiUrl,
+  /**
+   * @param timeout  timeout of requests that do not specify their own
+   */
+  public static void setDefaultTimeout(Duration timeout) {
+    defaultTimeout = timeout;
+  }
+
+  private VertxWebClientOkapiHttpClient(SharedClient sharedClient, URL okapiUrl,
     String tenantId, String token, String userId, String requestId) {
 
-    this.webClient = webClient;
+    this.webClient = sharedClient.webClient;
+    this.requestQueue = sharedClient.requestQueue;
+    this.resilience = RequestResilience.getInstance();
     this.okapiUrl = okapiUrl;
     this.tenantId = tenantId;
     this.token = token;
@@ -57,51 +76,56 @@ public class VertxWebClientOkapiHttpClient implements OkapiHttpClient {
 
   @Override
   public CompletableFuture<Result<Response>> post(URL url, JsonObject body) {
-    return post(url.toString(), body, DEFAULT_TIMEOUT);
+    return post(url.toString(), body, defaultTimeout);
   }
 
   @Override
   public CompletableFuture<Result<Response>> post(String url, JsonObject body) {
-    return post(url, body, DEFAULT_TIMEOUT);
+    return post(url, body, defaultTimeout);
   }
 
   @Override
   public CompletableFuture<Result<Response>> post(String url,
     JsonObject body, Duration timeout) {
 
-    final CompletableFuture<AsyncResult<HttpResponse<Buffer>>> futureResponse
-      = new CompletableFuture<>();
-
     final HttpRequest<Buffer> request = withStandardHeaders(
       webClient.postAbs(url));
 
-    request
-      .timeout(timeout.toMillis())
-      .sendJsonObject(body, futureResponse::complete);
-
-    return futureResponse
-      .thenApply(asyncResult -> mapAsyncResultToResult(url, asyncResult));
+    return send(HttpMethod.POST, url, timeout, (remaining, handler) -> request
+      .copy()
+      .timeout(remaining)
+      .sendJsonObject(body, handler));
   }
 
   @Override
   public CompletableFuture<Result<Response>> get(String url,
     Duration timeout, QueryParameter... queryParameters) {
 
-    final CompletableFuture<AsyncResult<HttpResponse<Buffer>>> futureResponse
-      = new CompletableFuture<>();
+    return get(url, timeout, emptyMap(), queryParameters);
+  }
+
+  @Override
+  public CompletableFuture<Result<Response>> get(String url,
+    Map<String, String> headers, QueryParameter... queryParameters) {
+
+    return get(url, defaultTimeout, headers, queryParameters);
+  }
+
+  private CompletableFuture<Result<Response>> get(String url, Duration timeout,
+    Map<String, String> headers, QueryParameter... queryParameters) {
 
     final HttpRequest<Buffer> request = withStandardHeaders(
       webClient.getAbs(url));
 
+    headers.forEach(request::putHeader);
+
     Stream.of(queryParameters)
       .forEach(parameter -> parameter.consume(request::addQueryParam));
 
-    request
-      .timeout(timeout.toMillis())
-      .send(futureResponse::complete);
-
-    return futureResponse
-      .thenApply(asyncResult -> mapAsyncResultToResult(url, asyncResult));
+    return send(HttpMethod.GET, url, timeout, (remaining, handler) -> request
+      .copy()
+      .timeout(remaining)
+      .send(handler));
   }
 
   @Override
@@ -115,35 +139,30 @@ public class VertxWebClientOkapiHttpClient implements OkapiHttpClient {
   public CompletableFuture<Result<Response>> get(String url,
     QueryParameter... queryParameters) {
 
-    return get(url, DEFAULT_TIMEOUT, queryParameters);
+    return get(url, defaultTimeout, queryParameters);
   }
 
   @Override
   public CompletableFuture<Result<Response>> put(URL url, JsonObject body) {
-    return put(url.toString(), body, DEFAULT_TIMEOUT);
+    return put(url.toString(), body, defaultTimeout);
   }
 
   @Override
   public CompletableFuture<Result<Response>> put(String url, JsonObject body) {
-    return put(url, body, DEFAULT_TIMEOUT);
+    return put(url, body, defaultTimeout);
   }
 
   @Override
   public CompletableFuture<Result<Response>> put(String url, JsonObject body,
     Duration timeout) {
 
-    final CompletableFuture<AsyncResult<HttpResponse<Buffer>>> futureResponse
-      = new CompletableFuture<>();
-
     final HttpRequest<Buffer> request = withStandardHeaders(
       webClient.putAbs(url));
 
-    request
-      .timeout(timeout.toMillis())
-      .sendJsonObject(body, futureResponse::complete);
-
-    return futureResponse
-      .thenApply(asyncResult -> mapAsyncResultToResult(url, asyncResult));
+    return send(HttpMethod.PUT, url, timeout, (remaining, handler) -> request
+      .copy()
+      .timeout(remaining)
+      .sendJsonObject(body, handler));
   }
 
   @Override
@@ -157,27 +176,45 @@ public class VertxWebClientOkapiHttpClient implements OkapiHttpClient {
   public CompletableFuture<Result<Response>> delete(String url,
     QueryParameter... queryParameters) {
 
-    return delete(url, DEFAULT_TIMEOUT, queryParameters);
+    return delete(url, defaultTimeout, queryParameters);
   }
 
   @Override
   public CompletableFuture<Result<Response>> delete(String url,
     Duration timeout, QueryParameter... queryParameters) {
 
-    final CompletableFuture<AsyncResult<HttpResponse<Buffer>>> futureResponse
-      = new CompletableFuture<>();
-
     final HttpRequest<Buffer> request = withStandardHeaders(
       webClient.deleteAbs(url));
 
     Stream.of(queryParameters)
       .forEach(parameter -> parameter.consume(request::addQueryParam));
 
-    request
-      .timeout(timeout.toMillis())
-      .send(futureResponse::complete);
+    return send(HttpMethod.DELETE, url, timeout, (remaining, handler) -> request
+      .copy()
+      .timeout(remaining)
+      .send(handler));
+  }
+
+  /**
+   * Send a request, which may be retried or hedged, so the sender may be
+   * called more than once, also at the same time. It must send a copy of
+   * the request each time. All attempts share the timeout, the sender is
+   * given what remains of it in milliseconds once the attempt has waited
+   * for a connection.
+   */
+  private CompletableFuture<Result<Response>> send(HttpMethod method,
+    String url, Duration timeout,
+    BiConsumer<Long, Handler<AsyncResult<HttpResponse<Buffer>>>> sender) {
 
-    return futureResponse
+    return resilience.execute(method, tenantId, url, timeout.toMillis(),
+      attemptTimeout -> requestQueue.submit(url, attemptTimeout, remaining -> {
+        final CompletableFuture<AsyncResult<HttpResponse<Buffer>>> futureResponse
+          = new CompletableFuture<>();
+
+        sender.accept(remaining, futureResponse::complete);
+
+        return futureResponse;
+      }))
       .thenApply(asyncResult -> mapAsyncResultToResult(url, asyncResult));
   }
 
@@ -194,8 +231,12 @@ public class VertxWebClientOkapiHttpClient implements OkapiHttpClient {
   private static Result<Response> mapAsyncResultToResult(String url,
     AsyncResult<HttpResponse<Buffer>> asyncResult) {
 
-    return asyncResult.succeeded()
-      ? succeeded(responseFrom(url, asyncResult.result()))
+    if (asyncResult.succeeded()) {
+      return succeeded(responseFrom(url, asyncResult.result()));
+    }
+
+    return asyncResult.cause() instanceof RequestQueueFullException
+      ? failed(new ServiceUnavailableFailure(asyncResult.cause().getMessage()))
       : failed(new ServerErrorFailure(asyncResult.cause()));
   }
 }
@@ -0,0 +1,159 @@
+package org.folio.circulation.support.http.server;
+
+import static java.util.concurrent.CompletableFuture.completedFuture;
+import static java.util.stream.Collectors.toList;
+import static org.folio.circulation.support.Result.failed;
+import static org.folio.circulation.support.Result.succeeded;
+
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+
+import org.folio.circulation.support.HttpFailure;
+import org.folio.circulation.support.Result;
+import org.folio.circulation.support.ServerErrorFailure;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpServerResponse;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Writes a JSON object with an array of records and the total number of
+ * records to a response, a few records at a time as they become available,
+ * rather than building the whole representation first.
+ * <p>
+ * The response is chunked, and is not started until records are first
+ * written, so a failure before then can still be responded to with an error.
+ * A failure after that closes the connection, so that the client does not
+ * mistake a partial response for a complete one.
+ * <p>
+ * Writing completes once the response is able to take more, so that
+ * records are not produced faster than the client receives them. Writing
+ * fails if the connection is closed before then.
+ */
+public class ChunkedJsonArrayResponse {
+  private static final String CONNECTION_CLOSED
+    = "Connection closed before response was complete";
+
+  private final HttpServerResponse response;
+  private final String arrayPropertyName;
+
+  private boolean started = false;
+  private int totalRecords = 0;
+  /** the write waiting for the response to be able to take more, if any */
+  private CompletableFuture<Result<Void>> waitingForDrain;
+
+  public ChunkedJsonArrayResponse(HttpServerResponse response,
+    String arrayPropertyName) {
+
+    this.response = response;
+    this.arrayPropertyName = arrayPropertyName;
+  }
+
+  public CompletableFuture<Result<Void>> write(Collection<JsonObject> records) {
+    return writeEncoded(records.stream()
+      .map(JsonObject::encode)
+      .collect(toList()));
+  }
+
+  /**
+   * @param records  records already encoded as JSON
+   */
+  public CompletableFuture<Result<Void>> writeEncoded(Collection<String> records) {
+    if (response.closed()) {
+      return completedFuture(failed(new ServerErrorFailure(CONNECTION_CLOSED)));
+    }
+
+    if (records.isEmpty()) {
+      return completedFuture(succeeded(null));
+    }
+
+    final Buffer chunk = Buffer.buffer();
+
+    for (String record : records) {
+      chunk.appendString(totalRecords++ == 0 ? "" : ",").appendString(record);
+    }
+
+    start();
+    response.write(chunk);
+
+    if (!response.writeQueueFull()) {
+      return completedFuture(succeeded(null));
+    }
+
+    final CompletableFuture<Result<Void>> drained = new CompletableFuture<>();
+
+    waitingForDrain = drained;
+
+    response.drainHandler(notUsed -> drained.complete(succeeded(null)));
+
+    // the queue may have drained, or the connection closed, before the
+    // handlers were set
+    if (response.closed()) {
+      failWaitingWrite(CONNECTION_CLOSED);
+    }
+    else if (!response.writeQueueFull()) {
+      drained.complete(succeeded(null));
+    }
+
+    return drained;
+  }
+
+  /**
+   * Ends the response with the total number of records written
+   */
+  public void end() {
+    start();
+    response.end(String.format("],\"totalRecords\":%d}", totalRecords));
+  }
+
+  public void fail(HttpFailure failure) {
+    if (response.closed()) {
+      return;
+    }
+
+    if (started) {
+      response.close();
+    }
+    else {
+      failure.writeTo(response);
+    }
+  }
+
+  /**
+   * Ends the response when the result has succeeded, otherwise fails it
+   */
+  public void complete(Result<?> result) {
+    if (result.succeeded()) {
+      end();
+    }
+    else {
+      fail(result.cause());
+    }
+  }
+
+  private void start() {
+    if (started) {
+      return;
+    }
+
+    started = true;
+
+    // the response is never drained once the connection has gone
+    response.closeHandler(notUsed -> failWaitingWrite(CONNECTION_CLOSED));
+    response.exceptionHandler(exception -> failWaitingWrite(
+      "Failed to write response: " + exception.getMessage()));
+
+    response.setStatusCode(200);
+    response.setChunked(true);
+    response.putHeader("content-type", "application/json; charset=utf-8");
+    response.write(String.format("{\"%s\":[", arrayPropertyName));
+  }
+
+  private void failWaitingWrite(String reason) {
+    final CompletableFuture<Result<Void>> waiting = waitingForDrain;
+
+    if (waiting != null) {
+      waiting.complete(failed(new ServerErrorFailure(reason)));
+    }
+  }
+}
@@ -17,7 +17,7 @@ public class ForwardResponse {
     forwardTo.setStatusCode(forwardFrom.getStatusCode());
 
     if(forwardFrom.hasBody()) {
-      Buffer buffer = Buffer.buffer(forwardFrom.getBody(), "UTF-8");
+      Buffer buffer = forwardFrom.getBodyAsBuffer();
 
       forwardTo.putHeader(CONTENT_TYPE_HEADER, forwardFrom.getContentType());
       forwardTo.putHeader(CONTENT_LENGTH_HEADER, Integer.toString(buffer.length()));
@@ -10,6 +10,7 @@ import java.net.MalformedURLException;
 import java.net.URL;
 
 import org.folio.circulation.support.InvalidOkapiLocationException;
+import org.folio.circulation.support.http.client.OkapiClientRegistry;
 import org.folio.circulation.support.http.client.OkapiHttpClient;
 import org.folio.circulation.support.http.client.VertxWebClientOkapiHttpClient;
 
@@ -70,17 +71,15 @@ public class WebContext {
   public URL getOkapiBasedUrl(String path)
     throws MalformedURLException {
 
-    URL currentRequestUrl = new URL(getOkapiLocation());
-
-    return new URL(currentRequestUrl.getProtocol(), currentRequestUrl.getHost(),
-      currentRequestUrl.getPort(), path);
+    return OkapiClientRegistry.getInstance()
+      .okapiBasedUrl(getOkapiLocation(), path);
   }
 
   public OkapiHttpClient createHttpClient(HttpClient httpClient) {
     URL okapiUrl;
 
     try {
-      okapiUrl = new URL(getOkapiLocation());
+      okapiUrl = OkapiClientRegistry.getInstance().okapiUrl(getOkapiLocation());
     }
     catch(MalformedURLException e) {
       throw new InvalidOkapiLocationException(getOkapiLocation(), e);
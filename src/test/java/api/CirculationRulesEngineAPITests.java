@@ -1,5 +1,10 @@
 package api;
 
+import static api.support.fixtures.CirculationRulesFixture.criteria;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.awaitility.Awaitility.await;
+import static org.folio.circulation.rules.CirculationRulesCache.DEFAULT_MAX_AGE_IN_SECONDS;
+import static org.folio.circulation.rules.CirculationRulesCache.DEFAULT_TRIGGER_AGE_IN_SECONDS;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.Is.is;
 import static org.hamcrest.core.StringContains.containsString;
@@ -184,6 +189,14 @@ public class CirculationRulesEngineAPITests extends APITests {
     assertThat(response.getStatusCode(), is(400));
   }
 
+  @Test
+  public void applyAllPoliciesWithoutParameters() {
+    final Response response = circulationRulesFixture
+      .attemptToApplyRulesWithNoParameters("/policies");
+
+    assertThat(response.getStatusCode(), is(400));
+  }
+
   @Test
   public void applyOneLoanParameterMissing() {
     applyRulesWithMissingParameters("loan", null, t1.id, lp1.id, s1.id, "item_type_id");
@@ -290,6 +303,89 @@ public class CirculationRulesEngineAPITests extends APITests {
     assertThat(applyRulesForLoanPolicy(m2, t2, g2, s1), is(lp4));
   }
 
+  @Test
+  public void canDetermineAllPoliciesAtOnce() {
+    setRules(rulesWithInstitution);
+
+    final JsonObject fallback = circulationRulesFixture
+      .applyRulesForAllPolicies(m1, t2, g2, s2);
+
+    assertThat(fallback.getString("loanPolicyId"), is(lp2.toString()));
+    assertThat(fallback.getString("requestPolicyId"), is(rp1.toString()));
+    assertThat(fallback.getString("noticePolicyId"), is(np1.toString()));
+    assertThat(fallback.getString("overdueFinePolicyId"), is(op1.toString()));
+    assertThat(fallback.getString("lostItemPolicyId"), is(lip1.toString()));
+
+    final JsonObject institution = circulationRulesFixture
+      .applyRulesForAllPolicies(m2, t2, g2, s1);
+
+    assertThat(institution.getString("loanPolicyId"), is(lp4.toString()));
+    assertThat(institution.getString("requestPolicyId"), is(rp2.toString()));
+    assertThat(institution.getString("noticePolicyId"), is(np2.toString()));
+    assertThat(institution.getString("overdueFinePolicyId"), is(op2.toString()));
+    assertThat(institution.getString("lostItemPolicyId"), is(lip2.toString()));
+  }
+
+  @Test
+  public void canApplyRulesForManyCriteriaAtOnce() {
+    setRules(rulesWithInstitution);
+
+    final JsonArray matches = circulationRulesFixture.applyRulesInBatch(
+      "/loan-policy", criteria(m1, t2, g2, s2), criteria(m2, t2, g2, s2),
+      criteria(m1, t2, g2, s1), criteria(m1, t2, g2, s2));
+
+    assertThat(matches.size(), is(4));
+    assertThat(matches.getJsonObject(0).getString("loanPolicyId"), is(lp2.toString()));
+    assertThat(matches.getJsonObject(1).getString("loanPolicyId"), is(lp3.toString()));
+    assertThat(matches.getJsonObject(2).getString("loanPolicyId"), is(lp4.toString()));
+    assertThat(matches.getJsonObject(3).getString("loanPolicyId"), is(lp2.toString()));
+    assertThat(matches.getJsonObject(1).getJsonObject("appliedRuleConditions")
+      .getBoolean("materialTypeMatch"), is(true));
+
+    final JsonArray requestMatches = circulationRulesFixture.applyRulesInBatch(
+      "/request-policy", criteria(m1, t2, g2, s2), criteria(m2, t2, g2, s2));
+
+    assertThat(requestMatches.getJsonObject(0).getString("requestPolicyId"), is(rp1.toString()));
+    assertThat(requestMatches.getJsonObject(1).getString("requestPolicyId"), is(rp2.toString()));
+  }
+
+  @Test
+  public void canDetermineAllPoliciesForManyCriteriaAtOnce() {
+    setRules(rulesWithInstitution);
+
+    final JsonArray matches = circulationRulesFixture.applyRulesInBatch(
+      "/policies", criteria(m2, t2, g2, s1), criteria(m1, t2, g2, s2));
+
+    assertThat(matches.size(), is(2));
+
+    final JsonObject institution = matches.getJsonObject(0);
+    assertThat(institution.getString("loanPolicyId"), is(lp4.toString()));
+    assertThat(institution.getString("noticePolicyId"), is(np2.toString()));
+    assertThat(institution.getString("lostItemPolicyId"), is(lip2.toString()));
+
+    final JsonObject fallback = matches.getJsonObject(1);
+    assertThat(fallback.getString("loanPolicyId"), is(lp2.toString()));
+    assertThat(fallback.getString("overdueFinePolicyId"), is(op1.toString()));
+  }
+
+  @Test
+  public void cannotApplyRulesForManyCriteriaWithInvalidCriteria() {
+    setRules(rulesWithInstitution);
+
+    final Response invalidUuid = circulationRulesFixture.attemptToApplyRulesInBatch(
+      "/loan-policy", new JsonObject().put("criteria", new JsonArray()
+        .add(criteria(m1, t2, g2, s2))
+        .add(criteria(m1, t2, g2, s2).put("patronTypeId", "foo"))));
+
+    assertThat(invalidUuid.getBody(), containsString("patronTypeId in criteria 1"));
+
+    final Response missingCriteria = circulationRulesFixture
+      .attemptToApplyRulesInBatch("/policies", new JsonObject());
+
+    assertThat(missingCriteria.getBody(),
+      is("required property missing: criteria"));
+  }
+
   @Test
   public void shouldApplyRulesWithLibrary() {
     setRules(rulesWithLibrary);
@@ -378,6 +474,41 @@ public class CirculationRulesEngineAPITests extends APITests {
     assertThat(applyRulesForLoanPolicy(m1, t1, g1, s1), is(lp7));
   }
 
+  @Test
+  public void rulesSavedThroughAnotherInstanceAreUsedAfterCacheTime() {
+    // the cache time the module is deployed with
+    LoanCirculationRulesEngineResource.setCacheTime(
+      SECONDS.toMillis(DEFAULT_TRIGGER_AGE_IN_SECONDS),
+      SECONDS.toMillis(DEFAULT_MAX_AGE_IN_SECONDS));
+
+    setRules(rulesFallback);
+    assertThat(applyRulesForLoanPolicy(m1, t1, g1, s1), is(lp6));
+
+    // another instance of the module only changes the rules in storage
+    circulationRulesFixture.updateCirculationRulesWithoutInvalidatingCache(
+      rulesFallback2);
+
+    await()
+      .atMost(DEFAULT_MAX_AGE_IN_SECONDS + 5, SECONDS)
+      .until(() -> applyRulesForLoanPolicy(m1, t1, g1, s1), is(lp7));
+  }
+
+  @Test
+  public void rulesThatCannotBeCompiledAreRespondedToWithError() {
+    circulationRulesFixture.updateCirculationRulesWithoutInvalidatingCache(
+      "priority: t, s, c, b, a, m, g\nthis is not a rule");
+
+    LoanCirculationRulesEngineResource.dropCache();
+
+    final Response applyResponse = circulationRulesFixture.attemptToApplyRules(
+      "/loan-policy", m1, t1, g1, s1, 500);
+
+    assertThat(applyResponse.getBody(), containsString("extraneous input 'this'"));
+
+    circulationRulesFixture.attemptToApplyRules("/loan-policy-all",
+      m1, t1, g1, s1, 500);
+  }
+
   private Policy applyRulesForLoanPolicy(ItemType itemType, LoanType loanType,
       PatronGroup patronGroup, ItemLocation location) {
 
@@ -0,0 +1,84 @@
+package api.loans;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+
+import org.folio.circulation.rules.InProcessRulesEvaluator;
+import org.folio.circulation.support.http.client.IndividualResource;
+import org.junit.After;
+import org.junit.Test;
+
+import api.support.APITests;
+import api.support.fakes.FakeOkapi;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Compares applying the circulation rules in-process with applying them
+ * via a request to the rules engine during check out.
+ */
+public class CheckOutRulesEvaluationTests extends APITests {
+  private final boolean initiallyEnabled = InProcessRulesEvaluator.isEnabled();
+
+  @After
+  public void restoreRulesEvaluation() {
+    InProcessRulesEvaluator.setEnabled(initiallyEnabled);
+  }
+
+  @Test
+  public void inProcessAndHttpRulesEvaluationChooseTheSamePolicies() {
+    final IndividualResource item = itemsFixture.basedUponSmallAngryPlanet();
+    final IndividualResource steve = usersFixture.steve();
+
+    InProcessRulesEvaluator.setEnabled(false);
+
+    final JsonObject viaHttp = checkOutAndIn(item, steve);
+
+    InProcessRulesEvaluator.setEnabled(true);
+
+    final JsonObject inProcess = checkOutAndIn(item, steve);
+
+    assertThat(inProcess.getString("loanPolicyId"),
+      is(viaHttp.getString("loanPolicyId")));
+    assertThat(inProcess.getString("overdueFinePolicyId"),
+      is(viaHttp.getString("overdueFinePolicyId")));
+    assertThat(inProcess.getString("lostItemPolicyId"),
+      is(viaHttp.getString("lostItemPolicyId")));
+  }
+
+  @Test
+  public void inProcessRulesEvaluationDoesNotRequestTheRulesEngineViaOkapi() {
+    final IndividualResource item = itemsFixture.basedUponSmallAngryPlanet();
+    final IndividualResource steve = usersFixture.steve();
+
+    InProcessRulesEvaluator.setEnabled(true);
+
+    final int routedBackBefore = FakeOkapi.getRulesRequestsRoutedBack();
+
+    checkOutAndIn(item, steve);
+
+    assertThat(FakeOkapi.getRulesRequestsRoutedBack(), is(routedBackBefore));
+  }
+
+  @Test
+  public void httpRulesEvaluationRequestsTheRulesEngineViaOkapi() {
+    final IndividualResource item = itemsFixture.basedUponSmallAngryPlanet();
+    final IndividualResource steve = usersFixture.steve();
+
+    InProcessRulesEvaluator.setEnabled(false);
+
+    final int routedBackBefore = FakeOkapi.getRulesRequestsRoutedBack();
+
+    checkOutAndIn(item, steve);
+
+    assertThat(FakeOkapi.getRulesRequestsRoutedBack(), greaterThan(routedBackBefore));
+  }
+
+  private JsonObject checkOutAndIn(IndividualResource item, IndividualResource user) {
+    final IndividualResource loan = loansFixture.checkOutByBarcode(item, user);
+
+    loansFixture.checkInByBarcode(item);
+
+    return loan.getJson();
+  }
+}
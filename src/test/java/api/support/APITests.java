@@ -65,7 +65,10 @@ import org.junit.BeforeClass;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import org.folio.circulation.domain.ConfigurationCache;
+import org.folio.circulation.domain.policy.PolicyCache;
 import org.folio.circulation.support.ClockManager;
+import org.folio.circulation.support.ReferenceDataCache;
 import org.folio.circulation.support.http.client.IndividualResource;
 
 public abstract class APITests {
@@ -264,6 +267,9 @@ public abstract class APITests {
     feeFinesClient.deleteAll();
     feeFineOwnersClient.deleteAll();
 
+    // locations and service points are recreated for each test
+    ReferenceDataCache.getInstance().clear();
+
     //TODO: Only cleans up reference records, move items, holdings records
     // and instances into here too
     itemsFixture.cleanUp();
@@ -325,6 +331,11 @@ public abstract class APITests {
     cancellationReasonsFixture.cleanUp();
     instancesFixture.cleanUp();
     userManualBlocksFixture.cleanUp();
+
+    // the deleted records must not be used from the caches by the next test
+    ReferenceDataCache.getInstance().clear();
+    ConfigurationCache.getInstance().clear();
+    PolicyCache.getInstance().clear();
   }
 
   //Needs to be done each time as some tests manipulate the rules
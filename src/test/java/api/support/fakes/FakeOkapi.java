@@ -16,6 +16,7 @@ import java.io.IOException;
 import java.lang.invoke.MethodHandles;
 import java.util.Collection;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.folio.circulation.support.Result;
@@ -32,17 +33,24 @@ import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 import io.vertx.ext.web.Router;
 import io.vertx.ext.web.RoutingContext;
+import io.vertx.ext.web.handler.BodyHandler;
 
 public class FakeOkapi extends AbstractVerticle {
   private static final Logger log = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
 
   private static final int PORT_TO_USE = 9493;
+  /** requests to apply the circulation rules routed back to the circulation module */
+  private static final AtomicInteger rulesRequestsRoutedBack = new AtomicInteger();
   private static final String address =
     String.format("http://localhost:%s", PORT_TO_USE);
 
   private HttpServer server;
   private String circulationRules = "{ \"rulesAsText\": \"\" }";
 
+  public static int getRulesRequestsRoutedBack() {
+    return rulesRequestsRoutedBack.get();
+  }
+
   public static String getAddress() {
     return address;
   }
@@ -119,6 +127,8 @@ public class FakeOkapi extends AbstractVerticle {
       .withRootPath("/fixed-due-date-schedule-storage/fixed-due-date-schedules")
       .withCollectionPropertyName("fixedDueDateSchedules")
       .withUniqueProperties("name")
+      .withRecordPreProcessor(asList(
+        StorageRecordPreProcessors::clearCachedPolicies))
       .create().register(router);
 
     new FakeStorageModuleBuilder()
@@ -126,6 +136,8 @@ public class FakeOkapi extends AbstractVerticle {
       .withRootPath("/loan-policy-storage/loan-policies")
       .withCollectionPropertyName("loanPolicies")
       .withRequiredProperties("name", "loanable", "renewable")
+      .withRecordPreProcessor(asList(
+        StorageRecordPreProcessors::clearCachedPolicies))
       .create().register(router);
 
     new FakeStorageModuleBuilder()
@@ -152,6 +164,8 @@ public class FakeOkapi extends AbstractVerticle {
       .withRootPath("/patron-notice-policy-storage/patron-notice-policies")
       .withCollectionPropertyName("patronNoticePolicies")
       .withRequiredProperties("name", "active")
+      .withRecordPreProcessor(asList(
+        StorageRecordPreProcessors::clearCachedPolicies))
       .create().register(router);
 
     new FakeStorageModuleBuilder()
@@ -159,6 +173,8 @@ public class FakeOkapi extends AbstractVerticle {
       .withRootPath("/overdue-fines-policies")
       .withCollectionPropertyName("overdueFinePolicies")
       .withRequiredProperties("name")
+      .withRecordPreProcessor(asList(
+        StorageRecordPreProcessors::clearCachedPolicies))
       .create().register(router);
 
     new FakeStorageModuleBuilder()
@@ -166,6 +182,8 @@ public class FakeOkapi extends AbstractVerticle {
       .withRootPath("/lost-item-fees-policies")
       .withCollectionPropertyName("lostItemFeePolicies")
       .withRequiredProperties("name")
+      .withRecordPreProcessor(asList(
+        StorageRecordPreProcessors::clearCachedPolicies))
       .create().register(router);
 
     new FakeStorageModuleBuilder()
@@ -283,6 +301,8 @@ public class FakeOkapi extends AbstractVerticle {
       .withCollectionPropertyName("configs")
       .withRootPath("/configurations/entries")
       .withChangeMetadata()
+      .withRecordPreProcessor(asList(
+        StorageRecordPreProcessors::clearCachedConfiguration))
       .create()
       .register(router);
 
@@ -406,11 +426,22 @@ public class FakeOkapi extends AbstractVerticle {
     router.get("/circulation/rules/request-policy").handler(context -> {
       forwardApplyingCirculationRulesRequest(context, "request-policy");
     });
+
+    router.get("/circulation/rules/policies").handler(context -> {
+      forwardApplyingCirculationRulesRequest(context, "policies");
+    });
+
+    router.post("/circulation/rules/policies/batch").handler(BodyHandler.create());
+    router.post("/circulation/rules/policies/batch").handler(context -> {
+      forwardApplyingCirculationRulesBatchRequest(context, "policies");
+    });
   }
 
   private void forwardApplyingCirculationRulesRequest(RoutingContext context,
     String policyNamePartialPath) {
 
+    rulesRequestsRoutedBack.incrementAndGet();
+
     OkapiHttpClient client = createWebClient();
 
     client.get(String.format("http://localhost:%s/circulation/rules/%s?%s",
@@ -420,6 +451,20 @@ public class FakeOkapi extends AbstractVerticle {
         cause -> cause.writeTo(context.response())));
   }
 
+  private void forwardApplyingCirculationRulesBatchRequest(RoutingContext context,
+    String policyNamePartialPath) {
+
+    rulesRequestsRoutedBack.incrementAndGet();
+
+    OkapiHttpClient client = createWebClient();
+
+    client.post(String.format("http://localhost:%s/circulation/rules/%s/batch",
+      circulationModulePort(), policyNamePartialPath), context.getBodyAsJson())
+      .thenAccept(result -> result.applySideEffect(
+        response -> forward(context.response(), response),
+        cause -> cause.writeTo(context.response())));
+  }
+
   @Override
   public void stop(Promise<Void> stopFuture) {
     log.debug("Stopping fake okapi");
@@ -17,6 +17,8 @@ import org.apache.commons.lang3.ObjectUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.tuple.ImmutableTriple;
 import org.apache.commons.lang3.tuple.Triple;
+import org.folio.circulation.domain.ConfigurationCache;
+import org.folio.circulation.domain.policy.PolicyCache;
 import org.folio.circulation.domain.representations.ItemProperties;
 import org.folio.circulation.support.http.client.Response;
 import org.joda.time.DateTime;
@@ -137,4 +139,28 @@ public final class StorageRecordPreProcessors {
   private static JsonObject getFirstHoldingsRecord(Response response) {
     return response.getJson().getJsonArray("holdingsRecords").getJsonObject(0);
   }
+
+  /**
+   * Tests change the configuration at any time, expecting the change
+   * to be used by the next request
+   */
+  public static CompletableFuture<JsonObject> clearCachedConfiguration(
+    @SuppressWarnings("unused") JsonObject oldConfiguration, JsonObject newConfiguration) {
+
+    ConfigurationCache.getInstance().clear();
+
+    return CompletableFuture.completedFuture(newConfiguration);
+  }
+
+  /**
+   * Tests change policies and schedules at any time, expecting the change
+   * to be used by the next request
+   */
+  public static CompletableFuture<JsonObject> clearCachedPolicies(
+    @SuppressWarnings("unused") JsonObject oldPolicy, JsonObject newPolicy) {
+
+    PolicyCache.getInstance().clear();
+
+    return CompletableFuture.completedFuture(newPolicy);
+  }
 }
@@ -190,6 +190,38 @@ public class CirculationRulesFixture {
     return response.getJson().getJsonArray("circulationRuleMatches");
   }
 
+  public JsonObject applyRulesForAllPolicies(ItemType itemType,
+    LoanType loanType, PatronGroup patronGroup, ItemLocation location) {
+
+    final Response response = applyRulesForPolicy(itemType, loanType,
+      patronGroup, location, "/policies", "apply-rules-to-get-all-policies");
+
+    return response.getJson();
+  }
+
+  public JsonArray applyRulesInBatch(String policyPath, JsonObject... criteria) {
+    final Response response = restAssuredClient.post(
+      new JsonObject().put("criteria", new JsonArray(asList(criteria))),
+      circulationRulesUrl(policyPath + "/batch"), 200, "apply-rules-in-batch");
+
+    return response.getJson().getJsonArray("circulationRuleMatches");
+  }
+
+  public Response attemptToApplyRulesInBatch(String policyPath, JsonObject request) {
+    return restAssuredClient.post(request,
+      circulationRulesUrl(policyPath + "/batch"), 400, "apply-rules-in-batch");
+  }
+
+  public static JsonObject criteria(ItemType itemType, LoanType loanType,
+    PatronGroup patronGroup, ItemLocation location) {
+
+    return new JsonObject()
+      .put("itemTypeId", itemType.id)
+      .put("loanTypeId", loanType.id)
+      .put("patronTypeId", patronGroup.id)
+      .put("locationId", location.id);
+  }
+
   private Response applyRulesForPolicy(ItemType itemType, LoanType loanType,
       PatronGroup patronGroup, ItemLocation location, String policyPath,
       String requestId) {
@@ -200,6 +232,15 @@ public class CirculationRulesFixture {
       requestId);
   }
 
+  public Response attemptToApplyRules(String policyPath, ItemType itemType,
+    LoanType loanType, PatronGroup patronGroup, ItemLocation location,
+    int expectedStatusCode) {
+
+    return restAssuredClient.get(circulationRulesUrl(policyPath),
+      getApplyParameters(itemType, loanType, patronGroup, location),
+      expectedStatusCode, "attempt-to-apply-rules");
+  }
+
   public Response attemptToApplyRulesWithNoParameters(String path) {
     return restAssuredClient.get(circulationRulesUrl(path), 400,
       "apply-rules-with-no-parameters");
@@ -0,0 +1,103 @@
+package org.folio.circulation.domain;
+
+import static java.util.Collections.singletonList;
+import static java.util.concurrent.CompletableFuture.completedFuture;
+import static org.folio.circulation.support.Result.failed;
+import static org.folio.circulation.support.Result.succeeded;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.folio.circulation.support.Result;
+import org.folio.circulation.support.ServerErrorFailure;
+import org.junit.Test;
+
+import io.vertx.core.json.JsonObject;
+
+public class ConfigurationCacheTest {
+  private final AtomicLong now = new AtomicLong(1_000_000);
+  private final ConfigurationCache cache = new ConfigurationCache(now::get);
+  private final AtomicInteger loads = new AtomicInteger();
+
+  @Test
+  public void concurrentLookupsShareASingleLoad() throws Exception {
+    final CompletableFuture<Result<Collection<Configuration>>> load
+      = new CompletableFuture<>();
+
+    final CompletableFuture<Result<Collection<Configuration>>> first
+      = cache.get("tenant", "ORG", "localeSettings", () -> countLoad(load));
+    final CompletableFuture<Result<Collection<Configuration>>> second
+      = cache.get("tenant", "ORG", "localeSettings", () -> countLoad(load));
+
+    load.complete(succeeded(timeZone()));
+
+    assertThat(loads.get(), is(1));
+    assertThat(second.get().value(), sameInstance(first.get().value()));
+  }
+
+  @Test
+  public void configurationIsLoadedAgainWhenExpired() throws Exception {
+    cache.setTimeToLive(1000);
+
+    lookUpTimeZone("tenant");
+    now.addAndGet(999);
+    lookUpTimeZone("tenant");
+
+    assertThat(loads.get(), is(1));
+
+    now.addAndGet(1);
+    lookUpTimeZone("tenant");
+
+    assertThat(loads.get(), is(2));
+  }
+
+  @Test
+  public void tenantsDoNotShareConfiguration() throws Exception {
+    lookUpTimeZone("tenant");
+    lookUpTimeZone("other-tenant");
+
+    assertThat(loads.get(), is(2));
+  }
+
+  @Test
+  public void failedLookupIsNotCached() throws Exception {
+    cache.get("tenant", "ORG", "localeSettings", () -> countLoad(
+      completedFuture(failed(new ServerErrorFailure("configuration unavailable"))))).get();
+
+    lookUpTimeZone("tenant");
+
+    assertThat(loads.get(), is(2));
+  }
+
+  @Test
+  public void configurationIsNotCachedWithoutTimeToLive() throws Exception {
+    cache.setTimeToLive(0);
+
+    lookUpTimeZone("tenant");
+    lookUpTimeZone("tenant");
+
+    assertThat(loads.get(), is(2));
+  }
+
+  private void lookUpTimeZone(String tenantId) throws Exception {
+    cache.get(tenantId, "ORG", "localeSettings",
+      () -> countLoad(completedFuture(succeeded(timeZone())))).get();
+  }
+
+  private CompletableFuture<Result<Collection<Configuration>>> countLoad(
+    CompletableFuture<Result<Collection<Configuration>>> load) {
+
+    loads.incrementAndGet();
+    return load;
+  }
+
+  private static Collection<Configuration> timeZone() {
+    return singletonList(new Configuration(new JsonObject()
+      .put("value", new JsonObject().put("timezone", "Europe/Berlin").encode())));
+  }
+}
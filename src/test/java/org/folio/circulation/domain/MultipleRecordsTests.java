@@ -0,0 +1,49 @@
+package org.folio.circulation.domain;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+
+import java.util.function.Function;
+
+import org.junit.Test;
+
+public class MultipleRecordsTests {
+  @Test
+  public void recordsAreCombinedWithTheRecordTheyReferTo() {
+    final MultipleRecords<String> loans = new MultipleRecords<>(
+      asList("loan-1:item-2", "loan-2:item-1", "loan-3:item-2"), 10);
+
+    final MultipleRecords<String> items = new MultipleRecords<>(
+      asList("item-1", "item-2"), 2);
+
+    final MultipleRecords<String> combined = loans.combineRecords(items,
+      foreignKey(), Function.identity(), (loan, item) -> loan + "=" + item,
+      "none");
+
+    assertThat(combined.getRecords(), contains(
+      "loan-1:item-2=item-2", "loan-2:item-1=item-1", "loan-3:item-2=item-2"));
+    assertThat(combined.getTotalRecords(), is(10));
+  }
+
+  @Test
+  public void recordsReferringToMissingRecordAreCombinedWithDefault() {
+    final MultipleRecords<String> loans = new MultipleRecords<>(
+      asList("loan-1:item-1", "loan-2:item-3"), 2);
+
+    final MultipleRecords<String> items = new MultipleRecords<>(
+      asList("item-1", "item-2"), 2);
+
+    final MultipleRecords<String> combined = loans.combineRecords(items,
+      foreignKey(), Function.identity(), (loan, item) -> loan + "=" + item,
+      "none");
+
+    assertThat(combined.getRecords(), contains(
+      "loan-1:item-1=item-1", "loan-2:item-3=none"));
+  }
+
+  private static Function<String, String> foreignKey() {
+    return record -> record.substring(record.indexOf(':') + 1);
+  }
+}
@@ -0,0 +1,164 @@
+package org.folio.circulation.domain.policy;
+
+import static java.util.Arrays.asList;
+import static java.util.concurrent.CompletableFuture.completedFuture;
+import static java.util.function.Function.identity;
+import static org.folio.circulation.domain.policy.PolicyCache.RecordType.LOAN_POLICIES;
+import static org.folio.circulation.domain.policy.PolicyCache.RecordType.LOST_ITEM_POLICIES;
+import static org.folio.circulation.support.Result.succeeded;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import org.folio.circulation.support.Result;
+import org.junit.Test;
+
+import io.vertx.core.json.JsonObject;
+
+public class PolicyCacheTest {
+  private final AtomicLong now = new AtomicLong(1_000_000);
+  private final PolicyCache cache = new PolicyCache(now::get);
+  private final List<String> loadedIds = new ArrayList<>();
+
+  @Test
+  public void concurrentLookupsShareASingleLoad() throws Exception {
+    final CompletableFuture<Result<LoanPolicy>> load = new CompletableFuture<>();
+
+    final CompletableFuture<Result<LoanPolicy>> first = cache.get("tenant",
+      LOAN_POLICIES, "rolling", id -> recordLoad(id, load));
+    final CompletableFuture<Result<LoanPolicy>> second = cache.get("tenant",
+      LOAN_POLICIES, "rolling", id -> recordLoad(id, load));
+
+    load.complete(succeeded(loanPolicy("rolling")));
+
+    assertThat(loadedIds, contains("rolling"));
+    assertThat(second.get().value(), sameInstance(first.get().value()));
+  }
+
+  @Test
+  public void policyIsLoadedAgainWhenExpired() throws Exception {
+    cache.setTimeToLive(1000);
+
+    lookUp("rolling");
+    now.addAndGet(999);
+    lookUp("rolling");
+    now.addAndGet(1);
+    lookUp("rolling");
+
+    assertThat(loadedIds, contains("rolling", "rolling"));
+  }
+
+  @Test
+  public void policyThatIsNotFoundIsNotCached() throws Exception {
+    final LoanPolicy notFound = cache.<LoanPolicy>get("tenant", LOAN_POLICIES,
+      "missing", id -> recordLoad(id, completedFuture(succeeded(null))))
+      .get().value();
+
+    assertThat(notFound, is(nullValue()));
+
+    lookUp("missing");
+
+    assertThat(loadedIds, contains("missing", "missing"));
+  }
+
+  @Test
+  public void preloadedPoliciesAreNotLoadedIndividually() throws Exception {
+    final Map<String, LoanPolicy> allPolicies = new HashMap<>();
+    allPolicies.put("rolling", loanPolicy("rolling"));
+    allPolicies.put("fixed", loanPolicy("fixed"));
+
+    cache.setPreloadEnabled(true);
+
+    cache.preload("tenant", LOAN_POLICIES, () -> completedFuture(succeeded(allPolicies))).get();
+    // already preloaded
+    cache.preload("tenant", LOAN_POLICIES, () -> {
+      throw new AssertionError("policies should only be preloaded once");
+    }).get();
+
+    assertThat(lookUp("fixed"), sameInstance(allPolicies.get("fixed")));
+    assertThat(loadedIds.isEmpty(), is(true));
+  }
+
+  @Test
+  public void policiesAreNotPreloadedUnlessEnabled() throws Exception {
+    cache.preload("tenant", LOST_ITEM_POLICIES, () -> {
+      throw new AssertionError("policies should not be preloaded");
+    }).get();
+  }
+
+  @Test
+  public void policiesThatAreNotCachedAreLoadedInOneBatch() throws Exception {
+    final List<Collection<String>> batches = new ArrayList<>();
+
+    lookUp("rolling");
+
+    final Map<String, LoanPolicy> policies = lookUpAll(batches,
+      "rolling", "fixed", "missing", "fixed");
+
+    assertThat(policies.keySet(), containsInAnyOrder("rolling", "fixed"));
+    assertThat(batches.size(), is(1));
+    assertThat(batches.get(0), containsInAnyOrder("fixed", "missing"));
+
+    // the policy that was not found is looked up again
+    lookUpAll(batches, "rolling", "fixed", "missing");
+
+    assertThat(batches.size(), is(2));
+    assertThat(batches.get(1), contains("missing"));
+  }
+
+  @Test
+  public void policiesAreLoadedInOneBatchWhenNotCaching() throws Exception {
+    final List<Collection<String>> batches = new ArrayList<>();
+
+    cache.setTimeToLive(0);
+
+    lookUpAll(batches, "rolling", "fixed");
+    lookUpAll(batches, "rolling", "fixed");
+
+    assertThat(batches.size(), is(2));
+    assertThat(batches.get(1), containsInAnyOrder("rolling", "fixed"));
+  }
+
+  private Map<String, LoanPolicy> lookUpAll(List<Collection<String>> batches,
+    String... ids) throws Exception {
+
+    return cache.<LoanPolicy>getAll("tenant", LOAN_POLICIES, asList(ids),
+      batch -> {
+        batches.add(new ArrayList<>(batch));
+
+        return completedFuture(succeeded(batch.stream()
+          .filter(id -> !id.equals("missing"))
+          .collect(Collectors.toMap(identity(), PolicyCacheTest::loanPolicy))));
+      })
+      .get().value();
+  }
+
+  private LoanPolicy lookUp(String id) throws Exception {
+    return cache.<LoanPolicy>get("tenant", LOAN_POLICIES, id,
+      policyId -> recordLoad(policyId, completedFuture(succeeded(loanPolicy(policyId)))))
+      .get().value();
+  }
+
+  private <T> CompletableFuture<Result<T>> recordLoad(String id,
+    CompletableFuture<Result<T>> load) {
+
+    loadedIds.add(id);
+    return load;
+  }
+
+  private static LoanPolicy loanPolicy(String id) {
+    return LoanPolicy.from(new JsonObject().put("id", id).put("name", id));
+  }
+}
@@ -0,0 +1,291 @@
+package org.folio.circulation.rules;
+
+import static java.util.Collections.singletonList;
+import static java.util.concurrent.CompletableFuture.completedFuture;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.folio.circulation.support.Result.succeeded;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.hamcrest.Matchers.startsWith;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.folio.circulation.support.CollectionResourceClient;
+import org.folio.circulation.support.Result;
+import org.folio.circulation.support.http.client.Response;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import io.vertx.core.http.CaseInsensitiveHeaders;
+import io.vertx.core.json.JsonObject;
+
+public class CirculationRulesCacheTest {
+  private static final String RULES = "priority: last-line\n"
+    + "fallback-policy: l no-loan r no-hold n basic-notice o overdue i lost-item\n";
+
+  private final CirculationRulesCache cache = CirculationRulesCache.getInstance();
+  private final String tenantId = UUID.randomUUID().toString();
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @After
+  public void restoreCache() {
+    cache.setCacheTime(4000, 5000);
+    cache.useCompiledRulesStore(null);
+  }
+
+  @Test
+  public void concurrentRequestsDuringColdStartLoadTheRulesOnce() throws Exception {
+    final FakeRulesStorage storage = new FakeRulesStorage();
+    final ExecutorService executor = Executors.newFixedThreadPool(8);
+    final List<Future<CompletableFuture<Result<Drools>>>> requests = new ArrayList<>();
+
+    try {
+      for (int i = 0; i < 50; i++) {
+        requests.add(executor.submit(() -> cache.getDrools(tenantId, storage)));
+      }
+
+      final List<CompletableFuture<Result<Drools>>> results = new ArrayList<>();
+      for (Future<CompletableFuture<Result<Drools>>> request : requests) {
+        results.add(request.get());
+      }
+
+      assertThat(storage.requests.size(), is(1));
+
+      storage.respond(0, RULES);
+
+      final Drools drools = results.get(0).get().value();
+      for (CompletableFuture<Result<Drools>> result : results) {
+        assertThat(result.get().value(), sameInstance(drools));
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void requestAfterClearingDoesNotWaitForLoadInProgress() throws Exception {
+    final FakeRulesStorage storage = new FakeRulesStorage();
+
+    final CompletableFuture<Result<Drools>> beforeClearing = cache.getDrools(tenantId, storage);
+
+    cache.clearCache(tenantId);
+
+    final CompletableFuture<Result<Drools>> afterClearing = cache.getDrools(tenantId, storage);
+
+    assertThat(storage.requests.size(), is(2));
+
+    storage.respond(1, RULES);
+    storage.respond(0, RULES);
+
+    assertThat(afterClearing.get().succeeded(), is(true));
+    assertThat(beforeClearing.get().succeeded(), is(true));
+
+    // the rules loaded before clearing did not replace the current rules
+    assertThat(cache.getDrools(tenantId, storage).get().value(),
+      sameInstance(afterClearing.get().value()));
+    assertThat(storage.requests.size(), is(2));
+  }
+
+  @Test
+  public void ruleMatchesUseTheRulesLoadedWhenClearedDuringFirstLoad()
+    throws Exception {
+
+    final FakeRulesStorage storage = new FakeRulesStorage();
+
+    final CompletableFuture<Result<RuleMatchCache>> beforeClearing =
+      cache.getRuleMatchCache(tenantId, storage);
+
+    cache.clearCache(tenantId);
+
+    storage.respond(0, RULES);
+
+    final List<Drools> usedDrools = new ArrayList<>();
+
+    final Result<CirculationRuleMatch> match = beforeClearing.get(5, SECONDS)
+      .value()
+      .match(PolicyType.LOAN, new CaseInsensitiveHeaders(), drools -> {
+        usedDrools.add(drools);
+        return completedFuture(succeeded(new CirculationRuleMatch("no-loan",
+          new AppliedRuleConditions(false, false, false))));
+      })
+      .get(5, SECONDS);
+
+    assertThat(match.succeeded(), is(true));
+    assertThat(usedDrools.size(), is(1));
+    assertThat(usedDrools.get(0), notNullValue());
+  }
+
+  @Test
+  public void reloadingUnchangedRulesKeepsTheDrools() throws Exception {
+    final FakeRulesStorage storage = new FakeRulesStorage();
+
+    final CompletableFuture<Result<Drools>> first = cache.getDrools(tenantId, storage);
+    storage.respond(0, RULES);
+    final Drools drools = first.get().value();
+
+    cache.clearCache(tenantId);
+
+    final CompletableFuture<Result<Drools>> second = cache.getDrools(tenantId, storage);
+    storage.respond(1, RULES);
+
+    assertThat(second.get().value(), sameInstance(drools));
+
+    cache.clearCache(tenantId);
+
+    final CompletableFuture<Result<Drools>> third = cache.getDrools(tenantId, storage);
+    storage.respond(2, RULES.replace("no-loan", "other-loan"));
+
+    assertThat(third.get().value(), not(sameInstance(drools)));
+  }
+
+  @Test
+  public void ruleMatchesOfTheCurrentRulesAreReportedForEachTenant() throws Exception {
+    final FakeRulesStorage storage = new FakeRulesStorage();
+
+    final CompletableFuture<Result<RuleMatchCache>> loaded
+      = cache.getRuleMatchCache(tenantId, storage);
+    storage.respond(0, RULES);
+    final RuleMatchCache ruleMatches = loaded.get().value();
+
+    assertThat(cache.getRuleMatchCaches().get(tenantId), sameInstance(ruleMatches));
+  }
+
+  @Test
+  public void changedRulesAreCompiledOnTheCompilerThread() throws Exception {
+    final FakeRulesStorage storage = new FakeRulesStorage();
+    final RulesCompileMetrics metrics = cache.getCompileMetrics();
+    final long compilationsBefore = metrics.getCompilations();
+
+    final CompletableFuture<String> completingThread = cache.getDrools(tenantId, storage)
+      .thenApply(result -> Thread.currentThread().getName());
+
+    storage.respond(0, RULES);
+
+    assertThat(completingThread.get(), is("circulation-rules-compiler"));
+    assertThat(metrics.getCompilations(), is(compilationsBefore + 1));
+    assertThat(metrics.getMaximumMilliseconds() >= metrics.getLastMilliseconds(), is(true));
+    assertThat(metrics.toString(),
+      startsWith("compilations: " + (compilationsBefore + 1) + ", "));
+  }
+
+  @Test
+  public void reloadSendsEntityTagAndKeepsRulesWhenNotModified() throws Exception {
+    final FakeRulesStorage storage = new FakeRulesStorage();
+
+    final CompletableFuture<Result<Drools>> first = cache.getDrools(tenantId, storage);
+    storage.respond(0, RULES, "\"1\"");
+    final Drools drools = first.get().value();
+
+    cache.clearCache(tenantId);
+
+    final CompletableFuture<Result<Drools>> second = cache.getDrools(tenantId, storage);
+
+    assertThat(storage.entityTags.get(1), is("\"1\""));
+
+    storage.notModified(1);
+
+    assertThat(second.get().value(), sameInstance(drools));
+  }
+
+  @Test
+  public void prewarmedRulesAreUsedWithoutWaitingForStorage() throws Exception {
+    final FakeRulesStorage storage = new FakeRulesStorage();
+    final CompiledRulesStore store = new CompiledRulesStore(
+      temporaryFolder.getRoot().toPath());
+
+    store.save(tenantId, RULES, "\"1\"", new Drools(Text2Drools.convert(RULES)));
+
+    cache.useCompiledRulesStore(store);
+    cache.prewarm(singletonList(tenantId)).get();
+
+    final CompletableFuture<Result<Drools>> prewarmed = cache.getDrools(tenantId, storage);
+
+    assertThat(prewarmed.isDone(), is(true));
+    // the prewarmed rules are reloaded in the background
+    assertThat(storage.requests.size(), is(1));
+    assertThat(storage.entityTags.get(0), is("\"1\""));
+  }
+
+  @Test
+  public void storedCompiledRulesAreUsedInsteadOfCompiling() throws Exception {
+    final FakeRulesStorage storage = new FakeRulesStorage();
+    final CompiledRulesStore store = new CompiledRulesStore(
+      temporaryFolder.getRoot().toPath());
+    final RulesCompileMetrics metrics = cache.getCompileMetrics();
+
+    cache.useCompiledRulesStore(store);
+
+    final CompletableFuture<Result<Drools>> first = cache.getDrools(tenantId, storage);
+    storage.respond(0, RULES);
+    first.get();
+
+    assertThat(store.loadLatestRules(tenantId).getString("rulesAsText"), is(RULES));
+
+    final long compilations = metrics.getCompilations();
+    final long storeReads = metrics.getStoreReads();
+
+    // as if the module had been restarted
+    cache.dropCache();
+
+    final CompletableFuture<Result<Drools>> second = cache.getDrools(tenantId, storage);
+    storage.respond(1, RULES);
+
+    assertThat(second.get().succeeded(), is(true));
+    assertThat(metrics.getCompilations(), is(compilations));
+    assertThat(metrics.getStoreReads(), is(storeReads + 1));
+  }
+
+  private static class FakeRulesStorage extends CollectionResourceClient {
+    private final List<CompletableFuture<Result<Response>>> requests = new ArrayList<>();
+    private final List<String> entityTags = new ArrayList<>();
+
+    FakeRulesStorage() throws MalformedURLException {
+      super(null, new URL("http://localhost/circulation-rules-storage"));
+    }
+
+    @Override
+    public synchronized CompletableFuture<Result<Response>> getIfNoneMatch(
+      String entityTag) {
+
+      final CompletableFuture<Result<Response>> request = new CompletableFuture<>();
+      requests.add(request);
+      entityTags.add(entityTag);
+      return request;
+    }
+
+    void respond(int request, String rulesAsText) {
+      respond(request, rulesAsText, null);
+    }
+
+    void respond(int request, String rulesAsText, String entityTag) {
+      final CaseInsensitiveHeaders headers = new CaseInsensitiveHeaders();
+
+      if (entityTag != null) {
+        headers.add("ETag", entityTag);
+      }
+
+      requests.get(request).complete(succeeded(new Response(200,
+        new JsonObject().put("rulesAsText", rulesAsText).encode(),
+        "application/json", headers, null)));
+    }
+
+    void notModified(int request) {
+      requests.get(request).complete(succeeded(new Response(304, "", null)));
+    }
+  }
+}
@@ -0,0 +1,116 @@
+package org.folio.circulation.rules;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import org.folio.circulation.domain.Location;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import api.support.builders.LocationBuilder;
+import io.vertx.core.MultiMap;
+import io.vertx.core.http.CaseInsensitiveHeaders;
+import io.vertx.core.json.JsonObject;
+
+public class CompiledRulesStoreTest {
+  private static final String RULES = "priority: last-line\n"
+    + "fallback-policy: l no-loan r no-hold n basic-notice o overdue i lost-item\n"
+    + "m book: l regular-loan r hold n basic-notice o overdue i lost-item\n";
+
+  private static final String CHANGED_RULES = RULES.replace("regular-loan", "short-loan");
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @Test
+  public void compiledRulesAreReadBack() throws IOException {
+    final CompiledRulesStore store = new CompiledRulesStore(temporaryFolder.getRoot().toPath());
+
+    store.save("diku", RULES, "\"1\"", new Drools(Text2Drools.convert(RULES)));
+
+    final Drools drools = store.loadDrools("diku", RULES);
+
+    assertThat(drools, notNullValue());
+    assertThat(drools.loanPolicy(params("book"), location()).getPolicyId(), is("regular-loan"));
+    assertThat(drools.loanPolicy(params("dvd"), location()).getPolicyId(), is("no-loan"));
+
+    final JsonObject latest = store.loadLatestRules("diku");
+    assertThat(latest.getString("rulesAsText"), is(RULES));
+    assertThat(latest.getString("entityTag"), is("\"1\""));
+  }
+
+  @Test
+  public void compiledRulesOfOtherRulesAreNotRead() {
+    final CompiledRulesStore store = new CompiledRulesStore(temporaryFolder.getRoot().toPath());
+
+    store.save("diku", RULES, null, new Drools(Text2Drools.convert(RULES)));
+
+    assertThat(store.loadDrools("diku", CHANGED_RULES), nullValue());
+    assertThat(store.loadDrools("other", RULES), nullValue());
+    assertThat(store.loadLatestRules("other"), nullValue());
+  }
+
+  @Test
+  public void savingReplacesTheRulesSavedBefore() throws IOException {
+    final Path root = temporaryFolder.getRoot().toPath();
+    final CompiledRulesStore store = new CompiledRulesStore(root);
+
+    store.save("diku", RULES, null, new Drools(Text2Drools.convert(RULES)));
+    store.save("diku", CHANGED_RULES, null, new Drools(Text2Drools.convert(CHANGED_RULES)));
+
+    assertThat(store.loadDrools("diku", RULES), nullValue());
+    assertThat(store.loadDrools("diku", CHANGED_RULES), notNullValue());
+    assertThat(store.loadLatestRules("diku").getString("rulesAsText"), is(CHANGED_RULES));
+    // the compiled rules and the latest rules
+    try (Stream<Path> files = Files.list(root.resolve("diku"))) {
+      assertThat(files.count(), is(2L));
+    }
+  }
+
+  @Test
+  public void unreadableCompiledRulesAreIgnored() throws IOException {
+    final Path root = temporaryFolder.getRoot().toPath();
+    final CompiledRulesStore store = new CompiledRulesStore(root);
+
+    store.save("diku", RULES, null, new Drools(Text2Drools.convert(RULES)));
+
+    try (Stream<Path> files = Files.list(root.resolve("diku"))) {
+      files.filter(file -> file.toString().endsWith(".drools.gz"))
+        .forEach(file -> {
+          try {
+            Files.write(file, new byte[] { 1, 2, 3 });
+          } catch (IOException e) {
+            throw new IllegalStateException(e);
+          }
+        });
+    }
+
+    assertThat(store.loadDrools("diku", RULES), nullValue());
+  }
+
+  private static Location location() {
+    return Location.from(new LocationBuilder()
+      .forInstitution(UUID.randomUUID())
+      .forLibrary(UUID.randomUUID())
+      .forCampus(UUID.randomUUID())
+      .create());
+  }
+
+  private static MultiMap params(String itemTypeId) {
+    MultiMap params = new CaseInsensitiveHeaders();
+    params.add("item_type_id", itemTypeId);
+    params.add("loan_type_id", "regular");
+    params.add("patron_type_id", "staff");
+    params.add("location_id", "shelf");
+    return params;
+  }
+}
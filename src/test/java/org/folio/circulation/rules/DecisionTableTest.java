@@ -0,0 +1,222 @@
+package org.folio.circulation.rules;
+
+import static org.folio.circulation.resources.AbstractCirculationRulesEngineResource.ITEM_TYPE_ID_NAME;
+import static org.folio.circulation.resources.AbstractCirculationRulesEngineResource.LOAN_TYPE_ID_NAME;
+import static org.folio.circulation.resources.AbstractCirculationRulesEngineResource.LOCATION_ID_NAME;
+import static org.folio.circulation.resources.AbstractCirculationRulesEngineResource.PATRON_TYPE_ID_NAME;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.folio.circulation.domain.Location;
+import org.junit.Test;
+
+import io.vertx.core.MultiMap;
+import io.vertx.core.http.CaseInsensitiveHeaders;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Compares applying randomly generated circulation rules using a
+ * DecisionTable with applying them using Drools.
+ */
+public class DecisionTableTest {
+  private static final int RULES_FILES = 25;
+  private static final int LOOKUPS_PER_FILE = 200;
+  private static final String LETTERS = "tabcsmg";
+  /** ids used in the rules per criterium, the last one is never used */
+  private static final int IDS_PER_CRITERIUM = 4;
+
+  private static final String [] PRIORITIES = {
+    "priority: t, s, c, b, a, m, g",
+    "priority: g m a b c s t",
+    "priority: last-line",
+    "priority: first-line",
+    "priority: criterium(t, s, c, b, a, m, g), number-of-criteria, last-line",
+    "priority: criterium(m, g, t, s, c, b, a), number-of-criteria, first-line",
+    "priority: number-of-criteria, criterium(t, s, c, b, a, m, g), last-line",
+    "priority: number-of-criteria, first-line",
+    "priority: criterium(g, t, m, s, c, b, a), last-line",
+  };
+
+  @Test
+  public void fallbackPolicy() {
+    DecisionTable decisionTable = DecisionTable.fromRules(
+      "priority: last-line\nfallback-policy: l no-loan r no-hold n basic-notice o overdue i lost-item\n");
+
+    CirculationRuleMatch match = decisionTable.loanPolicy(
+      params("foo", "bar", "biz", "shelf"), location("a", "b", "c"));
+
+    assertThat(match.getPolicyId(), is("no-loan"));
+    assertThat(match.getAppliedRuleConditions().isItemTypePresent(), is(false));
+    assertThat(match.getAppliedRuleConditions().isLoanTypePresent(), is(false));
+    assertThat(match.getAppliedRuleConditions().isPatronGroupPresent(), is(false));
+  }
+
+  @Test
+  public void nestedRulesAndNegation() {
+    DecisionTable decisionTable = DecisionTable.fromRules(String.join("\n",
+      "priority: t, s, c, b, a, m, g",
+      "fallback-policy: l no-loan r no-hold n basic-notice o overdue i lost-item",
+      "m book dvd: l policy-a r request-1 n notice-1 o overdue-1 i lost-item-1",
+      "    g !visitor: l policy-b r request-2 n notice-2 o overdue-2 i lost-item-2",
+      "t all + m book: l policy-c r request-3 n notice-3 o overdue-3 i lost-item-3"));
+
+    final Location location = location("a", "b", "c");
+
+    assertThat(decisionTable.loanPolicy(params("book", "regular", "visitor", "shelf"), location)
+      .getPolicyId(), is("policy-c"));
+    assertThat(decisionTable.loanPolicy(params("dvd", "regular", "visitor", "shelf"), location)
+      .getPolicyId(), is("policy-a"));
+    assertThat(decisionTable.loanPolicy(params("dvd", "regular", "staff", "shelf"), location)
+      .getPolicyId(), is("policy-b"));
+    assertThat(decisionTable.policies(params("dvd", "regular", "staff", "shelf"), location)
+      .getPolicyId(PolicyType.LOST_ITEM), is("lost-item-2"));
+    assertThat(decisionTable.loanPolicy(params("map", "regular", "staff", "shelf"), location)
+      .getPolicyId(), is("no-loan"));
+  }
+
+  @Test
+  public void sameResultsAsDroolsForRandomRules() {
+    final Random random = new Random(42);
+
+    for (int file = 0; file < RULES_FILES; file++) {
+      final String rulesAsText = randomRules(random);
+      final Drools drools = new Drools(Text2Drools.convert(rulesAsText));
+      final DecisionTable decisionTable = DecisionTable.fromRules(rulesAsText);
+
+      for (int lookup = 0; lookup < LOOKUPS_PER_FILE; lookup++) {
+        final MultiMap params = params(randomId(random, 'm'), randomId(random, 't'),
+          randomId(random, 'g'), randomId(random, 's'));
+        final Location location = location(randomId(random, 'a'),
+          randomId(random, 'c'), randomId(random, 'b'));
+
+        final String reason = rulesAsText + "\n" + params.entries() + " "
+          + location.getInstitutionId() + " " + location.getLibraryId() + " "
+          + location.getCampusId();
+
+        assertSameLoanPolicy(reason, drools.loanPolicy(params, location),
+          decisionTable.loanPolicy(params, location));
+
+        assertThat(reason, decisionTable.loanPolicies(params, location),
+          is(drools.loanPolicies(params, location)));
+
+        final PolicyMatches expected = drools.policies(params, location);
+        final PolicyMatches actual = decisionTable.policies(params, location);
+
+        for (PolicyType policyType : PolicyType.values()) {
+          assertThat(reason, actual.getPolicyId(policyType),
+            is(expected.getPolicyId(policyType)));
+        }
+      }
+    }
+  }
+
+  private static void assertSameLoanPolicy(String reason,
+    CirculationRuleMatch expected, CirculationRuleMatch actual) {
+
+    assertThat(reason, actual.getPolicyId(), is(expected.getPolicyId()));
+    assertThat(reason, actual.getAppliedRuleConditions().isItemTypePresent(),
+      is(expected.getAppliedRuleConditions().isItemTypePresent()));
+    assertThat(reason, actual.getAppliedRuleConditions().isLoanTypePresent(),
+      is(expected.getAppliedRuleConditions().isLoanTypePresent()));
+    assertThat(reason, actual.getAppliedRuleConditions().isPatronGroupPresent(),
+      is(expected.getAppliedRuleConditions().isPatronGroupPresent()));
+  }
+
+  private static String randomRules(Random random) {
+    final String priority = PRIORITIES[random.nextInt(PRIORITIES.length)];
+    final List<String> lines = new ArrayList<>();
+    final int[] policy = { 0 };
+
+    final int topLevelRules = 1 + random.nextInt(12);
+
+    for (int i = 0; i < topLevelRules; i++) {
+      addRandomRule(random, lines, 0, policy);
+    }
+
+    final String fallback = "fallback-policy: " + policies(policy[0]++);
+
+    // with first-line priority only the fallback policy must be after the last rule,
+    // otherwise it must be before the first rule
+    if (priority.equals("priority: first-line")) {
+      return priority + "\n" + String.join("\n", lines) + "\n" + fallback + "\n";
+    }
+    return priority + "\n" + fallback + "\n" + String.join("\n", lines) + "\n";
+  }
+
+  private static void addRandomRule(Random random, List<String> lines,
+    int indentation, int[] policy) {
+
+    final List<String> criteria = new ArrayList<>();
+    final int count = 1 + random.nextInt(3);
+
+    for (int i = 0; i < count; i++) {
+      criteria.add(randomCriterium(random));
+    }
+
+    lines.add(String.join("", Collections.nCopies(indentation, " "))
+      + String.join(" + ", criteria) + ": " + policies(policy[0]++));
+
+    if (indentation < 8 && random.nextInt(4) == 0) {
+      final int children = 1 + random.nextInt(3);
+
+      for (int i = 0; i < children; i++) {
+        addRandomRule(random, lines, indentation + 4, policy);
+      }
+    }
+  }
+
+  private static String randomCriterium(Random random) {
+    final char letter = LETTERS.charAt(random.nextInt(LETTERS.length()));
+
+    switch (random.nextInt(5)) {
+    case 0:
+      return letter + " all";
+    case 1:
+      return letter + " !" + usedId(random, letter);
+    case 2:
+      return letter + " !" + usedId(random, letter) + " !" + usedId(random, letter);
+    case 3:
+      return letter + " " + usedId(random, letter) + " " + usedId(random, letter);
+    default:
+      return letter + " " + usedId(random, letter);
+    }
+  }
+
+  private static String policies(int number) {
+    return "l loan-" + number + " r request-" + number + " n notice-" + number
+      + " o overdue-" + number + " i lost-item-" + number;
+  }
+
+  private static String usedId(Random random, char letter) {
+    return letter + "-" + random.nextInt(IDS_PER_CRITERIUM - 1);
+  }
+
+  private static String randomId(Random random, char letter) {
+    return letter + "-" + random.nextInt(IDS_PER_CRITERIUM);
+  }
+
+  private static MultiMap params(String itemTypeId, String loanTypeId,
+    String patronGroupId, String locationId) {
+
+    MultiMap params = new CaseInsensitiveHeaders();
+    params.add(ITEM_TYPE_ID_NAME, itemTypeId);
+    params.add(LOAN_TYPE_ID_NAME, loanTypeId);
+    params.add(PATRON_TYPE_ID_NAME, patronGroupId);
+    params.add(LOCATION_ID_NAME, locationId);
+    return params;
+  }
+
+  private static Location location(String institutionId, String libraryId,
+    String campusId) {
+
+    return Location.from(new JsonObject()
+      .put("institutionId", institutionId)
+      .put("libraryId", libraryId)
+      .put("campusId", campusId));
+  }
+}
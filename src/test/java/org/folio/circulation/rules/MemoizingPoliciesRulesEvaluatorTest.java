@@ -0,0 +1,108 @@
+package org.folio.circulation.rules;
+
+import static java.util.Arrays.asList;
+import static java.util.concurrent.CompletableFuture.completedFuture;
+import static java.util.stream.Collectors.toList;
+import static org.folio.circulation.support.Result.failed;
+import static org.folio.circulation.support.Result.succeeded;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import org.folio.circulation.support.Result;
+import org.folio.circulation.support.ServerErrorFailure;
+import org.junit.Test;
+
+public class MemoizingPoliciesRulesEvaluatorTest {
+  private final RulesExecutionParameters book = criteria("book");
+  private final RulesExecutionParameters dvd = criteria("dvd");
+  private final RulesExecutionParameters map = criteria("map");
+
+  @Test
+  public void criteriaAreAppliedOnceInASingleBatch() throws Exception {
+    final RecordingEvaluator evaluator = new RecordingEvaluator();
+    final MemoizingPoliciesRulesEvaluator memoizing
+      = new MemoizingPoliciesRulesEvaluator(evaluator);
+
+    memoizing.applyRulesForAllPolicies(book).get();
+
+    final List<CirculationRuleMatch> matches = memoizing.forPolicyType(PolicyType.LOAN)
+      .applyRules(asList(dvd, book, dvd, map)).get().value();
+
+    assertThat(matches.stream().map(CirculationRuleMatch::getPolicyId).collect(toList()),
+      contains("dvd-loan", "book-loan", "dvd-loan", "map-loan"));
+
+    assertThat(evaluator.singleRequests, contains(book));
+    assertThat(evaluator.batchRequests.size(), is(1));
+    assertThat(evaluator.batchRequests.get(0), contains(dvd, map));
+  }
+
+  @Test
+  public void criteriaOfAFailedBatchAreAppliedAgain() throws Exception {
+    final RecordingEvaluator evaluator = new RecordingEvaluator();
+    final MemoizingPoliciesRulesEvaluator memoizing
+      = new MemoizingPoliciesRulesEvaluator(evaluator);
+
+    evaluator.failBatches = true;
+
+    assertThat(memoizing.applyRulesForAllPolicies(asList(book, dvd)).get()
+      .failed(), is(true));
+
+    final CirculationRuleMatch match = memoizing.forPolicyType(PolicyType.LOAN)
+      .applyRules(dvd).get().value();
+
+    assertThat(match.getPolicyId(), is("dvd-loan"));
+    assertThat(evaluator.singleRequests, contains(dvd));
+  }
+
+  private static RulesExecutionParameters criteria(String materialTypeId) {
+    return new RulesExecutionParameters(materialTypeId, "can-circulate",
+      "staff", "main-floor", null);
+  }
+
+  private static class RecordingEvaluator implements PoliciesRulesEvaluator {
+    private final List<RulesExecutionParameters> singleRequests = new ArrayList<>();
+    private final List<List<RulesExecutionParameters>> batchRequests = new ArrayList<>();
+    private boolean failBatches;
+
+    @Override
+    public CompletableFuture<Result<PolicyMatches>> applyRulesForAllPolicies(
+      RulesExecutionParameters parameters) {
+
+      singleRequests.add(parameters);
+      return completedFuture(succeeded(matchesFor(parameters)));
+    }
+
+    @Override
+    public CompletableFuture<Result<List<PolicyMatches>>> applyRulesForAllPolicies(
+      List<RulesExecutionParameters> parameters) {
+
+      batchRequests.add(parameters);
+
+      if (failBatches) {
+        return completedFuture(failed(new ServerErrorFailure("Can`t find location")));
+      }
+
+      return completedFuture(succeeded(parameters.stream()
+        .map(RecordingEvaluator::matchesFor)
+        .collect(toList())));
+    }
+
+    private static PolicyMatches matchesFor(RulesExecutionParameters parameters) {
+      final Map<PolicyType, String> policyIds = new EnumMap<>(PolicyType.class);
+
+      for (PolicyType policyType : PolicyType.values()) {
+        policyIds.put(policyType, parameters.getMaterialTypeId() + "-"
+          + policyType.name().toLowerCase());
+      }
+
+      return new PolicyMatches(policyIds, new AppliedRuleConditions(true, false, false));
+    }
+  }
+}
@@ -0,0 +1,107 @@
+package org.folio.circulation.rules;
+
+import static java.util.concurrent.CompletableFuture.completedFuture;
+import static org.folio.circulation.resources.AbstractCirculationRulesEngineResource.ITEM_TYPE_ID_NAME;
+import static org.folio.circulation.resources.AbstractCirculationRulesEngineResource.LOAN_TYPE_ID_NAME;
+import static org.folio.circulation.resources.AbstractCirculationRulesEngineResource.LOCATION_ID_NAME;
+import static org.folio.circulation.resources.AbstractCirculationRulesEngineResource.PATRON_TYPE_ID_NAME;
+import static org.folio.circulation.support.Result.succeeded;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.folio.circulation.support.Result;
+import org.junit.Test;
+
+import io.vertx.core.MultiMap;
+import io.vertx.core.http.CaseInsensitiveHeaders;
+
+public class RuleMatchCacheTest {
+  private final AtomicInteger applied = new AtomicInteger();
+
+  private final Function<Drools, CompletableFuture<Result<CirculationRuleMatch>>> apply =
+    drools -> completedFuture(succeeded(new CirculationRuleMatch(
+      "policy-" + applied.incrementAndGet(), new AppliedRuleConditions(false, false, false))));
+
+  @Test
+  public void repeatedMatchIsServedFromCache() throws Exception {
+    final RuleMatchCache cache = new RuleMatchCache(null, 10);
+
+    final String first = policyId(cache, PolicyType.LOAN, params("book"));
+    final String second = policyId(cache, PolicyType.LOAN, params("book"));
+
+    assertThat(second, is(first));
+    assertThat(applied.get(), is(1));
+    assertThat(cache.getHits(), is(1L));
+    assertThat(cache.getMisses(), is(1L));
+  }
+
+  @Test
+  public void policyTypeIsPartOfTheKey() throws Exception {
+    final RuleMatchCache cache = new RuleMatchCache(null, 10);
+
+    policyId(cache, PolicyType.LOAN, params("book"));
+    policyId(cache, PolicyType.REQUEST, params("book"));
+
+    assertThat(applied.get(), is(2));
+    assertThat(cache.getMisses(), is(2L));
+  }
+
+  @Test
+  public void leastRecentlyUsedMatchIsDroppedWhenFull() throws Exception {
+    final RuleMatchCache cache = new RuleMatchCache(null, 2);
+
+    policyId(cache, PolicyType.LOAN, params("book"));
+    policyId(cache, PolicyType.LOAN, params("dvd"));
+    policyId(cache, PolicyType.LOAN, params("book"));
+    policyId(cache, PolicyType.LOAN, params("map"));
+
+    assertThat(cache.size(), is(2));
+
+    policyId(cache, PolicyType.LOAN, params("book"));
+    assertThat(cache.getHits(), is(2L));
+
+    policyId(cache, PolicyType.LOAN, params("dvd"));
+    assertThat(cache.getMisses(), is(4L));
+  }
+
+  @Test
+  public void matchesAreCalculatedWithTheDroolsOfTheCache() throws Exception {
+    final Drools drools = new Drools(Text2Drools.convert(
+      "priority: last-line\n"
+        + "fallback-policy: l no-loan r no-hold n basic-notice o overdue i lost-item\n"));
+
+    final RuleMatchCache cache = new RuleMatchCache(drools, 10);
+    final List<Drools> usedDrools = new ArrayList<>();
+
+    cache.match(PolicyType.LOAN, params("book"), used -> {
+      usedDrools.add(used);
+      return apply.apply(used);
+    }).get();
+
+    assertThat(usedDrools, contains(sameInstance(drools)));
+  }
+
+  private String policyId(RuleMatchCache cache, PolicyType policyType,
+    MultiMap params) throws InterruptedException, ExecutionException {
+
+    return cache.match(policyType, params, apply).get().value().getPolicyId();
+  }
+
+  private static MultiMap params(String itemTypeId) {
+    MultiMap params = new CaseInsensitiveHeaders();
+    params.add(ITEM_TYPE_ID_NAME, itemTypeId);
+    params.add(LOAN_TYPE_ID_NAME, "regular");
+    params.add(PATRON_TYPE_ID_NAME, "staff");
+    params.add(LOCATION_ID_NAME, "shelf");
+    return params;
+  }
+}
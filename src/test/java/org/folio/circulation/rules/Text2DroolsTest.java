@@ -152,6 +152,34 @@ public class Text2DroolsTest {
     }
   }
 
+  @Test
+  public void testAllPoliciesAtOnce() {
+    Drools drools = new Drools(Text2Drools.convert(test1));
+    for (String [] s : loanTestCases) {
+      MultiMap params = params(s[0], s[1], s[2], s[3]);
+      Location location = createLocation(s[3], SECOND_LIBRARY_ID, SECOND_CAMPUS_ID);
+      PolicyMatches policies = drools.policies(params, location);
+      CirculationRuleMatch loanPolicy = drools.loanPolicy(params, location);
+
+      assertThat(first4(s), policies.getPolicyId(PolicyType.LOAN), is(loanPolicy.getPolicyId()));
+      AppliedRuleConditions conditions = policies.getMatch(PolicyType.LOAN).getAppliedRuleConditions();
+      assertThat(first4(s), conditions.isItemTypePresent(),
+        is(loanPolicy.getAppliedRuleConditions().isItemTypePresent()));
+      assertThat(first4(s), conditions.isLoanTypePresent(),
+        is(loanPolicy.getAppliedRuleConditions().isLoanTypePresent()));
+      assertThat(first4(s), conditions.isPatronGroupPresent(),
+        is(loanPolicy.getAppliedRuleConditions().isPatronGroupPresent()));
+      assertThat(first4(s), policies.getPolicyId(PolicyType.REQUEST),
+        is(drools.requestPolicy(params, location).getPolicyId()));
+      assertThat(first4(s), policies.getPolicyId(PolicyType.NOTICE),
+        is(drools.noticePolicy(params, location).getPolicyId()));
+      assertThat(first4(s), policies.getPolicyId(PolicyType.OVERDUE_FINE),
+        is(drools.overduePolicy(params, location).getPolicyId()));
+      assertThat(first4(s), policies.getPolicyId(PolicyType.LOST_ITEM),
+        is(drools.lostItemPolicy(params, location).getPolicyId()));
+    }
+  }
+
   @Test
   public void testOverdueFinePolicyList() {
     testOverdueFinePolicies(test1, overdueTestCases);
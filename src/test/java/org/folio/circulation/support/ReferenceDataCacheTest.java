@@ -0,0 +1,280 @@
+package org.folio.circulation.support;
+
+import static java.util.Arrays.asList;
+import static java.util.concurrent.CompletableFuture.completedFuture;
+import static org.folio.circulation.support.ReferenceDataCache.RecordType.LOCATIONS;
+import static org.folio.circulation.support.ReferenceDataCache.RecordType.SERVICE_POINTS;
+import static org.folio.circulation.support.Result.succeeded;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import org.folio.circulation.support.http.client.Response;
+import org.junit.Test;
+
+import io.vertx.core.http.CaseInsensitiveHeaders;
+import io.vertx.core.json.JsonObject;
+
+public class ReferenceDataCacheTest {
+  private static final long TIME_TO_LIVE = 1000;
+
+  private final AtomicLong now = new AtomicLong(1_000_000);
+  private final ReferenceDataCache cache = new ReferenceDataCache(now::get);
+  private final FakeStorage storage = new FakeStorage();
+
+  public ReferenceDataCacheTest() {
+    cache.setTimeToLive(LOCATIONS, TIME_TO_LIVE);
+  }
+
+  @Test
+  public void concurrentRequestsForUncachedRecordShareASingleLoad() throws Exception {
+    final CompletableFuture<Result<JsonObject>> first
+      = cache.get("tenant", LOCATIONS, "main", storage::loadLater);
+    final CompletableFuture<Result<JsonObject>> second
+      = cache.get("tenant", LOCATIONS, "main", storage::loadLater);
+
+    assertThat(storage.pending.size(), is(1));
+
+    storage.completePending();
+
+    assertThat(first.get().value().getString("id"), is("main"));
+    assertThat(second.get().value(), not(sameInstance(first.get().value())));
+    assertThat(cache.getMetrics(LOCATIONS).getLoads(), is(1L));
+  }
+
+  @Test
+  public void recordIsLoadedOnceWithinTimeToLive() throws Exception {
+    get("main");
+    now.addAndGet(TIME_TO_LIVE / 2);
+    get("main");
+
+    assertThat(storage.loadedIds, contains("main"));
+    assertThat(cache.getMetrics(LOCATIONS).getHitRatio(), is(0.5));
+    assertThat(cache.getMetrics(LOCATIONS).toString(),
+      is("hits: 1, misses: 1, hit ratio: 50%, loads: 1, not modified: 0"));
+  }
+
+  @Test
+  public void ageingRecordIsReturnedAndReloadedInTheBackground() throws Exception {
+    get("main");
+    now.addAndGet(TIME_TO_LIVE * 3 / 4);
+
+    final CompletableFuture<Result<JsonObject>> ageing
+      = cache.get("tenant", LOCATIONS, "main", storage::loadLater);
+
+    assertThat(ageing.isDone(), is(true));
+    assertThat(storage.pending.size(), is(1));
+
+    // only a single reload is started for an ageing record
+    cache.get("tenant", LOCATIONS, "main", storage::loadLater);
+    assertThat(storage.pending.size(), is(1));
+
+    storage.completePending();
+    now.addAndGet(TIME_TO_LIVE / 2);
+
+    get("main");
+
+    assertThat(storage.loadedIds, contains("main", "main"));
+  }
+
+  @Test
+  public void expiredRecordIsLoadedAgain() throws Exception {
+    get("main");
+    now.addAndGet(TIME_TO_LIVE);
+    get("main");
+
+    assertThat(storage.loadedIds, contains("main", "main"));
+  }
+
+  @Test
+  public void recordThatIsNotFoundIsNotCached() throws Exception {
+    assertThat(cache.get("tenant", LOCATIONS, "missing",
+      id -> completedFuture(succeeded(null))).get().value(), is(nullValue()));
+
+    get("missing");
+
+    assertThat(storage.loadedIds, contains("missing"));
+  }
+
+  @Test
+  public void tenantsDoNotShareRecords() throws Exception {
+    get("main");
+    cache.get("other-tenant", LOCATIONS, "main", storage::load).get();
+
+    assertThat(storage.loadedIds, contains("main", "main"));
+  }
+
+  @Test
+  public void onlyRecordsThatAreNotCachedAreLoadedInABatch() throws Exception {
+    get("main");
+
+    final Map<String, JsonObject> records = cache.getAll("tenant", LOCATIONS,
+      asList("main", "annex", "annex", "reading-room"), storage::loadAll)
+      .get().value();
+
+    assertThat(records.keySet(), containsInAnyOrder("main", "annex", "reading-room"));
+    assertThat(storage.batches, contains(asList("annex", "reading-room")));
+
+    cache.getAll("tenant", LOCATIONS, asList("annex", "reading-room"),
+      storage::loadAll).get();
+
+    assertThat(storage.batches.size(), is(1));
+  }
+
+  @Test
+  public void typeWithoutTimeToLiveIsNotCached() throws Exception {
+    cache.setTimeToLive(SERVICE_POINTS, 0);
+
+    cache.get("tenant", SERVICE_POINTS, "circ-desk", storage::load).get();
+    cache.get("tenant", SERVICE_POINTS, "circ-desk", storage::load).get();
+
+    assertThat(storage.loadedIds, contains("circ-desk", "circ-desk"));
+    assertThat(cache.getMetrics(SERVICE_POINTS).getHits(), is(0L));
+  }
+
+  @Test
+  public void expiredRecordWithEntityTagIsRevalidated() throws Exception {
+    final ConditionalStorage conditionalStorage = new ConditionalStorage();
+
+    conditionalStorage.respond(200, "\"1\"");
+    getConditionally("main", conditionalStorage);
+
+    now.addAndGet(TIME_TO_LIVE);
+    conditionalStorage.respond(304, "\"1\"");
+
+    assertThat(getConditionally("main", conditionalStorage).getString("name"),
+      is("main"));
+
+    now.addAndGet(TIME_TO_LIVE / 2);
+    getConditionally("main", conditionalStorage);
+
+    assertThat(conditionalStorage.entityTagsSent, contains(null, "\"1\""));
+    assertThat(cache.getMetrics(LOCATIONS).getNotModified(), is(1L));
+    assertThat(cache.getMetrics(LOCATIONS).getHits(), is(1L));
+  }
+
+  @Test
+  public void changedRecordReplacesCachedRecord() throws Exception {
+    final ConditionalStorage conditionalStorage = new ConditionalStorage();
+
+    conditionalStorage.respond(200, "\"1\"");
+    getConditionally("main", conditionalStorage);
+
+    now.addAndGet(TIME_TO_LIVE);
+    conditionalStorage.respond(200, "\"2\"");
+    conditionalStorage.name = "renamed";
+
+    assertThat(getConditionally("main", conditionalStorage).getString("name"),
+      is("renamed"));
+
+    now.addAndGet(TIME_TO_LIVE);
+    getConditionally("main", conditionalStorage);
+
+    assertThat(conditionalStorage.entityTagsSent,
+      contains(null, "\"1\"", "\"2\""));
+    assertThat(cache.getMetrics(LOCATIONS).getNotModified(), is(0L));
+  }
+
+  @Test
+  public void otherResponsesAreInterpretedByTheCaller() throws Exception {
+    final ConditionalStorage conditionalStorage = new ConditionalStorage();
+
+    conditionalStorage.respond(404, null);
+
+    assertThat(getConditionally("missing", conditionalStorage), is(nullValue()));
+
+    getConditionally("missing", conditionalStorage);
+
+    assertThat(conditionalStorage.entityTagsSent, contains(null, null));
+  }
+
+  private JsonObject getConditionally(String id, ConditionalStorage storage)
+    throws Exception {
+
+    return cache.get("tenant", LOCATIONS, id, storage::load,
+      response -> succeeded(null)).get().value();
+  }
+
+  private JsonObject get(String id) throws Exception {
+    return cache.get("tenant", LOCATIONS, id, storage::load).get().value();
+  }
+
+  private static class ConditionalStorage {
+    private final List<String> entityTagsSent = new ArrayList<>();
+    private int statusCode;
+    private String entityTag;
+    private String name = "main";
+
+    void respond(int statusCode, String entityTag) {
+      this.statusCode = statusCode;
+      this.entityTag = entityTag;
+    }
+
+    CompletableFuture<Result<Response>> load(String id, String cachedEntityTag,
+      String lastModified) {
+
+      entityTagsSent.add(cachedEntityTag);
+
+      final CaseInsensitiveHeaders headers = new CaseInsensitiveHeaders();
+
+      if (entityTag != null) {
+        headers.add("ETag", entityTag);
+      }
+
+      final String body = statusCode == 200
+        ? new JsonObject().put("id", id).put("name", name).encode()
+        : "";
+
+      return completedFuture(succeeded(new Response(statusCode, body,
+        "application/json", headers, "http://storage/locations/" + id)));
+    }
+  }
+
+  private static class FakeStorage {
+    private final List<String> loadedIds = new ArrayList<>();
+    private final List<List<String>> batches = new ArrayList<>();
+    private final List<CompletableFuture<Result<JsonObject>>> pending = new ArrayList<>();
+    private final List<String> pendingIds = new ArrayList<>();
+
+    CompletableFuture<Result<JsonObject>> load(String id) {
+      loadedIds.add(id);
+      return completedFuture(succeeded(new JsonObject().put("id", id)));
+    }
+
+    CompletableFuture<Result<JsonObject>> loadLater(String id) {
+      final CompletableFuture<Result<JsonObject>> load = new CompletableFuture<>();
+      pending.add(load);
+      pendingIds.add(id);
+      return load;
+    }
+
+    CompletableFuture<Result<Map<String, JsonObject>>> loadAll(Collection<String> ids) {
+      batches.add(new ArrayList<>(ids));
+
+      return completedFuture(succeeded(ids.stream()
+        .collect(Collectors.toMap(id -> id, id -> new JsonObject().put("id", id)))));
+    }
+
+    void completePending() {
+      for (int i = 0; i < pending.size(); i++) {
+        loadedIds.add(pendingIds.get(i));
+        pending.get(i).complete(succeeded(new JsonObject().put("id", pendingIds.get(i))));
+      }
+
+      pending.clear();
+      pendingIds.clear();
+    }
+  }
+}
@@ -0,0 +1,91 @@
+package org.folio.circulation.support.fetching;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+public class AdaptiveConcurrencyLimitTests {
+  private final AtomicLong now = new AtomicLong(1_000_000);
+
+  @Test
+  public void limitGrowsAfterQuickResponses() {
+    final AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(now::get, 10);
+
+    assertThat(limit.getLimit(), is(4));
+
+    // each quick response adds a fraction of one, as the limit grows so does
+    // the number of responses needed to add one
+    respond(limit, 20, true, 4);
+
+    assertThat(limit.getLimit(), is(4));
+
+    respond(limit, 20, true, 1);
+
+    assertThat(limit.getLimit(), is(5));
+  }
+
+  @Test
+  public void limitIsHalvedAfterSlowResponse() {
+    final AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(now::get, 10);
+
+    respond(limit, 20, true, 1);
+    respond(limit, 100, true, 1);
+
+    assertThat(limit.getLimit(), is(2));
+    assertThat(limit.getDecreases(), is(1L));
+  }
+
+  @Test
+  public void limitIsHalvedAfterFailure() {
+    final AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(now::get, 10);
+
+    respond(limit, 20, false, 1);
+
+    assertThat(limit.getLimit(), is(2));
+  }
+
+  @Test
+  public void limitStaysWithinBounds() {
+    final AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(now::get, 6);
+
+    respond(limit, 20, false, 10);
+
+    assertThat(limit.getLimit(), is(1));
+
+    respond(limit, 20, true, 1000);
+
+    assertThat(limit.getLimit(), is(6));
+  }
+
+  @Test
+  public void quickestLatencyIsForgottenSoLimitCanRecover() {
+    final AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(now::get, 10);
+
+    respond(limit, 20, true, 1);
+
+    // storage has become slower, every response is slow compared to before
+    respond(limit, 100, true, 99);
+
+    assertThat(limit.getLimit(), is(1));
+
+    respond(limit, 100, true, 10);
+
+    assertThat(limit.getMinimumLatency(), is(100L));
+    assertThat(limit.getLimit() > 1, is(true));
+  }
+
+  private void respond(AdaptiveConcurrencyLimit limit, long latency,
+    boolean succeeded, int times) {
+
+    for (int response = 0; response < times; response++) {
+      final long startedAt = limit.started();
+
+      now.addAndGet(latency);
+
+      limit.completed(startedAt, succeeded);
+    }
+  }
+}
@@ -15,6 +15,7 @@ import static org.mockito.Mockito.when;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
@@ -123,6 +124,69 @@ public class FindMultipleRecordsByIdTests {
     assertThat(generatedCqlQueries.getValue().value(), is(expectedQuery));
   }
 
+  @Test
+  public void shouldSplitValuesIntoQueriesNoLongerThanMaximumLength() {
+    when(queryFinder.findByQuery(any(), any())).thenReturn(
+      CompletableFuture.completedFuture(Result.succeeded(MultipleRecords.empty())));
+
+    final FindWithMultipleCqlIndexValues<JsonObject> fetcher
+      = new CqlIndexValuesFinder<>(queryFinder, Integer.MAX_VALUE, 500,
+        new AdaptiveConcurrencyLimit(() -> 0, 10));
+
+    final Collection<String> ids = generateIds(25);
+    final Result<CqlQuery> openStatusQuery = exactMatch("status", "Open");
+
+    fetcher.findByIdIndexAndQuery(ids, "itemId", openStatusQuery);
+
+    verify(queryFinder, times(3))
+      .findByQuery(generatedCqlQueries.capture(), eq(maximumLimit()));
+
+    generatedCqlQueries.getAllValues().forEach(query ->
+      assertThat(query.value().encodedLength() <= 500, is(true)));
+
+    final String allQueries = generatedCqlQueries.getAllValues().stream()
+      .map(query -> query.value().toString())
+      .collect(Collectors.joining());
+
+    ids.forEach(id -> assertThat(allQueries.contains(id), is(true)));
+  }
+
+  @Test
+  public void shouldOnlyQueryAsManyBatchesAtOnceAsConcurrencyLimit() {
+    final List<CompletableFuture<Result<MultipleRecords<JsonObject>>>> responses
+      = new ArrayList<>();
+
+    when(queryFinder.findByQuery(any(), any())).thenAnswer(invocation -> {
+      final CompletableFuture<Result<MultipleRecords<JsonObject>>> response
+        = new CompletableFuture<>();
+
+      responses.add(response);
+
+      return response;
+    });
+
+    final FindWithMultipleCqlIndexValues<JsonObject> fetcher
+      = new CqlIndexValuesFinder<>(queryFinder, 1, 3500,
+        new AdaptiveConcurrencyLimit(() -> 0, 2));
+
+    final CompletableFuture<Result<MultipleRecords<JsonObject>>> found
+      = fetcher.findByIds(generateIds(5));
+
+    assertThat(responses.size(), is(2));
+
+    responses.get(0).complete(Result.succeeded(MultipleRecords.empty()));
+
+    assertThat(responses.size(), is(3));
+
+    for (int response = 1; response < 5; response++) {
+      responses.get(response).complete(Result.succeeded(MultipleRecords.empty()));
+    }
+
+    assertThat(responses.size(), is(5));
+    assertThat(found.isDone(), is(true));
+    assertThat(found.join().succeeded(), is(true));
+  }
+
   @Test
   public void shouldAssumeNoRecordsAreFoundWhenSearchingForNoIds()
       throws InterruptedException, ExecutionException, TimeoutException {
@@ -0,0 +1,167 @@
+package org.folio.circulation.support.fetching;
+
+import static java.util.concurrent.CompletableFuture.completedFuture;
+import static org.folio.circulation.support.Result.succeeded;
+import static org.folio.circulation.support.http.client.CqlQuery.exactMatch;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.folio.circulation.domain.MultipleRecords;
+import org.folio.circulation.support.GetManyRecordsClient;
+import org.folio.circulation.support.Result;
+import org.folio.circulation.support.http.client.CqlQuery;
+import org.folio.circulation.support.http.client.Offset;
+import org.folio.circulation.support.http.client.PageLimit;
+import org.folio.circulation.support.http.client.Response;
+import org.junit.Test;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+public class KeysetPageIteratorTests {
+  private static final Pattern AFTER_ID = Pattern.compile("id>\"([^\"]*)\"");
+
+  private final List<String> ids = IntStream.rangeClosed(1, 25)
+    .mapToObj(id -> String.format("id-%02d", id))
+    .collect(Collectors.toList());
+
+  private final List<String> queries = new ArrayList<>();
+  private final List<CompletableFuture<Result<Response>>> pending = new ArrayList<>();
+  private final List<Response> responses = new ArrayList<>();
+  private boolean respondStraightAway = true;
+
+  @Test
+  public void pagesFollowOnFromTheLastIdOfThePreviousPage() {
+    final KeysetPageIterator<String> pages = new KeysetPageIterator<>(
+      storage(), "records", record -> record.getString("id"), 10);
+
+    final MultipleRecords<String> records = pages.getAll(
+      exactMatch("status", "Open")).join().value();
+
+    assertThat(records.getRecords(), contains(ids.toArray()));
+    assertThat(records.getTotalRecords(), is(25));
+
+    assertThat(queries, contains(
+      "status==\"Open\" sortBy id/sort.ascending",
+      "id>\"id-10\" and status==\"Open\" sortBy id/sort.ascending",
+      "id>\"id-20\" and status==\"Open\" sortBy id/sort.ascending"));
+  }
+
+  @Test
+  public void noMoreThanMaximumRecordsAreFetched() {
+    final KeysetPageIterator<String> pages = new KeysetPageIterator<>(
+      storage(), "records", record -> record.getString("id"), 10);
+
+    final MultipleRecords<String> records = pages.getAll(
+      exactMatch("status", "Open"), 15).join().value();
+
+    assertThat(records.getRecords(), hasSize(15));
+    assertThat(queries, hasSize(2));
+  }
+
+  @Test
+  public void nextPageIsFetchedWhilstCurrentPageIsProcessed() {
+    respondStraightAway = false;
+
+    final KeysetPageIterator<String> pages = new KeysetPageIterator<>(
+      storage(), "records", record -> record.getString("id"), 10);
+
+    final List<CompletableFuture<Result<Void>>> processing = new ArrayList<>();
+
+    final CompletableFuture<Result<Void>> processed = pages.forEachPage(
+      exactMatch("status", "Open"), page -> {
+        final CompletableFuture<Result<Void>> pageProcessed = new CompletableFuture<>();
+        processing.add(pageProcessed);
+        return pageProcessed;
+      });
+
+    respond(0);
+
+    // first page is being processed whilst the second page is fetched
+    assertThat(processing, hasSize(1));
+    assertThat(queries, hasSize(2));
+
+    respond(1);
+
+    // no more than one page is fetched ahead
+    assertThat(queries, hasSize(2));
+
+    processing.get(0).complete(succeeded(null));
+
+    assertThat(processing, hasSize(2));
+    assertThat(queries, hasSize(3));
+
+    respond(2);
+    processing.get(1).complete(succeeded(null));
+    processing.get(2).complete(succeeded(null));
+
+    assertThat(processed.join().succeeded(), is(true));
+    assertThat(queries, hasSize(3));
+  }
+
+  private GetManyRecordsClient storage() {
+    return new GetManyRecordsClient() {
+      @Override
+      public CompletableFuture<Result<Response>> getMany(CqlQuery cqlQuery,
+        PageLimit pageLimit) {
+
+        final Map<String, String> parameters = new HashMap<>();
+
+        cqlQuery.consume(parameters::put);
+        pageLimit.consume(parameters::put);
+
+        final String query = parameters.get("query");
+        final Matcher afterId = AFTER_ID.matcher(query);
+        final String after = afterId.find() ? afterId.group(1) : "";
+
+        final JsonArray page = new JsonArray();
+
+        ids.stream()
+          .filter(id -> id.compareTo(after) > 0)
+          .limit(Integer.parseInt(parameters.get("limit")))
+          .forEach(id -> page.add(new JsonObject().put("id", id)));
+
+        final Response response = new Response(200, new JsonObject()
+          .put("records", page)
+          .put("totalRecords", ids.size()).encode(), "application/json");
+
+        queries.add(query);
+
+        if (respondStraightAway) {
+          return completedFuture(succeeded(response));
+        }
+
+        final CompletableFuture<Result<Response>> pendingResponse
+          = new CompletableFuture<>();
+
+        pending.add(pendingResponse);
+        responses.add(response);
+
+        return pendingResponse;
+      }
+
+      @Override
+      public CompletableFuture<Result<Response>> getMany(CqlQuery cqlQuery,
+        PageLimit pageLimit, Offset offset) {
+
+        throw new UnsupportedOperationException("Pages are not fetched by offset");
+      }
+    };
+  }
+
+  private void respond(int request) {
+    pending.get(request).complete(succeeded(responses.get(request)));
+  }
+}
@@ -0,0 +1,90 @@
+package org.folio.circulation.support.fetching;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.util.function.Function;
+
+import org.folio.circulation.domain.MultipleRecords;
+import org.junit.Test;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.DecodeException;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+public class MultipleRecordsDecoderTests {
+  private static final Function<JsonObject, String> TO_ID = json -> json.getString("id");
+
+  @Test
+  public void recordsAreMappedAsTheyAreRead() {
+    final JsonObject collection = new JsonObject()
+      .put("resultInfo", new JsonObject().put("facets", new JsonArray().add("ignored")))
+      .put("totalRecords", 3)
+      .put("loans", new JsonArray()
+        .add(new JsonObject().put("id", "1")
+          .put("item", new JsonObject().put("barcode", "123456")))
+        .add(new JsonObject().put("id", "2"))
+        .add(new JsonObject().put("id", "3")));
+
+    final MultipleRecords<String> records = decode(collection.encodePrettily());
+
+    assertThat(records.getRecords(), contains("1", "2", "3"));
+    assertThat(records.getTotalRecords(), is(3));
+  }
+
+  @Test
+  public void nestedPropertiesAreDecoded() {
+    final JsonObject collection = new JsonObject()
+      .put("loans", new JsonArray().add(new JsonObject().put("id", "1")
+        .put("item", new JsonObject().put("barcode", "123456"))
+        .put("tags", new JsonArray().add("first"))));
+
+    final MultipleRecords<JsonObject> records = MultipleRecordsDecoder.decode(
+      Buffer.buffer(collection.encode()), "loans", Function.identity());
+
+    assertThat(records.getRecords(), contains(collection.getJsonArray("loans")
+      .getJsonObject(0)));
+  }
+
+  @Test
+  public void onlyObjectsAreRecords() {
+    final MultipleRecords<String> records = decode(
+      "{\"loans\": [null, {\"id\": \"1\"}, \"2\", [3]], \"totalRecords\": 4}");
+
+    assertThat(records.getRecords(), contains("1"));
+    assertThat(records.getTotalRecords(), is(4));
+  }
+
+  @Test
+  public void missingRecordsAreEmpty() {
+    final MultipleRecords<String> records = decode("{\"totalRecords\": 0}");
+
+    assertThat(records.getRecords().isEmpty(), is(true));
+    assertThat(records.getTotalRecords(), is(0));
+  }
+
+  @Test
+  public void emptyBodyHasNoRecords() {
+    final MultipleRecords<String> records = decode("");
+
+    assertThat(records.getRecords().isEmpty(), is(true));
+    assertThat(records.getTotalRecords(), is(nullValue()));
+  }
+
+  @Test(expected = DecodeException.class)
+  public void bodyMustBeAnObject() {
+    decode("[{\"id\": \"1\"}]");
+  }
+
+  @Test(expected = DecodeException.class)
+  public void bodyMustBeValidJson() {
+    decode("{\"loans\": [{\"id\": \"1\"");
+  }
+
+  private static MultipleRecords<String> decode(String body) {
+    return MultipleRecordsDecoder.decode(Buffer.buffer(body), "loans", TO_ID);
+  }
+}
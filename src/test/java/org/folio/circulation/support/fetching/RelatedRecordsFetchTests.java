@@ -0,0 +1,111 @@
+package org.folio.circulation.support.fetching;
+
+import static java.util.concurrent.CompletableFuture.completedFuture;
+import static org.folio.circulation.support.Result.failed;
+import static org.folio.circulation.support.Result.succeeded;
+import static org.folio.circulation.support.fetching.RelatedRecordsFetch.relatedRecordsOf;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.folio.circulation.support.Result;
+import org.folio.circulation.support.ServerErrorFailure;
+import org.folio.circulation.support.fetching.RelatedRecordsFetch.Fetch;
+import org.junit.Test;
+
+public class RelatedRecordsFetchTests {
+  private final List<String> started = new ArrayList<>();
+
+  @Test
+  public void independentRecordsAreFetchedAtTheSameTime() {
+    final CompletableFuture<Result<String>> holdings = new CompletableFuture<>();
+    final CompletableFuture<Result<String>> location = new CompletableFuture<>();
+
+    final RelatedRecordsFetch<String> relatedRecords
+      = relatedRecordsOf(completedFuture(succeeded("item")));
+
+    relatedRecords.fetch(item -> start("holdings", holdings), this::combine);
+    relatedRecords.fetch(item -> start("location", location), this::combine);
+
+    final CompletableFuture<Result<String>> combined = relatedRecords.combined();
+
+    assertThat(started, contains("holdings", "location"));
+    assertThat(combined.isDone(), is(false));
+
+    location.complete(succeeded("location"));
+    holdings.complete(succeeded("holdings"));
+
+    assertThat(combined.join().value(), is("item+holdings+location"));
+  }
+
+  @Test
+  public void dependentRecordIsFetchedOnceItsDependencyHasBeen() {
+    final CompletableFuture<Result<String>> holdings = new CompletableFuture<>();
+    final List<String> dependedUpon = new ArrayList<>();
+
+    final RelatedRecordsFetch<String> relatedRecords
+      = relatedRecordsOf(completedFuture(succeeded("item")));
+
+    final Fetch<String, String> holdingsFetch = relatedRecords.fetch(
+      item -> start("holdings", holdings), this::combine);
+
+    relatedRecords.fetchAfter(holdingsFetch, holdingsRecord -> {
+      dependedUpon.add(holdingsRecord);
+      return start("instance", completedFuture(succeeded("instance")));
+    }, this::combine);
+
+    assertThat(started, contains("holdings"));
+
+    holdings.complete(succeeded("holdings"));
+
+    assertThat(started, contains("holdings", "instance"));
+    assertThat(dependedUpon, contains("holdings"));
+    assertThat(relatedRecords.combined().join().value(),
+      is("item+holdings+instance"));
+  }
+
+  @Test
+  public void failedFetchIsTheResult() {
+    final RelatedRecordsFetch<String> relatedRecords
+      = relatedRecordsOf(completedFuture(succeeded("item")));
+
+    relatedRecords.fetch(item -> completedFuture(succeeded("holdings")),
+      this::combine);
+    relatedRecords.fetch(item -> completedFuture(
+      failed(new ServerErrorFailure("location failed"))), this::combine);
+
+    final Result<String> combined = relatedRecords.combined().join();
+
+    assertThat(combined.failed(), is(true));
+    assertThat(combined.cause(), instanceOf(ServerErrorFailure.class));
+  }
+
+  @Test
+  public void nothingIsFetchedWhenRecordCannotBeFetched() {
+    final RelatedRecordsFetch<String> relatedRecords = relatedRecordsOf(
+      completedFuture(failed(new ServerErrorFailure("item failed"))));
+
+    relatedRecords.fetch(item -> start("holdings",
+      completedFuture(succeeded("holdings"))), this::combine);
+
+    assertThat(relatedRecords.combined().join().failed(), is(true));
+    assertThat(started.isEmpty(), is(true));
+  }
+
+  private CompletableFuture<Result<String>> start(String name,
+    CompletableFuture<Result<String>> fetched) {
+
+    started.add(name);
+
+    return fetched;
+  }
+
+  private String combine(String record, String related) {
+    return record + "+" + related;
+  }
+}
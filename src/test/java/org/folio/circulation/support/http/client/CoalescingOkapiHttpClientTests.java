@@ -0,0 +1,109 @@
+package org.folio.circulation.support.http.client;
+
+import static org.folio.circulation.support.Result.succeeded;
+import static org.folio.circulation.support.http.client.NamedQueryParameter.namedParameter;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+
+import org.folio.circulation.support.Result;
+import org.junit.Test;
+
+import io.vertx.core.json.JsonObject;
+
+public class CoalescingOkapiHttpClientTests {
+  private static final String SERVICE_POINT_URL
+    = "http://okapi:9130/service-points/2b8e7f3a";
+
+  private final InFlightRequests inFlightRequests = new InFlightRequests();
+  private final OkapiHttpClient okapiClient = mock(OkapiHttpClient.class);
+  private final CompletableFuture<Result<Response>> response = new CompletableFuture<>();
+
+  @Test
+  public void identicalRequestsInFlightShareASingleRequest() {
+    when(okapiClient.get(anyString(), anyParameters())).thenReturn(response);
+
+    final CompletableFuture<Result<Response>> first = client("diku")
+      .get(SERVICE_POINT_URL);
+    final CompletableFuture<Result<Response>> second = client("diku")
+      .get(SERVICE_POINT_URL);
+
+    response.complete(succeeded(new Response(200,
+      new JsonObject().put("id", "2b8e7f3a").encode(), "application/json")));
+
+    verify(okapiClient, times(1)).get(anyString(), anyParameters());
+
+    assertThat(second.join().value().getJson().getString("id"), is("2b8e7f3a"));
+    assertThat(second.join().value().getJson(),
+      not(sameInstance(first.join().value().getJson())));
+
+    assertThat(inFlightRequests.getRequests(), is(2L));
+    assertThat(inFlightRequests.getCoalescedRequests(), is(1L));
+    assertThat(inFlightRequests.getCoalescingRatio(), is(0.5));
+  }
+
+  @Test
+  public void requestIsSentAgainOnceResponseHasBeenReceived() {
+    when(okapiClient.get(anyString(), anyParameters()))
+      .thenReturn(CompletableFuture.completedFuture(
+        succeeded(new Response(200, "{}", "application/json"))));
+
+    client("diku").get(SERVICE_POINT_URL).join();
+    client("diku").get(SERVICE_POINT_URL).join();
+
+    verify(okapiClient, times(2)).get(anyString(), anyParameters());
+  }
+
+  @Test
+  public void requestsWithDifferentQueriesAreNotShared() {
+    when(okapiClient.get(anyString(), anyParameters())).thenReturn(response);
+
+    client("diku").get(SERVICE_POINT_URL, namedParameter("limit", "1"));
+    client("diku").get(SERVICE_POINT_URL, namedParameter("limit", "2"));
+
+    verify(okapiClient, times(2)).get(anyString(), anyParameters());
+  }
+
+  @Test
+  public void requestsForDifferentTenantsAreNotShared() {
+    when(okapiClient.get(anyString(), anyParameters())).thenReturn(response);
+
+    client("diku").get(SERVICE_POINT_URL);
+    client("other-tenant").get(SERVICE_POINT_URL);
+
+    verify(okapiClient, times(2)).get(anyString(), anyParameters());
+  }
+
+  @Test
+  public void conditionalRequestsAreNotShared() {
+    when(okapiClient.get(anyString(), anyMap(), anyParameters()))
+      .thenReturn(response);
+
+    client("diku").get(SERVICE_POINT_URL,
+      Collections.singletonMap("If-None-Match", "\"1\""));
+    client("diku").get(SERVICE_POINT_URL,
+      Collections.singletonMap("If-None-Match", "\"1\""));
+
+    assertThat(inFlightRequests.getRequests(), is(0L));
+  }
+
+  private static QueryParameter anyParameters() {
+    return any();
+  }
+
+  private OkapiHttpClient client(String tenantId) {
+    return new CoalescingOkapiHttpClient(okapiClient, inFlightRequests,
+      tenantId, "token");
+  }
+}
@@ -0,0 +1,63 @@
+package org.folio.circulation.support.http.client;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+
+import org.junit.Test;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.http.HttpClient;
+import io.vertx.ext.web.client.WebClient;
+
+public class OkapiClientRegistryTest {
+  private final OkapiClientRegistry registry = new OkapiClientRegistry();
+
+  @Test
+  public void resourceUrlIsBasedUponOkapiLocation() throws Exception {
+    final URL url = registry.okapiBasedUrl("http://okapi:9130/some/path",
+      "/loan-storage/loans");
+
+    assertThat(url.toString(), is("http://okapi:9130/loan-storage/loans"));
+  }
+
+  @Test
+  public void resourceUrlIsOnlyCreatedOncePerOkapiLocation() throws Exception {
+    final URL first = registry.okapiBasedUrl("http://okapi:9130", "/loan-storage/loans");
+    final URL second = registry.okapiBasedUrl("http://okapi:9130", "/loan-storage/loans");
+    final URL otherOkapi = registry.okapiBasedUrl("http://other-okapi:9130",
+      "/loan-storage/loans");
+
+    assertThat(second, sameInstance(first));
+    assertThat(otherOkapi, not(sameInstance(first)));
+  }
+
+  @Test(expected = MalformedURLException.class)
+  public void invalidOkapiLocationIsRejected() throws Exception {
+    registry.okapiBasedUrl("not a url", "/loan-storage/loans");
+  }
+
+  @Test
+  public void webClientIsOnlyCreatedOncePerHttpClient() {
+    final Vertx vertx = Vertx.vertx();
+
+    try {
+      final HttpClient httpClient = vertx.createHttpClient();
+
+      final WebClient webClient = registry.webClientFor(httpClient);
+
+      assertThat(registry.webClientFor(httpClient), sameInstance(webClient));
+
+      registry.release(httpClient);
+
+      assertThat(registry.webClientFor(httpClient), not(sameInstance(webClient)));
+    }
+    finally {
+      vertx.close();
+    }
+  }
+}
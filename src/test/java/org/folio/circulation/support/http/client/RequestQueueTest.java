@@ -0,0 +1,165 @@
+package org.folio.circulation.support.http.client;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasEntry;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+import io.vertx.core.http.HttpClientOptions;
+import io.vertx.core.http.HttpVersion;
+
+public class RequestQueueTest {
+  private final AtomicLong now = new AtomicLong();
+  private final RequestQueue queue = new RequestQueue(2, 1, now::get);
+  private final List<String> sent = new ArrayList<>();
+  private final List<Long> timeouts = new ArrayList<>();
+  private final List<CompletableFuture<String>> inFlight = new ArrayList<>();
+
+  @Test
+  public void requestsBeyondCapacityWaitForAConnection() {
+    submit("http://okapi:9130/loan-storage/loans");
+    submit("http://okapi:9130/item-storage/items");
+    final CompletableFuture<String> third = submit("http://okapi:9130/users");
+
+    assertThat(sent, contains("http://okapi:9130/loan-storage/loans",
+      "http://okapi:9130/item-storage/items"));
+
+    now.addAndGet(MILLISECONDS.toNanos(7));
+    inFlight.get(0).complete("loans");
+
+    assertThat(sent.size(), is(3));
+
+    inFlight.get(2).complete("users");
+
+    assertThat(third.join(), is("users"));
+
+    final HttpClientMetrics metrics = queue.getMetrics().get("okapi:9130");
+
+    assertThat(metrics.getRequests(), is(3L));
+    assertThat(metrics.getQueuedRequests(), is(1L));
+    assertThat(metrics.getInFlight(), is(1));
+    assertThat(metrics.getMaximumInFlight(), is(2));
+    assertThat(metrics.getWaiting(), is(0));
+    assertThat(metrics.getQueueWaitHistogram(), hasEntry("<=0ms", 2L));
+    assertThat(metrics.getQueueWaitHistogram(), hasEntry("<=10ms", 1L));
+  }
+
+  @Test
+  public void destinationsHaveTheirOwnConnections() {
+    submit("http://okapi:9130/loan-storage/loans");
+    submit("http://okapi:9130/item-storage/items");
+    submit("https://other-okapi/users?query=active");
+
+    assertThat(sent.size(), is(3));
+    assertThat(queue.getMetrics().get("other-okapi").getRequests(), is(1L));
+  }
+
+  @Test
+  public void failedRequestMakesConnectionAvailable() {
+    submit("http://okapi:9130/loan-storage/loans");
+    submit("http://okapi:9130/item-storage/items");
+    submit("http://okapi:9130/users");
+
+    inFlight.get(0).completeExceptionally(new RuntimeException("connection reset"));
+
+    assertThat(sent.size(), is(3));
+  }
+
+  @Test
+  public void requestFailsWhenTooManyAreWaiting() {
+    submit("http://okapi:9130/loan-storage/loans");
+    submit("http://okapi:9130/item-storage/items");
+    submit("http://okapi:9130/users");
+
+    final CompletableFuture<String> rejected = submit("http://okapi:9130/users");
+
+    assertThat(rejected.isCompletedExceptionally(), is(true));
+    assertThat(failureOf(rejected), instanceOf(RequestQueueFullException.class));
+    assertThat(queue.getMetrics().get("okapi:9130").getRejectedRequests(), is(1L));
+  }
+
+  @Test
+  public void waitingCountsTowardsTheTimeout() {
+    submit("http://okapi:9130/loan-storage/loans");
+    submit("http://okapi:9130/item-storage/items");
+    submit("http://okapi:9130/users");
+
+    now.addAndGet(MILLISECONDS.toNanos(400));
+    inFlight.get(0).complete("loans");
+
+    assertThat(timeouts, contains(1000L, 1000L, 600L));
+  }
+
+  @Test
+  public void requestIsNotSentWhenTimeoutPassesWhilstWaiting() {
+    submit("http://okapi:9130/loan-storage/loans");
+    submit("http://okapi:9130/item-storage/items");
+    final CompletableFuture<String> expired = submit("http://okapi:9130/users");
+
+    now.addAndGet(MILLISECONDS.toNanos(1000));
+    inFlight.get(0).complete("loans");
+
+    assertThat(sent.size(), is(2));
+    assertThat(failureOf(expired), instanceOf(TimeoutException.class));
+
+    final HttpClientMetrics metrics = queue.getMetrics().get("okapi:9130");
+
+    assertThat(metrics.getExpiredRequests(), is(1L));
+    assertThat(metrics.getWaiting(), is(0));
+    assertThat(metrics.getInFlight(), is(1));
+
+    // the connection is available to the next request
+    submit("http://okapi:9130/users");
+
+    assertThat(sent.size(), is(3));
+  }
+
+  @Test
+  public void capacityIsTheConnectionsThatCanBeUsedAtTheSameTime() {
+    assertThat(RequestQueue.capacityOf(new HttpClientOptions()
+      .setMaxPoolSize(100)), is(100));
+
+    assertThat(RequestQueue.capacityOf(new HttpClientOptions()
+      .setMaxPoolSize(10).setPipelining(true).setPipeliningLimit(5)), is(50));
+
+    assertThat(RequestQueue.capacityOf(new HttpClientOptions()
+      .setProtocolVersion(HttpVersion.HTTP_2).setMaxPoolSize(10)
+      .setHttp2MaxPoolSize(2).setHttp2MultiplexingLimit(100)), is(200));
+
+    assertThat(RequestQueue.capacityOf(new HttpClientOptions()
+      .setProtocolVersion(HttpVersion.HTTP_2)), is(0));
+  }
+
+  private CompletableFuture<String> submit(String url) {
+    return queue.submit(url, 1000, timeout -> {
+      final CompletableFuture<String> response = new CompletableFuture<>();
+
+      sent.add(url);
+      timeouts.add(timeout);
+      inFlight.add(response);
+
+      return response;
+    });
+  }
+
+  private static Throwable failureOf(CompletableFuture<String> response) {
+    try {
+      response.join();
+      return null;
+    }
+    catch (CompletionException e) {
+      return e.getCause();
+    }
+  }
+}
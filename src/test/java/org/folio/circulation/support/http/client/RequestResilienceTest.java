@@ -0,0 +1,267 @@
+package org.folio.circulation.support.http.client;
+
+import static org.folio.circulation.support.http.client.RequestResilience.collectionOf;
+import static org.folio.circulation.support.http.client.RequestResilience.collectionRootOf;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.ext.web.client.HttpResponse;
+
+public class RequestResilienceTest {
+  private static final String ITEM_URL
+    = "http://okapi:9130/item-storage/items/5b2b2f6e-0b2c-4b8f-9b6e-3f4e0f0a2c1d";
+  private static final String ITEMS_URL = "http://okapi:9130/item-storage/items";
+  private static final String TENANT_ID = "test_tenant";
+  private static final long TIMEOUT = 1000;
+
+  private final AtomicLong now = new AtomicLong(1_000_000);
+  private final RequestResilience resilience = new RequestResilience(now::get);
+  private final List<Runnable> scheduled = new ArrayList<>();
+  private final List<CompletableFuture<AsyncResult<HttpResponse<Buffer>>>> sent
+    = new ArrayList<>();
+  private final List<Long> attemptTimeouts = new ArrayList<>();
+
+  public RequestResilienceTest() {
+    resilience.setScheduler((delay, task) -> scheduled.add(task));
+    resilience.setRetries(2, Duration.ofMillis(10), Duration.ofMillis(100));
+    resilience.setCircuitBreaker(3, Duration.ofSeconds(30));
+  }
+
+  @Test
+  public void unavailableGetIsRetried() {
+    final CompletableFuture<AsyncResult<HttpResponse<Buffer>>> response
+      = execute(HttpMethod.GET);
+
+    sent.get(0).complete(respond(503));
+    runScheduled();
+    sent.get(1).complete(respond(200));
+
+    assertThat(response.join().result().statusCode(), is(200));
+    assertThat(metrics().getRetries(), is(1L));
+    assertThat(metrics().getRequests(), is(1L));
+  }
+
+  @Test
+  public void retriesAreLimited() {
+    final CompletableFuture<AsyncResult<HttpResponse<Buffer>>> response
+      = execute(HttpMethod.PUT);
+
+    for (int attempt = 0; attempt < 3; attempt++) {
+      sent.get(attempt).complete(Future.failedFuture("Connection refused"));
+      runScheduled();
+    }
+
+    assertThat(response.join().failed(), is(true));
+    assertThat(sent.size(), is(3));
+    assertThat(metrics().getRetries(), is(2L));
+  }
+
+  @Test
+  public void retriesShareTheTimeoutOfTheRequest() {
+    final CompletableFuture<AsyncResult<HttpResponse<Buffer>>> response
+      = execute(HttpMethod.GET);
+
+    now.addAndGet(600);
+    sent.get(0).complete(respond(503));
+    runScheduled();
+
+    assertThat(attemptTimeouts.get(1), is(400L));
+
+    now.addAndGet(400);
+    sent.get(1).complete(respond(503));
+    runScheduled();
+
+    assertThat(response.join().result().statusCode(), is(503));
+    assertThat(sent.size(), is(2));
+  }
+
+  @Test
+  public void putOfARecordIsRetried() {
+    execute(HttpMethod.PUT, TENANT_ID, ITEM_URL);
+
+    sent.get(0).complete(respond(503));
+    runScheduled();
+
+    assertThat(sent.size(), is(2));
+  }
+
+  @Test
+  public void putToACollectionIsNotRetried() {
+    final CompletableFuture<AsyncResult<HttpResponse<Buffer>>> response
+      = execute(HttpMethod.PUT, TENANT_ID, ITEMS_URL + "?query=status=Available");
+
+    sent.get(0).complete(respond(503));
+    runScheduled();
+
+    assertThat(response.join().result().statusCode(), is(503));
+    assertThat(sent.size(), is(1));
+  }
+
+  @Test
+  public void postIsNotRetried() {
+    final CompletableFuture<AsyncResult<HttpResponse<Buffer>>> response
+      = execute(HttpMethod.POST);
+
+    sent.get(0).complete(respond(503));
+
+    assertThat(response.join().result().statusCode(), is(503));
+    assertThat(sent.size(), is(1));
+  }
+
+  @Test
+  public void timedOutGetIsNotRetried() {
+    final CompletableFuture<AsyncResult<HttpResponse<Buffer>>> response
+      = execute(HttpMethod.GET);
+
+    sent.get(0).complete(Future.failedFuture(new TimeoutException()));
+
+    assertThat(response.join().failed(), is(true));
+    assertThat(sent.size(), is(1));
+  }
+
+  @Test
+  public void circuitOpensAfterFailuresInARowAndFailsFast() {
+    resilience.setRetries(0, Duration.ZERO, Duration.ZERO);
+
+    for (int request = 0; request < 3; request++) {
+      execute(HttpMethod.GET);
+      sent.get(request).complete(respond(504));
+    }
+
+    final CompletableFuture<AsyncResult<HttpResponse<Buffer>>> rejected
+      = execute(HttpMethod.GET);
+
+    assertThat(rejected.join().failed(), is(true));
+    assertThat(sent.size(), is(3));
+    assertThat(metrics().isCircuitOpen(), is(true));
+    assertThat(metrics().getRejectedRequests(), is(1L));
+
+    now.addAndGet(30_000);
+
+    final CompletableFuture<AsyncResult<HttpResponse<Buffer>>> trial
+      = execute(HttpMethod.GET);
+
+    // only a single request is let through while trying the collection again
+    assertThat(execute(HttpMethod.GET).join().failed(), is(true));
+
+    sent.get(3).complete(respond(200));
+
+    assertThat(trial.join().result().statusCode(), is(200));
+    assertThat(metrics().isCircuitOpen(), is(false));
+    assertThat(metrics().getCircuitOpenings(), is(1L));
+  }
+
+  @Test
+  public void openCircuitOnlyAffectsTheSameTenantAndHost() {
+    resilience.setRetries(0, Duration.ZERO, Duration.ZERO);
+
+    for (int request = 0; request < 3; request++) {
+      execute(HttpMethod.GET);
+      sent.get(request).complete(respond(504));
+    }
+
+    assertThat(execute(HttpMethod.GET).join().failed(), is(true));
+    assertThat(sent.size(), is(3));
+
+    execute(HttpMethod.GET, "other_tenant", ITEM_URL);
+    execute(HttpMethod.GET, TENANT_ID,
+      "http://other-okapi:9130/item-storage/items/5b2b2f6e-0b2c-4b8f-9b6e-3f4e0f0a2c1d");
+
+    assertThat(sent.size(), is(5));
+  }
+
+  @Test
+  public void slowGetIsHedgedAndFirstResponseIsUsed() {
+    resilience.setHedging(true, Duration.ofMillis(5));
+
+    for (int request = 0; request < 20; request++) {
+      execute(HttpMethod.GET);
+      now.addAndGet(10);
+      sent.get(request).complete(respond(200));
+    }
+
+    scheduled.clear();
+
+    final CompletableFuture<AsyncResult<HttpResponse<Buffer>>> response
+      = execute(HttpMethod.GET);
+
+    runScheduled();
+
+    assertThat(sent.size(), is(22));
+
+    sent.get(21).complete(respond(200));
+
+    assertThat(response.isDone(), is(true));
+    assertThat(metrics().getHedgedRequests(), is(1L));
+    assertThat(metrics().getHedgesWon(), is(1L));
+  }
+
+  @Test
+  public void idAtTheEndOfThePathIsIgnored() {
+    assertThat(collectionRootOf(ITEM_URL), is(ITEMS_URL));
+    assertThat(collectionRootOf(ITEMS_URL + "?limit=10"), is(ITEMS_URL));
+    assertThat(collectionRootOf("http://okapi:9130/circulation/rules"),
+      is("http://okapi:9130/circulation/rules"));
+  }
+
+  @Test
+  public void collectionIncludesTheTenant() {
+    assertThat(collectionOf(TENANT_ID, ITEM_URL), is(ITEMS_URL + " for test_tenant"));
+    assertThat(collectionOf(null, ITEM_URL), is(ITEMS_URL));
+  }
+
+  private CompletableFuture<AsyncResult<HttpResponse<Buffer>>> execute(
+    HttpMethod method) {
+
+    return execute(method, TENANT_ID, ITEM_URL);
+  }
+
+  private CompletableFuture<AsyncResult<HttpResponse<Buffer>>> execute(
+    HttpMethod method, String tenantId, String url) {
+
+    return resilience.execute(method, tenantId, url, TIMEOUT, timeout -> {
+      final CompletableFuture<AsyncResult<HttpResponse<Buffer>>> response
+        = new CompletableFuture<>();
+
+      attemptTimeouts.add(timeout);
+      sent.add(response);
+
+      return response;
+    });
+  }
+
+  private void runScheduled() {
+    final List<Runnable> tasks = new ArrayList<>(scheduled);
+
+    scheduled.clear();
+    tasks.forEach(Runnable::run);
+  }
+
+  private ResilienceMetrics metrics() {
+    return resilience.getMetrics().get(collectionOf(TENANT_ID, ITEM_URL));
+  }
+
+  @SuppressWarnings("unchecked")
+  private static AsyncResult<HttpResponse<Buffer>> respond(int statusCode) {
+    final HttpResponse<Buffer> response = mock(HttpResponse.class);
+
+    when(response.statusCode()).thenReturn(statusCode);
+
+    return Future.succeededFuture(response);
+  }
+}
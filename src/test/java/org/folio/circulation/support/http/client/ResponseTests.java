@@ -0,0 +1,71 @@
+package org.folio.circulation.support.http.client;
+
+import static org.folio.circulation.support.http.client.Response.responseFrom;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.junit.Test;
+
+import io.vertx.core.MultiMap;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.client.HttpResponse;
+
+public class ResponseTests {
+  @Test
+  public void jsonIsDecodedFromTheBytesReceived() {
+    final JsonObject loan = new JsonObject().put("id", "1").put("userId", "é");
+
+    final Response response = received(Buffer.buffer(loan.encode()));
+
+    assertThat(response.hasBody(), is(true));
+    assertThat(response.getJson(), is(loan));
+    assertThat(response.getBody(), is(loan.encode()));
+  }
+
+  @Test
+  public void jsonIsOnlyDecodedOnce() {
+    final Response response = received(Buffer.buffer("{\"id\": \"1\"}"));
+
+    assertThat(response.getJson(), sameInstance(response.getJson()));
+  }
+
+  @Test
+  public void blankBodyIsAnEmptyObject() {
+    final Response response = received(Buffer.buffer(" \n"));
+
+    assertThat(response.hasBody(), is(false));
+    assertThat(response.getJson(), is(new JsonObject()));
+  }
+
+  @Test
+  public void missingBodyIsEmpty() {
+    final Response response = received(null);
+
+    assertThat(response.hasBody(), is(false));
+    assertThat(response.getBody(), is(""));
+    assertThat(response.getBodyAsBuffer().length(), is(0));
+  }
+
+  @Test
+  public void bodyCreatedFromAStringCanBeForwardedAsBytes() {
+    final Response response = new Response(200, "päivää", "text/plain");
+
+    assertThat(response.getBodyAsBuffer().toString("UTF-8"), is("päivää"));
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Response received(Buffer body) {
+    final HttpResponse<Buffer> response = mock(HttpResponse.class);
+
+    when(response.statusCode()).thenReturn(200);
+    when(response.headers()).thenReturn(MultiMap.caseInsensitiveMultiMap()
+      .add("Content-Type", "application/json"));
+    when(response.body()).thenReturn(body);
+
+    return responseFrom("http://okapi:9130/loan-storage/loans/1", response);
+  }
+}
@@ -13,6 +13,7 @@ import static com.github.tomakehurst.wiremock.client.WireMock.post;
 import static com.github.tomakehurst.wiremock.client.WireMock.put;
 import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
 import static java.time.temporal.ChronoUnit.MILLIS;
+import static java.util.Collections.singletonMap;
 import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.folio.HttpStatus.HTTP_CREATED;
 import static org.folio.HttpStatus.HTTP_NO_CONTENT;
@@ -144,6 +145,24 @@ public class VertxWebClientOkapiHttpClientTests {
     assertThat(response.getContentType(), is("application/json"));
   }
 
+  @Test
+  public void canGetWithAdditionalHeaders()
+    throws InterruptedException, ExecutionException, TimeoutException {
+
+    fakeWebServer.stubFor(matchingFolioHeaders(get(urlPathEqualTo("/record")))
+      .withHeader("If-None-Match", equalTo("\"1\""))
+      .willReturn(aResponse().withStatus(304)));
+
+    OkapiHttpClient client = createClient();
+
+    CompletableFuture<Result<Response>> getCompleted = client.get(
+      fakeWebServer.url("/record"), singletonMap("If-None-Match", "\"1\""));
+
+    final Response response = getCompleted.get(2, SECONDS).value();
+
+    assertThat(response.getStatusCode(), is(304));
+  }
+
   @Test
   public void canPutWithJson()
     throws InterruptedException, ExecutionException, TimeoutException {
@@ -0,0 +1,196 @@
+package org.folio.circulation.support.http.server;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.startsWith;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.CompletableFuture;
+
+import org.folio.circulation.support.Result;
+import org.folio.circulation.support.ServerErrorFailure;
+import org.junit.Test;
+
+import io.vertx.core.Handler;
+import io.vertx.core.http.HttpServerResponse;
+import io.vertx.core.json.JsonObject;
+
+public class ChunkedJsonArrayResponseTest {
+  private final FakeResponse fake = new FakeResponse();
+  private final ChunkedJsonArrayResponse response = new ChunkedJsonArrayResponse(
+    fake.response, "items");
+
+  @Test
+  public void recordsAreWrittenAsArrayWithTotalRecords() {
+    response.write(asList(item("1"), item("2")));
+    response.write(singletonList(item("3")));
+    response.end();
+
+    final JsonObject body = new JsonObject(fake.body.toString());
+
+    assertThat(fake.statusCode, is(200));
+    assertThat(fake.chunked, is(true));
+    assertThat(body.getJsonArray("items").size(), is(3));
+    assertThat(body.getJsonArray("items").getJsonObject(2).getString("id"), is("3"));
+    assertThat(body.getInteger("totalRecords"), is(3));
+  }
+
+  @Test
+  public void responseWithoutRecordsHasEmptyArray() {
+    response.write(emptyList());
+    response.end();
+
+    final JsonObject body = new JsonObject(fake.body.toString());
+
+    assertThat(body.getJsonArray("items").isEmpty(), is(true));
+    assertThat(body.getInteger("totalRecords"), is(0));
+  }
+
+  @Test
+  public void failureBeforeFirstWriteIsRespondedToWithError() {
+    response.fail(new ServerErrorFailure("storage unavailable"));
+
+    assertThat(fake.statusCode, is(500));
+    assertThat(fake.body.toString(), is("storage unavailable"));
+    assertThat(fake.ended, is(true));
+    assertThat(fake.closed, is(false));
+  }
+
+  @Test
+  public void failureAfterFirstWriteClosesConnection() {
+    response.write(singletonList(item("1")));
+
+    response.fail(new ServerErrorFailure("storage unavailable"));
+
+    assertThat(fake.statusCode, is(200));
+    assertThat(fake.body.toString(), startsWith("{\"items\":[{\"id\":\"1\"}"));
+    assertThat(fake.ended, is(false));
+    assertThat(fake.closed, is(true));
+  }
+
+  @Test
+  public void writeWaitsUntilResponseIsDrained() throws Exception {
+    fake.writeQueueFull = true;
+
+    final CompletableFuture<Result<Void>> written
+      = response.write(singletonList(item("1")));
+
+    assertThat(written.isDone(), is(false));
+
+    fake.writeQueueFull = false;
+    fake.drainHandler.handle(null);
+
+    assertThat(written.get().succeeded(), is(true));
+  }
+
+  @Test
+  public void writeWaitingForDrainFailsWhenConnectionIsClosed() throws Exception {
+    fake.writeQueueFull = true;
+
+    final CompletableFuture<Result<Void>> written
+      = response.write(singletonList(item("1")));
+
+    fake.closed = true;
+    fake.closeHandler.handle(null);
+
+    assertThat(written.isDone(), is(true));
+    assertThat(written.get().failed(), is(true));
+  }
+
+  @Test
+  public void writeWaitingForDrainFailsWhenWritingFails() throws Exception {
+    fake.writeQueueFull = true;
+
+    final CompletableFuture<Result<Void>> written
+      = response.write(singletonList(item("1")));
+
+    fake.exceptionHandler.handle(new IllegalStateException("connection reset"));
+
+    assertThat(written.isDone(), is(true));
+    assertThat(written.get().failed(), is(true));
+  }
+
+  @Test
+  public void writeFailsOnceConnectionIsClosed() throws Exception {
+    response.write(singletonList(item("1")));
+
+    fake.closed = true;
+
+    assertThat(response.write(singletonList(item("2"))).get().failed(), is(true));
+  }
+
+  private static JsonObject item(String id) {
+    return new JsonObject().put("id", id);
+  }
+
+  /**
+   * Records what is written to a response, the Vert.x response is an
+   * interface that cannot be mocked on all JDKs
+   */
+  private static class FakeResponse implements InvocationHandler {
+    private final HttpServerResponse response = (HttpServerResponse)
+      Proxy.newProxyInstance(HttpServerResponse.class.getClassLoader(),
+        new Class<?>[] { HttpServerResponse.class }, this);
+
+    private final StringBuilder body = new StringBuilder();
+    private int statusCode = 200;
+    private boolean chunked;
+    private boolean ended;
+    private boolean closed;
+    private boolean writeQueueFull;
+    private Handler<Void> drainHandler;
+    private Handler<Void> closeHandler;
+    private Handler<Throwable> exceptionHandler;
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Object invoke(Object proxy, Method method, Object[] arguments) {
+      switch (method.getName()) {
+        case "setStatusCode":
+          statusCode = (int) arguments[0];
+          break;
+        case "setChunked":
+          chunked = (boolean) arguments[0];
+          break;
+        case "putHeader":
+          break;
+        case "write":
+          body.append(arguments[0].toString());
+          break;
+        case "end":
+          if (arguments != null) {
+            body.append(arguments[0].toString());
+          }
+          ended = true;
+          break;
+        case "close":
+          closed = true;
+          break;
+        case "closed":
+          return closed;
+        case "ended":
+          return ended;
+        case "writeQueueFull":
+          return writeQueueFull;
+        case "drainHandler":
+          drainHandler = (Handler<Void>) arguments[0];
+          break;
+        case "closeHandler":
+          closeHandler = (Handler<Void>) arguments[0];
+          break;
+        case "exceptionHandler":
+          exceptionHandler = (Handler<Throwable>) arguments[0];
+          break;
+        default:
+          throw new UnsupportedOperationException(method.getName());
+      }
+
+      return method.getReturnType().isInstance(proxy) ? proxy : null;
+    }
+  }
+}